@@ -0,0 +1,165 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.benchmark;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the asynchronous request execution path of {@code InternalHttpAsyncClient}
+ * over HTTP/1.1 (with and without connection re-use) and HTTP/2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AsyncClientBenchmark {
+
+    /**
+     * Protocol and connection management combination under test.
+     */
+    public enum Protocol {
+
+        /**
+         * HTTP/1.1 with persistent connections.
+         */
+        HTTP_1_1,
+
+        /**
+         * HTTP/1.1 with a new connection for every request.
+         */
+        HTTP_1_1_NEW_CONNECTION,
+
+        /**
+         * HTTP/2 (prior knowledge on plain connections, ALPN on TLS connections).
+         */
+        HTTP_2
+
+    }
+
+    @Param({"http", "https"})
+    public String scheme;
+
+    @Param({"HTTP_1_1", "HTTP_1_1_NEW_CONNECTION", "HTTP_2"})
+    public Protocol protocol;
+
+    @Param({"1024"})
+    public int contentLength;
+
+    @Param({"50"})
+    public int maxConnPerRoute;
+
+    private BenchmarkServer server;
+    private CloseableHttpAsyncClient client;
+    private HttpHost target;
+    private byte[] requestBody;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new BenchmarkServer(contentLength);
+        server.start();
+        target = server.getTarget(URIScheme.HTTPS.same(scheme) ? URIScheme.HTTPS : URIScheme.HTTP, protocol == Protocol.HTTP_2);
+        requestBody = new byte[contentLength];
+        client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setTlsStrategy(ClientTlsStrategyBuilder.create()
+                                .setSslContext(BenchmarkServer.createClientSSLContext())
+                                .buildAsync())
+                        .setDefaultTlsConfig(TlsConfig.custom()
+                                .setVersionPolicy(protocol == Protocol.HTTP_2
+                                        ? HttpVersionPolicy.FORCE_HTTP_2
+                                        : HttpVersionPolicy.FORCE_HTTP_1)
+                                .build())
+                        .setMaxConnTotal(maxConnPerRoute)
+                        .setMaxConnPerRoute(maxConnPerRoute)
+                        .build())
+                .disableAutomaticRetries()
+                .build();
+        client.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private int execute(final SimpleRequestBuilder requestBuilder) throws ExecutionException, InterruptedException {
+        if (protocol == Protocol.HTTP_1_1_NEW_CONNECTION) {
+            requestBuilder.setHeader(HttpHeaders.CONNECTION, HeaderElements.CLOSE);
+        }
+        final SimpleHttpRequest request = requestBuilder.setHttpHost(target).setPath("/").build();
+        final SimpleHttpResponse response = client.execute(request, null).get();
+        return response.getCode();
+    }
+
+    @Benchmark
+    public int get() throws ExecutionException, InterruptedException {
+        return execute(SimpleRequestBuilder.get());
+    }
+
+    @Benchmark
+    public int post() throws ExecutionException, InterruptedException {
+        return execute(SimpleRequestBuilder.post().setBody(requestBody, ContentType.APPLICATION_OCTET_STREAM));
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.http2.ssl.H2ServerTlsStrategy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * In-process loopback server used as the origin for all benchmarks.
+ * <p>
+ * The server listens on three ephemeral loopback ports: a plain HTTP/1.1 port, a TLS port
+ * negotiating HTTP/1.1 or HTTP/2 by ALPN and a plain HTTP/2 port expecting prior knowledge.
+ * {@code GET} requests receive a body of the configured length, {@code POST}
+ * request bodies are discarded and acknowledged with the same body.
+ * </p>
+ */
+public final class BenchmarkServer implements Closeable {
+
+    private static final char[] KEYSTORE_PASSWORD = "nopassword".toCharArray();
+
+    private final HttpAsyncServer server;
+    private final HttpAsyncServer h2cServer;
+    private final byte[] content;
+
+    private volatile int plainPort;
+    private volatile int tlsPort;
+    private volatile int h2cPort;
+
+    public BenchmarkServer(final int contentLength) throws Exception {
+        Args.notNegative(contentLength, "Content length");
+        this.content = new byte[contentLength];
+        Arrays.fill(this.content, (byte) 'a');
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                .setTcpNoDelay(true)
+                .build();
+        this.server = H2ServerBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .setTlsStrategy(new H2ServerTlsStrategy(createServerSSLContext()))
+                .register("*", new ContentHandler())
+                .create();
+        this.h2cServer = H2ServerBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("*", new ContentHandler())
+                .create();
+    }
+
+    static SSLContext createServerSSLContext() throws Exception {
+        return SSLContexts.custom()
+                .loadTrustMaterial(BenchmarkServer.class.getResource("/test.keystore"), KEYSTORE_PASSWORD)
+                .loadKeyMaterial(BenchmarkServer.class.getResource("/test.keystore"), KEYSTORE_PASSWORD, KEYSTORE_PASSWORD)
+                .build();
+    }
+
+    static SSLContext createClientSSLContext() throws Exception {
+        return SSLContexts.custom()
+                .loadTrustMaterial(BenchmarkServer.class.getResource("/test.keystore"), KEYSTORE_PASSWORD)
+                .build();
+    }
+
+    public void start() throws ExecutionException, InterruptedException {
+        server.start();
+        final ListenerEndpoint plain = server.listen(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), URIScheme.HTTP).get();
+        final ListenerEndpoint tls = server.listen(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), URIScheme.HTTPS).get();
+        plainPort = ((InetSocketAddress) plain.getAddress()).getPort();
+        tlsPort = ((InetSocketAddress) tls.getAddress()).getPort();
+        h2cServer.start();
+        final ListenerEndpoint h2c = h2cServer.listen(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), URIScheme.HTTP).get();
+        h2cPort = ((InetSocketAddress) h2c.getAddress()).getPort();
+    }
+
+    /**
+     * Returns the target host of the listener for the given scheme.
+     *
+     * @param scheme the URI scheme.
+     * @param h2PriorKnowledge if {@code true} plain connections are directed to the listener
+     *                         expecting HTTP/2 with prior knowledge. Ignored for TLS.
+     */
+    public HttpHost getTarget(final URIScheme scheme, final boolean h2PriorKnowledge) {
+        if (scheme == URIScheme.HTTPS) {
+            return new HttpHost(URIScheme.HTTPS.id, "localhost", tlsPort);
+        }
+        return new HttpHost(URIScheme.HTTP.id, "localhost", h2PriorKnowledge ? h2cPort : plainPort);
+    }
+
+    public int getContentLength() {
+        return content.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        shutdown(server);
+        shutdown(h2cServer);
+    }
+
+    private static void shutdown(final HttpAsyncServer server) {
+        server.initiateShutdown();
+        try {
+            server.awaitShutdown(TimeValue.ofSeconds(5));
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    final class ContentHandler implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final HttpContext context) throws HttpException {
+            return new BasicRequestConsumer<>(DiscardingEntityConsumer::new);
+        }
+
+        @Override
+        public void handle(
+                final Message<HttpRequest, Void> message,
+                final ResponseTrigger responseTrigger,
+                final HttpContext context) throws HttpException, IOException {
+            final HttpRequest request = message.getHead();
+            final boolean supported = Method.GET.isSame(request.getMethod()) || Method.POST.isSame(request.getMethod());
+            responseTrigger.submitResponse(
+                    AsyncResponseBuilder.create(supported ? HttpStatus.SC_OK : HttpStatus.SC_METHOD_NOT_ALLOWED)
+                            .setEntity(AsyncEntityProducers.create(content, ContentType.APPLICATION_OCTET_STREAM))
+                            .build(),
+                    context);
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.benchmark;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.async.MinimalH2AsyncClient;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the HTTP/2 multiplexing request execution path of {@link MinimalH2AsyncClient}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class MinimalH2ClientBenchmark {
+
+    @Param({"http", "https"})
+    public String scheme;
+
+    @Param({"1024"})
+    public int contentLength;
+
+    private BenchmarkServer server;
+    private MinimalH2AsyncClient client;
+    private HttpHost target;
+    private byte[] requestBody;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new BenchmarkServer(contentLength);
+        server.start();
+        target = server.getTarget(URIScheme.HTTPS.same(scheme) ? URIScheme.HTTPS : URIScheme.HTTP, true);
+        requestBody = new byte[contentLength];
+        client = HttpAsyncClients.createHttp2Minimal(
+                H2Config.DEFAULT,
+                IOReactorConfig.DEFAULT,
+                ClientTlsStrategyBuilder.create()
+                        .setSslContext(BenchmarkServer.createClientSSLContext())
+                        .buildAsync());
+        client.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private int execute(final SimpleRequestBuilder requestBuilder) throws ExecutionException, InterruptedException {
+        final SimpleHttpRequest request = requestBuilder.setHttpHost(target).setPath("/").build();
+        final SimpleHttpResponse response = client.execute(request, null).get();
+        return response.getCode();
+    }
+
+    @Benchmark
+    public int get() throws ExecutionException, InterruptedException {
+        return execute(SimpleRequestBuilder.get());
+    }
+
+    @Benchmark
+    public int post() throws ExecutionException, InterruptedException {
+        return execute(SimpleRequestBuilder.post().setBody(requestBody, ContentType.APPLICATION_OCTET_STREAM));
+    }
+
+}
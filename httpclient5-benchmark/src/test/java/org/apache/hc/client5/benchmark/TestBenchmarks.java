@@ -0,0 +1,135 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.benchmark;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hc.client5.http.impl.VirtualThreadRuntime;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Smoke tests making sure every benchmark configuration can execute requests
+ * against the loopback server or otherwise produces the expected result.
+ */
+class TestBenchmarks {
+
+    @ParameterizedTest
+    @CsvSource({"http, true", "http, false", "https, true", "https, false"})
+    void testClassicClient(final String scheme, final boolean keepAlive) throws Exception {
+        final ClassicClientBenchmark benchmark = new ClassicClientBenchmark();
+        benchmark.scheme = scheme;
+        benchmark.keepAlive = keepAlive;
+        benchmark.contentLength = 128;
+        benchmark.maxConnPerRoute = 2;
+        benchmark.setup();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.get());
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.post());
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "http, HTTP_1_1", "http, HTTP_1_1_NEW_CONNECTION", "http, HTTP_2",
+            "https, HTTP_1_1", "https, HTTP_1_1_NEW_CONNECTION", "https, HTTP_2"})
+    void testAsyncClient(final String scheme, final AsyncClientBenchmark.Protocol protocol) throws Exception {
+        final AsyncClientBenchmark benchmark = new AsyncClientBenchmark();
+        benchmark.scheme = scheme;
+        benchmark.protocol = protocol;
+        benchmark.contentLength = 128;
+        benchmark.maxConnPerRoute = 2;
+        benchmark.setup();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.get());
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.post());
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"http", "https"})
+    void testMinimalH2Client(final String scheme) throws Exception {
+        final MinimalH2ClientBenchmark benchmark = new MinimalH2ClientBenchmark();
+        benchmark.scheme = scheme;
+        benchmark.contentLength = 128;
+        benchmark.setup();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.get());
+                Assertions.assertEquals(HttpStatus.SC_OK, benchmark.post());
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"virtual", "platform"})
+    void testVirtualThreadClassicClient(final String threads) throws Exception {
+        Assumptions.assumeTrue(!"virtual".equals(threads) || VirtualThreadRuntime.available(),
+                "Virtual threads not supported");
+        final VirtualThreadClassicClientBenchmark benchmark = new VirtualThreadClassicClientBenchmark();
+        benchmark.threads = threads;
+        benchmark.concurrency = 50;
+        benchmark.maxConnPerRoute = 5;
+        benchmark.contentLength = 128;
+        benchmark.setup();
+        try {
+            Assertions.assertEquals(50, benchmark.burst());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"64, false", "4096, true", "1048576, false"})
+    void testWebSocketMasking(final int size, final boolean direct) {
+        final WebSocketMaskingBenchmark benchmark = new WebSocketMaskingBenchmark();
+        benchmark.size = size;
+        benchmark.direct = direct;
+        benchmark.setup();
+        final ByteBuffer expected = benchmark.maskIntWide();
+        expected.flip();
+        final ByteBuffer copy = ByteBuffer.allocate(expected.remaining());
+        copy.put(expected).flip();
+        final ByteBuffer actual = benchmark.maskLongWide();
+        actual.flip();
+        Assertions.assertEquals(copy, actual);
+    }
+
+}
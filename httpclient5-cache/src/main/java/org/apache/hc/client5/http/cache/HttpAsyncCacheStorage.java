@@ -26,9 +26,14 @@
  */
 package org.apache.hc.client5.http.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.client5.http.impl.Operations;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.concurrent.Cancellable;
@@ -97,4 +102,59 @@ Cancellable updateEntry(
      */
     Cancellable getEntries(Collection<String> keys, FutureCallback<Map<String, HttpCacheEntry>> callback);
 
+    /**
+     * Removes cache entries stored under the given keys. Some implementations
+     * may use a single bulk operation or pipeline the individual removals.
+     * <p>
+     * The default implementation issues all removals at once without waiting
+     * for individual results and completes once all of them have completed.
+     * </p>
+     *
+     * @param keys cache keys
+     * @param callback result callback
+     *
+     * @since 5.7
+     */
+    default Cancellable removeEntries(Collection<String> keys, FutureCallback<Boolean> callback) {
+        if (keys.isEmpty()) {
+            callback.completed(Boolean.TRUE);
+            return Operations.nonCancellable();
+        }
+        final List<Cancellable> operations = new ArrayList<>(keys.size());
+        final AtomicInteger remaining = new AtomicInteger(keys.size());
+        final AtomicBoolean done = new AtomicBoolean(false);
+        for (final String key : keys) {
+            operations.add(removeEntry(key, new FutureCallback<Boolean>() {
+
+                @Override
+                public void completed(final Boolean result) {
+                    if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                        callback.completed(Boolean.TRUE);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    if (done.compareAndSet(false, true)) {
+                        callback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (done.compareAndSet(false, true)) {
+                        callback.cancelled();
+                    }
+                }
+
+            }));
+        }
+        return () -> {
+            for (final Cancellable operation : operations) {
+                operation.cancel();
+            }
+            return true;
+        };
+    }
+
 }
@@ -29,6 +29,8 @@
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
@@ -69,6 +71,24 @@ public InputStream getInputStream() throws ResourceIOException {
      */
     public abstract byte[] get() throws ResourceIOException;
 
+    /**
+     * Returns resource content as a {@link ReadableByteChannel} that allows
+     * the content to be read incrementally. The caller is responsible for
+     * closing the channel.
+     * <p>
+     * The default implementation adapts {@link #getInputStream()}. Resources
+     * not held in memory are expected to override this method with a more
+     * efficient implementation.
+     * </p>
+     *
+     * @throws ResourceIOException
+     *
+     * @since 5.7
+     */
+    public ReadableByteChannel getChannel() throws ResourceIOException {
+        return Channels.newChannel(getInputStream());
+    }
+
     /**
      * Returns the length in bytes of the response body.
      */
@@ -77,6 +77,24 @@ default Resource generate(String requestId, String eTag, byte[] content, int off
         return generate(requestId, content, off, len);
     }
 
+    /**
+     * Creates a {@link ResourceWriter} that incrementally builds a {@link Resource}
+     * as the response body is being received.
+     *
+     * @param requestId a unique identifier for this particular response body.
+     * @param eTag eTag Strong (unique) identifier for the resource entity
+     *             with the given requestId, or {@code null} when not given
+     *             or is weak (non-unique).
+     * @return a new {@code ResourceWriter} or {@code null} if this factory does
+     *   not support writing content incrementally.
+     * @throws ResourceIOException
+     *
+     * @since 5.7
+     */
+    default ResourceWriter createWriter(String requestId, String eTag) throws ResourceIOException {
+        return null;
+    }
+
     /**
      * @deprecated Do not use.
      */
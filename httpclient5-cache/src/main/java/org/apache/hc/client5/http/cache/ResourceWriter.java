@@ -0,0 +1,73 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incrementally writes a response body into a {@link Resource} as the body
+ * is being received.
+ * <p>
+ * Content is appended with {@link #write(ByteBuffer)}. Once the body has been
+ * received in full, {@link #commit()} produces the resulting {@link Resource}.
+ * If the body is abandoned the writer must be {@link #abort() aborted} to
+ * release any system resources associated with partial content.
+ * </p>
+ * <p>
+ * Implementations of this interface are not expected to be threading-safe.
+ * </p>
+ *
+ * @since 5.7
+ */
+public interface ResourceWriter {
+
+    /**
+     * Appends all remaining bytes of the given buffer to the resource content.
+     *
+     * @param src the content chunk.
+     * @throws ResourceIOException in case of an I/O error.
+     */
+    void write(ByteBuffer src) throws ResourceIOException;
+
+    /**
+     * Returns the number of bytes written so far.
+     */
+    long length();
+
+    /**
+     * Completes writing and returns a {@link Resource} representing the content written.
+     *
+     * @throws ResourceIOException in case of an I/O error.
+     */
+    Resource commit() throws ResourceIOException;
+
+    /**
+     * Discards the content written so far.
+     */
+    void abort();
+
+}
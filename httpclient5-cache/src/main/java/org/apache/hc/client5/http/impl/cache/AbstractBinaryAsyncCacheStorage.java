@@ -39,6 +39,16 @@ public AbstractBinaryAsyncCacheStorage(final int maxUpdateRetries, final HttpCac
         super(maxUpdateRetries, serializer);
     }
 
+    /**
+     * @since 5.7
+     */
+    public AbstractBinaryAsyncCacheStorage(
+            final int maxUpdateRetries,
+            final HttpCacheEntrySerializer<byte[]> serializer,
+            final int maxBulkGetsInFlight) {
+        super(maxUpdateRetries, serializer, maxBulkGetsInFlight);
+    }
+
     public AbstractBinaryAsyncCacheStorage(final int maxUpdateRetries) {
         super(maxUpdateRetries, HttpByteArrayCacheEntrySerializer.INSTANCE);
     }
@@ -48,6 +48,12 @@
 
 /**
  * Abstract cache backend for serialized objects capable of CAS (compare-and-swap) updates.
+ * <p>
+ * Optionally, single entry lookups can be coalesced into {@link #bulkRestore(Collection, FutureCallback)
+ * bulk lookups}: a lookup is sent right away while fewer than the given number of bulk lookups
+ * are in flight, otherwise it is queued and sent along with all other queued lookups as soon as
+ * one of them completes.
+ * </p>
  *
  * @since 5.0
  */
@@ -55,10 +61,28 @@
 
     private final int maxUpdateRetries;
     private final HttpCacheEntrySerializer<T> serializer;
+    private final BulkGetCoalescer<T> getCoalescer;
 
     public AbstractSerializingAsyncCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<T> serializer) {
+        this(maxUpdateRetries, serializer, 0);
+    }
+
+    /**
+     * @param maxUpdateRetries the maximum number of retries of a failed CAS update.
+     * @param serializer the cache entry serializer.
+     * @param maxBulkGetsInFlight if positive, single entry lookups are coalesced into bulk lookups
+     *   with at most the given number of bulk lookups in flight at any time.
+     * @since 5.7
+     */
+    public AbstractSerializingAsyncCacheStorage(
+            final int maxUpdateRetries,
+            final HttpCacheEntrySerializer<T> serializer,
+            final int maxBulkGetsInFlight) {
         this.maxUpdateRetries = Args.notNegative(maxUpdateRetries, "Max retries");
         this.serializer = Args.notNull(serializer, "Cache entry serializer");
+        this.getCoalescer = Args.notNegative(maxBulkGetsInFlight, "Max bulk gets in flight") > 0
+                ? new BulkGetCoalescer<>(this::bulkRestore, maxBulkGetsInFlight, BulkGetCoalescer.DEFAULT_MAX_BATCH_SIZE)
+                : null;
     }
 
     protected abstract String digestToStorageKey(String key);
@@ -77,6 +101,18 @@ public AbstractSerializingAsyncCacheStorage(final int maxUpdateRetries, final Ht
 
     protected abstract Cancellable bulkRestore(Collection<String> storageKeys, FutureCallback<Map<String, T>> callback);
 
+    /**
+     * Deletes the objects stored under the given keys. The default implementation issues
+     * all deletes at once without waiting for individual results and completes once
+     * all of them have completed. Implementations may override this method with a more
+     * efficient bulk operation.
+     *
+     * @since 5.7
+     */
+    protected Cancellable bulkDelete(final Collection<String> storageKeys, final FutureCallback<Boolean> callback) {
+        return CacheOperations.forEach(storageKeys, this::delete, callback);
+    }
+
     @Override
     public final Cancellable putEntry(
             final String key, final HttpCacheEntry entry, final FutureCallback<Boolean> callback) {
@@ -98,7 +134,7 @@ public final Cancellable getEntry(final String key, final FutureCallback<HttpCac
         Args.notNull(callback, "Callback");
         try {
             final String storageKey = digestToStorageKey(key);
-            return restore(storageKey, new FutureCallback<T>() {
+            final FutureCallback<T> restoreCallback = new FutureCallback<T>() {
 
                 @Override
                 public void completed(final T storageObject) {
@@ -128,7 +164,10 @@ public void cancelled() {
                     callback.cancelled();
                 }
 
-            });
+            };
+            return getCoalescer != null
+                    ? getCoalescer.get(storageKey, restoreCallback)
+                    : restore(storageKey, restoreCallback);
         } catch (final Exception ex) {
             callback.failed(ex);
             return Operations.nonCancellable();
@@ -148,6 +187,25 @@ public final Cancellable removeEntry(final String key, final FutureCallback<Bool
         }
     }
 
+    /**
+     * @since 5.7
+     */
+    @Override
+    public final Cancellable removeEntries(final Collection<String> keys, final FutureCallback<Boolean> callback) {
+        Args.notNull(keys, "Storage keys");
+        Args.notNull(callback, "Callback");
+        try {
+            final List<String> storageKeys = new ArrayList<>(keys.size());
+            for (final String key: keys) {
+                storageKeys.add(digestToStorageKey(key));
+            }
+            return bulkDelete(storageKeys, callback);
+        } catch (final Exception ex) {
+            callback.failed(ex);
+            return Operations.nonCancellable();
+        }
+    }
+
     @Override
     public final Cancellable updateEntry(
             final String key, final HttpCacheCASOperation casOperation, final FutureCallback<Boolean> callback) {
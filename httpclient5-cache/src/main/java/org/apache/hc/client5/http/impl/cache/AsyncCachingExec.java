@@ -29,6 +29,7 @@
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
@@ -50,7 +51,9 @@
 import org.apache.hc.client5.http.cache.HttpCacheContext;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.RequestCacheControl;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
 import org.apache.hc.client5.http.cache.ResponseCacheControl;
 import org.apache.hc.client5.http.impl.ExecSupport;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
@@ -79,6 +82,7 @@
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.io.Closer;
 import org.apache.hc.core5.net.URIAuthority;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.ByteArrayBuffer;
@@ -100,14 +104,20 @@
 class AsyncCachingExec extends CachingExecBase implements AsyncExecChainHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(AsyncCachingExec.class);
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
     private final HttpAsyncCache responseCache;
     private final DefaultAsyncCacheRevalidator cacheRevalidator;
     private final ConditionalRequestBuilder conditionalRequestBuilder;
     private final boolean requestCollapsingEnabled;
     private final CacheRequestCollapser collapser;
 
-    AsyncCachingExec(final HttpAsyncCache cache, final DefaultAsyncCacheRevalidator cacheRevalidator, final CacheConfig config) {
-        super(config);
+    AsyncCachingExec(
+            final HttpAsyncCache cache,
+            final DefaultAsyncCacheRevalidator cacheRevalidator,
+            final CacheConfig config,
+            final CacheStatistics cacheStatistics) {
+        super(config, cacheStatistics);
         this.responseCache = Args.notNull(cache, "Response cache");
         this.cacheRevalidator = cacheRevalidator;
         this.conditionalRequestBuilder = new ConditionalRequestBuilder();
@@ -115,6 +125,10 @@ class AsyncCachingExec extends CachingExecBase implements AsyncExecChainHandler
         this.collapser = this.requestCollapsingEnabled ? new CacheRequestCollapser() : null;
     }
 
+    AsyncCachingExec(final HttpAsyncCache cache, final DefaultAsyncCacheRevalidator cacheRevalidator, final CacheConfig config) {
+        this(cache, cacheRevalidator, config, null);
+    }
+
     AsyncCachingExec(
             final HttpAsyncCache cache,
             final ScheduledExecutorService executorService,
@@ -129,18 +143,35 @@ private void triggerResponse(
             final SimpleHttpResponse cacheResponse,
             final AsyncExecChain.Scope scope,
             final AsyncExecCallback asyncExecCallback) {
+        triggerResponse(CachedResponse.of(cacheResponse), scope, asyncExecCallback);
+    }
+
+    private void triggerResponse(
+            final CachedResponse cacheResponse,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecCallback asyncExecCallback) {
         scope.execRuntime.releaseEndpoint();
 
-        final SimpleBody body = cacheResponse.getBody();
-        final byte[] content = body != null ? body.getBodyBytes() : null;
-        final ContentType contentType = body != null ? body.getContentType() : null;
+        final SimpleHttpResponse message = cacheResponse.getMessage();
+        final Resource resource = cacheResponse.getResource();
+        final ReadableByteChannel channel = cacheResponse.getChannel();
+        final EntityDetails entityDetails;
+        final byte[] content;
+        if (resource != null) {
+            entityDetails = new BasicEntityDetails(resource.length(), cacheResponse.getContentType());
+            content = null;
+        } else {
+            final SimpleBody body = message.getBody();
+            content = body != null ? body.getBodyBytes() : null;
+            entityDetails = content != null ? new BasicEntityDetails(content.length, body.getContentType()) : null;
+        }
         AsyncDataConsumer dataConsumer = null;
         try {
-            dataConsumer = asyncExecCallback.handleResponse(
-                    cacheResponse,
-                    content != null ? new BasicEntityDetails(content.length, contentType) : null);
+            dataConsumer = asyncExecCallback.handleResponse(message, entityDetails);
             if (dataConsumer != null) {
-                if (content != null) {
+                if (channel != null) {
+                    streamContent(channel, dataConsumer);
+                } else if (content != null) {
                     dataConsumer.consume(ByteBuffer.wrap(content));
                 }
                 dataConsumer.streamEnd(null);
@@ -149,12 +180,35 @@ private void triggerResponse(
         } catch (final HttpException | IOException ex) {
             asyncExecCallback.failed(ex);
         } finally {
+            if (channel != null) {
+                Closer.closeQuietly(channel);
+            }
             if (dataConsumer != null) {
                 dataConsumer.releaseResources();
             }
         }
     }
 
+    /**
+     * Feeds the resource content to the consumer chunk by chunk, so that only one chunk
+     * of a resource not held in memory is on the heap at a time.
+     * <p>
+     * The content is pushed in a single pass without waiting for the consumer to signal
+     * capacity through {@link AsyncDataConsumer#updateCapacity}, as is already the case
+     * for content held in memory. The consumer must be able to accept the whole content.
+     * </p>
+     */
+    private static void streamContent(
+            final ReadableByteChannel channel,
+            final AsyncDataConsumer dataConsumer) throws HttpException, IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            dataConsumer.consume(buffer);
+            buffer.clear();
+        }
+    }
+
     static class AsyncExecCallbackWrapper implements AsyncExecCallback {
 
         private final Runnable command;
@@ -689,6 +743,87 @@ public void releaseResources() {
 
     }
 
+    class WriteThroughAsyncDataConsumer implements AsyncDataConsumer {
+
+        private final String exchangeId;
+        private final BackendResponseHandler handler;
+        private final HttpResponse backendResponse;
+        private final AsyncDataConsumer dataConsumer;
+        private final AtomicReference<ResourceWriter> writerRef;
+
+        WriteThroughAsyncDataConsumer(
+                final String exchangeId,
+                final BackendResponseHandler handler,
+                final HttpResponse backendResponse,
+                final AsyncDataConsumer dataConsumer,
+                final ResourceWriter writer) {
+            this.exchangeId = exchangeId;
+            this.handler = handler;
+            this.backendResponse = backendResponse;
+            this.dataConsumer = dataConsumer;
+            this.writerRef = new AtomicReference<>(writer);
+        }
+
+        @Override
+        public final void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            dataConsumer.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public final void consume(final ByteBuffer src) throws IOException {
+            final ResourceWriter writer = writerRef.get();
+            if (writer != null) {
+                try {
+                    writer.write(src.duplicate());
+                    if (writer.length() > cacheConfig.getMaxObjectSize()) {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("{} backend response content length exceeds maximum", exchangeId);
+                        }
+                        abort();
+                    }
+                } catch (final ResourceIOException ex) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} I/O error writing backend response content to cache", exchangeId, ex);
+                    }
+                    abort();
+                }
+            }
+            dataConsumer.consume(src);
+        }
+
+        @Override
+        public final void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            // Commit the cache entry before signalling the end of stream to the caller
+            // so that subsequent requests can be served from cache
+            final ResourceWriter writer = writerRef.getAndSet(null);
+            if (writer != null) {
+                try {
+                    handler.storeWrittenThrough(backendResponse, writer.commit());
+                } catch (final ResourceIOException ex) {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("{} I/O error committing cache entry content", exchangeId);
+                    }
+                }
+            }
+            dataConsumer.streamEnd(trailers);
+        }
+
+        void abort() {
+            final ResourceWriter writer = writerRef.getAndSet(null);
+            if (writer != null) {
+                writer.abort();
+            }
+        }
+
+        @Override
+        public void releaseResources() {
+            // Discard partially written content if the exchange did not reach the end of stream
+            abort();
+            dataConsumer.releaseResources();
+        }
+
+    }
+
     class BackendResponseHandler implements AsyncExecCallback {
 
         private final RequestCacheControl requestCacheControl;
@@ -699,6 +834,7 @@ class BackendResponseHandler implements AsyncExecCallback {
         private final AsyncExecChain.Scope scope;
         private final AsyncExecCallback asyncExecCallback;
         private final AtomicReference<CachingAsyncDataConsumer> cachingConsumerRef;
+        private final AtomicReference<WriteThroughAsyncDataConsumer> writeThroughConsumerRef;
 
         BackendResponseHandler(
                 final RequestCacheControl requestCacheControl,
@@ -716,6 +852,7 @@ class BackendResponseHandler implements AsyncExecCallback {
             this.scope = scope;
             this.asyncExecCallback = asyncExecCallback;
             this.cachingConsumerRef = new AtomicReference<>();
+            this.writeThroughConsumerRef = new AtomicReference<>();
         }
 
         @Override
@@ -758,6 +895,15 @@ public void cancelled() {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("{} caching backend response", exchangeId);
                 }
+                if (cacheConfig.isWriteThroughEnabled()
+                        && entityDetails != null
+                        && backendResponse.getCode() != HttpStatus.SC_NOT_MODIFIED) {
+                    final WriteThroughAsyncDataConsumer writeThroughConsumer = createWriteThroughConsumer(
+                            exchangeId, backendResponse, entityDetails);
+                    if (writeThroughConsumer != null) {
+                        return writeThroughConsumer;
+                    }
+                }
                 final CachingAsyncDataConsumer cachingDataConsumer = new CachingAsyncDataConsumer(
                         exchangeId, asyncExecCallback, backendResponse, entityDetails);
                 cachingConsumerRef.set(cachingDataConsumer);
@@ -774,6 +920,71 @@ public void handleInformationResponse(final HttpResponse response) throws HttpEx
             asyncExecCallback.handleInformationResponse(response);
         }
 
+        private WriteThroughAsyncDataConsumer createWriteThroughConsumer(
+                final String exchangeId,
+                final HttpResponse backendResponse,
+                final EntityDetails entityDetails) throws HttpException, IOException {
+            final ResourceWriter writer;
+            try {
+                writer = responseCache.createWriter(target, request, backendResponse);
+            } catch (final ResourceIOException ex) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} unable to write through backend response content, buffering it instead", exchangeId, ex);
+                }
+                return null;
+            }
+            final AsyncDataConsumer dataConsumer;
+            try {
+                dataConsumer = asyncExecCallback.handleResponse(backendResponse, entityDetails);
+            } catch (final HttpException | IOException | RuntimeException ex) {
+                writer.abort();
+                throw ex;
+            }
+            if (dataConsumer == null) {
+                writer.abort();
+                return null;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} writing backend response content through to cache", exchangeId);
+            }
+            final WriteThroughAsyncDataConsumer writeThroughConsumer = new WriteThroughAsyncDataConsumer(
+                    exchangeId, this, backendResponse, dataConsumer, writer);
+            writeThroughConsumerRef.set(writeThroughConsumer);
+            return writeThroughConsumer;
+        }
+
+        void storeWrittenThrough(final HttpResponse backendResponse, final Resource resource) {
+            final String exchangeId = scope.exchangeId;
+            responseCache.storeResource(
+                    target,
+                    request,
+                    backendResponse,
+                    resource,
+                    requestDate,
+                    responseDate,
+                    new FutureCallback<CacheHit>() {
+
+                        @Override
+                        public void completed(final CacheHit hit) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("{} backend response successfully cached", exchangeId);
+                            }
+                        }
+
+                        @Override
+                        public void failed(final Exception ex) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("{} unable to cache backend response", exchangeId, ex);
+                            }
+                        }
+
+                        @Override
+                        public void cancelled() {
+                        }
+
+                    });
+        }
+
         void triggerNewCacheEntryResponse(final HttpResponse backendResponse, final Instant responseDate, final ByteArrayBuffer buffer) {
             final String exchangeId = scope.exchangeId;
             final HttpCacheContext context = HttpCacheContext.cast(scope.clientContext);
@@ -793,7 +1004,7 @@ public void completed(final CacheHit hit) {
                                 LOG.debug("{} backend response successfully cached", exchangeId);
                             }
                             try {
-                                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                                final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                                 context.setCacheEntry(hit.entry);
                                 triggerResponse(cacheResponse, scope, asyncExecCallback);
                             } catch (final ResourceIOException ex) {
@@ -818,7 +1029,7 @@ public void cancelled() {
         void triggerCachedResponse(final HttpCacheEntry entry) {
             final HttpCacheContext context = HttpCacheContext.cast(scope.clientContext);
             try {
-                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, entry);
+                final CachedResponse cacheResponse = responseGenerator.generate(request, entry);
                 context.setCacheEntry(entry);
                 triggerResponse(cacheResponse, scope, asyncExecCallback);
             } catch (final ResourceIOException ex) {
@@ -829,6 +1040,10 @@ void triggerCachedResponse(final HttpCacheEntry entry) {
         @Override
         public void completed() {
             final String exchangeId = scope.exchangeId;
+            if (writeThroughConsumerRef.getAndSet(null) != null) {
+                asyncExecCallback.completed();
+                return;
+            }
             final CachingAsyncDataConsumer cachingDataConsumer = cachingConsumerRef.getAndSet(null);
             if (cachingDataConsumer == null || cachingDataConsumer.writtenThrough.get()) {
                 asyncExecCallback.completed();
@@ -934,6 +1149,10 @@ public void cancelled() {
 
         @Override
         public void failed(final Exception cause) {
+            final WriteThroughAsyncDataConsumer writeThroughConsumer = writeThroughConsumerRef.getAndSet(null);
+            if (writeThroughConsumer != null) {
+                writeThroughConsumer.abort();
+            }
             asyncExecCallback.failed(cause);
         }
 
@@ -956,6 +1175,7 @@ private void handleCacheHit(
         }
 
         cacheHits.getAndIncrement();
+        cacheStatistics.recordHit();
 
         final Instant now = getCurrentDate();
 
@@ -968,9 +1188,12 @@ private void handleCacheHit(
                 LOG.debug("{} cache hit is fresh enough", exchangeId);
             }
             try {
-                final SimpleHttpResponse cacheResponse = generateCachedResponse(request, hit.entry, now);
+                final CachedResponse cacheResponse = generateCachedResponse(request, hit.entry, now);
                 context.setCacheEntry(hit.entry);
                 cacheStatus(context).hit();
+                if (cacheRevalidator != null && shouldRefreshAhead(responseCacheControl, hit, now)) {
+                    refreshAhead(requestCacheControl, responseCacheControl, hit, target, request, scope, chain);
+                }
                 triggerResponse(cacheResponse, scope, asyncExecCallback);
             } catch (final ResourceIOException ex) {
                 if (requestCacheControl.isOnlyIfCached()) {
@@ -1042,7 +1265,7 @@ private void handleCacheHit(
                                 hit.getEntryKey(),
                                 asyncExecCallback,
                                 c -> revalidateCacheEntry(requestCacheControl, responseCacheControl, hit, target, request, fork, chain, c));
-                        final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                        final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                         context.setCacheEntry(hit.entry);
                         cacheStatus(context).hit();
                         cacheStatus(context).moduleResponse();
@@ -1070,6 +1293,71 @@ private void handleCacheHit(
         }
     }
 
+    /**
+     * Schedules a background revalidation of a cache entry that is still fresh but about to
+     * expire. The outcome only updates the cache and is not delivered to any caller.
+     */
+    private void refreshAhead(
+            final RequestCacheControl requestCacheControl,
+            final ResponseCacheControl responseCacheControl,
+            final CacheHit hit,
+            final HttpHost target,
+            final SimpleHttpRequest request,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain) {
+        final String cacheKey = hit.getEntryKey();
+        final String refreshExchangeId = ExecSupport.getNextExchangeId();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} starting refresh-ahead exchange {}", scope.exchangeId, refreshExchangeId);
+        }
+        final AsyncExecChain.Scope fork = new AsyncExecChain.Scope(
+                refreshExchangeId,
+                scope.route,
+                scope.originalRequest,
+                new ComplexFuture<>(null),
+                HttpCacheContext.create(),
+                scope.execRuntime.fork(),
+                scope.scheduler,
+                scope.execCount);
+        final AsyncExecCallback refreshCallback = new AsyncExecCallback() {
+
+            @Override
+            public AsyncDataConsumer handleResponse(
+                    final HttpResponse response,
+                    final EntityDetails entityDetails) {
+                return null;
+            }
+
+            @Override
+            public void handleInformationResponse(final HttpResponse response) {
+            }
+
+            @Override
+            public void completed() {
+                refreshAheadDone(cacheKey);
+            }
+
+            @Override
+            public void failed(final Exception cause) {
+                refreshAheadDone(cacheKey);
+            }
+
+        };
+        final boolean scheduled;
+        try {
+            scheduled = cacheRevalidator.revalidateCacheEntry(
+                    cacheKey,
+                    refreshCallback,
+                    c -> revalidateCacheEntry(requestCacheControl, responseCacheControl, hit, target, request, fork, chain, c));
+        } catch (final RuntimeException ex) {
+            refreshAheadDone(cacheKey);
+            throw ex;
+        }
+        if (!scheduled) {
+            refreshAheadDone(cacheKey);
+        }
+    }
+
     void revalidateCacheEntry(
             final RequestCacheControl requestCacheControl,
             final ResponseCacheControl responseCacheControl,
@@ -1085,6 +1373,7 @@ void revalidateCacheEntry(
                 request,
                 hit.entry);
         final HttpCacheContext context = HttpCacheContext.cast(scope.clientContext);
+        cacheStatistics.recordValidation();
         callChain(conditional, scope, chain, new AsyncExecCallback() {
 
             final AtomicReference<AsyncExecCallback> callbackRef = new AtomicReference<>();
@@ -1103,7 +1392,7 @@ void triggerUpdatedCacheEntryResponse(final HttpResponse backendResponse, final
                             @Override
                             public void completed(final CacheHit updated) {
                                 try {
-                                    final SimpleHttpResponse cacheResponse = generateCachedResponse(request, updated.entry, responseDate);
+                                    final CachedResponse cacheResponse = generateCachedResponse(request, updated.entry, responseDate);
                                     context.setCacheEntry(updated.entry);
                                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                                 } catch (final ResourceIOException ex) {
@@ -1126,6 +1415,7 @@ public void cancelled() {
 
             AsyncExecCallback evaluateResponse(final HttpResponse backendResponse, final Instant responseDate) {
                 final int statusCode = backendResponse.getCode();
+                recordValidationOutcome(statusCode);
                 if (statusCode == HttpStatus.SC_NOT_MODIFIED || statusCode == HttpStatus.SC_OK) {
                     cacheStatus(context).forwardStatus(statusCode);
                     cacheUpdates.getAndIncrement();
@@ -1185,6 +1475,7 @@ public void failed(final Exception cause) {
                             if (callback2 != null) {
                                 callback2.failed(cause);
                             } else {
+                                cacheStatistics.recordValidationFailure();
                                 asyncExecCallback.failed(cause);
                             }
                         }
@@ -1223,6 +1514,7 @@ public void failed(final Exception cause) {
                 if (callback1 != null) {
                     callback1.failed(cause);
                 } else {
+                    cacheStatistics.recordValidationFailure();
                     asyncExecCallback.failed(cause);
                 }
             }
@@ -1322,7 +1614,7 @@ public void completed() {
                 final HttpResponse response = committed.get();
                 if (response == null) {
                     try {
-                        final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                        final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                         context.setCacheEntry(hit.entry);
                         triggerResponse(cacheResponse, scope, asyncExecCallback);
                     } catch (final IOException ex) {
@@ -1346,7 +1638,7 @@ public void failed(final Exception cause) {
                             LOG.debug("{} serving stale response due to IOException and stale-if-error enabled", exchangeId);
                         }
                         try {
-                            final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                            final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                             context.setCacheEntry(hit.entry);
                             cacheStatus(context).moduleResponse();
                             triggerResponse(cacheResponse, scope, asyncExecCallback);
@@ -1379,6 +1671,7 @@ private void handleCacheMiss(
             LOG.debug("{} cache miss: {} {}", exchangeId, request.getMethod(), request.getRequestUri());
         }
         cacheMisses.getAndIncrement();
+        cacheStatistics.recordMiss();
 
         final CancellableDependency operation = scope.cancellableDependency;
         if (requestCacheControl.isOnlyIfCached()) {
@@ -1450,6 +1743,7 @@ void negotiateResponseFromVariants(
                 variantMap.keySet());
 
         final Instant requestDate = getCurrentDate();
+        cacheStatistics.recordValidation();
         callChain(conditional, scope, chain, new AsyncExecCallback() {
 
             final AtomicReference<AsyncExecCallback> callbackRef = new AtomicReference<>();
@@ -1471,7 +1765,7 @@ void updateVariantCacheEntry(final HttpResponse backendResponse, final Instant r
                             @Override
                             public void completed(final CacheHit hit) {
                                 try {
-                                    final SimpleHttpResponse cacheResponse = generateCachedResponse(request, hit.entry, responseDate);
+                                    final CachedResponse cacheResponse = generateCachedResponse(request, hit.entry, responseDate);
                                     context.setCacheEntry(hit.entry);
                                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                                 } catch (final ResourceIOException ex) {
@@ -1497,6 +1791,7 @@ public AsyncDataConsumer handleResponse(
                     final HttpResponse backendResponse,
                     final EntityDetails entityDetails) throws HttpException, IOException {
                 final Instant responseDate = getCurrentDate();
+                recordValidationOutcome(backendResponse.getCode());
                 final AsyncExecCallback callback;
                 if (backendResponse.getCode() != HttpStatus.SC_NOT_MODIFIED) {
                     callback = new BackendResponseHandler(requestCacheControl, target, request, requestDate, responseDate, scope, asyncExecCallback);
@@ -1554,6 +1849,7 @@ public void failed(final Exception cause) {
                 if (callback != null) {
                     callback.failed(cause);
                 } else {
+                    cacheStatistics.recordValidationFailure();
                     asyncExecCallback.failed(cause);
                 }
             }
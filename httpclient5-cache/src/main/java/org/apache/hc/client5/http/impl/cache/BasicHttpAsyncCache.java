@@ -28,6 +28,7 @@
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -45,6 +46,7 @@
 import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
 import org.apache.hc.client5.http.impl.Operations;
 import org.apache.hc.client5.http.validator.ETag;
 import org.apache.hc.client5.http.validator.ValidatorType;
@@ -69,16 +71,30 @@ class BasicHttpAsyncCache implements HttpAsyncCache {
     private final HttpCacheEntryFactory cacheEntryFactory;
     private final CacheKeyGenerator cacheKeyGenerator;
     private final HttpAsyncCacheStorage storage;
+    private final CacheStatistics statistics;
 
+    /**
+     * @since 5.7
+     */
     public BasicHttpAsyncCache(
             final ResourceFactory resourceFactory,
             final HttpCacheEntryFactory cacheEntryFactory,
             final HttpAsyncCacheStorage storage,
-            final CacheKeyGenerator cacheKeyGenerator) {
+            final CacheKeyGenerator cacheKeyGenerator,
+            final CacheStatistics statistics) {
         this.resourceFactory = resourceFactory;
         this.cacheEntryFactory = cacheEntryFactory;
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.storage = storage;
+        this.statistics = statistics != null ? statistics : new CacheStatistics();
+    }
+
+    public BasicHttpAsyncCache(
+            final ResourceFactory resourceFactory,
+            final HttpCacheEntryFactory cacheEntryFactory,
+            final HttpAsyncCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator) {
+        this(resourceFactory, cacheEntryFactory, storage, cacheKeyGenerator, null);
     }
 
     public BasicHttpAsyncCache(
@@ -92,14 +108,84 @@ public BasicHttpAsyncCache(final ResourceFactory resourceFactory, final HttpAsyn
         this( resourceFactory, storage, CacheKeyGenerator.INSTANCE);
     }
 
+    CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    private <T> FutureCallback<T> recordRead(final FutureCallback<T> callback) {
+        final long startNanos = System.nanoTime();
+        return new FutureCallback<T>() {
+
+            @Override
+            public void completed(final T result) {
+                statistics.recordStorageRead(startNanos, false);
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                statistics.recordStorageRead(startNanos, true);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+
+        };
+    }
+
+    private FutureCallback<Boolean> recordWrite(final FutureCallback<Boolean> callback, final Runnable onSuccess) {
+        final long startNanos = System.nanoTime();
+        return new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+                statistics.recordStorageWrite(startNanos, false);
+                if (onSuccess != null) {
+                    onSuccess.run();
+                }
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                statistics.recordStorageWrite(startNanos, true);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+
+        };
+    }
+
+    private FutureCallback<Boolean> recordWrite(final FutureCallback<Boolean> callback) {
+        return recordWrite(callback, null);
+    }
+
+    private FutureCallback<Boolean> recordStore(final HttpCacheEntry entry, final FutureCallback<Boolean> callback) {
+        final Resource resource = entry.getResource();
+        final long length = resource != null ? resource.length() : 0;
+        return recordWrite(callback, () -> statistics.recordStore(length));
+    }
+
+    private FutureCallback<Boolean> recordRemoval(final int count, final FutureCallback<Boolean> callback) {
+        return recordWrite(callback, () -> statistics.recordInvalidations(count));
+    }
+
     @Override
     public Cancellable match(final HttpHost host, final SimpleHttpRequest request, final FutureCallback<CacheMatch> callback) {
         final String rootKey = cacheKeyGenerator.generateKey(host, request, SimpleHttpRequest::getBodyBytes);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get cache entry: {}", rootKey);
         }
+        statistics.recordLookup(rootKey);
         final ComplexCancellable complexCancellable = new ComplexCancellable();
-        complexCancellable.setDependency(storage.getEntry(rootKey, new FutureCallback<HttpCacheEntry>() {
+        complexCancellable.setDependency(storage.getEntry(rootKey, recordRead(new FutureCallback<HttpCacheEntry>() {
 
             @Override
             public void completed(final HttpCacheEntry root) {
@@ -114,7 +200,7 @@ public void completed(final HttpCacheEntry root) {
                             }
                             complexCancellable.setDependency(storage.getEntry(
                                     cacheKey,
-                                    new FutureCallback<HttpCacheEntry>() {
+                                    recordRead(new FutureCallback<HttpCacheEntry>() {
 
                                         @Override
                                         public void completed(final HttpCacheEntry entry) {
@@ -140,7 +226,7 @@ public void cancelled() {
                                             callback.cancelled();
                                         }
 
-                                    }));
+                                    })));
                             return;
                         }
                         callback.completed(new CacheMatch(null, new CacheHit(rootKey, root)));
@@ -169,7 +255,7 @@ public void cancelled() {
                 callback.cancelled();
             }
 
-        }));
+        })));
         return complexCancellable;
     }
 
@@ -188,7 +274,7 @@ public Cancellable getVariants(
                     .collect(Collectors.toList());
             complexCancellable.setDependency(storage.getEntries(
                     variantCacheKeys,
-                    new FutureCallback<Map<String, HttpCacheEntry>>() {
+                    recordRead(new FutureCallback<Map<String, HttpCacheEntry>>() {
 
                         @Override
                         public void completed(final Map<String, HttpCacheEntry> resultMap) {
@@ -215,7 +301,7 @@ public void cancelled() {
                             callback.cancelled();
                         }
 
-                    }));
+                    })));
         } else {
             callback.completed(Collections.emptyList());
         }
@@ -227,7 +313,7 @@ Cancellable storeInternal(final String cacheKey, final HttpCacheEntry entry, fin
             LOG.debug("Store entry in cache: {}", cacheKey);
         }
 
-        return storage.putEntry(cacheKey, entry, new FutureCallback<Boolean>() {
+        return storage.putEntry(cacheKey, entry, recordStore(entry, new FutureCallback<Boolean>() {
 
             @Override
             public void completed(final Boolean result) {
@@ -259,11 +345,11 @@ public void cancelled() {
                 }
             }
 
-        });
+        }));
     }
 
     Cancellable updateInternal(final String cacheKey, final HttpCacheCASOperation casOperation, final FutureCallback<Boolean> callback) {
-        return storage.updateEntry(cacheKey, casOperation, new FutureCallback<Boolean>() {
+        return storage.updateEntry(cacheKey, casOperation, recordWrite(new FutureCallback<Boolean>() {
 
             @Override
             public void completed(final Boolean result) {
@@ -302,11 +388,11 @@ public void cancelled() {
                 }
             }
 
-        });
+        }));
     }
 
     private void removeInternal(final String cacheKey) {
-        storage.removeEntry(cacheKey, new FutureCallback<Boolean>() {
+        storage.removeEntry(cacheKey, recordRemoval(1, new FutureCallback<Boolean>() {
 
             @Override
             public void completed(final Boolean result) {
@@ -327,7 +413,7 @@ public void failed(final Exception ex) {
             public void cancelled() {
             }
 
-        });
+        }));
     }
 
     Cancellable store(
@@ -422,6 +508,38 @@ public Cancellable store(
         return store(rootKey,variantKey, entry, callback);
     }
 
+    @Override
+    public ResourceWriter createWriter(
+            final HttpHost host,
+            final SimpleHttpRequest request,
+            final HttpResponse originResponse) throws ResourceIOException {
+        final byte[] requestContent = request.getBodyBytes();
+        final String rootKey = cacheKeyGenerator.generateKey(host, request, r -> requestContent);
+        final ETag eTag = ETag.get(originResponse);
+        final String strongETag = eTag != null && eTag.getType() == ValidatorType.STRONG ? eTag.getValue() : null;
+        final ResourceWriter writer = resourceFactory.createWriter(rootKey, strongETag);
+        return writer != null ? writer : new HeapResourceWriter(resourceFactory, rootKey, strongETag);
+    }
+
+    @Override
+    public Cancellable storeResource(
+            final HttpHost host,
+            final SimpleHttpRequest request,
+            final HttpResponse originResponse,
+            final Resource resource,
+            final Instant requestSent,
+            final Instant responseReceived,
+            final FutureCallback<CacheHit> callback) {
+        final byte[] requestContent = request.getBodyBytes();
+        final String rootKey = cacheKeyGenerator.generateKey(host, request, r -> requestContent);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Create cache entry: {}", rootKey);
+        }
+        final HttpCacheEntry entry = cacheEntryFactory.create(requestSent, responseReceived, host, request, requestContent, originResponse, resource);
+        final String variantKey = cacheKeyGenerator.generateVariantKey(request, entry);
+        return store(rootKey, variantKey, entry, callback);
+    }
+
     @Override
     public Cancellable update(
             final CacheHit stale,
@@ -477,20 +595,45 @@ private void evictAll(final HttpCacheEntry root, final String rootKey) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Evicting root cache entry {}", rootKey);
         }
-        removeInternal(rootKey);
-        if (root.hasVariants()) {
-            for (final String variantKey : root.getVariants()) {
-                final String variantEntryKey = variantKey + rootKey;
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Evicting variant cache entry {}", variantEntryKey);
-                }
-                removeInternal(variantEntryKey);
+        if (!root.hasVariants()) {
+            removeInternal(rootKey);
+            return;
+        }
+        final List<String> cacheKeys = new ArrayList<>(root.getVariants().size() + 1);
+        cacheKeys.add(rootKey);
+        for (final String variantKey : root.getVariants()) {
+            final String variantEntryKey = variantKey + rootKey;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Evicting variant cache entry {}", variantEntryKey);
             }
+            cacheKeys.add(variantEntryKey);
         }
+        storage.removeEntries(cacheKeys, recordRemoval(cacheKeys.size(), new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                if (LOG.isWarnEnabled()) {
+                    if (ex instanceof ResourceIOException) {
+                        LOG.warn("I/O error removing cache entries with root key {}", rootKey);
+                    } else {
+                        LOG.warn("Unexpected error removing cache entries with root key {}", rootKey, ex);
+                    }
+                }
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+        }));
     }
 
     private Cancellable evict(final String rootKey) {
-        return storage.getEntry(rootKey, new FutureCallback<HttpCacheEntry>() {
+        return storage.getEntry(rootKey, recordRead(new FutureCallback<HttpCacheEntry>() {
 
             @Override
             public void completed(final HttpCacheEntry root) {
@@ -510,11 +653,11 @@ public void failed(final Exception ex) {
             public void cancelled() {
             }
 
-        });
+        }));
     }
 
     private Cancellable evict(final String rootKey, final HttpResponse response) {
-        return storage.getEntry(rootKey, new FutureCallback<HttpCacheEntry>() {
+        return storage.getEntry(rootKey, recordRead(new FutureCallback<HttpCacheEntry>() {
 
             @Override
             public void completed(final HttpCacheEntry root) {
@@ -540,7 +683,7 @@ public void failed(final Exception ex) {
             public void cancelled() {
             }
 
-        });
+        }));
     }
 
     @Override
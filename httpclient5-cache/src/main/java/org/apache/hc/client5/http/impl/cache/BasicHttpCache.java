@@ -62,16 +62,30 @@ class BasicHttpCache implements HttpCache {
     private final HttpCacheEntryFactory cacheEntryFactory;
     private final CacheKeyGenerator cacheKeyGenerator;
     private final HttpCacheStorage storage;
+    private final CacheStatistics statistics;
 
+    /**
+     * @since 5.7
+     */
     public BasicHttpCache(
             final ResourceFactory resourceFactory,
             final HttpCacheEntryFactory cacheEntryFactory,
             final HttpCacheStorage storage,
-            final CacheKeyGenerator cacheKeyGenerator) {
+            final CacheKeyGenerator cacheKeyGenerator,
+            final CacheStatistics statistics) {
         this.resourceFactory = resourceFactory;
         this.cacheEntryFactory = cacheEntryFactory;
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.storage = storage;
+        this.statistics = statistics != null ? statistics : new CacheStatistics();
+    }
+
+    public BasicHttpCache(
+            final ResourceFactory resourceFactory,
+            final HttpCacheEntryFactory cacheEntryFactory,
+            final HttpCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator) {
+        this(resourceFactory, cacheEntryFactory, storage, cacheKeyGenerator, null);
     }
 
     public BasicHttpCache(
@@ -93,19 +107,33 @@ public BasicHttpCache() {
         this(CacheConfig.DEFAULT);
     }
 
+    CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     void storeInternal(final String cacheKey, final HttpCacheEntry entry) {
+        final long startNanos = System.nanoTime();
+        boolean failed = true;
         try {
             storage.putEntry(cacheKey, entry);
+            failed = false;
+            final Resource resource = entry.getResource();
+            statistics.recordStore(resource != null ? resource.length() : 0);
         } catch (final ResourceIOException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error storing cache entry with key {}", cacheKey);
             }
+        } finally {
+            statistics.recordStorageWrite(startNanos, failed);
         }
     }
 
     void updateInternal(final String cacheKey, final HttpCacheCASOperation casOperation) {
+        final long startNanos = System.nanoTime();
+        boolean failed = true;
         try {
             storage.updateEntry(cacheKey, casOperation);
+            failed = false;
         } catch (final HttpCacheUpdateException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("Cannot update cache entry with key {}", cacheKey);
@@ -114,27 +142,41 @@ void updateInternal(final String cacheKey, final HttpCacheCASOperation casOperat
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error updating cache entry with key {}", cacheKey);
             }
+        } finally {
+            statistics.recordStorageWrite(startNanos, failed);
         }
     }
 
     HttpCacheEntry getInternal(final String cacheKey) {
+        final long startNanos = System.nanoTime();
+        boolean failed = true;
         try {
-            return storage.getEntry(cacheKey);
+            final HttpCacheEntry entry = storage.getEntry(cacheKey);
+            failed = false;
+            return entry;
         } catch (final ResourceIOException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error retrieving cache entry with key {}", cacheKey);
             }
             return null;
+        } finally {
+            statistics.recordStorageRead(startNanos, failed);
         }
     }
 
     private void removeInternal(final String cacheKey) {
+        final long startNanos = System.nanoTime();
+        boolean failed = true;
         try {
             storage.removeEntry(cacheKey);
+            failed = false;
+            statistics.recordInvalidations(1);
         } catch (final ResourceIOException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error removing cache entry with key {}", cacheKey);
             }
+        } finally {
+            statistics.recordStorageWrite(startNanos, failed);
         }
     }
 
@@ -144,6 +186,7 @@ public CacheMatch match(final HttpHost host, final SimpleHttpRequest request) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get cache root entry: {}", rootKey);
         }
+        statistics.recordLookup(rootKey);
         final HttpCacheEntry root = getInternal(rootKey);
         if (root == null) {
             return null;
@@ -57,12 +57,22 @@ public class BasicHttpCacheStorage implements HttpCacheStorage {
 
     private final ReentrantLock lock;
 
-    public BasicHttpCacheStorage(final CacheConfig config) {
+    /**
+     * @param config the cache configuration.
+     * @param statistics statistics to report evictions to; may be {@code null}.
+     * @since 5.7
+     */
+    public BasicHttpCacheStorage(final CacheConfig config, final CacheStatistics statistics) {
         super();
-        this.entries = new InternalCacheStorage(config.getMaxCacheEntries(), null);
+        this.entries = new InternalCacheStorage(config.getMaxCacheEntries(),
+                statistics != null ? evicted -> statistics.recordEviction() : null);
         this.lock = new ReentrantLock();
     }
 
+    public BasicHttpCacheStorage(final CacheConfig config) {
+        this(config, null);
+    }
+
     /**
      * Places a HttpCacheEntry in the cache
      *
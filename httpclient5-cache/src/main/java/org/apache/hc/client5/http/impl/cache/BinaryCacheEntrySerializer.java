@@ -0,0 +1,519 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheEntrySerializer;
+import org.apache.hc.client5.http.cache.HttpCacheStorageEntry;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.MessageHeaders;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.message.HeaderGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link HttpCacheEntrySerializer} implementation that uses a compact, versioned
+ * binary layout. Compared to {@link HttpByteArrayCacheEntrySerializer} it avoids
+ * formatting and parsing of HTTP message lines and does not copy the response body
+ * upon deserialization: the {@link Resource} of the deserialized entry refers to
+ * the serialized array and only copies its content if it is requested as a byte
+ * array.
+ * <p>
+ * Entries can also be decoded {@link #deserializeHead(byte[]) without the
+ * response body and request content}, which is sufficient for freshness and
+ * variant checks.
+ * </p>
+ * <p>
+ * The layout is as follows (integers are big-endian, lengths and counts are
+ * unsigned variable-length quantities, strings are length-prefixed UTF-8):
+ * </p>
+ * <pre>
+ * magic "HCB" | version (1 byte) | head length (4 bytes) |
+ * head: key | request instant (8 bytes) | response instant (8 bytes) |
+ *       method | request URI | status (2 bytes) |
+ *       variant count | variants... |
+ *       request header count | request headers... |
+ *       response header count | response headers... |
+ *       request content length + 1 | resource length + 1 |
+ * request content | resource content
+ * </pre>
+ * <p>
+ * Headers are encoded as a one byte code of a well known header name, or zero
+ * followed by the name, and the value.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+public class BinaryCacheEntrySerializer implements HttpCacheEntrySerializer<byte[]> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryCacheEntrySerializer.class);
+
+    static final byte[] MAGIC = new byte[] { 'H', 'C', 'B' };
+    static final byte VERSION = 1;
+    static final int PREAMBLE_LENGTH = MAGIC.length + 1 + 4;
+
+    /**
+     * Well known header names. The position of a name in this table is part
+     * of the serialized format and must not change for a given version.
+     */
+    private static final String[] KNOWN_HEADERS = {
+            null,
+            HttpHeaders.ACCEPT,
+            HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.ACCEPT_RANGES,
+            HttpHeaders.AGE,
+            HttpHeaders.AUTHORIZATION,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.CONTENT_LOCATION,
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.COOKIE,
+            HttpHeaders.DATE,
+            HttpHeaders.ETAG,
+            HttpHeaders.EXPIRES,
+            HttpHeaders.HOST,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.LOCATION,
+            HttpHeaders.PRAGMA,
+            HttpHeaders.SERVER,
+            HttpHeaders.SET_COOKIE,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.USER_AGENT,
+            HttpHeaders.VARY,
+            HttpHeaders.VIA,
+            HttpHeaders.WARNING,
+            "Access-Control-Allow-Origin",
+            "Strict-Transport-Security",
+            "X-Content-Type-Options",
+    };
+
+    private static final Map<String, Integer> KNOWN_HEADER_CODES;
+
+    static {
+        KNOWN_HEADER_CODES = new HashMap<>();
+        for (int i = 1; i < KNOWN_HEADERS.length; i++) {
+            KNOWN_HEADER_CODES.put(KNOWN_HEADERS[i], i);
+        }
+    }
+
+    /**
+     * Default instance of {@link BinaryCacheEntrySerializer}.
+     */
+    public static final BinaryCacheEntrySerializer INSTANCE = new BinaryCacheEntrySerializer();
+
+    @Override
+    public byte[] serialize(final HttpCacheStorageEntry storageEntry) throws ResourceIOException {
+        final String key = storageEntry.getKey();
+        final HttpCacheEntry cacheEntry = storageEntry.getContent();
+        final Resource resource = cacheEntry.getResource();
+        final byte[] requestContent = cacheEntry.getRequestContent();
+        final long resourceLength = resource != null ? resource.length() : -1;
+        if (resourceLength > Integer.MAX_VALUE - 1024) {
+            throw new ResourceIOException("Cache entry content is too large to be serialized");
+        }
+
+        final Output out = new Output(1024
+                + (requestContent != null ? requestContent.length : 0)
+                + (resourceLength > 0 ? (int) resourceLength : 0));
+        out.writeBytes(MAGIC, 0, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeInt(0);
+
+        out.writeString(key);
+        out.writeLong(cacheEntry.getRequestInstant().toEpochMilli());
+        out.writeLong(cacheEntry.getResponseInstant().toEpochMilli());
+        out.writeString(cacheEntry.getRequestMethod());
+        out.writeString(cacheEntry.getRequestURI());
+        out.writeShort(cacheEntry.getStatus());
+        final Set<String> variants = cacheEntry.getVariants();
+        out.writeVarInt(variants.size());
+        for (final String variant : variants) {
+            out.writeString(variant);
+        }
+        writeHeaders(out, cacheEntry.requestHeaders());
+        writeHeaders(out, cacheEntry.responseHeaders());
+        out.writeVarInt(requestContent != null ? requestContent.length + 1 : 0);
+        out.writeVarInt(resource != null ? (int) resourceLength + 1 : 0);
+        out.setInt(MAGIC.length + 1, out.length() - PREAMBLE_LENGTH);
+
+        if (requestContent != null) {
+            out.writeBytes(requestContent, 0, requestContent.length);
+        }
+        if (resource != null) {
+            if (resource instanceof HeapResource) {
+                final byte[] content = resource.get();
+                out.writeBytes(content, 0, content.length);
+            } else {
+                out.writeContent(resource, (int) resourceLength);
+            }
+        }
+
+        final byte[] bytes = out.toByteArray();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Serialized cache entry with key {} and {} bytes", key, bytes.length);
+        }
+        return bytes;
+    }
+
+    private static void writeHeaders(final Output out, final MessageHeaders headers) {
+        final Header[] all = headers.getHeaders();
+        out.writeVarInt(all.length);
+        for (final Header header : all) {
+            final Integer code = KNOWN_HEADER_CODES.get(header.getName());
+            if (code != null) {
+                out.writeByte(code);
+            } else {
+                out.writeByte(0);
+                out.writeString(header.getName());
+            }
+            out.writeString(header.getValue());
+        }
+    }
+
+    @Override
+    public HttpCacheStorageEntry deserialize(final byte[] serializedObject) throws ResourceIOException {
+        return deserialize(serializedObject, false);
+    }
+
+    /**
+     * Deserializes the cache entry metadata and response head only. The returned
+     * entry has neither request content nor a {@link Resource} and is intended to be
+     * used for freshness and variant checks only.
+     *
+     * @param serializedObject serialized representation of the cache entry
+     * @return cache entry without content
+     * @throws ResourceIOException if an error occurs during deserialization
+     */
+    public HttpCacheStorageEntry deserializeHead(final byte[] serializedObject) throws ResourceIOException {
+        return deserialize(serializedObject, true);
+    }
+
+    /**
+     * Returns the storage key of the serialized cache entry without decoding the entry.
+     *
+     * @param serializedObject serialized representation of the cache entry
+     * @return cache entry key
+     * @throws ResourceIOException if an error occurs during deserialization
+     */
+    public String deserializeKey(final byte[] serializedObject) throws ResourceIOException {
+        final Input in = new Input(serializedObject);
+        in.readPreamble();
+        return in.readString();
+    }
+
+    private HttpCacheStorageEntry deserialize(final byte[] serializedObject, final boolean headOnly) throws ResourceIOException {
+        final Input in = new Input(serializedObject);
+        final int headEnd = in.readPreamble();
+
+        final String storageKey = in.readString();
+        final Instant requestDate = Instant.ofEpochMilli(in.readLong());
+        final Instant responseDate = Instant.ofEpochMilli(in.readLong());
+        final String method = in.readString();
+        final String requestUri = in.readString();
+        final int status = in.readShort();
+        final int variantCount = in.readCount();
+        final String[] variants = new String[variantCount];
+        for (int i = 0; i < variantCount; i++) {
+            variants[i] = in.readString();
+        }
+        final HeaderGroup requestHeaders = in.readHeaders();
+        final HeaderGroup responseHeaders = in.readHeaders();
+        final int requestContentLength = in.readVarInt() - 1;
+        final int resourceLength = in.readVarInt() - 1;
+        if (in.pos != headEnd) {
+            throw new ResourceIOException("Invalid cache entry head length");
+        }
+        final long expected = (long) headEnd
+                + (requestContentLength > 0 ? requestContentLength : 0)
+                + (resourceLength > 0 ? resourceLength : 0);
+        if (expected != serializedObject.length) {
+            throw new ResourceIOException("Invalid cache entry content length");
+        }
+
+        byte[] requestContent = null;
+        Resource resource = null;
+        if (!headOnly) {
+            int pos = headEnd;
+            if (requestContentLength >= 0) {
+                requestContent = Arrays.copyOfRange(serializedObject, pos, pos + requestContentLength);
+                pos += requestContentLength;
+            }
+            if (resourceLength >= 0) {
+                resource = new HeapSliceResource(serializedObject, pos, resourceLength);
+            }
+        }
+
+        final HttpCacheEntry httpCacheEntry = new HttpCacheEntry(
+                requestDate,
+                responseDate,
+                method,
+                requestUri,
+                requestHeaders,
+                requestContent,
+                status,
+                responseHeaders,
+                resource,
+                variantCount > 0 ? Arrays.asList(variants) : null);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Returning deserialized cache entry with storage key '{}'", httpCacheEntry);
+        }
+        return new HttpCacheStorageEntry(storageKey, httpCacheEntry);
+    }
+
+    static final class Output {
+
+        private byte[] buf;
+        private int len;
+
+        Output(final int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(final int n) {
+            if (len + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, len + n));
+            }
+        }
+
+        int length() {
+            return len;
+        }
+
+        void writeByte(final int b) {
+            ensureCapacity(1);
+            buf[len++] = (byte) b;
+        }
+
+        void writeShort(final int v) {
+            ensureCapacity(2);
+            buf[len++] = (byte) (v >>> 8);
+            buf[len++] = (byte) v;
+        }
+
+        void writeInt(final int v) {
+            ensureCapacity(4);
+            setInt(len, v);
+            len += 4;
+        }
+
+        void setInt(final int pos, final int v) {
+            buf[pos] = (byte) (v >>> 24);
+            buf[pos + 1] = (byte) (v >>> 16);
+            buf[pos + 2] = (byte) (v >>> 8);
+            buf[pos + 3] = (byte) v;
+        }
+
+        void writeLong(final long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        void writeVarInt(final int v) {
+            ensureCapacity(5);
+            int n = v;
+            while ((n & ~0x7F) != 0) {
+                buf[len++] = (byte) (n & 0x7F | 0x80);
+                n >>>= 7;
+            }
+            buf[len++] = (byte) n;
+        }
+
+        void writeBytes(final byte[] b, final int off, final int n) {
+            ensureCapacity(n);
+            System.arraycopy(b, off, buf, len, n);
+            len += n;
+        }
+
+        void writeString(final String s) {
+            final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(b.length);
+            writeBytes(b, 0, b.length);
+        }
+
+        void writeContent(final Resource resource, final int n) throws ResourceIOException {
+            ensureCapacity(n);
+            try (InputStream inStream = resource.getInputStream()) {
+                int remaining = n;
+                while (remaining > 0) {
+                    final int i = inStream.read(buf, len, remaining);
+                    if (i == -1) {
+                        throw new ResourceIOException("Unexpected end of cache content");
+                    }
+                    len += i;
+                    remaining -= i;
+                }
+            } catch (final ResourceIOException ex) {
+                throw ex;
+            } catch (final IOException ex) {
+                throw new ResourceIOException(ex.getMessage(), ex);
+            }
+        }
+
+        byte[] toByteArray() {
+            return len == buf.length ? buf : Arrays.copyOf(buf, len);
+        }
+
+    }
+
+    static final class Input {
+
+        private final byte[] buf;
+        private int pos;
+
+        Input(final byte[] buf) throws ResourceIOException {
+            if (buf == null || buf.length == 0) {
+                throw new ResourceIOException("Serialized object is null or empty");
+            }
+            this.buf = buf;
+        }
+
+        int readPreamble() throws ResourceIOException {
+            ensureAvailable(PREAMBLE_LENGTH);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buf[i] != MAGIC[i]) {
+                    throw new ResourceIOException("Unexpected cache entry format");
+                }
+            }
+            if (buf[MAGIC.length] != VERSION) {
+                throw new ResourceIOException("Unsupported cache entry version: " + buf[MAGIC.length]);
+            }
+            pos = MAGIC.length + 1;
+            final int headLength = readInt();
+            if (headLength < 0 || headLength > buf.length - PREAMBLE_LENGTH) {
+                throw new ResourceIOException("Invalid cache entry head length");
+            }
+            return PREAMBLE_LENGTH + headLength;
+        }
+
+        private void ensureAvailable(final int n) throws ResourceIOException {
+            if (n < 0 || n > buf.length - pos) {
+                throw new ResourceIOException("Unexpected end of cache content");
+            }
+        }
+
+        int readByte() throws ResourceIOException {
+            ensureAvailable(1);
+            return buf[pos++] & 0xFF;
+        }
+
+        int readShort() throws ResourceIOException {
+            ensureAvailable(2);
+            final int v = (buf[pos] & 0xFF) << 8 | buf[pos + 1] & 0xFF;
+            pos += 2;
+            return v;
+        }
+
+        int readInt() throws ResourceIOException {
+            ensureAvailable(4);
+            final int v = (buf[pos] & 0xFF) << 24
+                    | (buf[pos + 1] & 0xFF) << 16
+                    | (buf[pos + 2] & 0xFF) << 8
+                    | buf[pos + 3] & 0xFF;
+            pos += 4;
+            return v;
+        }
+
+        long readLong() throws ResourceIOException {
+            final long hi = readInt();
+            final long lo = readInt() & 0xFFFFFFFFL;
+            return hi << 32 | lo;
+        }
+
+        int readVarInt() throws ResourceIOException {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final int b = readByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (v < 0) {
+                        break;
+                    }
+                    return v;
+                }
+            }
+            throw new ResourceIOException("Invalid cache entry format");
+        }
+
+        int readCount() throws ResourceIOException {
+            final int n = readVarInt();
+            // Every element takes at least one byte
+            ensureAvailable(n);
+            return n;
+        }
+
+        String readString() throws ResourceIOException {
+            final int n = readVarInt();
+            ensureAvailable(n);
+            final String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+
+        HeaderGroup readHeaders() throws ResourceIOException {
+            final int count = readCount();
+            final Header[] headers = new Header[count];
+            for (int i = 0; i < count; i++) {
+                final int code = readByte();
+                final String name;
+                if (code == 0) {
+                    name = readString();
+                } else if (code < KNOWN_HEADERS.length) {
+                    name = KNOWN_HEADERS[code];
+                } else {
+                    throw new ResourceIOException("Invalid cache entry header code: " + code);
+                }
+                headers[i] = new BasicHeader(name, readString());
+            }
+            final HeaderGroup headerGroup = new HeaderGroup();
+            headerGroup.setHeaders(headers);
+            return headerGroup;
+        }
+
+    }
+
+}
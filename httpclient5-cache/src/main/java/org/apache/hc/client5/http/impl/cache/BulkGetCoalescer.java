@@ -0,0 +1,215 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+
+/**
+ * Coalesces single key lookups into bulk lookups.
+ * <p>
+ * A lookup is sent immediately as long as fewer than the maximum number of bulk
+ * lookups are in flight. Otherwise it is queued, and all queued lookups (up to
+ * the maximum batch size) go out together as soon as a bulk lookup completes.
+ * Concurrent lookups of the same key share a single slot in the batch. This adds
+ * no latency while the backend keeps up and batches increasingly aggressively as
+ * the load grows.
+ * </p>
+ *
+ * @param <T> the type of the looked up objects.
+ */
+final class BulkGetCoalescer<T> {
+
+    interface BulkLoader<T> {
+
+        Cancellable load(Collection<String> keys, FutureCallback<Map<String, T>> callback);
+
+    }
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 128;
+
+    private final BulkLoader<T> loader;
+    private final int maxInFlight;
+    private final int maxBatchSize;
+    private final ReentrantLock lock;
+    private final Map<String, List<Waiter<T>>> pending;
+
+    private int inFlight;
+
+    BulkGetCoalescer(final BulkLoader<T> loader, final int maxInFlight, final int maxBatchSize) {
+        this.loader = loader;
+        this.maxInFlight = maxInFlight;
+        this.maxBatchSize = maxBatchSize;
+        this.lock = new ReentrantLock();
+        this.pending = new LinkedHashMap<>();
+    }
+
+    Cancellable get(final String key, final FutureCallback<T> callback) {
+        final Waiter<T> waiter = new Waiter<>(callback);
+        final Map<String, List<Waiter<T>>> batch;
+        lock.lock();
+        try {
+            pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(waiter);
+            batch = inFlight < maxInFlight ? drain() : null;
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        return waiter;
+    }
+
+    int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, List<Waiter<T>>> drain() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        final Map<String, List<Waiter<T>>> batch;
+        if (pending.size() <= maxBatchSize) {
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        } else {
+            batch = new LinkedHashMap<>();
+            final Iterator<Map.Entry<String, List<Waiter<T>>>> it = pending.entrySet().iterator();
+            while (batch.size() < maxBatchSize) {
+                final Map.Entry<String, List<Waiter<T>>> entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+        inFlight++;
+        return batch;
+    }
+
+    private void send(final Map<String, List<Waiter<T>>> batch) {
+        final FutureCallback<Map<String, T>> callback = new FutureCallback<Map<String, T>>() {
+
+            @Override
+            public void completed(final Map<String, T> result) {
+                for (final Map.Entry<String, List<Waiter<T>>> entry : batch.entrySet()) {
+                    final T value = result != null ? result.get(entry.getKey()) : null;
+                    for (final Waiter<T> waiter : entry.getValue()) {
+                        waiter.completed(value);
+                    }
+                }
+                batchDone();
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                for (final List<Waiter<T>> waiters : batch.values()) {
+                    for (final Waiter<T> waiter : waiters) {
+                        waiter.failed(ex);
+                    }
+                }
+                batchDone();
+            }
+
+            @Override
+            public void cancelled() {
+                for (final List<Waiter<T>> waiters : batch.values()) {
+                    for (final Waiter<T> waiter : waiters) {
+                        waiter.cancel();
+                    }
+                }
+                batchDone();
+            }
+
+        };
+        try {
+            loader.load(batch.keySet(), callback);
+        } catch (final RuntimeException ex) {
+            callback.failed(ex);
+        }
+    }
+
+    private void batchDone() {
+        final Map<String, List<Waiter<T>>> batch;
+        lock.lock();
+        try {
+            inFlight--;
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    static final class Waiter<T> implements Cancellable {
+
+        private final FutureCallback<T> callback;
+        private final AtomicBoolean done;
+
+        Waiter(final FutureCallback<T> callback) {
+            this.callback = callback;
+            this.done = new AtomicBoolean(false);
+        }
+
+        void completed(final T result) {
+            if (done.compareAndSet(false, true)) {
+                callback.completed(result);
+            }
+        }
+
+        void failed(final Exception ex) {
+            if (done.compareAndSet(false, true)) {
+                callback.failed(ex);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (done.compareAndSet(false, true)) {
+                callback.cancelled();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -50,7 +50,9 @@
  * <p><b>Cache size.</b> If the backend storage supports these limits, one
  * can specify the {@link CacheConfig#getMaxCacheEntries maximum number of
  * cache entries} as well as the {@link CacheConfig#getMaxObjectSize()}
- * maximum cacheable response body size}.</p>
+ * maximum cacheable response body size}. {@link ConcurrentHttpCacheStorage}
+ * can additionally bound the {@link CacheConfig#getMaxCacheBytes() total size
+ * of cached response bodies}; it is used by default when that bound is set.</p>
  *
  * <p><b>Public/private caching.</b> By default, the caching module considers
  * itself to be a shared (public) cache, and will not, for example, cache
@@ -90,6 +92,13 @@ public class CacheConfig implements Cloneable {
      */
     public final static int DEFAULT_MAX_CACHE_ENTRIES = 1000;
 
+    /** Default setting for the maximum total size of cached response bodies,
+     * in bytes; {@code 0} means no size bound.
+     *
+     * @since 5.7
+     */
+    public final static long DEFAULT_MAX_CACHE_BYTES = 0L;
+
     /** Default setting for the number of retries on a failed
      * cache processChallenge
      */
@@ -132,10 +141,23 @@ public class CacheConfig implements Cloneable {
     /** Default setting for emitting the RFC 9211 {@code Cache-Status} response header. */
     public static final boolean DEFAULT_CACHE_STATUS_ENABLED = false;
 
+    /** Default setting for streaming cacheable response bodies to the caller while they are being stored. */
+    public static final boolean DEFAULT_WRITE_THROUGH_ENABLED = false;
+
+    /** Default refresh-ahead window; refresh-ahead is disabled by default. */
+    public static final TimeValue DEFAULT_REFRESH_AHEAD_WINDOW = TimeValue.ZERO_MILLISECONDS;
+
+    /** Default number of hits within the refresh-ahead window that make an entry eligible for refresh. */
+    public static final int DEFAULT_REFRESH_AHEAD_MIN_HITS = 2;
+
+    /** Default maximum number of refresh-ahead revalidations in flight at any time. */
+    public static final int DEFAULT_MAX_CONCURRENT_REFRESHES = 4;
+
     public static final CacheConfig DEFAULT = new Builder().build();
 
     private final long maxObjectSize;
     private final int maxCacheEntries;
+    private final long maxCacheBytes;
     private final int maxUpdateRetries;
     private final boolean heuristicCachingEnabled;
     private final float heuristicCoefficient;
@@ -147,6 +169,10 @@ public class CacheConfig implements Cloneable {
     private final boolean staleIfErrorEnabled;
     private final boolean requestCollapsingEnabled;
     private final boolean cacheStatusEnabled;
+    private final boolean writeThroughEnabled;
+    private final TimeValue refreshAheadWindow;
+    private final int refreshAheadMinHits;
+    private final int maxConcurrentRefreshes;
 
 
     /**
@@ -158,6 +184,7 @@ public class CacheConfig implements Cloneable {
     CacheConfig(
             final long maxObjectSize,
             final int maxCacheEntries,
+            final long maxCacheBytes,
             final int maxUpdateRetries,
             final boolean heuristicCachingEnabled,
             final float heuristicCoefficient,
@@ -169,10 +196,15 @@ public class CacheConfig implements Cloneable {
             final boolean neverCacheHTTP11ResponsesWithQuery,
             final boolean staleIfErrorEnabled,
             final boolean requestCollapsingEnabled,
-            final boolean cacheStatusEnabled) {
+            final boolean cacheStatusEnabled,
+            final boolean writeThroughEnabled,
+            final TimeValue refreshAheadWindow,
+            final int refreshAheadMinHits,
+            final int maxConcurrentRefreshes) {
         super();
         this.maxObjectSize = maxObjectSize;
         this.maxCacheEntries = maxCacheEntries;
+        this.maxCacheBytes = maxCacheBytes;
         this.maxUpdateRetries = maxUpdateRetries;
         this.heuristicCachingEnabled = heuristicCachingEnabled;
         this.heuristicCoefficient = heuristicCoefficient;
@@ -185,6 +217,10 @@ public class CacheConfig implements Cloneable {
         this.staleIfErrorEnabled = staleIfErrorEnabled;
         this.requestCollapsingEnabled = requestCollapsingEnabled;
         this.cacheStatusEnabled = cacheStatusEnabled;
+        this.writeThroughEnabled = writeThroughEnabled;
+        this.refreshAheadWindow = refreshAheadWindow;
+        this.refreshAheadMinHits = refreshAheadMinHits;
+        this.maxConcurrentRefreshes = maxConcurrentRefreshes;
     }
 
     /**
@@ -253,6 +289,18 @@ public int getMaxCacheEntries() {
         return maxCacheEntries;
     }
 
+    /**
+     * Returns the maximum total size in bytes of the response bodies the cache
+     * will retain, or {@code 0} if the cache size is bounded by the number of
+     * entries only.
+     *
+     * @see ConcurrentHttpCacheStorage
+     * @since 5.7
+     */
+    public long getMaxCacheBytes() {
+        return maxCacheBytes;
+    }
+
     /**
      * Returns the number of times to retry a cache processChallenge on failure
      */
@@ -336,8 +384,8 @@ public int getAsynchronousWorkers() {
      * backend while the others wait and then re-check the cache.
      * <p>
      * This is a hint. Individual caching implementations may choose to honour
-     * it or ignore it; the asynchronous caching exec honours it, while the
-     * classic caching exec currently ignores it.
+     * it or ignore it; both the asynchronous and the classic caching exec honour
+     * it. Classic followers block for at most the response timeout of the request.
      *
      * @since 5.7
      */
@@ -356,6 +404,47 @@ public boolean isCacheStatusEnabled() {
         return cacheStatusEnabled;
     }
 
+    /**
+     * Determines whether cacheable response bodies are forwarded to the caller as they
+     * arrive while being written to the cache at the same time. The cache entry is only
+     * committed once the response body has been received in full. Disabled by default.
+     *
+     * @since 5.7
+     */
+    public boolean isWriteThroughEnabled() {
+        return writeThroughEnabled;
+    }
+
+    /**
+     * Returns the time window preceding expiry of a cache entry during which cache hits
+     * may trigger a proactive background revalidation of the entry. A zero window
+     * disables refresh-ahead.
+     *
+     * @since 5.7
+     */
+    public TimeValue getRefreshAheadWindow() {
+        return refreshAheadWindow;
+    }
+
+    /**
+     * Returns the number of hits within the refresh-ahead window after which
+     * a cache entry gets refreshed.
+     *
+     * @since 5.7
+     */
+    public int getRefreshAheadMinHits() {
+        return refreshAheadMinHits;
+    }
+
+    /**
+     * Returns the maximum number of refresh-ahead revalidations in flight at any time.
+     *
+     * @since 5.7
+     */
+    public int getMaxConcurrentRefreshes() {
+        return maxConcurrentRefreshes;
+    }
+
     @Override
     protected CacheConfig clone() throws CloneNotSupportedException {
         return (CacheConfig) super.clone();
@@ -370,6 +459,7 @@ public static Builder copy(final CacheConfig config) {
         return new Builder()
             .setMaxObjectSize(config.getMaxObjectSize())
             .setMaxCacheEntries(config.getMaxCacheEntries())
+            .setMaxCacheBytes(config.getMaxCacheBytes())
             .setMaxUpdateRetries(config.getMaxUpdateRetries())
             .setHeuristicCachingEnabled(config.isHeuristicCachingEnabled())
             .setHeuristicCoefficient(config.getHeuristicCoefficient())
@@ -380,13 +470,18 @@ public static Builder copy(final CacheConfig config) {
             .setNeverCacheHTTP11ResponsesWithQueryString(config.isNeverCacheHTTP11ResponsesWithQuery())
             .setStaleIfErrorEnabled(config.isStaleIfErrorEnabled())
             .setRequestCollapsingEnabled(config.isRequestCollapsingEnabled())
-            .setCacheStatusEnabled(config.isCacheStatusEnabled());
+            .setCacheStatusEnabled(config.isCacheStatusEnabled())
+            .setWriteThroughEnabled(config.isWriteThroughEnabled())
+            .setRefreshAheadWindow(config.getRefreshAheadWindow())
+            .setRefreshAheadMinHits(config.getRefreshAheadMinHits())
+            .setMaxConcurrentRefreshes(config.getMaxConcurrentRefreshes());
     }
 
     public static class Builder {
 
         private long maxObjectSize;
         private int maxCacheEntries;
+        private long maxCacheBytes;
         private int maxUpdateRetries;
         private boolean heuristicCachingEnabled;
         private float heuristicCoefficient;
@@ -399,10 +494,15 @@ public static class Builder {
         private boolean staleIfErrorEnabled;
         private boolean requestCollapsingEnabled;
         private boolean cacheStatusEnabled;
+        private boolean writeThroughEnabled;
+        private TimeValue refreshAheadWindow;
+        private int refreshAheadMinHits;
+        private int maxConcurrentRefreshes;
 
         Builder() {
             this.maxObjectSize = DEFAULT_MAX_OBJECT_SIZE_BYTES;
             this.maxCacheEntries = DEFAULT_MAX_CACHE_ENTRIES;
+            this.maxCacheBytes = DEFAULT_MAX_CACHE_BYTES;
             this.maxUpdateRetries = DEFAULT_MAX_UPDATE_RETRIES;
             this.heuristicCachingEnabled = DEFAULT_HEURISTIC_CACHING_ENABLED;
             this.heuristicCoefficient = DEFAULT_HEURISTIC_COEFFICIENT;
@@ -413,6 +513,10 @@ public static class Builder {
             this.staleIfErrorEnabled = false;
             this.requestCollapsingEnabled = DEFAULT_REQUEST_COLLAPSING_ENABLED;
             this.cacheStatusEnabled = DEFAULT_CACHE_STATUS_ENABLED;
+            this.writeThroughEnabled = DEFAULT_WRITE_THROUGH_ENABLED;
+            this.refreshAheadWindow = DEFAULT_REFRESH_AHEAD_WINDOW;
+            this.refreshAheadMinHits = DEFAULT_REFRESH_AHEAD_MIN_HITS;
+            this.maxConcurrentRefreshes = DEFAULT_MAX_CONCURRENT_REFRESHES;
         }
 
         /**
@@ -435,6 +539,20 @@ public Builder setMaxCacheEntries(final int maxCacheEntries) {
             return this;
         }
 
+        /**
+         * Sets the maximum total size in bytes of the response bodies the cache will
+         * retain. A value of {@code 0} or less disables the size bound. Only honoured
+         * by storage backends that support it.
+         *
+         * @return this instance.
+         * @see ConcurrentHttpCacheStorage
+         * @since 5.7
+         */
+        public Builder setMaxCacheBytes(final long maxCacheBytes) {
+            this.maxCacheBytes = maxCacheBytes;
+            return this;
+        }
+
         /**
          * Sets the number of times to retry a cache processChallenge on failure
          *
@@ -596,8 +714,9 @@ public Builder setNeverCacheHTTP11ResponsesWithQueryString(
          * to the backend while the others wait and then re-check the cache.
          * <p>
          * This setting is a hint. Individual caching implementations may honour it or
-         * ignore it; the asynchronous caching exec honours it, while the classic
-         * caching exec currently ignores it.
+         * ignore it; both the asynchronous and the classic caching exec honour it.
+         * Classic followers block for at most the response timeout of the request
+         * and call the backend themselves if it elapses.
          *
          * @return this instance.
          * @since 5.7
@@ -619,10 +738,73 @@ public Builder setCacheStatusEnabled(final boolean cacheStatusEnabled) {
             return this;
         }
 
+        /**
+         * Enables write-through of cacheable response bodies. When enabled, the response
+         * body is forwarded to the caller as it arrives and written to the cache at the same
+         * time using a {@link org.apache.hc.client5.http.cache.ResourceWriter}, so that large
+         * responses neither need to be buffered in memory nor delay the first byte. The cache
+         * entry is committed only if the body is received in full and does not exceed
+         * {@link #setMaxObjectSize(long) the maximum object size}.
+         * <p>
+         * This setting is honoured by the asynchronous caching exec only.
+         * </p>
+         *
+         * @return this instance.
+         * @since 5.7
+         */
+        public Builder setWriteThroughEnabled(final boolean writeThroughEnabled) {
+            this.writeThroughEnabled = writeThroughEnabled;
+            return this;
+        }
+
+        /**
+         * Enables refresh-ahead of frequently requested cache entries. Once an entry has
+         * been hit {@link #setRefreshAheadMinHits(int) a number of times} within the given
+         * window preceding its expiry, it gets revalidated in the background while still
+         * fresh, so that callers do not need to wait for the origin once it would have
+         * become stale. Refreshes are scheduled with the same
+         * {@link org.apache.hc.client5.http.schedule.SchedulingStrategy} as
+         * {@code stale-while-revalidate} revalidations and require
+         * {@link #setAsynchronousWorkers(int) asynchronous workers}.
+         *
+         * @param refreshAheadWindow the window; zero disables refresh-ahead.
+         * @return this instance.
+         * @since 5.7
+         */
+        public Builder setRefreshAheadWindow(final TimeValue refreshAheadWindow) {
+            this.refreshAheadWindow = TimeValue.defaultsTo(refreshAheadWindow, DEFAULT_REFRESH_AHEAD_WINDOW);
+            return this;
+        }
+
+        /**
+         * Sets the number of hits within the refresh-ahead window after which a cache
+         * entry gets refreshed.
+         *
+         * @return this instance.
+         * @since 5.7
+         */
+        public Builder setRefreshAheadMinHits(final int refreshAheadMinHits) {
+            this.refreshAheadMinHits = Args.positive(refreshAheadMinHits, "Refresh-ahead min hits");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of refresh-ahead revalidations in flight at any time.
+         * Hits that would exceed this budget are served from cache without a refresh.
+         *
+         * @return this instance.
+         * @since 5.7
+         */
+        public Builder setMaxConcurrentRefreshes(final int maxConcurrentRefreshes) {
+            this.maxConcurrentRefreshes = Args.positive(maxConcurrentRefreshes, "Max concurrent refreshes");
+            return this;
+        }
+
         public CacheConfig build() {
             return new CacheConfig(
                     maxObjectSize,
                     maxCacheEntries,
+                    maxCacheBytes,
                     maxUpdateRetries,
                     heuristicCachingEnabled,
                     heuristicCoefficient,
@@ -634,7 +816,11 @@ public CacheConfig build() {
                     neverCacheHTTP11ResponsesWithQuery,
                     staleIfErrorEnabled,
                     requestCollapsingEnabled,
-                    cacheStatusEnabled);
+                    cacheStatusEnabled,
+                    writeThroughEnabled,
+                    refreshAheadWindow,
+                    refreshAheadMinHits,
+                    maxConcurrentRefreshes);
         }
 
     }
@@ -644,6 +830,7 @@ public String toString() {
         final StringBuilder builder = new StringBuilder();
         builder.append("[maxObjectSize=").append(this.maxObjectSize)
                 .append(", maxCacheEntries=").append(this.maxCacheEntries)
+                .append(", maxCacheBytes=").append(this.maxCacheBytes)
                 .append(", maxUpdateRetries=").append(this.maxUpdateRetries)
                 .append(", heuristicCachingEnabled=").append(this.heuristicCachingEnabled)
                 .append(", heuristicCoefficient=").append(this.heuristicCoefficient)
@@ -656,6 +843,10 @@ public String toString() {
                 .append(", staleIfErrorEnabled=").append(this.staleIfErrorEnabled)
                 .append(", requestCollapsingEnabled=").append(this.requestCollapsingEnabled)
                 .append(", cacheStatusEnabled=").append(this.cacheStatusEnabled)
+                .append(", writeThroughEnabled=").append(this.writeThroughEnabled)
+                .append(", refreshAheadWindow=").append(this.refreshAheadWindow)
+                .append(", refreshAheadMinHits=").append(this.refreshAheadMinHits)
+                .append(", maxConcurrentRefreshes=").append(this.maxConcurrentRefreshes)
                 .append("]");
         return builder.toString();
     }
@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.apache.hc.client5.http.impl.Operations;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+
+/**
+ * Asynchronous cache storage operation utilities.
+ *
+ * @since 5.7
+ */
+final class CacheOperations {
+
+    private CacheOperations() {
+    }
+
+    /**
+     * Starts the given operation for every key and completes the callback once all of them
+     * have completed, or as soon as one of them fails or is cancelled. Cancelling the returned
+     * handle cancels all the operations.
+     *
+     * @param keys the keys to apply the operation to.
+     * @param operation the operation started for each key.
+     * @param callback the callback completed with {@code true} once all operations have completed.
+     * @return the cancellable handle of all operations.
+     */
+    static Cancellable forEach(
+            final Collection<String> keys,
+            final BiFunction<String, FutureCallback<Boolean>, Cancellable> operation,
+            final FutureCallback<Boolean> callback) {
+        if (keys.isEmpty()) {
+            callback.completed(Boolean.TRUE);
+            return Operations.nonCancellable();
+        }
+        final List<Cancellable> operations = new ArrayList<>(keys.size());
+        final AtomicInteger remaining = new AtomicInteger(keys.size());
+        final AtomicBoolean done = new AtomicBoolean(false);
+        for (final String key : keys) {
+            operations.add(operation.apply(key, new FutureCallback<Boolean>() {
+
+                @Override
+                public void completed(final Boolean result) {
+                    if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                        callback.completed(Boolean.TRUE);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    if (done.compareAndSet(false, true)) {
+                        callback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (done.compareAndSet(false, true)) {
+                        callback.cancelled();
+                    }
+                }
+
+            }));
+        }
+        return () -> {
+            for (final Cancellable op : operations) {
+                op.cancel();
+            }
+            return true;
+        };
+    }
+
+}
@@ -28,19 +28,24 @@
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.CancellableDependency;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Timeout;
 
 /**
  * Coordinates concurrent requests for the same cache key so that only one request
  * goes to the backend while others wait for it to complete and then re-check the cache.
  * <p>
- * Each {@link AsyncCachingExec} owns its own instance; collapse state is never shared
- * across executors or clients.
+ * Asynchronous followers are called back once the leader completes; classic followers
+ * block until then.
+ * <p>
+ * Each {@link AsyncCachingExec} and {@link CachingExec} owns its own instance; collapse
+ * state is never shared across executors or clients.
  */
 @Internal
 final class CacheRequestCollapser {
@@ -66,6 +71,7 @@ boolean isLeader() {
         void complete() {
             if (entry.completed.compareAndSet(false, true)) {
                 inflight.remove(key, entry);
+                entry.latch.countDown();
                 entry.drain();
             }
         }
@@ -99,10 +105,12 @@ private static final class Entry {
 
         private final AtomicBoolean completed;
         private final ConcurrentLinkedQueue<Waiter> waiters;
+        private final CountDownLatch latch;
 
         private Entry() {
             this.completed = new AtomicBoolean(false);
             this.waiters = new ConcurrentLinkedQueue<>();
+            this.latch = new CountDownLatch(1);
         }
 
         private void await(final CancellableDependency holder, final Runnable task) {
@@ -155,4 +163,20 @@ void await(final Token token, final CancellableDependency holder, final Runnable
         token.entry.await(holder, task);
     }
 
+    /**
+     * Blocks until the leader of the given token completes or the timeout expires.
+     *
+     * @param timeout the maximum time to wait; {@code null} or a non-positive value
+     *                to wait without a time limit.
+     * @return {@code true} if the leader has completed, {@code false} on timeout.
+     */
+    boolean await(final Token token, final Timeout timeout) throws InterruptedException {
+        Args.notNull(token, "Token");
+        if (Timeout.isPositive(timeout)) {
+            return token.entry.latch.await(timeout.getDuration(), timeout.getTimeUnit());
+        }
+        token.entry.latch.await();
+        return true;
+    }
+
 }
@@ -121,20 +121,26 @@ public CacheRevalidatorBase(
 
     /**
      * Schedules an asynchronous re-validation
+     *
+     * @return {@code true} if the re-validation has been scheduled, {@code false} if
+     * a re-validation of the same entry is already pending or could not be scheduled.
      */
-    void scheduleRevalidation(final String cacheKey, final Runnable command) {
+    boolean scheduleRevalidation(final String cacheKey, final Runnable command) {
         lock.lock();
         try {
             if (!pendingRequest.contains(cacheKey)) {
                 final int consecutiveFailedAttempts = failureCache.getCount(cacheKey);
                 final TimeValue executionTime = schedulingStrategy.schedule(consecutiveFailedAttempts);
                 try {
-                    scheduledExecutor.schedule(command, executionTime);
                     pendingRequest.add(cacheKey);
+                    scheduledExecutor.schedule(command, executionTime);
+                    return true;
                 } catch (final RejectedExecutionException ex) {
+                    pendingRequest.remove(cacheKey);
                     LOG.debug("Revalidation of cache entry with key {} could not be scheduled", cacheKey, ex);
                 }
             }
+            return false;
         } finally {
             lock.unlock();
         }
@@ -0,0 +1,398 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Collects statistics of an HTTP cache instance: cache hits and misses,
+ * validation outcomes, cache storage activity and storage latency.
+ * <p>
+ * Counters are lock-free and cheap enough to stay enabled permanently.
+ * Optionally the most frequently requested cache keys can be tracked
+ * by sampling one in every {@code sampleRate} cache lookups into a bounded
+ * top-K summary. The hot key summary is approximate: keys may be
+ * over-counted by at most the count of the least frequent key tracked.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class CacheStatistics {
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder validations;
+    private final LongAdder validationsNotModified;
+    private final LongAdder validationsModified;
+    private final LongAdder validationFailures;
+    private final LongAdder stores;
+    private final LongAdder storedBytes;
+    private final LongAdder invalidations;
+    private final LongAdder evictions;
+    private final LongAdder storageReads;
+    private final LongAdder storageReadNanos;
+    private final LongAdder storageWrites;
+    private final LongAdder storageWriteNanos;
+    private final LongAdder storageErrors;
+    private final HotKeyTracker hotKeys;
+
+    /**
+     * Creates a new instance with hot key tracking enabled.
+     *
+     * @param hotKeyCapacity the maximum number of hot keys to track.
+     * @param sampleRate track one in every {@code sampleRate} cache lookups.
+     */
+    public CacheStatistics(final int hotKeyCapacity, final int sampleRate) {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.validations = new LongAdder();
+        this.validationsNotModified = new LongAdder();
+        this.validationsModified = new LongAdder();
+        this.validationFailures = new LongAdder();
+        this.stores = new LongAdder();
+        this.storedBytes = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.evictions = new LongAdder();
+        this.storageReads = new LongAdder();
+        this.storageReadNanos = new LongAdder();
+        this.storageWrites = new LongAdder();
+        this.storageWriteNanos = new LongAdder();
+        this.storageErrors = new LongAdder();
+        this.hotKeys = hotKeyCapacity > 0
+                ? new HotKeyTracker(hotKeyCapacity, Args.positive(sampleRate, "Sample rate"))
+                : null;
+    }
+
+    /**
+     * Creates a new instance with hot key tracking disabled.
+     */
+    public CacheStatistics() {
+        this(0, 1);
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordValidation() {
+        validations.increment();
+    }
+
+    void recordValidationNotModified() {
+        validationsNotModified.increment();
+    }
+
+    void recordValidationModified() {
+        validationsModified.increment();
+    }
+
+    void recordValidationFailure() {
+        validationFailures.increment();
+    }
+
+    void recordStore(final long bytes) {
+        stores.increment();
+        storedBytes.add(bytes);
+    }
+
+    void recordInvalidations(final int count) {
+        invalidations.add(count);
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordLookup(final String cacheKey) {
+        if (hotKeys != null && cacheKey != null) {
+            hotKeys.sample(cacheKey);
+        }
+    }
+
+    void recordStorageRead(final long startNanos, final boolean failed) {
+        storageReads.increment();
+        storageReadNanos.add(System.nanoTime() - startNanos);
+        if (failed) {
+            storageErrors.increment();
+        }
+    }
+
+    void recordStorageWrite(final long startNanos, final boolean failed) {
+        storageWrites.increment();
+        storageWriteNanos.add(System.nanoTime() - startNanos);
+        if (failed) {
+            storageErrors.increment();
+        }
+    }
+
+    /**
+     * Returns the number of requests served from the cache without
+     * contacting the origin server.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests forwarded to the origin server because
+     * no suitable cache entry was found.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of hits to hits and misses or {@code 0} if no requests
+     * have been recorded yet.
+     */
+    public double getHitRatio() {
+        final long hitCount = getHitCount();
+        final long total = hitCount + getMissCount();
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+
+    /**
+     * Returns the number of conditional requests sent to the origin server
+     * in order to validate cache entries.
+     */
+    public long getValidationCount() {
+        return validations.sum();
+    }
+
+    /**
+     * Returns the number of validations that confirmed the cache entry
+     * is still current ({@code 304 Not Modified}).
+     */
+    public long getValidationNotModifiedCount() {
+        return validationsNotModified.sum();
+    }
+
+    /**
+     * Returns the number of validations that replaced the cache entry
+     * with a new representation ({@code 200 OK}).
+     */
+    public long getValidationModifiedCount() {
+        return validationsModified.sum();
+    }
+
+    /**
+     * Returns the number of validations that failed due to an I/O error
+     * or an error response of the origin server.
+     */
+    public long getValidationFailureCount() {
+        return validationFailures.sum();
+    }
+
+    /**
+     * Returns the number of cache entries written to the cache storage.
+     */
+    public long getStoreCount() {
+        return stores.sum();
+    }
+
+    /**
+     * Returns the total length of response bodies written to the cache storage.
+     */
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    /**
+     * Returns the number of cache entries removed from the cache storage
+     * as a result of invalidation.
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the number of cache entries evicted by the cache storage in order
+     * to stay within its bounds. Only storages created with this statistics
+     * instance report evictions, which the caching client builders do for their
+     * default storage.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of read operations executed against the cache storage.
+     */
+    public long getStorageReadCount() {
+        return storageReads.sum();
+    }
+
+    /**
+     * Returns the total time spent reading from the cache storage.
+     */
+    public long getStorageReadTime(final TimeUnit timeUnit) {
+        return Args.notNull(timeUnit, "Time unit").convert(storageReadNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of write, update and remove operations executed
+     * against the cache storage.
+     */
+    public long getStorageWriteCount() {
+        return storageWrites.sum();
+    }
+
+    /**
+     * Returns the total time spent writing to the cache storage.
+     */
+    public long getStorageWriteTime(final TimeUnit timeUnit) {
+        return Args.notNull(timeUnit, "Time unit").convert(storageWriteNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of cache storage operations that failed.
+     */
+    public long getStorageErrorCount() {
+        return storageErrors.sum();
+    }
+
+    /**
+     * Returns {@code true} if hot key tracking is enabled.
+     */
+    public boolean isHotKeyTrackingEnabled() {
+        return hotKeys != null;
+    }
+
+    /**
+     * Returns the most frequently requested cache keys with their estimated
+     * (sampled) lookup counts, ordered from the most frequent one. Returns
+     * an empty map if hot key tracking is disabled.
+     */
+    public Map<String, Long> getHotKeys() {
+        return hotKeys != null ? hotKeys.snapshot() : new LinkedHashMap<>();
+    }
+
+    @Override
+    public String toString() {
+        return "[hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", validations=" + getValidationCount() +
+                ", notModified=" + getValidationNotModifiedCount() +
+                ", modified=" + getValidationModifiedCount() +
+                ", validationFailures=" + getValidationFailureCount() +
+                ", stores=" + getStoreCount() +
+                ", storedBytes=" + getStoredBytes() +
+                ", invalidations=" + getInvalidationCount() +
+                ", evictions=" + getEvictionCount() +
+                ", storageErrors=" + getStorageErrorCount() +
+                "]";
+    }
+
+    /**
+     * Space-Saving top-K summary fed by sampled lookups.
+     */
+    static final class HotKeyTracker {
+
+        private final int capacity;
+        private final int sampleRate;
+        private final ReentrantLock lock;
+        private final Map<String, long[]> counts;
+
+        HotKeyTracker(final int capacity, final int sampleRate) {
+            this.capacity = capacity;
+            this.sampleRate = sampleRate;
+            this.lock = new ReentrantLock();
+            this.counts = new HashMap<>();
+        }
+
+        void sample(final String key) {
+            if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                final long[] count = counts.get(key);
+                if (count != null) {
+                    count[0]++;
+                    return;
+                }
+                if (counts.size() < capacity) {
+                    counts.put(key, new long[] {1});
+                    return;
+                }
+                String minKey = null;
+                long[] minCount = null;
+                for (final Map.Entry<String, long[]> entry : counts.entrySet()) {
+                    if (minCount == null || entry.getValue()[0] < minCount[0]) {
+                        minKey = entry.getKey();
+                        minCount = entry.getValue();
+                    }
+                }
+                counts.remove(minKey);
+                minCount[0]++;
+                counts.put(key, minCount);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<String, Long> snapshot() {
+            final List<Map.Entry<String, Long>> entries;
+            lock.lock();
+            try {
+                entries = new ArrayList<>(counts.size());
+                for (final Map.Entry<String, long[]> entry : counts.entrySet()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()[0] * sampleRate));
+                }
+            } finally {
+                lock.unlock();
+            }
+            entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+            final Map<String, Long> result = new LinkedHashMap<>();
+            for (final Map.Entry<String, Long> entry : entries) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -26,6 +26,7 @@
  */
 package org.apache.hc.client5.http.impl.cache;
 
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
@@ -64,20 +65,39 @@ class CachedHttpResponseGenerator {
      * @return {@link SimpleHttpResponse} constructed response
      */
     SimpleHttpResponse generateResponse(final HttpRequest request, final HttpCacheEntry entry) throws ResourceIOException {
+        final SimpleHttpResponse response = generateHead(entry);
+        if (responseShouldContainEntity(request, entry)) {
+            final byte[] content = entry.getResource().get();
+            generateContentLength(response, content.length);
+            response.setBody(content, getContentType(entry));
+        }
+        return response;
+    }
+
+    /**
+     * Generates a response like {@link #generateResponse(HttpRequest, HttpCacheEntry)}, except
+     * that the body of a resource not held in memory is streamed from the resource rather than
+     * read into the response message.
+     */
+    CachedResponse generate(final HttpRequest request, final HttpCacheEntry entry) throws ResourceIOException {
+        if (!responseShouldContainEntity(request, entry) || entry.getResource() instanceof HeapResource) {
+            return CachedResponse.of(generateResponse(request, entry));
+        }
+        final Resource resource = entry.getResource();
+        // Open the content here, so that the caller can fall back to the backend
+        // as it would if the content were read in full
+        final ReadableByteChannel channel = resource.getChannel();
+        final SimpleHttpResponse response = generateHead(entry);
+        generateContentLength(response, resource.length());
+        return new CachedResponse(response, resource, channel, getContentType(entry));
+    }
+
+    private SimpleHttpResponse generateHead(final HttpCacheEntry entry) {
         final Instant now = Instant.now();
         final SimpleHttpResponse response = new SimpleHttpResponse(entry.getStatus());
 
         response.setHeaders(entry.getHeaders());
 
-        if (responseShouldContainEntity(request, entry)) {
-            final Resource resource = entry.getResource();
-            final Header h = entry.getFirstHeader(HttpHeaders.CONTENT_TYPE);
-            final ContentType contentType = h != null ? ContentType.parse(h.getValue()) : null;
-            final byte[] content = resource.get();
-            generateContentLength(response, content);
-            response.setBody(content, contentType);
-        }
-
         final TimeValue age = this.validityStrategy.getCurrentAge(entry, now);
         if (age.compareTo(CacheSupport.MAX_AGE) >= 0) {
             response.setHeader(HttpHeaders.AGE, Long.toString(CacheSupport.MAX_AGE.toSeconds()));
@@ -88,6 +108,11 @@ SimpleHttpResponse generateResponse(final HttpRequest request, final HttpCacheEn
         return response;
     }
 
+    private static ContentType getContentType(final HttpCacheEntry entry) {
+        final Header h = entry.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+        return h != null ? ContentType.parse(h.getValue()) : null;
+    }
+
     /**
      * Generate a 304 - Not Modified response from the {@link HttpCacheEntry}. This should be
      * used to respond to conditional requests, when the entry exists or has been re-validated.
@@ -150,9 +175,9 @@ SimpleHttpResponse generateNotModifiedResponse(final HttpCacheEntry entry) {
         return response;
     }
 
-    private void generateContentLength(final HttpResponse response, final byte[] body) {
+    private void generateContentLength(final HttpResponse response, final long length) {
         response.removeHeaders(HttpHeaders.TRANSFER_ENCODING);
-        response.setHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length));
+        response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
     }
 
     private boolean responseShouldContainEntity(final HttpRequest request, final HttpCacheEntry cacheEntry) {
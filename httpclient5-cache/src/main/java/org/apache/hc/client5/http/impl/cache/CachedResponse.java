@@ -0,0 +1,88 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.core5.http.ContentType;
+
+/**
+ * Response generated by the cache. The response body is either held in memory
+ * by the response message or streamed from a cache {@link Resource}.
+ */
+final class CachedResponse {
+
+    private final SimpleHttpResponse message;
+    private final Resource resource;
+    private final ReadableByteChannel channel;
+    private final ContentType contentType;
+
+    CachedResponse(
+            final SimpleHttpResponse message,
+            final Resource resource,
+            final ReadableByteChannel channel,
+            final ContentType contentType) {
+        this.message = message;
+        this.resource = resource;
+        this.channel = channel;
+        this.contentType = contentType;
+    }
+
+    static CachedResponse of(final SimpleHttpResponse message) {
+        return message != null ? new CachedResponse(message, null, null, null) : null;
+    }
+
+    /**
+     * Returns the response message. Its body is {@code null} if the body
+     * is to be streamed from {@link #getResource()}.
+     */
+    SimpleHttpResponse getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the resource to stream the response body from, or {@code null}.
+     */
+    Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * Returns the channel already opened on {@link #getResource()} to read the response
+     * body from, or {@code null}. Whoever consumes the body is responsible for closing it.
+     */
+    ReadableByteChannel getChannel() {
+        return channel;
+    }
+
+    ContentType getContentType() {
+        return contentType;
+    }
+
+}
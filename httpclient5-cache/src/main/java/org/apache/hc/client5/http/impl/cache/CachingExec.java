@@ -28,6 +28,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -43,6 +44,7 @@
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
 import org.apache.hc.client5.http.cache.RequestCacheControl;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.client5.http.cache.ResponseCacheControl;
 import org.apache.hc.client5.http.classic.ExecChain;
@@ -105,14 +107,24 @@ class CachingExec extends CachingExecBase implements ExecChainHandler {
     private final HttpCache responseCache;
     private final DefaultCacheRevalidator cacheRevalidator;
     private final ConditionalRequestBuilder conditionalRequestBuilder;
+    private final CacheRequestCollapser collapser;
 
     private static final Logger LOG = LoggerFactory.getLogger(CachingExec.class);
 
-    CachingExec(final HttpCache cache, final DefaultCacheRevalidator cacheRevalidator, final CacheConfig config) {
-        super(config);
+    CachingExec(
+            final HttpCache cache,
+            final DefaultCacheRevalidator cacheRevalidator,
+            final CacheConfig config,
+            final CacheStatistics cacheStatistics) {
+        super(config, cacheStatistics);
         this.responseCache = Args.notNull(cache, "Response cache");
         this.cacheRevalidator = cacheRevalidator;
         this.conditionalRequestBuilder = new ConditionalRequestBuilder();
+        this.collapser = this.cacheConfig.isRequestCollapsingEnabled() ? new CacheRequestCollapser() : null;
+    }
+
+    CachingExec(final HttpCache cache, final DefaultCacheRevalidator cacheRevalidator, final CacheConfig config) {
+        this(cache, cacheRevalidator, config, null);
     }
 
     @Override
@@ -202,8 +214,23 @@ ClassicHttpResponse doExecute(
         final CacheHit root = result != null ? result.root : null;
 
         if (hit == null) {
+            if (collapser != null && root == null && !requestCacheControl.isOnlyIfCached()) {
+                return handleCollapsedCacheMiss(requestCacheControl, target, cacheRequest, scope, chain);
+            }
             return handleCacheMiss(requestCacheControl, root, target, cacheRequest, scope, chain);
         }
+        return handleCacheHit(requestCacheControl, hit, target, cacheRequest, scope, chain);
+    }
+
+    private ClassicHttpResponse handleCacheHit(
+            final RequestCacheControl requestCacheControl,
+            final CacheHit hit,
+            final HttpHost target,
+            final SimpleHttpRequest cacheRequest,
+            final ExecChain.Scope scope,
+            final ExecChain chain) throws IOException, HttpException {
+        final String exchangeId = scope.exchangeId;
+        final HttpCacheContext context = HttpCacheContext.cast(scope.clientContext);
         final ResponseCacheControl responseCacheControl = CacheControlHeaderParser.INSTANCE.parse(hit.entry);
         context.setResponseCacheControl(responseCacheControl);
         if (LOG.isDebugEnabled()) {
@@ -212,6 +239,65 @@ ClassicHttpResponse doExecute(
         return handleCacheHit(requestCacheControl, responseCacheControl, hit, target, cacheRequest, scope, chain);
     }
 
+    /**
+     * Only one of concurrent requests missing the cache for the same key goes to the backend.
+     * The others block until it completes, bounded by the response timeout of the request,
+     * and then look up the cache again.
+     */
+    private ClassicHttpResponse handleCollapsedCacheMiss(
+            final RequestCacheControl requestCacheControl,
+            final HttpHost target,
+            final SimpleHttpRequest cacheRequest,
+            final ExecChain.Scope scope,
+            final ExecChain chain) throws IOException, HttpException {
+        final String exchangeId = scope.exchangeId;
+        final String cacheKey = CacheKeyGenerator.INSTANCE.generateKey(target, cacheRequest, SimpleHttpRequest::getBodyBytes);
+        final CacheRequestCollapser.Token token = collapser.enter(cacheKey);
+        if (token.isLeader()) {
+            try {
+                return handleCacheMiss(requestCacheControl, null, target, cacheRequest, scope, chain);
+            } finally {
+                token.complete();
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} waiting for concurrent request for the same resource", exchangeId);
+        }
+        final boolean completed;
+        try {
+            completed = collapser.await(token, scope.clientContext.getRequestConfigOrDefault().getResponseTimeout());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (!completed) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} timed out waiting for concurrent request; calling the backend", exchangeId);
+            }
+            return handleCacheMiss(requestCacheControl, null, target, cacheRequest, scope, chain);
+        }
+        final CacheMatch result = responseCache.match(target, cacheRequest);
+        final CacheHit hit = result != null ? result.hit : null;
+        if (hit == null) {
+            return handleCacheMiss(requestCacheControl, result != null ? result.root : null, target, cacheRequest, scope, chain);
+        }
+        return handleCacheHit(requestCacheControl, hit, target, cacheRequest, scope, chain);
+    }
+
+    private static ClassicHttpResponse convert(final CachedResponse cacheResponse) {
+        if (cacheResponse == null) {
+            return null;
+        }
+        final ClassicHttpResponse response = convert(cacheResponse.getMessage());
+        final Resource resource = cacheResponse.getResource();
+        if (resource != null) {
+            final Header h = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            response.setEntity(new ResourceEntity(resource, cacheResponse.getChannel(), cacheResponse.getContentType(),
+                    h != null ? h.getValue() : null));
+        }
+        return response;
+    }
+
     private static ClassicHttpResponse convert(final SimpleHttpResponse cacheResponse) {
         if (cacheResponse == null) {
             return null;
@@ -321,6 +407,7 @@ private ClassicHttpResponse handleCacheHit(
         }
 
         cacheHits.getAndIncrement();
+        cacheStatistics.recordHit();
 
         final Instant now = getCurrentDate();
 
@@ -333,9 +420,12 @@ private ClassicHttpResponse handleCacheHit(
                 LOG.debug("{} cache hit is fresh enough", exchangeId);
             }
             try {
-                final SimpleHttpResponse cacheResponse = generateCachedResponse(request, hit.entry, now);
+                final CachedResponse cacheResponse = generateCachedResponse(request, hit.entry, now);
                 context.setCacheEntry(hit.entry);
                 cacheStatus(context).hit();
+                if (cacheRevalidator != null && shouldRefreshAhead(responseCacheControl, hit, now)) {
+                    refreshAhead(requestCacheControl, responseCacheControl, hit, target, request, scope, chain);
+                }
                 return convert(cacheResponse);
             } catch (final ResourceIOException ex) {
                 if (requestCacheControl.isOnlyIfCached()) {
@@ -399,7 +489,7 @@ private ClassicHttpResponse handleCacheHit(
                 cacheRevalidator.revalidateCacheEntry(
                         hit.getEntryKey(),
                         () -> revalidateCacheEntry(requestCacheControl, responseCacheControl, hit, target, request, fork, chain));
-                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                 context.setCacheEntry(hit.entry);
                 cacheStatus(context).hit();
                 cacheStatus(context).moduleResponse();
@@ -422,6 +512,45 @@ private ClassicHttpResponse handleCacheHit(
         }
     }
 
+    /**
+     * Schedules a background revalidation of a cache entry that is still fresh but about to
+     * expire. The outcome only updates the cache and is not returned to any caller.
+     */
+    private void refreshAhead(
+            final RequestCacheControl requestCacheControl,
+            final ResponseCacheControl responseCacheControl,
+            final CacheHit hit,
+            final HttpHost target,
+            final SimpleHttpRequest request,
+            final ExecChain.Scope scope,
+            final ExecChain chain) {
+        final String cacheKey = hit.getEntryKey();
+        final String refreshExchangeId = ExecSupport.getNextExchangeId();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} starting refresh-ahead exchange {}", scope.exchangeId, refreshExchangeId);
+        }
+        final ExecChain.Scope fork = new ExecChain.Scope(
+                refreshExchangeId,
+                scope.route,
+                scope.originalRequest,
+                scope.execRuntime.fork(null),
+                HttpCacheContext.create());
+        boolean scheduled = false;
+        try {
+            scheduled = cacheRevalidator.revalidateCacheEntry(cacheKey, () -> {
+                try {
+                    return revalidateCacheEntry(requestCacheControl, responseCacheControl, hit, target, request, fork, chain);
+                } finally {
+                    refreshAheadDone(cacheKey);
+                }
+            });
+        } finally {
+            if (!scheduled) {
+                refreshAheadDone(cacheKey);
+            }
+        }
+    }
+
     ClassicHttpResponse revalidateCacheEntry(
             final RequestCacheControl requestCacheControl,
             final ResponseCacheControl responseCacheControl,
@@ -434,7 +563,14 @@ ClassicHttpResponse revalidateCacheEntry(
         Instant requestDate = getCurrentDate();
         final SimpleHttpRequest conditional = conditionalRequestBuilder.makeConditional(responseCacheControl, request, hit.entry);
 
-        ClassicHttpResponse backendResponse = callChain(conditional, scope, chain);
+        cacheStatistics.recordValidation();
+        ClassicHttpResponse backendResponse;
+        try {
+            backendResponse = callChain(conditional, scope, chain);
+        } catch (final IOException | RuntimeException ex) {
+            cacheStatistics.recordValidationFailure();
+            throw ex;
+        }
         try {
             Instant responseDate = getCurrentDate();
 
@@ -448,13 +584,14 @@ ClassicHttpResponse revalidateCacheEntry(
             }
 
             final int statusCode = backendResponse.getCode();
+            recordValidationOutcome(statusCode);
             if (statusCode == HttpStatus.SC_NOT_MODIFIED || statusCode == HttpStatus.SC_OK) {
                 cacheStatus(context).forwardStatus(statusCode);
                 cacheUpdates.getAndIncrement();
             }
             if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
                 final CacheHit updated = responseCache.update(hit, target, request, backendResponse, requestDate, responseDate);
-                final SimpleHttpResponse cacheResponse = generateCachedResponse(request, updated.entry, responseDate);
+                final CachedResponse cacheResponse = generateCachedResponse(request, updated.entry, responseDate);
                 context.setCacheEntry(updated.entry);
                 return convert(cacheResponse);
             }
@@ -508,7 +645,7 @@ ClassicHttpResponse revalidateCacheEntryWithFallback(
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("{} serving stale response due to IOException and stale-if-error enabled", exchangeId);
                 }
-                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+                final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
                 context.setCacheEntry(hit.entry);
                 cacheStatus(context).moduleResponse();
                 return convert(cacheResponse);
@@ -525,7 +662,7 @@ ClassicHttpResponse revalidateCacheEntryWithFallback(
             EntityUtils.consume(response.getEntity());
             cacheStatus(context).forwardStatus(status);
             cacheStatus(context).moduleResponse();
-            final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+            final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
             context.setCacheEntry(hit.entry);
             return convert(cacheResponse);
         }
@@ -588,7 +725,7 @@ ClassicHttpResponse cacheAndReturnResponse(
                         backendResponse,
                         requestSent,
                         responseReceived);
-                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, updated.entry);
+                final CachedResponse cacheResponse = responseGenerator.generate(request, updated.entry);
                 context.setCacheEntry(hit.entry);
                 return convert(cacheResponse);
             }
@@ -638,7 +775,7 @@ ClassicHttpResponse cacheAndReturnResponse(
                 LOG.debug("{} backend response successfully cached (freshness check skipped)", exchangeId);
             }
         }
-        final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, hit.entry);
+        final CachedResponse cacheResponse = responseGenerator.generate(request, hit.entry);
         context.setCacheEntry(hit.entry);
         return convert(cacheResponse);
     }
@@ -656,6 +793,7 @@ private ClassicHttpResponse handleCacheMiss(
             LOG.debug("{} cache miss: {} {}", exchangeId, request.getMethod(), request.getRequestUri());
         }
         cacheMisses.getAndIncrement();
+        cacheStatistics.recordMiss();
 
         final HttpCacheContext context = HttpCacheContext.cast(scope.clientContext);
         if (requestCacheControl.isOnlyIfCached()) {
@@ -703,10 +841,18 @@ ClassicHttpResponse negotiateResponseFromVariants(
                 variantMap.keySet());
 
         final Instant requestDate = getCurrentDate();
-        final ClassicHttpResponse backendResponse = callChain(conditional, scope, chain);
+        cacheStatistics.recordValidation();
+        final ClassicHttpResponse backendResponse;
+        try {
+            backendResponse = callChain(conditional, scope, chain);
+        } catch (final IOException | RuntimeException ex) {
+            cacheStatistics.recordValidationFailure();
+            throw ex;
+        }
         try {
             final Instant responseDate = getCurrentDate();
 
+            recordValidationOutcome(backendResponse.getCode());
             if (backendResponse.getCode() != HttpStatus.SC_NOT_MODIFIED) {
                 return handleBackendResponse(requestCacheControl, target, request, scope, requestDate, responseDate, backendResponse);
             }
@@ -739,7 +885,7 @@ ClassicHttpResponse negotiateResponseFromVariants(
             cacheStatus(context).forwardStatus(HttpStatus.SC_NOT_MODIFIED);
 
             final CacheHit hit = responseCache.storeFromNegotiated(match, target, request, backendResponse, requestDate, responseDate);
-            final SimpleHttpResponse cacheResponse = generateCachedResponse(request, hit.entry, responseDate);
+            final CachedResponse cacheResponse = generateCachedResponse(request, hit.entry, responseDate);
             context.setCacheEntry(hit.entry);
             return convert(cacheResponse);
         } catch (final IOException | RuntimeException ex) {
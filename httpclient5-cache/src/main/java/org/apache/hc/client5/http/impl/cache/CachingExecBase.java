@@ -33,6 +33,7 @@
 import org.apache.hc.client5.http.cache.HttpCacheContext;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResponseCacheControl;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpHeaders;
@@ -60,6 +61,8 @@ public class CachingExecBase {
     final CacheableRequestPolicy cacheableRequestPolicy;
     final CachedResponseSuitabilityChecker suitabilityChecker;
     final CacheConfig cacheConfig;
+    final RefreshAheadTracker refreshAheadTracker;
+    final CacheStatistics cacheStatistics;
 
     CachingExecBase(
             final CacheValidityPolicy validityPolicy,
@@ -74,11 +77,13 @@ public class CachingExecBase {
         this.cacheableRequestPolicy = cacheableRequestPolicy;
         this.suitabilityChecker = suitabilityChecker;
         this.cacheConfig = config != null ? config : CacheConfig.DEFAULT;
+        this.refreshAheadTracker = RefreshAheadTracker.create(this.cacheConfig);
+        this.cacheStatistics = new CacheStatistics();
     }
 
     // The query-string caching options are deprecated but still honoured while they remain on the API.
     @SuppressWarnings("deprecation")
-    CachingExecBase(final CacheConfig config) {
+    CachingExecBase(final CacheConfig config, final CacheStatistics cacheStatistics) {
         super();
         this.cacheConfig = config != null ? config : CacheConfig.DEFAULT;
         this.validityPolicy = new CacheValidityPolicy(config);
@@ -89,6 +94,12 @@ public class CachingExecBase {
                 this.cacheConfig.isSharedCache(),
                 this.cacheConfig.isNeverCacheHTTP10ResponsesWithQuery(),
                 this.cacheConfig.isNeverCacheHTTP11ResponsesWithQuery());
+        this.refreshAheadTracker = RefreshAheadTracker.create(this.cacheConfig);
+        this.cacheStatistics = cacheStatistics != null ? cacheStatistics : new CacheStatistics();
+    }
+
+    CachingExecBase(final CacheConfig config) {
+        this(config, null);
     }
 
     /**
@@ -118,14 +129,57 @@ public long getCacheUpdates() {
         return cacheUpdates.get();
     }
 
-    SimpleHttpResponse generateCachedResponse(
+    /**
+     * Returns detailed statistics of the cache.
+     *
+     * @return the cache statistics
+     * @since 5.7
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    void recordValidationOutcome(final int statusCode) {
+        if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            cacheStatistics.recordValidationNotModified();
+        } else if (statusCode == HttpStatus.SC_OK) {
+            cacheStatistics.recordValidationModified();
+        } else if (statusCode >= HttpStatus.SC_SERVER_ERROR) {
+            cacheStatistics.recordValidationFailure();
+        }
+    }
+
+    CachedResponse generateCachedResponse(
             final HttpRequest request,
             final HttpCacheEntry entry,
             final Instant now) throws ResourceIOException {
         if (shouldSendNotModifiedResponse(request, entry, now)) {
-            return responseGenerator.generateNotModifiedResponse(entry);
+            return CachedResponse.of(responseGenerator.generateNotModifiedResponse(entry));
+        }
+        return responseGenerator.generate(request, entry);
+    }
+
+    /**
+     * Determines whether a fresh cache hit should trigger a refresh-ahead of the entry.
+     * If so, the caller must release the refresh budget with {@link #refreshAheadDone(String)}
+     * once the refresh has completed or could not be scheduled.
+     */
+    boolean shouldRefreshAhead(
+            final ResponseCacheControl responseCacheControl,
+            final CacheHit hit,
+            final Instant now) {
+        if (refreshAheadTracker == null) {
+            return false;
+        }
+        final long remaining = validityPolicy.getFreshnessLifetime(responseCacheControl, hit.entry).toMilliseconds()
+                - validityPolicy.getCurrentAge(hit.entry, now).toMilliseconds();
+        return remaining > 0 && refreshAheadTracker.acquire(hit.getEntryKey(), remaining);
+    }
+
+    void refreshAheadDone(final String cacheKey) {
+        if (refreshAheadTracker != null) {
+            refreshAheadTracker.release(cacheKey);
         }
-        return responseGenerator.generateResponse(request, entry);
     }
 
     SimpleHttpResponse generateGatewayTimeout() {
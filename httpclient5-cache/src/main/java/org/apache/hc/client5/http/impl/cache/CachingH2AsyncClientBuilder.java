@@ -55,6 +55,7 @@ public class CachingH2AsyncClientBuilder extends H2AsyncClientBuilder {
     private File cacheDir;
     private SchedulingStrategy schedulingStrategy;
     private CacheConfig cacheConfig;
+    private CacheStatistics cacheStatistics;
     private boolean deleteCache;
 
     public static CachingH2AsyncClientBuilder create() {
@@ -99,6 +100,17 @@ public final CachingH2AsyncClientBuilder setCacheConfig(final CacheConfig cacheC
         return this;
     }
 
+    /**
+     * Sets the {@link CacheStatistics} instance the cache reports its activity to.
+     * If not set, a new instance without hot key tracking is used.
+     *
+     * @since 5.7
+     */
+    public final CachingH2AsyncClientBuilder setCacheStatistics(final CacheStatistics cacheStatistics) {
+        this.cacheStatistics = cacheStatistics;
+        return this;
+    }
+
     /**
      * @deprecated Do not use.
      */
@@ -124,12 +136,15 @@ protected void customizeExecChain(final NamedElementChain<AsyncExecChainHandler>
                 resourceFactoryCopy = new FileResourceFactory(cacheDir);
             }
         }
+        final CacheStatistics statistics = this.cacheStatistics != null ? this.cacheStatistics : new CacheStatistics();
         HttpAsyncCacheStorage storageCopy = this.storage;
         if (storageCopy == null) {
             if (this.cacheDir == null) {
-                storageCopy = new HttpAsyncCacheStorageAdaptor(new BasicHttpCacheStorage(config));
+                storageCopy = new HttpAsyncCacheStorageAdaptor(config.getMaxCacheBytes() > 0
+                        ? new ConcurrentHttpCacheStorage(config, statistics)
+                        : new BasicHttpCacheStorage(config, statistics));
             } else {
-                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config);
+                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config, statistics);
                 if (this.deleteCache) {
                     addCloseable(managedStorage::shutdown);
                 } else {
@@ -142,7 +157,8 @@ protected void customizeExecChain(final NamedElementChain<AsyncExecChainHandler>
                 resourceFactoryCopy,
                 HttpCacheEntryFactory.INSTANCE,
                 storageCopy,
-                CacheKeyGenerator.INSTANCE);
+                CacheKeyGenerator.INSTANCE,
+                statistics);
 
         DefaultAsyncCacheRevalidator cacheRevalidator = null;
         if (config.getAsynchronousWorkers() > 0) {
@@ -156,7 +172,8 @@ protected void customizeExecChain(final NamedElementChain<AsyncExecChainHandler>
         final AsyncCachingExec cachingExec = new AsyncCachingExec(
                 httpCache,
                 cacheRevalidator,
-                config);
+                config,
+                statistics);
         execChainDefinition.addBefore(ChainElement.PROTOCOL.name(), cachingExec, ChainElement.CACHING.name());
     }
 
@@ -57,6 +57,7 @@ public class CachingHttpClientBuilder extends HttpClientBuilder {
     private File cacheDir;
     private SchedulingStrategy schedulingStrategy;
     private CacheConfig cacheConfig;
+    private CacheStatistics cacheStatistics;
     private boolean deleteCache;
 
     public static CachingHttpClientBuilder create() {
@@ -97,6 +98,17 @@ public final CachingHttpClientBuilder setCacheConfig(final CacheConfig cacheConf
         return this;
     }
 
+    /**
+     * Sets the {@link CacheStatistics} instance the cache reports its activity to.
+     * If not set, a new instance without hot key tracking is used.
+     *
+     * @since 5.7
+     */
+    public final CachingHttpClientBuilder setCacheStatistics(final CacheStatistics cacheStatistics) {
+        this.cacheStatistics = cacheStatistics;
+        return this;
+    }
+
     /**
      * @deprecated Do not use.
      */
@@ -122,12 +134,15 @@ protected void customizeExecChain(final NamedElementChain<ExecChainHandler> exec
                 resourceFactoryCopy = new FileResourceFactory(cacheDir);
             }
         }
+        final CacheStatistics statistics = this.cacheStatistics != null ? this.cacheStatistics : new CacheStatistics();
         HttpCacheStorage storageCopy = this.storage;
         if (storageCopy == null) {
             if (this.cacheDir == null) {
-                storageCopy = new BasicHttpCacheStorage(config);
+                storageCopy = config.getMaxCacheBytes() > 0
+                        ? new ConcurrentHttpCacheStorage(config, statistics)
+                        : new BasicHttpCacheStorage(config, statistics);
             } else {
-                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config);
+                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config, statistics);
                 if (this.deleteCache) {
                     addCloseable(managedStorage::shutdown);
                 } else {
@@ -140,7 +155,8 @@ protected void customizeExecChain(final NamedElementChain<ExecChainHandler> exec
                 resourceFactoryCopy,
                 HttpCacheEntryFactory.INSTANCE,
                 storageCopy,
-                CacheKeyGenerator.INSTANCE);
+                CacheKeyGenerator.INSTANCE,
+                statistics);
 
         DefaultCacheRevalidator cacheRevalidator = null;
         if (config.getAsynchronousWorkers() > 0) {
@@ -153,7 +169,8 @@ protected void customizeExecChain(final NamedElementChain<ExecChainHandler> exec
         final CachingExec cachingExec = new CachingExec(
                 httpCache,
                 cacheRevalidator,
-                config);
+                config,
+                statistics);
         execChainDefinition.addBefore(ChainElement.PROTOCOL.name(), cachingExec, ChainElement.CACHING.name());
     }
 
@@ -0,0 +1,371 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * In-memory {@link HttpCacheStorage} implementation designed for use by many
+ * concurrent threads.
+ * <p>
+ * Entries are held in a {@link ConcurrentHashMap}, so lookups do not take any lock.
+ * Writes to the same key are serialised by one of a fixed number of lock stripes.
+ * The storage is bounded both by the {@link CacheConfig#getMaxCacheEntries() number
+ * of entries} and, optionally, by the {@link CacheConfig#getMaxCacheBytes() total
+ * size of the cached response bodies}. When either bound is exceeded entries are
+ * evicted following the CLOCK (second chance) policy, an approximation of LRU that
+ * only requires readers to set a flag on the entry they access.
+ * </p>
+ * <p>
+ * Like {@link BasicHttpCacheStorage} this storage does NOT deallocate resources
+ * associated with evicted entries; it is intended for use with {@link HeapResource}
+ * and similar.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class ConcurrentHttpCacheStorage implements HttpCacheStorage {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, Node> map;
+    private final ConcurrentLinkedQueue<Node> clock;
+    private final ReentrantLock[] locks;
+    private final ReentrantLock evictionLock;
+    private final AtomicLong totalBytes;
+    private final AtomicInteger staleNodes;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final CacheStatistics statistics;
+
+    /**
+     * @param maxEntries maximum number of entries to retain.
+     * @param maxBytes maximum total size in bytes of the cached response bodies;
+     *                 {@code 0} or less for no size bound.
+     * @param statistics statistics to report evictions to; may be {@code null}.
+     */
+    public ConcurrentHttpCacheStorage(final int maxEntries, final long maxBytes, final CacheStatistics statistics) {
+        this.maxEntries = Args.positive(maxEntries, "Max entries");
+        this.maxBytes = maxBytes;
+        this.map = new ConcurrentHashMap<>();
+        this.clock = new ConcurrentLinkedQueue<>();
+        this.locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.evictionLock = new ReentrantLock();
+        this.totalBytes = new AtomicLong();
+        this.staleNodes = new AtomicInteger();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param maxEntries maximum number of entries to retain.
+     * @param maxBytes maximum total size in bytes of the cached response bodies;
+     *                 {@code 0} or less for no size bound.
+     */
+    public ConcurrentHttpCacheStorage(final int maxEntries, final long maxBytes) {
+        this(maxEntries, maxBytes, null);
+    }
+
+    public ConcurrentHttpCacheStorage(final CacheConfig config, final CacheStatistics statistics) {
+        this(config.getMaxCacheEntries(), config.getMaxCacheBytes(), statistics);
+    }
+
+    public ConcurrentHttpCacheStorage(final CacheConfig config) {
+        this(config, null);
+    }
+
+    private ReentrantLock lockFor(final String key) {
+        final int h = key.hashCode();
+        return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    @Override
+    public void putEntry(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        final ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            store(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        evictIfNecessary();
+    }
+
+    @Override
+    public HttpCacheEntry getEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        final Node node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        hits.increment();
+        return node.entry;
+    }
+
+    @Override
+    public void removeEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        final ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            unlink(map.remove(key));
+        } finally {
+            lock.unlock();
+        }
+        evictIfNecessary();
+    }
+
+    @Override
+    public void updateEntry(
+            final String key, final HttpCacheCASOperation casOperation) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        final ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            final Node existing = map.get(key);
+            store(key, casOperation.execute(existing != null ? existing.entry : null));
+        } finally {
+            lock.unlock();
+        }
+        evictIfNecessary();
+    }
+
+    @Override
+    public Map<String, HttpCacheEntry> getEntries(final Collection<String> keys) throws ResourceIOException {
+        Args.notNull(keys, "Key");
+        final Map<String, HttpCacheEntry> resultMap = new HashMap<>(keys.size());
+        for (final String key: keys) {
+            final HttpCacheEntry entry = getEntry(key);
+            if (entry != null) {
+                resultMap.put(key, entry);
+            }
+        }
+        return resultMap;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (final String key : map.keySet()) {
+                final ReentrantLock lock = lockFor(key);
+                lock.lock();
+                try {
+                    unlink(map.remove(key));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            purgeStaleNodes();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries currently held.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the total size in bytes of the response bodies currently held.
+     */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the configured bounds.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static long weigh(final HttpCacheEntry entry) {
+        final Resource resource = entry.getResource();
+        return resource != null ? Math.max(0L, resource.length()) : 0L;
+    }
+
+    // must be called with the key's stripe lock held
+    private void store(final String key, final HttpCacheEntry entry) {
+        if (entry == null) {
+            unlink(map.remove(key));
+            return;
+        }
+        final long weight = weigh(entry);
+        if (maxBytes > 0 && weight > maxBytes) {
+            // would evict everything else and then itself
+            unlink(map.remove(key));
+            return;
+        }
+        final Node node = new Node(key, entry, weight);
+        totalBytes.addAndGet(weight);
+        unlink(map.put(key, node));
+        clock.add(node);
+    }
+
+    private void unlink(final Node node) {
+        if (node != null) {
+            totalBytes.addAndGet(-node.weight);
+            staleNodes.incrementAndGet();
+        }
+    }
+
+    private boolean isOverCapacity() {
+        return map.size() > maxEntries || maxBytes > 0 && totalBytes.get() > maxBytes;
+    }
+
+    private void evictIfNecessary() {
+        if (!isOverCapacity() && staleNodes.get() <= map.size()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            // Give each referenced entry one more pass around the clock, but do not
+            // spin forever if readers keep marking entries as referenced
+            int secondChances = map.size() + 1;
+            while (isOverCapacity()) {
+                final Node node = clock.poll();
+                if (node == null) {
+                    break;
+                }
+                if (map.get(node.key) != node) {
+                    staleNodes.decrementAndGet();
+                    continue;
+                }
+                if (node.referenced && secondChances > 0) {
+                    secondChances--;
+                    node.referenced = false;
+                    clock.add(node);
+                    continue;
+                }
+                if (map.remove(node.key, node)) {
+                    totalBytes.addAndGet(-node.weight);
+                    evictions.increment();
+                    if (statistics != null) {
+                        statistics.recordEviction();
+                    }
+                }
+            }
+            if (staleNodes.get() > map.size()) {
+                purgeStaleNodes();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // must be called with the eviction lock held
+    private void purgeStaleNodes() {
+        int purged = 0;
+        for (final Iterator<Node> it = clock.iterator(); it.hasNext(); ) {
+            final Node node = it.next();
+            if (map.get(node.key) != node) {
+                it.remove();
+                purged++;
+            }
+        }
+        staleNodes.addAndGet(-purged);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentHttpCacheStorage{" +
+                "entries=" + map.size() +
+                ", bytes=" + totalBytes.get() +
+                ", hits=" + hits.sum() +
+                ", misses=" + misses.sum() +
+                ", evictions=" + evictions.sum() +
+                '}';
+    }
+
+    private static final class Node {
+
+        final String key;
+        final HttpCacheEntry entry;
+        final long weight;
+        volatile boolean referenced;
+
+        Node(final String key, final HttpCacheEntry entry, final long weight) {
+            this.key = key;
+            this.entry = entry;
+            this.weight = weight;
+        }
+
+    }
+
+}
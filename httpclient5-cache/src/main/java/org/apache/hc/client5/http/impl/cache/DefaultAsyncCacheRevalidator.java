@@ -109,12 +109,14 @@ public DefaultAsyncCacheRevalidator(
 
     /**
      * Schedules an asynchronous re-validation
+     *
+     * @return {@code true} if the re-validation has been scheduled.
      */
-    public void revalidateCacheEntry(
+    public boolean revalidateCacheEntry(
             final String cacheKey ,
             final AsyncExecCallback asyncExecCallback,
             final RevalidationCall call) {
-        scheduleRevalidation(cacheKey, () -> call.execute(new AsyncExecCallback() {
+        return scheduleRevalidation(cacheKey, () -> call.execute(new AsyncExecCallback() {
 
             private final AtomicReference<HttpResponse> responseRef = new AtomicReference<>();
 
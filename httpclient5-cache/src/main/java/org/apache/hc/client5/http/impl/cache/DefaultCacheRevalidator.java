@@ -71,11 +71,13 @@ public DefaultCacheRevalidator(
 
     /**
      * Schedules an asynchronous re-validation
+     *
+     * @return {@code true} if the re-validation has been scheduled.
      */
-    public void revalidateCacheEntry(
+    public boolean revalidateCacheEntry(
             final String cacheKey,
             final RevalidationCall call) {
-        scheduleRevalidation(cacheKey, () -> {
+        return scheduleRevalidation(cacheKey, () -> {
             try (ClassicHttpResponse httpResponse = call.execute()) {
                 if (httpResponse.getCode() < HttpStatus.SC_SERVER_ERROR) {
                     jobSuccessful(cacheKey);
@@ -31,6 +31,9 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.client5.http.cache.Resource;
@@ -96,6 +99,25 @@ public InputStream getInputStream() throws ResourceIOException {
         throw new ResourceIOException("Resource already disposed");
     }
 
+    /**
+     * Returns a {@link FileChannel} reading the file directly, without
+     * buffering its content on the heap.
+     *
+     * @since 5.7
+     */
+    @Override
+    public ReadableByteChannel getChannel() throws ResourceIOException {
+        final File file = this.fileRef.get();
+        if (file != null) {
+            try {
+                return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            } catch (final IOException ex) {
+                throw new ResourceIOException(ex.getMessage(), ex);
+            }
+        }
+        throw new ResourceIOException("Resource already disposed");
+    }
+
     @Override
     public long length() {
         return len;
@@ -35,6 +35,7 @@
 import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.net.PercentCodec;
@@ -56,20 +57,33 @@ public FileResourceFactory(final File cacheDir) {
         this.cacheDir = cacheDir;
     }
 
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     static String generateUniqueCacheFileName(final String requestId, final String eTag, final byte[] content, final int off, final int len) {
+        final byte[] digest;
+        if (eTag == null && content != null) {
+            final MessageDigest sha256 = createDigest();
+            sha256.update(content, off, len);
+            digest = sha256.digest();
+        } else {
+            digest = null;
+        }
+        return generateUniqueCacheFileName(requestId, eTag, digest);
+    }
+
+    static String generateUniqueCacheFileName(final String requestId, final String eTag, final byte[] digest) {
         final StringBuilder buf = new StringBuilder();
         if (eTag != null) {
             PercentCodec.RFC3986.encode(buf, eTag);
             buf.append('@');
-        } else if (content != null) {
-            final MessageDigest sha256;
-            try {
-                sha256 = MessageDigest.getInstance("SHA-256");
-            } catch (final NoSuchAlgorithmException ex) {
-                throw new IllegalStateException(ex);
-            }
-            sha256.update(content, off, len);
-            buf.append(TextUtils.toHexString(sha256.digest()));
+        } else if (digest != null) {
+            buf.append(TextUtils.toHexString(digest));
             buf.append('@');
         }
         PercentCodec.RFC3986.encode(buf, requestId);
@@ -113,6 +127,19 @@ public Resource generate(final String requestId, final byte[] content) throws Re
         return generate(requestId, null, null, 0, 0);
     }
 
+    /**
+     * Creates a {@link ResourceWriter} that writes content to a temporary file in
+     * the cache directory. The file is given its final name once the writer is
+     * committed.
+     *
+     * @since 5.7
+     */
+    @Override
+    public ResourceWriter createWriter(final String requestId, final String eTag) throws ResourceIOException {
+        Args.notNull(requestId, "Request id");
+        return new FileResourceWriter(cacheDir, requestId, eTag);
+    }
+
     /**
      * @deprecated Do not use.
      */
@@ -0,0 +1,135 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
+
+/**
+ * {@link ResourceWriter} that spills content to a temporary file and moves it
+ * to its final location, named the same way as by {@link FileResourceFactory},
+ * upon commit.
+ */
+final class FileResourceWriter implements ResourceWriter {
+
+    private final File cacheDir;
+    private final String requestId;
+    private final String eTag;
+    private final File tmpFile;
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private long length;
+    private boolean done;
+
+    FileResourceWriter(final File cacheDir, final String requestId, final String eTag) throws ResourceIOException {
+        this.cacheDir = cacheDir;
+        this.requestId = requestId;
+        this.eTag = eTag;
+        this.digest = eTag == null ? FileResourceFactory.createDigest() : null;
+        try {
+            this.tmpFile = File.createTempFile("hc-", ".part", cacheDir);
+            this.channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (final IOException ex) {
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void write(final ByteBuffer src) throws ResourceIOException {
+        if (done) {
+            throw new ResourceIOException("Resource writer already completed");
+        }
+        if (digest != null) {
+            digest.update(src.duplicate());
+        }
+        try {
+            while (src.hasRemaining()) {
+                length += channel.write(src);
+            }
+        } catch (final IOException ex) {
+            abort();
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public Resource commit() throws ResourceIOException {
+        if (done) {
+            throw new ResourceIOException("Resource writer already completed");
+        }
+        done = true;
+        final File file = new File(cacheDir, FileResourceFactory.generateUniqueCacheFileName(
+                requestId, eTag, digest != null ? digest.digest() : null));
+        try {
+            channel.close();
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException ex) {
+            tmpFile.delete();
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+        return new FileResource(file);
+    }
+
+    @Override
+    public void abort() {
+        if (done) {
+            return;
+        }
+        done = true;
+        try {
+            channel.close();
+        } catch (final IOException ignore) {
+        }
+        tmpFile.delete();
+    }
+
+    @Override
+    public String toString() {
+        return "FileResourceWriter{" + tmpFile + ", length=" + length + "}";
+    }
+
+}
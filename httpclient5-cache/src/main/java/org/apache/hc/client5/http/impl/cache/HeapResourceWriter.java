@@ -0,0 +1,91 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceFactory;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+
+/**
+ * {@link ResourceWriter} that accumulates content in memory and creates
+ * the {@link Resource} with the given {@link ResourceFactory} upon commit.
+ * Used with factories that do not support incremental writing.
+ */
+final class HeapResourceWriter implements ResourceWriter {
+
+    private final ResourceFactory resourceFactory;
+    private final String requestId;
+    private final String eTag;
+    private ByteArrayBuffer buffer;
+
+    HeapResourceWriter(final ResourceFactory resourceFactory, final String requestId, final String eTag) {
+        this.resourceFactory = resourceFactory;
+        this.requestId = requestId;
+        this.eTag = eTag;
+        this.buffer = new ByteArrayBuffer(1024);
+    }
+
+    @Override
+    public void write(final ByteBuffer src) throws ResourceIOException {
+        if (buffer == null) {
+            throw new ResourceIOException("Resource writer already completed");
+        }
+        if (src.hasArray()) {
+            buffer.append(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            src.position(src.limit());
+        } else {
+            while (src.hasRemaining()) {
+                buffer.append(src.get());
+            }
+        }
+    }
+
+    @Override
+    public long length() {
+        return buffer != null ? buffer.length() : 0;
+    }
+
+    @Override
+    public Resource commit() throws ResourceIOException {
+        final ByteArrayBuffer content = buffer;
+        if (content == null) {
+            throw new ResourceIOException("Resource writer already completed");
+        }
+        buffer = null;
+        return resourceFactory.generate(requestId, eTag, content.array(), 0, content.length());
+    }
+
+    @Override
+    public void abort() {
+        buffer = null;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Cache resource backed by a region of a larger byte array on the heap, such as
+ * the serialized form of a cache entry. The content is only copied out of the
+ * array if it is requested as a byte array.
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class HeapSliceResource extends Resource {
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile byte[] array;
+    private final int off;
+    private final int len;
+    private volatile byte[] copy;
+
+    HeapSliceResource(final byte[] array, final int off, final int len) {
+        super();
+        this.array = array;
+        this.off = off;
+        this.len = len;
+    }
+
+    private byte[] getArray() throws ResourceIOException {
+        final byte[] b = this.array;
+        if (b == null) {
+            throw new ResourceIOException("Resource already disposed");
+        }
+        return b;
+    }
+
+    @Override
+    public byte[] get() throws ResourceIOException {
+        final byte[] b = getArray();
+        if (off == 0 && len == b.length) {
+            return b;
+        }
+        byte[] c = this.copy;
+        if (c == null) {
+            c = Arrays.copyOfRange(b, off, off + len);
+            this.copy = c;
+        }
+        return c;
+    }
+
+    @Override
+    public InputStream getInputStream() throws ResourceIOException {
+        return new ByteArrayInputStream(getArray(), off, len);
+    }
+
+    @Override
+    public ReadableByteChannel getChannel() throws ResourceIOException {
+        return Channels.newChannel(getInputStream());
+    }
+
+    @Override
+    public long length() {
+        return this.array != null ? len : -1;
+    }
+
+    @Override
+    public void dispose() {
+        this.array = null;
+        this.copy = null;
+    }
+
+    @Override
+    public String toString() {
+        return "[" +
+                "heap-slice," +
+                "len=" + length() +
+                ']';
+    }
+
+}
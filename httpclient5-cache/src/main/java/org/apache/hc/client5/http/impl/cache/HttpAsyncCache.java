@@ -31,6 +31,9 @@
 
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.HttpHost;
@@ -64,6 +67,29 @@ Cancellable store(
             Instant responseReceived,
             FutureCallback<CacheHit> callback);
 
+    /**
+     * Creates a {@link ResourceWriter} for incrementally writing the body of the given
+     * {@link HttpResponse} prior to storing it with
+     * {@link #storeResource(HttpHost, SimpleHttpRequest, HttpResponse, Resource, Instant, Instant, FutureCallback)}.
+     */
+    ResourceWriter createWriter(
+            HttpHost host,
+            SimpleHttpRequest request,
+            HttpResponse originResponse) throws ResourceIOException;
+
+    /**
+     * Stores {@link HttpRequest} / {@link HttpResponse} exchange details in the cache
+     * along with a body {@link Resource} that has already been written.
+     */
+    Cancellable storeResource(
+            HttpHost host,
+            SimpleHttpRequest request,
+            HttpResponse originResponse,
+            Resource resource,
+            Instant requestSent,
+            Instant responseReceived,
+            FutureCallback<CacheHit> callback);
+
     /**
      * Updates {@link HttpCacheEntry} using details from a 304 {@link HttpResponse} and
      * updates the root entry if the given cache entry represents a variant.
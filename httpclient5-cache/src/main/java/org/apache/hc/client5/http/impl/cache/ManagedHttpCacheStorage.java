@@ -85,15 +85,25 @@ public class ManagedHttpCacheStorage implements HttpCacheStorage, Closeable {
 
     private final ReentrantLock lock;
 
-    public ManagedHttpCacheStorage(final CacheConfig config) {
+    /**
+     * @param config the cache configuration.
+     * @param statistics statistics to report evictions to; may be {@code null}.
+     * @since 5.7
+     */
+    public ManagedHttpCacheStorage(final CacheConfig config, final CacheStatistics statistics) {
         super();
-        this.entries = new InternalCacheStorage(config.getMaxCacheEntries(), null);
+        this.entries = new InternalCacheStorage(config.getMaxCacheEntries(),
+                statistics != null ? evicted -> statistics.recordEviction() : null);
         this.morque = new ReferenceQueue<>();
         this.resources = new HashSet<>();
         this.active = new AtomicBoolean(true);
         this.lock = new ReentrantLock();
     }
 
+    public ManagedHttpCacheStorage(final CacheConfig config) {
+        this(config, null);
+    }
+
     private void ensureValidState() {
         if (!isActive()) {
             throw new IllegalStateException("Cache has been shut down");
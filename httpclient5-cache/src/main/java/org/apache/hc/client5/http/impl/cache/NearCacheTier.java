@@ -0,0 +1,232 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process near tier shared by {@link TieredHttpCacheStorage} and
+ * {@link TieredHttpAsyncCacheStorage}. Keeps track of the time each entry may
+ * still be served from the near storage and of the remote reads in progress
+ * so that a copy read before a concurrent local write or removal of the same
+ * key does not get resurrected.
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class NearCacheTier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NearCacheTier.class);
+
+    private static final int PURGE_INTERVAL = 1024;
+
+    /**
+     * Tracks remote reads of a key in progress. The generation gets incremented
+     * by every local write or removal of the key while the reads are in progress.
+     * Instances are only accessed while holding the lock of their map bin.
+     */
+    static final class ReadGeneration {
+
+        long generation;
+        int readers;
+
+    }
+
+    private final HttpCacheStorage nearStorage;
+    private final TimeValue nearTtl;
+    private final long nearTtlNanos;
+    private final ConcurrentHashMap<String, Long> nearExpiries;
+    private final ConcurrentHashMap<String, ReadGeneration> readGenerations;
+    private final AtomicLong nearPuts;
+    private final LongAdder nearHits;
+    private final LongAdder nearMisses;
+
+    NearCacheTier(final HttpCacheStorage nearStorage, final TimeValue nearTtl) {
+        this.nearStorage = Args.notNull(nearStorage, "Near storage");
+        this.nearTtl = nearTtl;
+        this.nearTtlNanos = Args.positive(nearTtl.toNanoseconds(), "Near TTL");
+        this.nearExpiries = new ConcurrentHashMap<>();
+        this.readGenerations = new ConcurrentHashMap<>();
+        this.nearPuts = new AtomicLong();
+        this.nearHits = new LongAdder();
+        this.nearMisses = new LongAdder();
+    }
+
+    HttpCacheStorage getStorage() {
+        return nearStorage;
+    }
+
+    TimeValue getTtl() {
+        return nearTtl;
+    }
+
+    long getHitCount() {
+        return nearHits.sum();
+    }
+
+    long getMissCount() {
+        return nearMisses.sum();
+    }
+
+    /**
+     * Returns the near copy of the entry or {@code null} if the entry has to be
+     * read from the remote tier.
+     */
+    HttpCacheEntry get(final String key) {
+        final HttpCacheEntry entry = getNear(key);
+        if (entry != null) {
+            nearHits.increment();
+        } else {
+            nearMisses.increment();
+        }
+        return entry;
+    }
+
+    private HttpCacheEntry getNear(final String key) {
+        final Long expiry = nearExpiries.get(key);
+        if (expiry == null) {
+            return null;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            remove(key);
+            return null;
+        }
+        try {
+            final HttpCacheEntry entry = nearStorage.getEntry(key);
+            if (entry == null) {
+                nearExpiries.remove(key, expiry);
+            }
+            return entry;
+        } catch (final ResourceIOException ex) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("I/O error retrieving near cache entry with key {}", key, ex);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Puts the outcome of a successful remote write into the near tier.
+     */
+    void put(final String key, final HttpCacheEntry entry) {
+        try {
+            nearStorage.putEntry(key, entry);
+            nearExpiries.put(key, System.nanoTime() + nearTtlNanos);
+        } catch (final ResourceIOException ex) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("I/O error storing near cache entry with key {}", key, ex);
+            }
+            remove(key);
+        }
+        if (nearPuts.incrementAndGet() % PURGE_INTERVAL == 0) {
+            purgeExpired();
+        }
+    }
+
+    /**
+     * Registers a remote read of the given key and returns the generation
+     * to be passed to {@link #endRead(String, long, HttpCacheEntry)}.
+     */
+    long beginRead(final String key) {
+        final long[] generation = new long[1];
+        readGenerations.compute(key, (k, current) -> {
+            final ReadGeneration readGeneration = current != null ? current : new ReadGeneration();
+            readGeneration.readers++;
+            generation[0] = readGeneration.generation;
+            return readGeneration;
+        });
+        return generation[0];
+    }
+
+    /**
+     * Completes a remote read of the given key and copies the entry into the near tier
+     * unless the key has been written or removed locally since the read was started.
+     */
+    void endRead(final String key, final long generation, final HttpCacheEntry entry) {
+        readGenerations.computeIfPresent(key, (k, current) -> {
+            if (entry != null && current.generation == generation) {
+                put(key, entry);
+            }
+            return --current.readers > 0 ? current : null;
+        });
+    }
+
+    /**
+     * Removes the near copy of the entry ahead of a local write or removal.
+     */
+    void invalidate(final String key) {
+        readGenerations.computeIfPresent(key, (k, current) -> {
+            current.generation++;
+            return current;
+        });
+        remove(key);
+    }
+
+    private void remove(final String key) {
+        nearExpiries.remove(key);
+        try {
+            nearStorage.removeEntry(key);
+        } catch (final ResourceIOException ex) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("I/O error removing near cache entry with key {}", key, ex);
+            }
+        }
+    }
+
+    /**
+     * Drops expiry records of entries that are no longer served from the near tier,
+     * including those the near storage may have evicted on its own.
+     */
+    private void purgeExpired() {
+        final long now = System.nanoTime();
+        for (final Iterator<Map.Entry<String, Long>> it = nearExpiries.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<String, Long> entry = it.next();
+            if (now - entry.getValue() >= 0) {
+                it.remove();
+                try {
+                    nearStorage.removeEntry(entry.getKey());
+                } catch (final ResourceIOException ignore) {
+                }
+            }
+        }
+    }
+
+}
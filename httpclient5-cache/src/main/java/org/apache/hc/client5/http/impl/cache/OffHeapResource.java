@@ -0,0 +1,250 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Cache resource backed by blocks of an {@link OffHeapResourceFactory}.
+ * <p>
+ * The resource is reference counted. The cache holds one reference which is
+ * released by {@link #dispose()}; every stream or channel opened on the resource
+ * holds another one until closed. The blocks are returned to the factory once
+ * the last reference has been released, so that content being streamed to a
+ * caller remains valid even if the entry gets evicted in the meantime. No new
+ * streams or channels can be opened once the resource has been disposed of.
+ * </p>
+ * <p>
+ * Instances are serialized as {@link HeapResource}.
+ * </p>
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class OffHeapResource extends Resource {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient OffHeapResourceFactory factory;
+    private final transient int[] blocks;
+    private final long len;
+    private final AtomicInteger refCount;
+    private final AtomicBoolean disposed;
+
+    OffHeapResource(final OffHeapResourceFactory factory, final int[] blocks, final long len) {
+        super();
+        this.factory = factory;
+        this.blocks = blocks;
+        this.len = len;
+        this.refCount = new AtomicInteger(1);
+        this.disposed = new AtomicBoolean(false);
+    }
+
+    private void retain() throws ResourceIOException {
+        for (;;) {
+            final int count = refCount.get();
+            if (count <= 0 || disposed.get()) {
+                throw new ResourceIOException("Resource already disposed");
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    private void release() {
+        if (refCount.decrementAndGet() == 0) {
+            factory.free(blocks, blocks.length);
+        }
+    }
+
+    int refCount() {
+        return refCount.get();
+    }
+
+    @Override
+    public byte[] get() throws ResourceIOException {
+        retain();
+        try {
+            final byte[] content = new byte[(int) len];
+            factory.get(blocks, 0, ByteBuffer.wrap(content));
+            return content;
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws ResourceIOException {
+        retain();
+        return new ContentStream();
+    }
+
+    @Override
+    public ReadableByteChannel getChannel() throws ResourceIOException {
+        retain();
+        return new ContentChannel();
+    }
+
+    @Override
+    public long length() {
+        return len;
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        try {
+            return new HeapResource(get());
+        } catch (final ResourceIOException ex) {
+            final InvalidObjectException invalid = new InvalidObjectException(ex.getMessage());
+            invalid.initCause(ex);
+            throw invalid;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" +
+                "off-heap," +
+                "len=" + len + "," +
+                "refs=" + refCount.get() +
+                ']';
+    }
+
+    private class ContentChannel implements ReadableByteChannel {
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private long position;
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (!open.get()) {
+                throw new ClosedChannelException();
+            }
+            if (position >= len) {
+                return -1;
+            }
+            final int n = (int) Math.min(dst.remaining(), len - position);
+            final int limit = dst.limit();
+            dst.limit(dst.position() + n);
+            try {
+                factory.get(blocks, position, dst);
+            } finally {
+                dst.limit(limit);
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) {
+                release();
+            }
+        }
+
+    }
+
+    private class ContentStream extends InputStream {
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private long position;
+
+        private void ensureOpen() throws IOException {
+            if (!open.get()) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int n) throws IOException {
+            ensureOpen();
+            if (n == 0) {
+                return 0;
+            }
+            if (position >= len) {
+                return -1;
+            }
+            final int chunk = (int) Math.min(n, len - position);
+            factory.get(blocks, position, ByteBuffer.wrap(b, off, chunk));
+            position += chunk;
+            return chunk;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            ensureOpen();
+            final long skipped = Math.max(0, Math.min(n, len - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return (int) Math.min(Integer.MAX_VALUE, len - position);
+        }
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) {
+                release();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceFactory;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Generates {@link Resource} instances whose body is stored outside of the Java heap,
+ * either in direct memory or in a memory-mapped slab file.
+ * <p>
+ * Space is managed in fixed-size blocks carved out of segments that are allocated
+ * on demand up to the configured maximum number of bytes. A resource occupies as
+ * many blocks as necessary to hold its content; its blocks are returned to a free
+ * list once the resource has been {@link Resource#dispose() disposed of} and all
+ * streams and channels opened on it have been closed. Resources cannot be generated
+ * once the maximum has been reached, in which case the response is not cached.
+ * </p>
+ * <p>
+ * The slab file is scratch space only; its content does not survive the factory
+ * being {@link #close() closed}. Direct memory is subject to the
+ * {@code -XX:MaxDirectMemorySize} limit of the JVM.
+ * </p>
+ * <p>
+ * Resources generated by this factory must be disposed of in order for their space to be
+ * reclaimed. This factory is therefore intended for use with {@link ManagedHttpCacheStorage}
+ * or a similar storage.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class OffHeapResourceFactory implements ResourceFactory, Closeable {
+
+    /**
+     * Default block size of 8 KiB.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 8 * 1024;
+
+    static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final File slabFile;
+    private final RandomAccessFile slab;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final int blocksPerSegment;
+    private final ByteBuffer[] segments;
+    private final int[] freeBlocks;
+    private final ReentrantLock lock;
+
+    private int freeCount;
+    private int segmentCount;
+    private int totalBlocks;
+    private volatile boolean closed;
+
+    private OffHeapResourceFactory(final File slabFile, final long maxBytes, final int blockSize) throws IOException {
+        Args.positive(maxBytes, "Max bytes");
+        Args.positive(blockSize, "Block size");
+        Args.check(blockSize <= MAX_SEGMENT_SIZE, "Block size may not exceed %s", MAX_SEGMENT_SIZE);
+        this.blockSize = blockSize;
+        this.maxBlocks = (int) Math.max(1, Math.min(maxBytes / blockSize, Integer.MAX_VALUE - 8));
+        this.blocksPerSegment = Math.min(MAX_SEGMENT_SIZE / blockSize, maxBlocks);
+        this.segments = new ByteBuffer[(maxBlocks + blocksPerSegment - 1) / blocksPerSegment];
+        this.freeBlocks = new int[maxBlocks];
+        this.lock = new ReentrantLock();
+        this.slabFile = slabFile;
+        this.slab = slabFile != null ? new RandomAccessFile(slabFile, "rw") : null;
+    }
+
+    /**
+     * Creates a factory storing resource content in direct memory.
+     *
+     * @param maxBytes the maximum number of bytes of direct memory to use.
+     * @param blockSize the allocation unit in bytes.
+     */
+    public static OffHeapResourceFactory direct(final long maxBytes, final int blockSize) {
+        try {
+            return new OffHeapResourceFactory(null, maxBytes, blockSize);
+        } catch (final IOException ex) {
+            // Cannot happen without a slab file
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Creates a factory storing resource content in direct memory
+     * using the {@link #DEFAULT_BLOCK_SIZE default block size}.
+     *
+     * @param maxBytes the maximum number of bytes of direct memory to use.
+     */
+    public static OffHeapResourceFactory direct(final long maxBytes) {
+        return direct(maxBytes, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a factory storing resource content in the given memory-mapped file.
+     * The file is created if necessary, grows on demand up to the given maximum
+     * and is deleted when the factory is closed.
+     *
+     * @param slabFile the file to map.
+     * @param maxBytes the maximum size of the file.
+     * @param blockSize the allocation unit in bytes.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static OffHeapResourceFactory mapped(final File slabFile, final long maxBytes, final int blockSize) throws IOException {
+        Args.notNull(slabFile, "Slab file");
+        return new OffHeapResourceFactory(slabFile, maxBytes, blockSize);
+    }
+
+    /**
+     * Creates a factory storing resource content in the given memory-mapped file
+     * using the {@link #DEFAULT_BLOCK_SIZE default block size}.
+     *
+     * @param slabFile the file to map.
+     * @param maxBytes the maximum size of the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static OffHeapResourceFactory mapped(final File slabFile, final long maxBytes) throws IOException {
+        return mapped(slabFile, maxBytes, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Returns the maximum number of bytes this factory can hold.
+     */
+    public long getMaxBytes() {
+        return (long) maxBlocks * blockSize;
+    }
+
+    /**
+     * Returns the number of bytes currently held by live resources, rounded up to whole blocks.
+     */
+    public long getAllocatedBytes() {
+        lock.lock();
+        try {
+            return (long) (totalBlocks - freeCount) * blockSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    private void addSegment() throws ResourceIOException {
+        final int segment = segmentCount;
+        final int first = segment * blocksPerSegment;
+        final int blocks = Math.min(blocksPerSegment, maxBlocks - first);
+        final int size = blocks * blockSize;
+        if (slab != null) {
+            try {
+                segments[segment] = slab.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) first * blockSize, size);
+            } catch (final IOException ex) {
+                throw new ResourceIOException(ex.getMessage(), ex);
+            }
+        } else {
+            try {
+                segments[segment] = ByteBuffer.allocateDirect(size);
+            } catch (final OutOfMemoryError ex) {
+                throw new ResourceIOException("Unable to allocate direct memory: " + ex.getMessage());
+            }
+        }
+        segmentCount++;
+        totalBlocks += blocks;
+        for (int i = first + blocks - 1; i >= first; i--) {
+            freeBlocks[freeCount++] = i;
+        }
+    }
+
+    int[] allocate(final int n) throws ResourceIOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new ResourceIOException("Resource factory has been closed");
+            }
+            while (freeCount < n && segmentCount < segments.length) {
+                addSegment();
+            }
+            if (freeCount < n) {
+                throw new ResourceIOException("Off-heap cache capacity exceeded");
+            }
+            final int[] blocks = new int[n];
+            for (int i = 0; i < n; i++) {
+                blocks[i] = freeBlocks[--freeCount];
+            }
+            return blocks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void free(final int[] blocks, final int n) {
+        lock.lock();
+        try {
+            if (!closed) {
+                for (int i = n - 1; i >= 0; i--) {
+                    freeBlocks[freeCount++] = blocks[i];
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a view of the given block, positioned at its start and limited to its end.
+     */
+    ByteBuffer block(final int index) throws ResourceIOException {
+        final ByteBuffer segment = segments[index / blocksPerSegment];
+        if (segment == null || closed) {
+            throw new ResourceIOException("Resource factory has been closed");
+        }
+        final ByteBuffer view = segment.duplicate();
+        final int pos = index % blocksPerSegment * blockSize;
+        view.limit(pos + blockSize).position(pos);
+        return view;
+    }
+
+    /**
+     * Copies content into the blocks starting at the given position.
+     */
+    void put(final int[] blocks, final long position, final ByteBuffer src) throws ResourceIOException {
+        long pos = position;
+        while (src.hasRemaining()) {
+            final ByteBuffer block = block(blocks[(int) (pos / blockSize)]);
+            final int blockOffset = (int) (pos % blockSize);
+            block.position(block.position() + blockOffset);
+            final int chunk = Math.min(block.remaining(), src.remaining());
+            final int limit = src.limit();
+            src.limit(src.position() + chunk);
+            block.put(src);
+            src.limit(limit);
+            pos += chunk;
+        }
+    }
+
+    /**
+     * Copies content out of the blocks starting at the given position.
+     */
+    void get(final int[] blocks, final long position, final ByteBuffer dst) throws ResourceIOException {
+        long pos = position;
+        while (dst.hasRemaining()) {
+            final ByteBuffer block = block(blocks[(int) (pos / blockSize)]);
+            final int blockOffset = (int) (pos % blockSize);
+            block.position(block.position() + blockOffset);
+            final int chunk = Math.min(block.remaining(), dst.remaining());
+            block.limit(block.position() + chunk);
+            dst.put(block);
+            pos += chunk;
+        }
+    }
+
+    @Override
+    public Resource generate(
+            final String requestId,
+            final String eTag,
+            final byte[] content, final int off, final int len) throws ResourceIOException {
+        if (content == null) {
+            return new OffHeapResource(this, new int[0], 0);
+        }
+        final int[] blocks = allocate((int) (((long) len + blockSize - 1) / blockSize));
+        try {
+            put(blocks, 0, ByteBuffer.wrap(content, off, len));
+        } catch (final ResourceIOException ex) {
+            free(blocks, blocks.length);
+            throw ex;
+        }
+        return new OffHeapResource(this, blocks, len);
+    }
+
+    @Override
+    public Resource generate(final String requestId, final byte[] content, final int off, final int len) throws ResourceIOException {
+        return generate(requestId, null, content, off, len);
+    }
+
+    @Override
+    public Resource generate(final String requestId, final byte[] content) throws ResourceIOException {
+        return generate(requestId, null, content, 0, content != null ? content.length : 0);
+    }
+
+    @Override
+    public ResourceWriter createWriter(final String requestId, final String eTag) throws ResourceIOException {
+        if (closed) {
+            throw new ResourceIOException("Resource factory has been closed");
+        }
+        return new Writer();
+    }
+
+    /**
+     * @deprecated Do not use.
+     */
+    @Deprecated
+    @Override
+    public Resource copy(final String requestId, final Resource resource) throws ResourceIOException {
+        return resource;
+    }
+
+    /**
+     * Releases all memory and deletes the slab file, if any. Resources generated
+     * by this factory can no longer be read once it has been closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Arrays.fill(segments, null);
+            freeCount = 0;
+        } finally {
+            lock.unlock();
+        }
+        if (slab != null) {
+            slab.close();
+            slabFile.delete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapResourceFactory{" +
+                (slabFile != null ? "file=" + slabFile + ", " : "direct, ") +
+                "maxBytes=" + getMaxBytes() +
+                ", allocatedBytes=" + getAllocatedBytes() +
+                '}';
+    }
+
+    private final class Writer implements ResourceWriter {
+
+        private int[] blocks = new int[4];
+        private int blockCount;
+        private long length;
+        private boolean done;
+
+        @Override
+        public void write(final ByteBuffer src) throws ResourceIOException {
+            if (done) {
+                throw new ResourceIOException("Resource writer already completed");
+            }
+            final long required = (length + src.remaining() + blockSize - 1) / blockSize;
+            if (required > blockCount) {
+                final int n = (int) (required - blockCount);
+                final int[] allocated;
+                try {
+                    allocated = allocate(n);
+                } catch (final ResourceIOException ex) {
+                    abort();
+                    throw ex;
+                }
+                if (blockCount + n > blocks.length) {
+                    blocks = Arrays.copyOf(blocks, Math.max(blocks.length << 1, blockCount + n));
+                }
+                System.arraycopy(allocated, 0, blocks, blockCount, n);
+                blockCount += n;
+            }
+            final int remaining = src.remaining();
+            put(blocks, length, src);
+            length += remaining;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public Resource commit() throws ResourceIOException {
+            if (done) {
+                throw new ResourceIOException("Resource writer already completed");
+            }
+            done = true;
+            return new OffHeapResource(OffHeapResourceFactory.this, Arrays.copyOf(blocks, blockCount), length);
+        }
+
+        @Override
+        public void abort() {
+            if (!done) {
+                done = true;
+                free(blocks, blockCount);
+            }
+        }
+
+    }
+
+}
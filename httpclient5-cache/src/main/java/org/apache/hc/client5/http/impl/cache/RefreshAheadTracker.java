@@ -0,0 +1,158 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Decides which cache hits should trigger a proactive background revalidation
+ * of the entry shortly before it becomes stale.
+ * <p>
+ * Only hits within the refresh-ahead window preceding expiry are counted, so
+ * an entry qualifies once it has been requested the given number of times
+ * during that window. The number of concurrent refreshes is bounded; hits
+ * exceeding the budget are simply served from cache.
+ * </p>
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class RefreshAheadTracker {
+
+    private final long windowMillis;
+    private final int minHits;
+    private final int maxConcurrent;
+    private final int maxTracked;
+    private final ReentrantLock lock;
+    private final Map<String, HitCount> hitCounts;
+
+    private int inFlight;
+
+    RefreshAheadTracker(final TimeValue window, final int minHits, final int maxConcurrent, final int maxTracked) {
+        this.windowMillis = Args.notNull(window, "Refresh-ahead window").toMilliseconds();
+        this.minHits = Math.max(minHits, 1);
+        this.maxConcurrent = Args.positive(maxConcurrent, "Max concurrent refreshes");
+        this.maxTracked = Math.max(maxTracked, 1);
+        this.lock = new ReentrantLock();
+        this.hitCounts = new HashMap<>();
+    }
+
+    static RefreshAheadTracker create(final CacheConfig config) {
+        final TimeValue window = config.getRefreshAheadWindow();
+        if (!TimeValue.isPositive(window)) {
+            return null;
+        }
+        return new RefreshAheadTracker(
+                window,
+                config.getRefreshAheadMinHits(),
+                config.getMaxConcurrentRefreshes(),
+                config.getMaxCacheEntries());
+    }
+
+    /**
+     * Registers a hit of a fresh entry and returns {@code true} if the caller should
+     * refresh the entry now, in which case it must call {@link #release(String)} once
+     * the refresh has completed or could not be started.
+     *
+     * @param cacheKey the entry key.
+     * @param remainingMillis the remaining freshness of the entry.
+     */
+    boolean acquire(final String cacheKey, final long remainingMillis) {
+        if (remainingMillis > windowMillis) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            HitCount hitCount = hitCounts.get(cacheKey);
+            if (hitCount == null) {
+                if (hitCounts.size() >= maxTracked) {
+                    // Entries that expired without qualifying are no longer of interest
+                    hitCounts.values().removeIf(c -> c.deadline < now);
+                    if (hitCounts.size() >= maxTracked) {
+                        return false;
+                    }
+                }
+                hitCount = new HitCount();
+                hitCounts.put(cacheKey, hitCount);
+            }
+            hitCount.hits++;
+            hitCount.deadline = now + remainingMillis;
+            if (hitCount.hits < minHits || inFlight >= maxConcurrent) {
+                return false;
+            }
+            hitCounts.remove(cacheKey);
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(final String cacheKey) {
+        lock.lock();
+        try {
+            hitCounts.remove(cacheKey);
+            if (inFlight > 0) {
+                inFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getTrackedCount() {
+        lock.lock();
+        try {
+            return hitCounts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class HitCount {
+
+        int hits;
+        long deadline;
+
+    }
+
+}
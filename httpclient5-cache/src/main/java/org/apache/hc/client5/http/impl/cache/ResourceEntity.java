@@ -0,0 +1,127 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Repeatable entity that reads its content incrementally from a cache {@link Resource}.
+ * The content is first read from a channel opened in advance, if given, and from
+ * a new channel on the resource on every further read.
+ */
+class ResourceEntity extends AbstractHttpEntity {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final Resource resource;
+    private ReadableByteChannel channel;
+
+    ResourceEntity(
+            final Resource resource,
+            final ReadableByteChannel channel,
+            final ContentType contentType,
+            final String contentEncoding) {
+        super(contentType, contentEncoding);
+        this.resource = Args.notNull(resource, "Resource");
+        this.channel = channel;
+    }
+
+    ResourceEntity(final Resource resource, final ContentType contentType, final String contentEncoding) {
+        this(resource, null, contentType, contentEncoding);
+    }
+
+    private ReadableByteChannel openChannel() throws IOException {
+        final ReadableByteChannel opened = channel;
+        if (opened != null) {
+            channel = null;
+            return opened;
+        }
+        return resource.getChannel();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return resource.length();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final ReadableByteChannel opened = channel;
+        if (opened != null) {
+            channel = null;
+            return Channels.newInputStream(opened);
+        }
+        return resource.getInputStream();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outStream) throws IOException {
+        Args.notNull(outStream, "Output stream");
+        try (final ReadableByteChannel in = openChannel()) {
+            final WritableByteChannel out = Channels.newChannel(outStream);
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final ReadableByteChannel opened = channel;
+        if (opened != null) {
+            channel = null;
+            opened.close();
+        }
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
+import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.impl.Operations;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Two-tier {@link HttpAsyncCacheStorage} that keeps hot entries in an in-process
+ * near storage in front of a (typically remote) storage such as memcached.
+ * <p>
+ * Lookups are served from the near tier while its copy is younger than the near
+ * TTL and fall through to the remote tier otherwise; entries read from or
+ * written to the remote tier are then copied into the near tier. Writes and
+ * removals always go to the remote tier. An entry is removed from the near tier
+ * before it gets updated remotely and only the outcome of a successful remote
+ * CAS update is put back into the near tier.
+ * </p>
+ * <p>
+ * The near tier is not notified of changes made by other clients sharing the remote
+ * tier, so the near TTL bounds the time a stale near copy may still be served.
+ * The near storage is expected to apply its own size bound, for instance
+ * {@link ConcurrentHttpCacheStorage}.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class TieredHttpAsyncCacheStorage implements HttpAsyncCacheStorage {
+
+    public static final TimeValue DEFAULT_NEAR_TTL = TimeValue.ofSeconds(5);
+
+    private final NearCacheTier nearTier;
+    private final HttpAsyncCacheStorage remoteStorage;
+
+    /**
+     * @param nearStorage the in-process near tier.
+     * @param remoteStorage the remote tier.
+     * @param nearTtl the maximum time an entry is served from the near tier
+     *                before it is read again from the remote tier.
+     */
+    public TieredHttpAsyncCacheStorage(
+            final HttpCacheStorage nearStorage,
+            final HttpAsyncCacheStorage remoteStorage,
+            final TimeValue nearTtl) {
+        this.nearTier = new NearCacheTier(nearStorage, TimeValue.defaultsTo(nearTtl, DEFAULT_NEAR_TTL));
+        this.remoteStorage = Args.notNull(remoteStorage, "Remote storage");
+    }
+
+    public TieredHttpAsyncCacheStorage(
+            final HttpCacheStorage nearStorage,
+            final HttpAsyncCacheStorage remoteStorage) {
+        this(nearStorage, remoteStorage, DEFAULT_NEAR_TTL);
+    }
+
+    /**
+     * Returns the number of lookups served from the near tier.
+     */
+    public long getNearHitCount() {
+        return nearTier.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to be forwarded to the remote tier.
+     */
+    public long getNearMissCount() {
+        return nearTier.getMissCount();
+    }
+
+    @Override
+    public Cancellable putEntry(final String key, final HttpCacheEntry entry, final FutureCallback<Boolean> callback) {
+        Args.notNull(key, "Key");
+        nearTier.invalidate(key);
+        return remoteStorage.putEntry(key, entry, new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+                nearTier.put(key, entry);
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+
+        });
+    }
+
+    @Override
+    public Cancellable getEntry(final String key, final FutureCallback<HttpCacheEntry> callback) {
+        Args.notNull(key, "Key");
+        final HttpCacheEntry nearEntry = nearTier.get(key);
+        if (nearEntry != null) {
+            callback.completed(nearEntry);
+            return Operations.nonCancellable();
+        }
+        final long generation = nearTier.beginRead(key);
+        return remoteStorage.getEntry(key, new FutureCallback<HttpCacheEntry>() {
+
+            @Override
+            public void completed(final HttpCacheEntry entry) {
+                nearTier.endRead(key, generation, entry);
+                callback.completed(entry);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                nearTier.endRead(key, generation, null);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                nearTier.endRead(key, generation, null);
+                callback.cancelled();
+            }
+
+        });
+    }
+
+    @Override
+    public Cancellable removeEntry(final String key, final FutureCallback<Boolean> callback) {
+        Args.notNull(key, "Key");
+        nearTier.invalidate(key);
+        return remoteStorage.removeEntry(key, callback);
+    }
+
+    @Override
+    public Cancellable removeEntries(final Collection<String> keys, final FutureCallback<Boolean> callback) {
+        Args.notNull(keys, "Keys");
+        for (final String key : keys) {
+            nearTier.invalidate(key);
+        }
+        return remoteStorage.removeEntries(keys, callback);
+    }
+
+    @Override
+    public Cancellable updateEntry(
+            final String key, final HttpCacheCASOperation casOperation, final FutureCallback<Boolean> callback) {
+        Args.notNull(key, "Key");
+        Args.notNull(casOperation, "CAS operation");
+        nearTier.invalidate(key);
+        final AtomicReference<HttpCacheEntry> updatedRef = new AtomicReference<>();
+        return remoteStorage.updateEntry(key, existing -> {
+            final HttpCacheEntry updated = casOperation.execute(existing);
+            updatedRef.set(updated);
+            return updated;
+        }, new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+                final HttpCacheEntry updated = updatedRef.get();
+                if (Boolean.TRUE.equals(result) && updated != null) {
+                    nearTier.put(key, updated);
+                } else {
+                    nearTier.invalidate(key);
+                }
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                nearTier.invalidate(key);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                nearTier.invalidate(key);
+                callback.cancelled();
+            }
+
+        });
+    }
+
+    @Override
+    public Cancellable getEntries(final Collection<String> keys, final FutureCallback<Map<String, HttpCacheEntry>> callback) {
+        Args.notNull(keys, "Keys");
+        final Map<String, HttpCacheEntry> resultMap = new HashMap<>(keys.size());
+        final List<String> remoteKeys = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            final HttpCacheEntry nearEntry = nearTier.get(key);
+            if (nearEntry != null) {
+                resultMap.put(key, nearEntry);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            callback.completed(resultMap);
+            return Operations.nonCancellable();
+        }
+        final long[] generations = new long[remoteKeys.size()];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = nearTier.beginRead(remoteKeys.get(i));
+        }
+        return remoteStorage.getEntries(remoteKeys, new FutureCallback<Map<String, HttpCacheEntry>>() {
+
+            @Override
+            public void completed(final Map<String, HttpCacheEntry> remoteMap) {
+                for (int i = 0; i < generations.length; i++) {
+                    final String key = remoteKeys.get(i);
+                    nearTier.endRead(key, generations[i], remoteMap.get(key));
+                }
+                resultMap.putAll(remoteMap);
+                callback.completed(resultMap);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                endAll();
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                endAll();
+                callback.cancelled();
+            }
+
+            private void endAll() {
+                for (int i = 0; i < generations.length; i++) {
+                    nearTier.endRead(remoteKeys.get(i), generations[i], null);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "TieredHttpAsyncCacheStorage{" +
+                "near=" + nearTier.getStorage() +
+                ", remote=" + remoteStorage +
+                ", nearTtl=" + nearTier.getTtl() +
+                ", nearHits=" + getNearHitCount() +
+                ", nearMisses=" + getNearMissCount() +
+                '}';
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.HttpCacheUpdateException;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Two-tier {@link HttpCacheStorage} that keeps hot entries in an in-process
+ * near storage in front of a (typically remote) storage such as memcached.
+ * This is the classic counterpart of {@link TieredHttpAsyncCacheStorage} and
+ * follows the same rules.
+ * <p>
+ * Lookups are served from the near tier while its copy is younger than the near
+ * TTL and fall through to the remote tier otherwise; entries read from or
+ * written to the remote tier are then copied into the near tier. Writes and
+ * removals always go to the remote tier. An entry is removed from the near tier
+ * before it gets updated remotely and only the outcome of a successful remote
+ * CAS update is put back into the near tier.
+ * </p>
+ * <p>
+ * The near tier is not notified of changes made by other clients sharing the remote
+ * tier, so the near TTL bounds the time a stale near copy may still be served.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class TieredHttpCacheStorage implements HttpCacheStorage {
+
+    private final NearCacheTier nearTier;
+    private final HttpCacheStorage remoteStorage;
+
+    /**
+     * @param nearStorage the in-process near tier.
+     * @param remoteStorage the remote tier.
+     * @param nearTtl the maximum time an entry is served from the near tier
+     *                before it is read again from the remote tier.
+     */
+    public TieredHttpCacheStorage(
+            final HttpCacheStorage nearStorage,
+            final HttpCacheStorage remoteStorage,
+            final TimeValue nearTtl) {
+        this.nearTier = new NearCacheTier(nearStorage,
+                TimeValue.defaultsTo(nearTtl, TieredHttpAsyncCacheStorage.DEFAULT_NEAR_TTL));
+        this.remoteStorage = Args.notNull(remoteStorage, "Remote storage");
+    }
+
+    public TieredHttpCacheStorage(
+            final HttpCacheStorage nearStorage,
+            final HttpCacheStorage remoteStorage) {
+        this(nearStorage, remoteStorage, TieredHttpAsyncCacheStorage.DEFAULT_NEAR_TTL);
+    }
+
+    /**
+     * Returns the number of lookups served from the near tier.
+     */
+    public long getNearHitCount() {
+        return nearTier.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to be forwarded to the remote tier.
+     */
+    public long getNearMissCount() {
+        return nearTier.getMissCount();
+    }
+
+    @Override
+    public void putEntry(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        nearTier.invalidate(key);
+        remoteStorage.putEntry(key, entry);
+        nearTier.put(key, entry);
+    }
+
+    @Override
+    public HttpCacheEntry getEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        final HttpCacheEntry nearEntry = nearTier.get(key);
+        if (nearEntry != null) {
+            return nearEntry;
+        }
+        final long generation = nearTier.beginRead(key);
+        HttpCacheEntry entry = null;
+        try {
+            entry = remoteStorage.getEntry(key);
+            return entry;
+        } finally {
+            nearTier.endRead(key, generation, entry);
+        }
+    }
+
+    @Override
+    public void removeEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        nearTier.invalidate(key);
+        remoteStorage.removeEntry(key);
+    }
+
+    @Override
+    public void updateEntry(
+            final String key,
+            final HttpCacheCASOperation casOperation) throws ResourceIOException, HttpCacheUpdateException {
+        Args.notNull(key, "Key");
+        Args.notNull(casOperation, "CAS operation");
+        nearTier.invalidate(key);
+        final AtomicReference<HttpCacheEntry> updatedRef = new AtomicReference<>();
+        try {
+            remoteStorage.updateEntry(key, existing -> {
+                final HttpCacheEntry updated = casOperation.execute(existing);
+                updatedRef.set(updated);
+                return updated;
+            });
+        } catch (final ResourceIOException | HttpCacheUpdateException | RuntimeException ex) {
+            nearTier.invalidate(key);
+            throw ex;
+        }
+        final HttpCacheEntry updated = updatedRef.get();
+        if (updated != null) {
+            nearTier.put(key, updated);
+        } else {
+            nearTier.invalidate(key);
+        }
+    }
+
+    @Override
+    public Map<String, HttpCacheEntry> getEntries(final Collection<String> keys) throws ResourceIOException {
+        Args.notNull(keys, "Keys");
+        final Map<String, HttpCacheEntry> resultMap = new HashMap<>(keys.size());
+        final List<String> remoteKeys = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            final HttpCacheEntry nearEntry = nearTier.get(key);
+            if (nearEntry != null) {
+                resultMap.put(key, nearEntry);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return resultMap;
+        }
+        final long[] generations = new long[remoteKeys.size()];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = nearTier.beginRead(remoteKeys.get(i));
+        }
+        Map<String, HttpCacheEntry> remoteMap = null;
+        try {
+            remoteMap = remoteStorage.getEntries(remoteKeys);
+        } finally {
+            for (int i = 0; i < generations.length; i++) {
+                final String key = remoteKeys.get(i);
+                nearTier.endRead(key, generations[i], remoteMap != null ? remoteMap.get(key) : null);
+            }
+        }
+        resultMap.putAll(remoteMap);
+        return resultMap;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredHttpCacheStorage{" +
+                "near=" + nearTier.getStorage() +
+                ", remote=" + remoteStorage +
+                ", nearTtl=" + nearTier.getTtl() +
+                ", nearHits=" + getNearHitCount() +
+                ", nearMisses=" + getNearMissCount() +
+                '}';
+    }
+
+}
@@ -86,6 +86,14 @@
  * documentation</a> for details about how to set up and configure memcached
  * and the Java client used here, respectively.
  * </p>
+ * <p>
+ * Concurrent single entry lookups can optionally be coalesced into multi-get
+ * requests (see {@link #MemcachedHttpAsyncCacheStorage(MemcachedClient, CacheConfig,
+ * HttpCacheEntrySerializer, KeyHashingScheme, int)}). Removal of related entries is
+ * pipelined: all deletes are written out at once without waiting for individual
+ * responses. Latency of individual memcached operations is recorded in
+ * {@link #getMetrics() operation metrics}.
+ * </p>
  *
  * @since 5.0
  */
@@ -93,6 +101,7 @@ public class MemcachedHttpAsyncCacheStorage extends AbstractBinaryAsyncCacheStor
 
     private final MemcachedClient client;
     private final KeyHashingScheme keyHashingScheme;
+    private final MemcachedOperationMetrics metrics;
 
     /**
      * Create a storage backend talking to a <i>memcached</i> instance
@@ -130,10 +139,47 @@ public MemcachedHttpAsyncCacheStorage(
             final CacheConfig config,
             final HttpCacheEntrySerializer<byte[]> serializer,
             final KeyHashingScheme keyHashingScheme) {
+        this(client, config, serializer, keyHashingScheme, 0);
+    }
+
+    /**
+     * Create a storage backend using the given <i>memcached</i> client and
+     * applying the given cache configuration, serialization, and hashing
+     * mechanisms, optionally coalescing concurrent lookups into multi-get
+     * requests.
+     * @param client how to talk to <i>memcached</i>
+     * @param config apply HTTP cache-related options
+     * @param serializer alternative serialization mechanism
+     * @param keyHashingScheme how to map higher-level logical "storage keys"
+     *   onto "cache keys" suitable for use with memcached
+     * @param maxBulkGetsInFlight maximum number of multi-get requests in flight
+     *   at any time. Lookups issued while this limit is reached are queued and
+     *   sent together with the next multi-get request. Zero disables coalescing.
+     *
+     * @since 5.7
+     */
+    public MemcachedHttpAsyncCacheStorage(
+            final MemcachedClient client,
+            final CacheConfig config,
+            final HttpCacheEntrySerializer<byte[]> serializer,
+            final KeyHashingScheme keyHashingScheme,
+            final int maxBulkGetsInFlight) {
         super((config != null ? config : CacheConfig.DEFAULT).getMaxUpdateRetries(),
-                serializer != null ? serializer : HttpByteArrayCacheEntrySerializer.INSTANCE);
+                serializer != null ? serializer : HttpByteArrayCacheEntrySerializer.INSTANCE,
+                maxBulkGetsInFlight);
         this.client = Args.notNull(client, "Memcached client");
         this.keyHashingScheme = keyHashingScheme;
+        this.metrics = new MemcachedOperationMetrics();
+    }
+
+    /**
+     * Returns latency and throughput counters of memcached operations
+     * issued by this storage.
+     *
+     * @since 5.7
+     */
+    public MemcachedOperationMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
@@ -156,60 +202,73 @@ protected byte[] getStorageObject(final CASValue<Object> casValue) throws Resour
         return castAsByteArray(casValue.getValue());
     }
 
-    private <T> Cancellable operation(final OperationFuture<T> operationFuture, final FutureCallback<T> callback) {
+    private static Exception unwrap(final ExecutionException ex) {
+        if (ex.getCause() instanceof Exception) {
+            if (ex.getCause() instanceof CancellationException) {
+                return new MemcachedOperationCancellationException(ex.getCause());
+            }
+            return (Exception) ex.getCause();
+        }
+        return ex;
+    }
+
+    private <T> Cancellable operation(
+            final MemcachedOperationMetrics.Operation operation,
+            final OperationFuture<T> operationFuture,
+            final FutureCallback<T> callback) {
+        final long startNanos = System.nanoTime();
         operationFuture.addListener(future -> {
+            final T result;
             try {
-                callback.completed(operationFuture.get());
+                result = operationFuture.get();
             } catch (final ExecutionException ex) {
-                if (ex.getCause() instanceof Exception) {
-                    if (ex.getCause() instanceof CancellationException) {
-                        callback.failed(new MemcachedOperationCancellationException(ex.getCause()));
-                    } else {
-                        callback.failed((Exception) ex.getCause());
-                    }
-                } else {
-                    callback.failed(ex);
-                }
+                metrics.record(operation, 1, startNanos, true);
+                callback.failed(unwrap(ex));
+                return;
             }
+            metrics.record(operation, 1, startNanos, false);
+            callback.completed(result);
         });
         return Operations.cancellable(operationFuture);
     }
 
     @Override
     protected Cancellable store(final String storageKey, final byte[] storageObject, final FutureCallback<Boolean> callback) {
-        return operation(client.set(storageKey, 0, storageObject), callback);
+        return operation(MemcachedOperationMetrics.Operation.SET, client.set(storageKey, 0, storageObject), callback);
     }
 
     @Override
     protected Cancellable restore(final String storageKey, final FutureCallback<byte[]> callback) {
+        final long startNanos = System.nanoTime();
         final GetFuture<Object> getFuture = client.asyncGet(storageKey);
         getFuture.addListener(future -> {
+            final byte[] storageObject;
             try {
-                callback.completed(castAsByteArray(getFuture.get()));
+                storageObject = castAsByteArray(getFuture.get());
             } catch (final ExecutionException ex) {
-                if (ex.getCause() instanceof Exception) {
-                    if (ex.getCause() instanceof CancellationException) {
-                        callback.failed(new MemcachedOperationCancellationException(ex.getCause()));
-                    } else {
-                        callback.failed((Exception) ex.getCause());
-                    }
-                } else {
-                    callback.failed(ex);
-                }
+                metrics.record(MemcachedOperationMetrics.Operation.GET, 1, startNanos, true);
+                callback.failed(unwrap(ex));
+                return;
+            } catch (final ResourceIOException ex) {
+                metrics.record(MemcachedOperationMetrics.Operation.GET, 1, startNanos, false);
+                callback.failed(ex);
+                return;
             }
+            metrics.record(MemcachedOperationMetrics.Operation.GET, 1, startNanos, false);
+            callback.completed(storageObject);
         });
         return Operations.cancellable(getFuture);
     }
 
     @Override
     protected Cancellable getForUpdateCAS(final String storageKey, final FutureCallback<CASValue<Object>> callback) {
-        return operation(client.asyncGets(storageKey), callback);
+        return operation(MemcachedOperationMetrics.Operation.GETS, client.asyncGets(storageKey), callback);
     }
 
     @Override
     protected Cancellable updateCAS(
             final String storageKey, final CASValue<Object> casValue, final byte[] storageObject, final FutureCallback<Boolean> callback) {
-        return operation(client.asyncCAS(storageKey, casValue.getCas(), storageObject), new FutureCallback<CASResponse>() {
+        return operation(MemcachedOperationMetrics.Operation.CAS, client.asyncCAS(storageKey, casValue.getCas(), storageObject), new FutureCallback<CASResponse>() {
 
             @Override
             public void completed(final CASResponse result) {
@@ -231,18 +290,31 @@ public void cancelled() {
 
     @Override
     protected Cancellable delete(final String storageKey, final FutureCallback<Boolean> callback) {
-        return operation(client.delete(storageKey), callback);
+        return operation(MemcachedOperationMetrics.Operation.DELETE, client.delete(storageKey), callback);
     }
 
     @Override
     protected Cancellable bulkRestore(final Collection<String> storageKeys, final FutureCallback<Map<String, byte[]>> callback) {
+        final long startNanos = System.nanoTime();
         final BulkFuture<Map<String, Object>> future = client.asyncGetBulk(storageKeys);
         future.addListener(future1 -> {
-            final Map<String, ?> storageObjectMap = future1.get();
-            final Map<String, byte[]> resultMap = new HashMap<>(storageObjectMap.size());
-            for (final Map.Entry<String, ?> resultEntry: storageObjectMap.entrySet()) {
-                resultMap.put(resultEntry.getKey(), castAsByteArray(resultEntry.getValue()));
+            final Map<String, byte[]> resultMap;
+            try {
+                final Map<String, ?> storageObjectMap = future1.get();
+                resultMap = new HashMap<>(storageObjectMap.size());
+                for (final Map.Entry<String, ?> resultEntry: storageObjectMap.entrySet()) {
+                    resultMap.put(resultEntry.getKey(), castAsByteArray(resultEntry.getValue()));
+                }
+            } catch (final ExecutionException ex) {
+                metrics.record(MemcachedOperationMetrics.Operation.GET_BULK, storageKeys.size(), startNanos, true);
+                callback.failed(unwrap(ex));
+                return;
+            } catch (final ResourceIOException ex) {
+                metrics.record(MemcachedOperationMetrics.Operation.GET_BULK, storageKeys.size(), startNanos, false);
+                callback.failed(ex);
+                return;
             }
+            metrics.record(MemcachedOperationMetrics.Operation.GET_BULK, storageKeys.size(), startNanos, false);
             callback.completed(resultMap);
         });
         return Operations.cancellable(future);
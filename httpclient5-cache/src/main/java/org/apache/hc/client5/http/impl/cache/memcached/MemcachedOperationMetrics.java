@@ -0,0 +1,161 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache.memcached;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Per operation latency and throughput counters of {@link MemcachedHttpAsyncCacheStorage}.
+ * Latency is measured from the moment an operation is submitted to the memcached client
+ * until its completion is signalled.
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class MemcachedOperationMetrics {
+
+    /**
+     * Memcached operations issued by the storage.
+     */
+    public enum Operation {
+
+        GET, GET_BULK, GETS, SET, CAS, DELETE
+
+    }
+
+    /**
+     * Counters of a single operation type.
+     */
+    @Contract(threading = ThreadingBehavior.SAFE)
+    public static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder keys = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(final int keyCount, final long nanos, final boolean failed) {
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            keys.add(keyCount);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        /**
+         * Returns the number of completed operations.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Returns the number of operations that completed with an error.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Returns the total number of keys the operations have been applied to.
+         */
+        public long getKeys() {
+            return keys.sum();
+        }
+
+        /**
+         * Returns the total latency of all completed operations.
+         */
+        public long getTotalTime(final TimeUnit timeUnit) {
+            return timeUnit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the highest latency of a single operation.
+         */
+        public long getMaxTime(final TimeUnit timeUnit) {
+            return timeUnit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the mean latency of completed operations or {@code 0} if none has completed yet.
+         */
+        public long getMeanTime(final TimeUnit timeUnit) {
+            final long n = count.sum();
+            return n > 0 ? timeUnit.convert(totalNanos.sum() / n, TimeUnit.NANOSECONDS) : 0L;
+        }
+
+        @Override
+        public String toString() {
+            return "[count=" + getCount() +
+                    ", failures=" + getFailures() +
+                    ", keys=" + getKeys() +
+                    ", meanMicros=" + getMeanTime(TimeUnit.MICROSECONDS) +
+                    ", maxMicros=" + getMaxTime(TimeUnit.MICROSECONDS) +
+                    "]";
+        }
+
+    }
+
+    private final Map<Operation, Stats> statsMap;
+
+    MemcachedOperationMetrics() {
+        this.statsMap = new EnumMap<>(Operation.class);
+        for (final Operation operation : Operation.values()) {
+            this.statsMap.put(operation, new Stats());
+        }
+    }
+
+    void record(final Operation operation, final int keyCount, final long startNanos, final boolean failed) {
+        statsMap.get(operation).record(keyCount, System.nanoTime() - startNanos, failed);
+    }
+
+    /**
+     * Returns counters of the given operation type.
+     */
+    public Stats get(final Operation operation) {
+        Args.notNull(operation, "Operation");
+        return statsMap.get(operation);
+    }
+
+    @Override
+    public String toString() {
+        return statsMap.toString();
+    }
+
+}
@@ -29,9 +29,12 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -437,4 +440,90 @@ void testBulkGetKeyMismatch() {
                 ArgumentMatchers.any());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCacheGetCoalescedIntoBulkGets() throws Exception {
+        impl = Mockito.mock(AbstractBinaryAsyncCacheStorage.class,
+                Mockito.withSettings().defaultAnswer(Answers.CALLS_REAL_METHODS)
+                        .useConstructor(3, HttpByteArrayCacheEntrySerializer.INSTANCE, 1));
+        final HttpCacheEntry value1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry value2 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry value3 = HttpTestUtils.makeCacheEntry();
+
+        when(impl.digestToStorageKey("foo")).thenReturn("bar");
+        when(impl.digestToStorageKey("egg")).thenReturn("spam");
+        when(impl.digestToStorageKey("ham")).thenReturn("eggs");
+
+        final List<Collection<String>> batches = new ArrayList<>();
+        final List<FutureCallback<Map<String, byte[]>>> callbacks = new ArrayList<>();
+        when(impl.bulkRestore(ArgumentMatchers.anyCollection(), ArgumentMatchers.any())).thenAnswer(
+                (Answer<Cancellable>) invocation -> {
+                    batches.add(new ArrayList<>(invocation.getArgument(0)));
+                    callbacks.add(invocation.getArgument(1));
+                    return cancellable;
+                });
+
+        final FutureCallback<HttpCacheEntry> callback1 = Mockito.mock(FutureCallback.class);
+        final FutureCallback<HttpCacheEntry> callback2 = Mockito.mock(FutureCallback.class);
+        final FutureCallback<HttpCacheEntry> callback3 = Mockito.mock(FutureCallback.class);
+        final FutureCallback<HttpCacheEntry> callback4 = Mockito.mock(FutureCallback.class);
+        impl.getEntry("foo", callback1);
+        impl.getEntry("egg", callback2);
+        impl.getEntry("ham", callback3);
+        impl.getEntry("egg", callback4);
+
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(Collections.singletonList("bar"), batches.get(0));
+
+        final Map<String, byte[]> result1 = new HashMap<>();
+        result1.put("bar", serialize("foo", value1));
+        callbacks.get(0).completed(result1);
+
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(Arrays.asList("spam", "eggs"), batches.get(1));
+
+        final Map<String, byte[]> result2 = new HashMap<>();
+        result2.put("spam", serialize("egg", value2));
+        result2.put("eggs", serialize("ham", value3));
+        callbacks.get(1).completed(result2);
+
+        Assertions.assertEquals(2, batches.size());
+        Mockito.verify(impl, Mockito.never()).restore(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        final ArgumentCaptor<HttpCacheEntry> captor = ArgumentCaptor.forClass(HttpCacheEntry.class);
+        Mockito.verify(callback1).completed(captor.capture());
+        HttpCacheEntryMatcher.assertEquivalent(value1, captor.getValue());
+        Mockito.verify(callback2).completed(captor.capture());
+        HttpCacheEntryMatcher.assertEquivalent(value2, captor.getValue());
+        Mockito.verify(callback3).completed(captor.capture());
+        HttpCacheEntryMatcher.assertEquivalent(value3, captor.getValue());
+        Mockito.verify(callback4).completed(captor.capture());
+        HttpCacheEntryMatcher.assertEquivalent(value2, captor.getValue());
+    }
+
+    @Test
+    void testRemoveEntries() {
+        when(impl.digestToStorageKey("foo")).thenReturn("bar");
+        when(impl.digestToStorageKey("egg")).thenReturn("spam");
+
+        final List<FutureCallback<Boolean>> callbacks = new ArrayList<>();
+        when(impl.delete(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenAnswer(
+                (Answer<Cancellable>) invocation -> {
+                    callbacks.add(invocation.getArgument(1));
+                    return cancellable;
+                });
+
+        impl.removeEntries(Arrays.asList("foo", "egg"), operationCallback);
+
+        // all deletes are issued before any of them completes
+        Assertions.assertEquals(2, callbacks.size());
+        verify(impl).delete(ArgumentMatchers.eq("bar"), ArgumentMatchers.any());
+        verify(impl).delete(ArgumentMatchers.eq("spam"), ArgumentMatchers.any());
+
+        callbacks.get(0).completed(Boolean.TRUE);
+        Mockito.verify(operationCallback, Mockito.never()).completed(ArgumentMatchers.any());
+        callbacks.get(1).completed(Boolean.FALSE);
+        Mockito.verify(operationCallback).completed(Boolean.TRUE);
+    }
+
 }
@@ -0,0 +1,352 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.cache.ResourceWriter;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestAsyncCachingExecWriteThrough {
+
+    private static final int BODY_SIZE = 1024 * 1024;
+
+    @TempDir
+    File cacheDir;
+
+    private byte[] body;
+    private AtomicInteger originHits;
+    private HttpServer server;
+    private ExecutorService executorService;
+    private HttpHost target;
+    private CountDownLatch stallLatch;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        body = new byte[BODY_SIZE];
+        new Random(42).nextBytes(body);
+        originHits = new AtomicInteger(0);
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", this::handleOrigin);
+        stallLatch = new CountDownLatch(1);
+        executorService = Executors.newCachedThreadPool();
+        server.setExecutor(executorService);
+        server.start();
+        target = new HttpHost("http", "localhost", server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stallLatch.countDown();
+        server.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private void handleOrigin(final HttpExchange exchange) throws IOException {
+        originHits.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().add("Cache-Control", "public, max-age=60");
+        exchange.getResponseHeaders().add("Date", DateUtils.formatStandardDate(Instant.now()));
+        // Chunked coding so that the content length is not known up front
+        exchange.sendResponseHeaders(200, 0);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            for (int off = 0; off < body.length; off += 8192) {
+                out.write(body, off, Math.min(8192, body.length - off));
+                if (off == body.length / 2 && exchange.getRequestURI().getPath().equals("/stall")) {
+                    // Stall half way through the body until the test is over
+                    out.flush();
+                    try {
+                        stallLatch.await(30, TimeUnit.SECONDS);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    private SimpleHttpResponse execute(
+            final CloseableHttpAsyncClient client, final HttpCacheContext context) throws Exception {
+        final SimpleHttpRequest request = SimpleRequestBuilder.get()
+                .setHttpHost(target)
+                .setPath("/large")
+                .build();
+        return client.execute(
+                SimpleRequestProducer.create(request),
+                SimpleResponseConsumer.create(),
+                context,
+                null).get(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testLargeResponseWrittenThroughToCache() throws Exception {
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxObjectSize(4L * BODY_SIZE)
+                .setWriteThroughEnabled(true)
+                .build();
+        final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setResourceFactory(new FileResourceFactory(cacheDir))
+                .build();
+        client.start();
+        try {
+            final HttpCacheContext context1 = HttpCacheContext.create();
+            final SimpleHttpResponse response1 = execute(client, context1);
+            Assertions.assertEquals(200, response1.getCode());
+            Assertions.assertArrayEquals(body, response1.getBodyBytes());
+            Assertions.assertEquals(CacheResponseStatus.CACHE_MISS, context1.getCacheResponseStatus());
+
+            final HttpCacheContext context2 = HttpCacheContext.create();
+            final SimpleHttpResponse response2 = execute(client, context2);
+            Assertions.assertEquals(200, response2.getCode());
+            Assertions.assertArrayEquals(body, response2.getBodyBytes());
+            Assertions.assertEquals(CacheResponseStatus.CACHE_HIT, context2.getCacheResponseStatus());
+
+            Assertions.assertEquals(1, originHits.get());
+            final File[] files = cacheDir.listFiles();
+            Assertions.assertNotNull(files);
+            Assertions.assertEquals(1, files.length);
+            Assertions.assertEquals(BODY_SIZE, files[0].length());
+        } finally {
+            client.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    @Test
+    void testResponseExceedingMaxObjectSizeNotCached() throws Exception {
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxObjectSize(BODY_SIZE / 2)
+                .setWriteThroughEnabled(true)
+                .build();
+        final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setResourceFactory(new FileResourceFactory(cacheDir))
+                .build();
+        client.start();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final HttpCacheContext context = HttpCacheContext.create();
+                final SimpleHttpResponse response = execute(client, context);
+                Assertions.assertEquals(200, response.getCode());
+                Assertions.assertArrayEquals(body, response.getBodyBytes());
+                Assertions.assertEquals(CacheResponseStatus.CACHE_MISS, context.getCacheResponseStatus());
+            }
+            Assertions.assertEquals(2, originHits.get());
+            final File[] files = cacheDir.listFiles();
+            Assertions.assertNotNull(files);
+            Assertions.assertEquals(0, files.length);
+        } finally {
+            client.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    @Test
+    void testWriteThroughWithHeapResources() throws Exception {
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxObjectSize(4L * BODY_SIZE)
+                .setWriteThroughEnabled(true)
+                .build();
+        final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setResourceFactory(HeapResourceFactory.INSTANCE)
+                .build();
+        client.start();
+        try {
+            final SimpleHttpResponse response1 = execute(client, HttpCacheContext.create());
+            Assertions.assertArrayEquals(body, response1.getBodyBytes());
+
+            final HttpCacheContext context2 = HttpCacheContext.create();
+            final SimpleHttpResponse response2 = execute(client, context2);
+            Assertions.assertArrayEquals(body, response2.getBodyBytes());
+            Assertions.assertEquals(CacheResponseStatus.CACHE_HIT, context2.getCacheResponseStatus());
+            Assertions.assertEquals(1, originHits.get());
+        } finally {
+            client.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    @Test
+    void testCancelledExchangeDiscardsPartialContent() throws Exception {
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxObjectSize(4L * BODY_SIZE)
+                .setWriteThroughEnabled(true)
+                .build();
+        final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setResourceFactory(new FileResourceFactory(cacheDir))
+                .build();
+        client.start();
+        try {
+            final SimpleHttpRequest request = SimpleRequestBuilder.get()
+                    .setHttpHost(target)
+                    .setPath("/stall")
+                    .build();
+            final CompletableFuture<Long> halfReceived = new CompletableFuture<>();
+            final AtomicLong received = new AtomicLong();
+            final Future<Void> future = client.execute(
+                    SimpleRequestProducer.create(request),
+                    new AbstractBinResponseConsumer<Void>() {
+
+                        @Override
+                        protected void start(final HttpResponse response, final ContentType contentType) {
+                        }
+
+                        @Override
+                        protected int capacityIncrement() {
+                            return Integer.MAX_VALUE;
+                        }
+
+                        @Override
+                        protected void data(final ByteBuffer src, final boolean endOfStream) {
+                            if (received.addAndGet(src.remaining()) >= BODY_SIZE / 2) {
+                                halfReceived.complete(received.get());
+                            }
+                        }
+
+                        @Override
+                        protected Void buildResult() {
+                            return null;
+                        }
+
+                        @Override
+                        public void releaseResources() {
+                        }
+
+                    },
+                    HttpCacheContext.create(),
+                    null);
+            halfReceived.get(30, TimeUnit.SECONDS);
+            final File[] partial = cacheDir.listFiles();
+            Assertions.assertNotNull(partial);
+            Assertions.assertEquals(1, partial.length);
+
+            future.cancel(true);
+
+            final long deadline = System.currentTimeMillis() + 5000;
+            File[] files = cacheDir.listFiles();
+            while (files != null && files.length > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                files = cacheDir.listFiles();
+            }
+            Assertions.assertNotNull(files);
+            Assertions.assertEquals(0, files.length);
+        } finally {
+            client.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    @Test
+    void testReleaseBeforeStreamEndAbortsWriter() throws Exception {
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxObjectSize(4L * BODY_SIZE)
+                .setWriteThroughEnabled(true)
+                .build();
+        final ResourceWriter writer = new FileResourceFactory(cacheDir).createWriter("test", null);
+        final AsyncCachingExec exec = new AsyncCachingExec(
+                new BasicHttpAsyncCache(new FileResourceFactory(cacheDir), new SimpleHttpAsyncCacheStorage()),
+                null,
+                cacheConfig);
+        final AsyncCachingExec.WriteThroughAsyncDataConsumer consumer = createConsumer(exec, writer);
+        consumer.consume(ByteBuffer.wrap(body, 0, 8192));
+        final File[] partial = cacheDir.listFiles();
+        Assertions.assertNotNull(partial);
+        Assertions.assertEquals(1, partial.length);
+
+        consumer.releaseResources();
+
+        final File[] files = cacheDir.listFiles();
+        Assertions.assertNotNull(files);
+        Assertions.assertEquals(0, files.length);
+    }
+
+    private static AsyncCachingExec.WriteThroughAsyncDataConsumer createConsumer(
+            final AsyncCachingExec exec, final ResourceWriter writer) {
+        return exec.new WriteThroughAsyncDataConsumer(
+                "ex-1", null, new BasicHttpResponse(200), new NoopDataConsumer(), writer);
+    }
+
+    static class NoopDataConsumer implements AsyncDataConsumer {
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) {
+        }
+
+        @Override
+        public void consume(final ByteBuffer src) {
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) {
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+}
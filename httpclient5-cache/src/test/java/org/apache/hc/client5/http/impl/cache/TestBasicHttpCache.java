@@ -46,6 +46,7 @@
 import org.apache.hc.client5.http.HeadersMatcher;
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheEntryFactory;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.utils.DateUtils;
 import org.apache.hc.core5.http.ContentType;
@@ -447,6 +448,32 @@ void testInvalidatesUnsafeRequests() throws Exception {
         Assertions.assertNull(backing.getEntry(key));
     }
 
+    @Test
+    void testStatisticsRecordStorageActivity() throws Exception {
+        final CacheStatistics statistics = new CacheStatistics(10, 1);
+        impl = new BasicHttpCache(new HeapResourceFactory(), HttpCacheEntryFactory.INSTANCE, backing, keyGenerator, statistics);
+
+        final SimpleHttpRequest request = new SimpleHttpRequest("GET", "http://foo.example.com/bar");
+        final HttpResponse origResponse = new BasicHttpResponse(HttpStatus.SC_OK, "OK");
+        origResponse.setHeader("Date", DateUtils.formatStandardDate(now));
+        origResponse.setHeader("Cache-Control", "max-age=3600, public");
+        final CacheHit hit = impl.store(host, request, origResponse, HttpTestUtils.makeRandomBuffer(128), now, now);
+
+        assertEquals(1, statistics.getStoreCount());
+        assertEquals(128, statistics.getStoredBytes());
+        assertEquals(1, statistics.getStorageWriteCount());
+
+        assertNotNull(impl.match(host, request));
+        assertNotNull(impl.match(host, request));
+        assertEquals(2, statistics.getStorageReadCount());
+        assertEquals(Long.valueOf(2), statistics.getHotKeys().get(hit.rootKey));
+
+        final SimpleHttpRequest post = new SimpleHttpRequest("POST", "http://foo.example.com/bar");
+        impl.evictInvalidatedEntries(host, post, HttpTestUtils.make200Response());
+        assertEquals(1, statistics.getInvalidationCount());
+        assertEquals(0, statistics.getStorageErrorCount());
+    }
+
     @Test
     void testDoesNotInvalidateSafeRequests() {
         final SimpleHttpRequest request1 = new SimpleHttpRequest( "GET","/");
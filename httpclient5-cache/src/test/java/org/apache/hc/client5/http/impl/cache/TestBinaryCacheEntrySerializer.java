@@ -0,0 +1,226 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorageEntry;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestBinaryCacheEntrySerializer {
+
+    private BinaryCacheEntrySerializer serializer;
+    private Instant now;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void before() {
+        serializer = BinaryCacheEntrySerializer.INSTANCE;
+        now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private HttpCacheEntry makeEntry(final byte[] requestContent, final byte[] content, final Set<String> variants) {
+        return new HttpCacheEntry(now.minusSeconds(1), now,
+                "GET", "/stuff", HttpTestUtils.headers(
+                        new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "gzip"),
+                        new BasicHeader("X-Custom", "über")),
+                requestContent,
+                HttpStatus.SC_OK, HttpTestUtils.headers(
+                        new BasicHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PLAIN.toString()),
+                        new BasicHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"),
+                        new BasicHeader("x-lower-case", "value"),
+                        new BasicHeader(HttpHeaders.DATE, "")),
+                content != null ? new HeapResource(content) : null,
+                variants);
+    }
+
+    @Test
+    void testSimpleSerializeAndDeserialize() throws Exception {
+        final byte[] content = "Hello World".getBytes(StandardCharsets.US_ASCII);
+        final HttpCacheStorageEntry storageEntry = new HttpCacheStorageEntry("unique-cache-key",
+                makeEntry(null, content, null));
+        final byte[] serialized = serializer.serialize(storageEntry);
+
+        final HttpCacheStorageEntry deserialized = serializer.deserialize(serialized);
+        Assertions.assertEquals(storageEntry.getKey(), deserialized.getKey());
+        HttpCacheEntryMatcher.assertEquivalent(deserialized.getContent(), storageEntry.getContent());
+        Assertions.assertEquals(now, deserialized.getContent().getResponseInstant());
+        Assertions.assertNull(deserialized.getContent().getRequestContent());
+        Assertions.assertEquals("über", deserialized.getContent().requestHeaders().getFirstHeader("X-Custom").getValue());
+        Assertions.assertEquals("x-lower-case", deserialized.getContent().getFirstHeader("X-Lower-Case").getName());
+    }
+
+    @Test
+    void testContentIsNotCopiedUntilRead() throws Exception {
+        final byte[] content = HttpTestUtils.makeRandomBytes(4096);
+        final byte[] serialized = serializer.serialize(new HttpCacheStorageEntry("key",
+                makeEntry(null, content, null)));
+
+        final HttpCacheStorageEntry deserialized = serializer.deserialize(serialized);
+        final HeapSliceResource resource = (HeapSliceResource) deserialized.getContent().getResource();
+        Assertions.assertEquals(content.length, resource.length());
+        final ByteArrayBuffer buf = new ByteArrayBuffer(content.length);
+        final byte[] tmp = new byte[1000];
+        try (InputStream in = resource.getInputStream()) {
+            int n;
+            while ((n = in.read(tmp)) != -1) {
+                buf.append(tmp, 0, n);
+            }
+        }
+        Assertions.assertArrayEquals(content, buf.toByteArray());
+        Assertions.assertArrayEquals(content, resource.get());
+        Assertions.assertSame(resource.get(), resource.get());
+
+        resource.dispose();
+        Assertions.assertThrows(ResourceIOException.class, resource::get);
+    }
+
+    @Test
+    void testSerializeAndDeserializeRequestContentAndVariants() throws Exception {
+        final byte[] requestContent = "{\"criteria\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+        final Set<String> variants = new HashSet<>();
+        variants.add("{Accept-Encoding=gzip}");
+        variants.add("{Accept-Encoding=compress}");
+        final HttpCacheStorageEntry storageEntry = new HttpCacheStorageEntry("unique-cache-key",
+                makeEntry(requestContent, new byte[0], variants));
+        final byte[] serialized = serializer.serialize(storageEntry);
+
+        final HttpCacheStorageEntry deserialized = serializer.deserialize(serialized);
+        HttpCacheEntryMatcher.assertEquivalent(deserialized.getContent(), storageEntry.getContent());
+        Assertions.assertArrayEquals(requestContent, deserialized.getContent().getRequestContent());
+        Assertions.assertEquals(variants, deserialized.getContent().getVariants());
+        Assertions.assertEquals(0, deserialized.getContent().getResource().length());
+    }
+
+    @Test
+    void testSerializeAndDeserializeWithoutResource() throws Exception {
+        final HttpCacheStorageEntry storageEntry = new HttpCacheStorageEntry("unique-cache-key",
+                makeEntry(null, null, null));
+        final HttpCacheStorageEntry deserialized = serializer.deserialize(serializer.serialize(storageEntry));
+        HttpCacheEntryMatcher.assertEquivalent(deserialized.getContent(), storageEntry.getContent());
+        Assertions.assertNull(deserialized.getContent().getResource());
+    }
+
+    @Test
+    void testSerializeFileResource() throws Exception {
+        final byte[] content = HttpTestUtils.makeRandomBytes(100000);
+        final File file = new File(tempDir, "content");
+        Files.write(file.toPath(), content);
+        final HttpCacheEntry entry = new HttpCacheEntry(now, now, "GET", "/stuff", HttpTestUtils.headers(),
+                HttpStatus.SC_OK, HttpTestUtils.headers(), new FileResource(file), null);
+
+        final HttpCacheStorageEntry deserialized = serializer.deserialize(
+                serializer.serialize(new HttpCacheStorageEntry("key", entry)));
+        Assertions.assertArrayEquals(content, deserialized.getContent().getResource().get());
+    }
+
+    @Test
+    void testDeserializeHeadAndKey() throws Exception {
+        final byte[] requestContent = "stuff".getBytes(StandardCharsets.US_ASCII);
+        final HttpCacheStorageEntry storageEntry = new HttpCacheStorageEntry("unique-cache-key",
+                makeEntry(requestContent, HttpTestUtils.makeRandomBytes(128), null));
+        final byte[] serialized = serializer.serialize(storageEntry);
+
+        Assertions.assertEquals("unique-cache-key", serializer.deserializeKey(serialized));
+        final HttpCacheStorageEntry head = serializer.deserializeHead(serialized);
+        Assertions.assertEquals("unique-cache-key", head.getKey());
+        Assertions.assertNull(head.getContent().getResource());
+        Assertions.assertNull(head.getContent().getRequestContent());
+        Assertions.assertEquals(HttpStatus.SC_OK, head.getContent().getStatus());
+        Assertions.assertEquals("public, max-age=3600",
+                head.getContent().getFirstHeader(HttpHeaders.CACHE_CONTROL).getValue());
+        Assertions.assertEquals(storageEntry.getContent().getRequestInstant(), head.getContent().getRequestInstant());
+    }
+
+    @Test
+    void testInvalidCacheEntry() throws Exception {
+        final HeapResource resource = TestHttpByteArrayCacheEntrySerializer.load(getClass().getResource("/ApacheLogo.png"));
+        Assertions.assertThrows(ResourceIOException.class, () -> serializer.deserialize(resource.get()));
+        Assertions.assertThrows(ResourceIOException.class, () -> serializer.deserialize(new byte[0]));
+        Assertions.assertThrows(ResourceIOException.class, () -> serializer.deserialize(null));
+    }
+
+    @Test
+    void testUnsupportedVersion() throws Exception {
+        final byte[] serialized = serializer.serialize(new HttpCacheStorageEntry("key",
+                makeEntry(null, new byte[] { 1, 2, 3 }, null)));
+        serialized[BinaryCacheEntrySerializer.MAGIC.length] = 2;
+        final ResourceIOException ex = Assertions.assertThrows(ResourceIOException.class, () ->
+                serializer.deserialize(serialized));
+        Assertions.assertEquals("Unsupported cache entry version: 2", ex.getMessage());
+    }
+
+    @Test
+    void testTruncatedCacheEntry() throws Exception {
+        final byte[] serialized = serializer.serialize(new HttpCacheStorageEntry("key",
+                makeEntry("stuff".getBytes(StandardCharsets.US_ASCII), new byte[] { 1, 2, 3 }, null)));
+        for (int i = 0; i < serialized.length; i++) {
+            final byte[] truncated = Arrays.copyOf(serialized, i);
+            Assertions.assertThrows(ResourceIOException.class, () -> serializer.deserialize(truncated),
+                    "Truncated at " + i);
+        }
+    }
+
+    @Test
+    void testDeserializeCacheEntryWithTrailingGarbage() throws Exception {
+        final byte[] serialized = serializer.serialize(new HttpCacheStorageEntry("key",
+                makeEntry(null, new byte[] { 1, 2, 3 }, null)));
+        final byte[] garbage = Arrays.copyOf(serialized, serialized.length + 1);
+        final ResourceIOException ex = Assertions.assertThrows(ResourceIOException.class, () ->
+                serializer.deserialize(garbage));
+        Assertions.assertEquals("Invalid cache entry content length", ex.getMessage());
+    }
+
+    @Test
+    void testSmallerThanTextFormat() throws Exception {
+        final HttpCacheStorageEntry storageEntry = new HttpCacheStorageEntry("unique-cache-key",
+                makeEntry(null, HttpTestUtils.makeRandomBytes(128), null));
+        Assertions.assertTrue(serializer.serialize(storageEntry).length
+                < HttpByteArrayCacheEntrySerializer.INSTANCE.serialize(storageEntry).length);
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CacheOperations}.
+ */
+class TestCacheOperations {
+
+    private List<String> started;
+    private List<FutureCallback<Boolean>> pending;
+    private AtomicInteger cancelled;
+    private RecordingCallback callback;
+
+    @BeforeEach
+    void setUp() {
+        started = new ArrayList<>();
+        pending = new ArrayList<>();
+        cancelled = new AtomicInteger();
+        callback = new RecordingCallback();
+    }
+
+    private Cancellable operation(final String key, final FutureCallback<Boolean> cb) {
+        started.add(key);
+        pending.add(cb);
+        return () -> {
+            cancelled.incrementAndGet();
+            return true;
+        };
+    }
+
+    @Test
+    void testNoKeysCompletesImmediately() {
+        CacheOperations.forEach(Collections.emptyList(), this::operation, callback);
+
+        Assertions.assertTrue(started.isEmpty());
+        Assertions.assertEquals(1, callback.completed.get());
+    }
+
+    @Test
+    void testCompletesOnceAllOperationsComplete() {
+        CacheOperations.forEach(Arrays.asList("a", "b", "c"), this::operation, callback);
+
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), started);
+        pending.get(0).completed(Boolean.TRUE);
+        pending.get(2).completed(Boolean.FALSE);
+        Assertions.assertEquals(0, callback.completed.get());
+        pending.get(1).completed(Boolean.TRUE);
+        Assertions.assertEquals(1, callback.completed.get());
+        Assertions.assertEquals(0, callback.failed.get());
+    }
+
+    @Test
+    void testFirstFailureWins() {
+        CacheOperations.forEach(Arrays.asList("a", "b"), this::operation, callback);
+
+        pending.get(0).failed(new IllegalStateException());
+        pending.get(1).completed(Boolean.TRUE);
+        pending.get(1).cancelled();
+
+        Assertions.assertEquals(1, callback.failed.get());
+        Assertions.assertEquals(0, callback.completed.get());
+        Assertions.assertEquals(0, callback.cancelled.get());
+    }
+
+    @Test
+    void testCancelCancelsAllOperations() {
+        final Cancellable handle = CacheOperations.forEach(Arrays.asList("a", "b"), this::operation, callback);
+
+        Assertions.assertTrue(handle.cancel());
+        Assertions.assertEquals(2, cancelled.get());
+    }
+
+    static final class RecordingCallback implements FutureCallback<Boolean> {
+
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+
+        @Override
+        public void completed(final Boolean result) {
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            failed.incrementAndGet();
+        }
+
+        @Override
+        public void cancelled() {
+            cancelled.incrementAndGet();
+        }
+
+    }
+
+}
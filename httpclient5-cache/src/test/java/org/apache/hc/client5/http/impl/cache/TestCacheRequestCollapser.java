@@ -36,6 +36,7 @@
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.concurrent.ComplexCancellable;
+import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -219,4 +220,25 @@ void testLeaderFailureReleasesFollowers() {
         next.complete();
     }
 
+    @Test
+    void testBlockingFollowerReleasedByLeader() throws Exception {
+        final CacheRequestCollapser collapser = new CacheRequestCollapser();
+        final CacheRequestCollapser.Token leader = collapser.enter("k");
+        final CacheRequestCollapser.Token follower = collapser.enter("k");
+        Assertions.assertTrue(leader.isLeader());
+        Assertions.assertFalse(follower.isLeader());
+
+        Assertions.assertFalse(collapser.await(follower, Timeout.ofMilliseconds(10)));
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> future = executor.submit(() -> collapser.await(follower, Timeout.ofSeconds(5)));
+            leader.complete();
+            Assertions.assertTrue(future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertTrue(collapser.enter("k").isLeader());
+    }
+
 }
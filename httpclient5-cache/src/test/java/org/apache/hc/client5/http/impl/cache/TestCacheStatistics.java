@@ -0,0 +1,138 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TestCacheStatistics {
+
+    @Test
+    void testCounters() {
+        final CacheStatistics statistics = new CacheStatistics();
+        statistics.recordHit();
+        statistics.recordHit();
+        statistics.recordHit();
+        statistics.recordMiss();
+        statistics.recordValidation();
+        statistics.recordValidationNotModified();
+        statistics.recordValidation();
+        statistics.recordValidationFailure();
+        statistics.recordStore(100);
+        statistics.recordStore(50);
+        statistics.recordInvalidations(2);
+        statistics.recordEviction();
+        statistics.recordStorageRead(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5), false);
+        statistics.recordStorageWrite(System.nanoTime(), true);
+
+        assertEquals(3, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(0.75, statistics.getHitRatio(), 0.0001);
+        assertEquals(2, statistics.getValidationCount());
+        assertEquals(1, statistics.getValidationNotModifiedCount());
+        assertEquals(0, statistics.getValidationModifiedCount());
+        assertEquals(1, statistics.getValidationFailureCount());
+        assertEquals(2, statistics.getStoreCount());
+        assertEquals(150, statistics.getStoredBytes());
+        assertEquals(2, statistics.getInvalidationCount());
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(1, statistics.getStorageReadCount());
+        assertTrue(statistics.getStorageReadTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, statistics.getStorageWriteCount());
+        assertEquals(1, statistics.getStorageErrorCount());
+        assertFalse(statistics.isHotKeyTrackingEnabled());
+        assertTrue(statistics.getHotKeys().isEmpty());
+    }
+
+    @Test
+    void testDefaultStoragesReportEvictions() throws Exception {
+        final CacheConfig config = CacheConfig.custom().setMaxCacheEntries(2).build();
+        final CacheStatistics statistics = new CacheStatistics();
+        final BasicHttpCacheStorage basicStorage = new BasicHttpCacheStorage(config, statistics);
+        final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config, statistics);
+        for (int i = 0; i < 4; i++) {
+            basicStorage.putEntry("key" + i, HttpTestUtils.makeCacheEntry());
+            managedStorage.putEntry("key" + i, HttpTestUtils.makeCacheEntry());
+        }
+        basicStorage.removeEntry("key3");
+        managedStorage.removeEntry("key3");
+
+        assertEquals(4, statistics.getEvictionCount());
+        assertEquals(0, statistics.getInvalidationCount());
+    }
+
+    @Test
+    void testHotKeysOrderedByFrequency() {
+        final CacheStatistics statistics = new CacheStatistics(3, 1);
+        for (int i = 0; i < 10; i++) {
+            statistics.recordLookup("a");
+        }
+        for (int i = 0; i < 5; i++) {
+            statistics.recordLookup("b");
+        }
+        statistics.recordLookup("c");
+
+        final List<String> keys = new ArrayList<>(statistics.getHotKeys().keySet());
+        assertEquals("a", keys.get(0));
+        assertEquals("b", keys.get(1));
+        assertEquals("c", keys.get(2));
+    }
+
+    @Test
+    void testHotKeysRetainFrequentKeysWhenFull() {
+        final CacheStatistics statistics = new CacheStatistics(2, 1);
+        for (int i = 0; i < 100; i++) {
+            statistics.recordLookup("hot");
+        }
+        for (int i = 0; i < 50; i++) {
+            statistics.recordLookup("cold-" + i);
+        }
+
+        final Map<String, Long> hotKeys = statistics.getHotKeys();
+        assertEquals(2, hotKeys.size());
+        assertEquals(Long.valueOf(100), hotKeys.get("hot"));
+    }
+
+    @Test
+    void testHotKeysSampled() {
+        final CacheStatistics statistics = new CacheStatistics(4, 8);
+        for (int i = 0; i < 8000; i++) {
+            statistics.recordLookup("a");
+        }
+        final long estimate = statistics.getHotKeys().get("a");
+        assertTrue(estimate > 6000 && estimate < 10000, "Estimate " + estimate);
+    }
+
+}
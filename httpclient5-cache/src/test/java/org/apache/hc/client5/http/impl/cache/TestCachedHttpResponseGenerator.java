@@ -32,16 +32,22 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
 import java.time.Instant;
 
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.util.TimeValue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @SuppressWarnings({"boxing","static-access"}) // test code
 class TestCachedHttpResponseGenerator {
@@ -50,6 +56,8 @@ class TestCachedHttpResponseGenerator {
     private ClassicHttpRequest request;
     private CacheValidityPolicy mockValidityPolicy;
     private CachedHttpResponseGenerator impl;
+    @TempDir
+    File tempDir;
 
     @BeforeEach
     void setUp() {
@@ -142,4 +150,67 @@ void testResponseDoesNotContainEntityToServeHEADRequestIfEntryContainsResource()
         Assertions.assertNull(response.getBody());
     }
 
+    @Test
+    void testHeapResourceIsServedInMemory() throws Exception {
+        final CachedResponse cached = impl.generate(request, entry);
+
+        Assertions.assertNull(cached.getResource());
+        Assertions.assertNotNull(cached.getMessage().getBody());
+    }
+
+    @Test
+    void testFileResourceIsStreamed() throws Exception {
+        final byte[] content = HttpTestUtils.makeRandomBytes(20000);
+        final File file = new File(tempDir, "entry");
+        Files.write(file.toPath(), content);
+        final HttpCacheEntry fileEntry = HttpTestUtils.makeCacheEntry(Instant.now(), Instant.now(), HttpStatus.SC_OK,
+                HttpTestUtils.getStockHeaders(Instant.now()), new FileResource(file));
+
+        final CachedResponse cached = impl.generate(request, fileEntry);
+
+        Assertions.assertNotNull(cached.getResource());
+        Assertions.assertNotNull(cached.getChannel());
+        Assertions.assertNull(cached.getMessage().getBody());
+        Assertions.assertEquals(Integer.toString(content.length),
+                cached.getMessage().getFirstHeader("Content-Length").getValue());
+        Assertions.assertNotNull(cached.getMessage().getFirstHeader("Age"));
+
+        final ResourceEntity entity = new ResourceEntity(cached.getResource(), cached.getChannel(),
+                cached.getContentType(), null);
+        Assertions.assertEquals(content.length, entity.getContentLength());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assertions.assertArrayEquals(content, out.toByteArray());
+        Assertions.assertFalse(cached.getChannel().isOpen());
+
+        final ByteArrayOutputStream again = new ByteArrayOutputStream();
+        entity.writeTo(again);
+        Assertions.assertArrayEquals(content, again.toByteArray());
+    }
+
+    @Test
+    void testFileResourceIsNotStreamedForHEADRequest() throws Exception {
+        final File file = new File(tempDir, "entry");
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+        final HttpCacheEntry fileEntry = HttpTestUtils.makeCacheEntry(Instant.now(), Instant.now(), HttpStatus.SC_OK,
+                HttpTestUtils.getStockHeaders(Instant.now()), new FileResource(file));
+
+        final CachedResponse cached = impl.generate(HttpTestUtils.makeDefaultHEADRequest(), fileEntry);
+
+        Assertions.assertNull(cached.getResource());
+        Assertions.assertNull(cached.getMessage().getBody());
+    }
+
+    @Test
+    void testDisposedFileResourceFailsFast() throws Exception {
+        final File file = new File(tempDir, "entry");
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+        final FileResource resource = new FileResource(file);
+        resource.dispose();
+        final HttpCacheEntry fileEntry = HttpTestUtils.makeCacheEntry(Instant.now(), Instant.now(), HttpStatus.SC_OK,
+                HttpTestUtils.getStockHeaders(Instant.now()), resource);
+
+        Assertions.assertThrows(ResourceIOException.class, () -> impl.generate(request, fileEntry));
+    }
+
 }
@@ -73,6 +73,7 @@
 import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
 import org.apache.hc.core5.http.message.BasicHeader;
 import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -318,6 +319,35 @@ void testCacheStatusForwardStaleWithUpstream304() throws Exception {
                 result.getFirstHeader("Cache-Status").getValue());
     }
 
+    @Test
+    void testCacheStatisticsRecordHitsMissesAndValidations() throws Exception {
+        final CacheStatistics statistics = new CacheStatistics();
+        impl = new CachingExec(cache, null, CacheConfig.DEFAULT, statistics);
+        final Instant now = Instant.now();
+
+        final ClassicHttpResponse resp1 = HttpTestUtils.make200Response();
+        resp1.setHeader("Date", DateUtils.formatStandardDate(now.minusSeconds(10)));
+        resp1.setHeader("Cache-Control", "max-age=5");
+        resp1.setHeader("ETag", "\"etag\"");
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1);
+        execute(HttpTestUtils.makeDefaultRequest());
+
+        final ClassicHttpResponse resp304 = HttpTestUtils.make304Response();
+        resp304.setHeader("Date", DateUtils.formatStandardDate(now));
+        resp304.setHeader("Cache-Control", "max-age=3600");
+        resp304.setHeader("ETag", "\"etag\"");
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp304);
+        execute(HttpTestUtils.makeDefaultRequest());
+        execute(HttpTestUtils.makeDefaultRequest());
+
+        Assertions.assertSame(statistics, impl.getCacheStatistics());
+        Assertions.assertEquals(1, statistics.getMissCount());
+        Assertions.assertEquals(2, statistics.getHitCount());
+        Assertions.assertEquals(1, statistics.getValidationCount());
+        Assertions.assertEquals(1, statistics.getValidationNotModifiedCount());
+        Assertions.assertEquals(0, statistics.getValidationFailureCount());
+    }
+
     @Test
     void testCacheStatusNeverHitWhenRevalidationForwardsToFailingOrigin() throws Exception {
         impl = new CachingExec(cache, null, CacheConfig.custom().setCacheStatusEnabled(true).build());
@@ -1459,6 +1489,61 @@ void testSetsModuleResponseContextForStaleWhileRevalidate() throws Exception {
         Assertions.assertEquals(CacheResponseStatus.CACHE_MODULE_RESPONSE, context.getCacheResponseStatus());
     }
 
+    @Test
+    void testRefreshAheadOfFrequentlyHitEntryAboutToExpire() throws Exception {
+        final CacheConfig config = CacheConfig.custom()
+                .setRefreshAheadWindow(TimeValue.ofSeconds(60))
+                .setRefreshAheadMinHits(2)
+                .build();
+        impl = new CachingExec(cache, cacheRevalidator, config);
+
+        final BasicClassicHttpRequest req1 = new BasicClassicHttpRequest("GET", "http://foo.example.com/");
+        final ClassicHttpResponse resp1 = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        resp1.setEntity(HttpTestUtils.makeBody(128));
+        resp1.setHeader("Content-Length", "128");
+        resp1.setHeader("ETag", "\"abc\"");
+        resp1.setHeader("Date", DateUtils.formatStandardDate(Instant.now()));
+        resp1.setHeader("Cache-Control", "public, max-age=30");
+
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1);
+        Mockito.when(mockExecRuntime.fork(Mockito.any())).thenReturn(mockExecRuntime);
+        execute(req1);
+
+        execute(new BasicClassicHttpRequest("GET", "http://foo.example.com/"));
+        Mockito.verify(cacheRevalidator, Mockito.never()).revalidateCacheEntry(Mockito.any(), Mockito.any());
+
+        final ClassicHttpResponse result = execute(new BasicClassicHttpRequest("GET", "http://foo.example.com/"));
+        Assertions.assertEquals(HttpStatus.SC_OK, result.getCode());
+        Assertions.assertEquals(CacheResponseStatus.CACHE_HIT, context.getCacheResponseStatus());
+        Mockito.verify(cacheRevalidator).revalidateCacheEntry(Mockito.any(), Mockito.any());
+        Mockito.verify(mockExecChain, Mockito.times(1)).proceed(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(0, impl.refreshAheadTracker.getInFlight());
+    }
+
+    @Test
+    void testNoRefreshAheadOutsideWindow() throws Exception {
+        final CacheConfig config = CacheConfig.custom()
+                .setRefreshAheadWindow(TimeValue.ofSeconds(60))
+                .setRefreshAheadMinHits(1)
+                .build();
+        impl = new CachingExec(cache, cacheRevalidator, config);
+
+        final BasicClassicHttpRequest req1 = new BasicClassicHttpRequest("GET", "http://foo.example.com/");
+        final ClassicHttpResponse resp1 = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        resp1.setEntity(HttpTestUtils.makeBody(128));
+        resp1.setHeader("Content-Length", "128");
+        resp1.setHeader("ETag", "\"abc\"");
+        resp1.setHeader("Date", DateUtils.formatStandardDate(Instant.now()));
+        resp1.setHeader("Cache-Control", "public, max-age=3600");
+
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1);
+        execute(req1);
+        execute(new BasicClassicHttpRequest("GET", "http://foo.example.com/"));
+        execute(new BasicClassicHttpRequest("GET", "http://foo.example.com/"));
+
+        Mockito.verify(cacheRevalidator, Mockito.never()).revalidateCacheEntry(Mockito.any(), Mockito.any());
+    }
+
     @Test
     void testNotModifiedResponseUpdatesCacheEntry() throws Exception {
         final HttpCache mockCache = mock(HttpCache.class);
@@ -0,0 +1,167 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestCachingExecRequestCollapsing {
+
+    @Test
+    void testRequestCollapsingPreventsThunderingHerdOnColdMiss() throws Exception {
+        final AtomicInteger originHits = new AtomicInteger(0);
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> handleOrigin(exchange, originHits));
+        final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        try {
+            final HttpHost target = new HttpHost("http", "localhost", server.getAddress().getPort());
+            final int concurrent = 20;
+
+            final AtomicInteger[] baseline = runRound(target, concurrent, false);
+            Assertions.assertEquals(concurrent, originHits.getAndSet(0), "Baseline must hit origin N times");
+            Assertions.assertEquals(concurrent, baseline[0].get(), "Baseline must be all CACHE_MISS on cold miss");
+
+            final AtomicInteger[] collapsed = runRound(target, concurrent, true);
+            Assertions.assertEquals(1, originHits.get(), "Collapsing must allow only one origin request");
+            Assertions.assertEquals(1, collapsed[0].get(), "Collapsing must have exactly one CACHE_MISS leader");
+            Assertions.assertEquals(concurrent - 1, collapsed[1].get(), "Collapsing must serve followers from cache");
+        } finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    private static void handleOrigin(final HttpExchange exchange, final AtomicInteger originHits) throws IOException {
+        originHits.incrementAndGet();
+
+        // Keep the origin "busy" so concurrent client requests overlap and all see a cold cache.
+        try {
+            Thread.sleep(250);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        final byte[] body = "OK".getBytes(StandardCharsets.US_ASCII);
+
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=us-ascii");
+        exchange.getResponseHeaders().add("Cache-Control", "public, max-age=60");
+        exchange.getResponseHeaders().add("Date", DateUtils.formatStandardDate(Instant.now()));
+
+        exchange.sendResponseHeaders(200, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return the number of cache misses and cache hits.
+     */
+    private static AtomicInteger[] runRound(
+            final HttpHost target,
+            final int concurrent,
+            final boolean requestCollapsingEnabled) throws Exception {
+
+        final CacheConfig cacheConfig = CacheConfig.custom()
+                .setHeuristicCachingEnabled(false)
+                .setRequestCollapsingEnabled(requestCollapsingEnabled)
+                .build();
+
+        final AtomicInteger cacheMisses = new AtomicInteger(0);
+        final AtomicInteger cacheHits = new AtomicInteger(0);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(concurrent);
+        try (final CloseableHttpClient client = CachingHttpClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setResourceFactory(HeapResourceFactory.INSTANCE)
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnPerRoute(concurrent)
+                        .setMaxConnTotal(concurrent)
+                        .build())
+                .build()) {
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>(concurrent);
+            for (int i = 0; i < concurrent; i++) {
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    final HttpCacheContext context = HttpCacheContext.create();
+                    client.execute(target, new HttpGet("/"), context, response -> {
+                        Assertions.assertEquals(200, response.getCode());
+                        EntityUtils.consume(response.getEntity());
+                        return null;
+                    });
+                    final CacheResponseStatus status = context.getCacheResponseStatus();
+                    if (status == CacheResponseStatus.CACHE_MISS) {
+                        cacheMisses.incrementAndGet();
+                    } else if (status == CacheResponseStatus.CACHE_HIT) {
+                        cacheHits.incrementAndGet();
+                    } else {
+                        Assertions.fail("Unexpected cache status " + status);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return new AtomicInteger[] { cacheMisses, cacheHits };
+    }
+
+}
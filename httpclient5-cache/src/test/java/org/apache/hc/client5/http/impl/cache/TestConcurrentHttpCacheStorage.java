@@ -0,0 +1,170 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestConcurrentHttpCacheStorage {
+
+    @Test
+    void testCacheBasics() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(CacheConfig.DEFAULT);
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        Assertions.assertNull(storage.getEntry("key1"));
+        storage.putEntry("key1", entry1);
+        Assertions.assertSame(entry1, storage.getEntry("key1"));
+        Assertions.assertEquals(1, storage.size());
+        Assertions.assertEquals(128, storage.getTotalBytes());
+
+        storage.removeEntry("key1");
+        Assertions.assertNull(storage.getEntry("key1"));
+        Assertions.assertEquals(0, storage.size());
+        Assertions.assertEquals(0, storage.getTotalBytes());
+
+        Assertions.assertEquals(1, storage.getHitCount());
+        Assertions.assertEquals(2, storage.getMissCount());
+    }
+
+    @Test
+    void testUpdateEntry() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(CacheConfig.DEFAULT);
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry entry2 = HttpTestUtils.makeCacheEntry(new byte[10]);
+        storage.updateEntry("key", existing -> {
+            Assertions.assertNull(existing);
+            return entry1;
+        });
+        storage.updateEntry("key", existing -> {
+            Assertions.assertSame(entry1, existing);
+            return entry2;
+        });
+        Assertions.assertSame(entry2, storage.getEntry("key"));
+        Assertions.assertEquals(10, storage.getTotalBytes());
+        storage.updateEntry("key", existing -> null);
+        Assertions.assertNull(storage.getEntry("key"));
+        Assertions.assertEquals(0, storage.getTotalBytes());
+    }
+
+    @Test
+    void testEvictionByEntryCount() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(3, 0);
+        for (int i = 0; i < 3; i++) {
+            storage.putEntry("key" + i, HttpTestUtils.makeCacheEntry());
+        }
+        // key0 gets a second chance
+        Assertions.assertNotNull(storage.getEntry("key0"));
+        storage.putEntry("key3", HttpTestUtils.makeCacheEntry());
+
+        Assertions.assertEquals(3, storage.size());
+        Assertions.assertEquals(1, storage.getEvictionCount());
+        Assertions.assertNotNull(storage.getEntry("key0"));
+        Assertions.assertNull(storage.getEntry("key1"));
+        Assertions.assertNotNull(storage.getEntry("key3"));
+    }
+
+    @Test
+    void testEvictionsReportedToStatistics() throws Exception {
+        final CacheStatistics statistics = new CacheStatistics();
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(2, 0, statistics);
+        for (int i = 0; i < 4; i++) {
+            storage.putEntry("key" + i, HttpTestUtils.makeCacheEntry());
+        }
+        storage.removeEntry("key3");
+
+        Assertions.assertEquals(2, storage.getEvictionCount());
+        Assertions.assertEquals(2, statistics.getEvictionCount());
+        Assertions.assertEquals(0, statistics.getInvalidationCount());
+    }
+
+    @Test
+    void testEvictionByBytes() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(100, 1000);
+        for (int i = 0; i < 4; i++) {
+            storage.putEntry("key" + i, HttpTestUtils.makeCacheEntry(new byte[300]));
+        }
+        Assertions.assertEquals(3, storage.size());
+        Assertions.assertEquals(900, storage.getTotalBytes());
+        Assertions.assertNull(storage.getEntry("key0"));
+
+        storage.putEntry("huge", HttpTestUtils.makeCacheEntry(new byte[1001]));
+        Assertions.assertNull(storage.getEntry("huge"));
+        Assertions.assertEquals(900, storage.getTotalBytes());
+    }
+
+    @Test
+    void testRepeatedUpdatesDoNotLeak() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(10, 0);
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        for (int i = 0; i < 10000; i++) {
+            storage.putEntry("key", entry);
+        }
+        Assertions.assertEquals(1, storage.size());
+        Assertions.assertEquals(128, storage.getTotalBytes());
+        storage.clear();
+        Assertions.assertEquals(0, storage.size());
+        Assertions.assertEquals(0, storage.getTotalBytes());
+    }
+
+    @Test
+    void testConcurrentAccessStaysWithinBounds() throws Exception {
+        final ConcurrentHttpCacheStorage storage = new ConcurrentHttpCacheStorage(50, 50 * 128);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        final String key = "key" + ((seed * 31 + i) % 200);
+                        if (storage.getEntry(key) == null) {
+                            storage.putEntry(key, HttpTestUtils.makeCacheEntry());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertTrue(storage.size() <= 50);
+        Assertions.assertEquals(storage.size() * 128L, storage.getTotalBytes());
+        Assertions.assertEquals(16000, storage.getHitCount() + storage.getMissCount());
+    }
+
+}
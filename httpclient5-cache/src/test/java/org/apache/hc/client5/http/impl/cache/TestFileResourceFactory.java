@@ -27,15 +27,24 @@
 package org.apache.hc.client5.http.impl.cache;
 
 
+import java.io.File;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceWriter;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class TestFileResourceFactory {
 
     CacheKeyGenerator keyGenerator;
+    @TempDir
+    File cacheDir;
 
     @BeforeEach
     void setUp() {
@@ -66,4 +75,48 @@ void testViaValueLookup() throws Exception {
                 FileResourceFactory.generateUniqueCacheFileName(requestId, null, null, 0, 0));
     }
 
+    @Test
+    void testWriterProducesSameFileAsGenerate() throws Exception {
+        final FileResourceFactory factory = new FileResourceFactory(cacheDir);
+        final byte[] content = HttpTestUtils.makeRandomBytes(10000);
+
+        final ResourceWriter writer = factory.createWriter("http://localhost/stuff", null);
+        writer.write(ByteBuffer.wrap(content, 0, 4000));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(6000);
+        direct.put(content, 4000, 6000).flip();
+        writer.write(direct);
+        Assertions.assertEquals(content.length, writer.length());
+        final Resource resource = writer.commit();
+
+        Assertions.assertEquals(content.length, resource.length());
+        Assertions.assertArrayEquals(content, resource.get());
+        Assertions.assertEquals(
+                new File(cacheDir, FileResourceFactory.generateUniqueCacheFileName(
+                        "http://localhost/stuff", null, content, 0, content.length)),
+                ((FileResource) resource).getFile());
+        Assertions.assertEquals(1, cacheDir.listFiles().length);
+    }
+
+    @Test
+    void testWriterWithETag() throws Exception {
+        final FileResourceFactory factory = new FileResourceFactory(cacheDir);
+        final ResourceWriter writer = factory.createWriter("http://localhost/stuff", "blah");
+        writer.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        final FileResource resource = (FileResource) writer.commit();
+
+        Assertions.assertEquals("blah@http%3A%2F%2Flocalhost%2Fstuff", resource.getFile().getName());
+        Assertions.assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(resource.getFile().toPath()));
+    }
+
+    @Test
+    void testAbortedWriterLeavesNoFiles() throws Exception {
+        final FileResourceFactory factory = new FileResourceFactory(cacheDir);
+        final ResourceWriter writer = factory.createWriter("http://localhost/stuff", null);
+        writer.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        Assertions.assertEquals(1, cacheDir.listFiles().length);
+        writer.abort();
+
+        Assertions.assertEquals(0, cacheDir.listFiles().length);
+    }
+
 }
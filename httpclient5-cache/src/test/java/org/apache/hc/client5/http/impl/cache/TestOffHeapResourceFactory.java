@@ -0,0 +1,222 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.cache.ResourceWriter;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestOffHeapResourceFactory {
+
+    @TempDir
+    File tempDir;
+
+    private OffHeapResourceFactory factory;
+
+    @AfterEach
+    void cleanup() throws Exception {
+        if (factory != null) {
+            factory.close();
+        }
+    }
+
+    static byte[] readChannel(final ReadableByteChannel channel, final int chunkSize) throws Exception {
+        final ByteArrayBuffer buf = new ByteArrayBuffer(1024);
+        final ByteBuffer tmp = ByteBuffer.allocate(chunkSize);
+        while (channel.read(tmp) != -1) {
+            tmp.flip();
+            buf.append(tmp.array(), 0, tmp.limit());
+            tmp.clear();
+        }
+        return buf.toByteArray();
+    }
+
+    static byte[] readStream(final InputStream in) throws Exception {
+        final ByteArrayBuffer buf = new ByteArrayBuffer(1024);
+        final byte[] tmp = new byte[777];
+        int n;
+        while ((n = in.read(tmp)) != -1) {
+            buf.append(tmp, 0, n);
+        }
+        return buf.toByteArray();
+    }
+
+    private void assertContent(final byte[] expected, final Resource resource) throws Exception {
+        Assertions.assertEquals(expected.length, resource.length());
+        Assertions.assertArrayEquals(expected, resource.get());
+        try (InputStream in = resource.getInputStream()) {
+            Assertions.assertArrayEquals(expected, readStream(in));
+        }
+        try (ReadableByteChannel channel = resource.getChannel()) {
+            Assertions.assertArrayEquals(expected, readChannel(channel, 1000));
+        }
+    }
+
+    @Test
+    void testDirectGenerate() throws Exception {
+        factory = OffHeapResourceFactory.direct(64 * 1024, 1024);
+        final byte[] content = HttpTestUtils.makeRandomBytes(5000);
+        final Resource resource = factory.generate("id", content, 0, content.length);
+
+        assertContent(content, resource);
+        Assertions.assertEquals(5 * 1024, factory.getAllocatedBytes());
+        resource.dispose();
+        Assertions.assertEquals(0, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testMappedGenerate() throws Exception {
+        final File slab = new File(tempDir, "slab");
+        factory = OffHeapResourceFactory.mapped(slab, 64 * 1024, 1024);
+        final byte[] content1 = HttpTestUtils.makeRandomBytes(3000);
+        final byte[] content2 = HttpTestUtils.makeRandomBytes(100);
+        final Resource resource1 = factory.generate("id1", content1);
+        final Resource resource2 = factory.generate("id2", content2);
+
+        assertContent(content1, resource1);
+        assertContent(content2, resource2);
+        Assertions.assertTrue(slab.exists());
+        factory.close();
+        Assertions.assertFalse(slab.exists());
+        Assertions.assertThrows(ResourceIOException.class, resource1::get);
+    }
+
+    @Test
+    void testEmptyContent() throws Exception {
+        factory = OffHeapResourceFactory.direct(4096, 1024);
+        assertContent(new byte[0], factory.generate("id", new byte[0]));
+        assertContent(new byte[0], factory.generate("id", null));
+        Assertions.assertEquals(0, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testCapacityBound() throws Exception {
+        factory = OffHeapResourceFactory.direct(4096, 1024);
+        final Resource resource1 = factory.generate("id1", new byte[3000]);
+        Assertions.assertThrows(ResourceIOException.class, () -> factory.generate("id2", new byte[2000]));
+        Assertions.assertEquals(3 * 1024, factory.getAllocatedBytes());
+
+        resource1.dispose();
+        final Resource resource2 = factory.generate("id2", new byte[4096]);
+        Assertions.assertEquals(4096, factory.getAllocatedBytes());
+        resource2.dispose();
+        Assertions.assertEquals(0, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testOpenChannelKeepsResourceAlive() throws Exception {
+        factory = OffHeapResourceFactory.direct(64 * 1024, 1024);
+        final byte[] content = HttpTestUtils.makeRandomBytes(2500);
+        final OffHeapResource resource = (OffHeapResource) factory.generate("id", content);
+
+        final ReadableByteChannel channel = resource.getChannel();
+        final InputStream stream = resource.getInputStream();
+        Assertions.assertEquals(3, resource.refCount());
+        resource.dispose();
+        resource.dispose();
+        Assertions.assertEquals(2, resource.refCount());
+        Assertions.assertThrows(ResourceIOException.class, resource::get);
+        Assertions.assertThrows(ResourceIOException.class, resource::getChannel);
+
+        Assertions.assertArrayEquals(content, readChannel(channel, 512));
+        channel.close();
+        channel.close();
+        Assertions.assertEquals(3 * 1024, factory.getAllocatedBytes());
+        Assertions.assertArrayEquals(content, readStream(stream));
+        stream.close();
+        Assertions.assertEquals(0, resource.refCount());
+        Assertions.assertEquals(0, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testWriter() throws Exception {
+        factory = OffHeapResourceFactory.direct(64 * 1024, 1024);
+        final byte[] content = HttpTestUtils.makeRandomBytes(10000);
+        final ResourceWriter writer = factory.createWriter("id", null);
+        for (int off = 0; off < content.length; off += 700) {
+            final int len = Math.min(700, content.length - off);
+            if (off % 1400 == 0) {
+                writer.write(ByteBuffer.wrap(content, off, len));
+            } else {
+                final ByteBuffer direct = ByteBuffer.allocateDirect(len);
+                direct.put(content, off, len).flip();
+                writer.write(direct);
+            }
+        }
+        Assertions.assertEquals(content.length, writer.length());
+        final Resource resource = writer.commit();
+        assertContent(content, resource);
+        Assertions.assertEquals(10 * 1024, factory.getAllocatedBytes());
+
+        final ResourceWriter aborted = factory.createWriter("id", null);
+        aborted.write(ByteBuffer.wrap(content));
+        Assertions.assertEquals(20 * 1024, factory.getAllocatedBytes());
+        aborted.abort();
+        Assertions.assertEquals(10 * 1024, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testWriterCapacityExceeded() throws Exception {
+        factory = OffHeapResourceFactory.direct(4096, 1024);
+        final ResourceWriter writer = factory.createWriter("id", null);
+        writer.write(ByteBuffer.wrap(new byte[4000]));
+        Assertions.assertThrows(ResourceIOException.class, () -> writer.write(ByteBuffer.wrap(new byte[200])));
+        Assertions.assertEquals(0, factory.getAllocatedBytes());
+    }
+
+    @Test
+    void testSerializedAsHeapResource() throws Exception {
+        factory = OffHeapResourceFactory.direct(4096, 1024);
+        final byte[] content = HttpTestUtils.makeRandomBytes(1500);
+        final Resource resource = factory.generate("id", content);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(resource);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            final Object copy = ois.readObject();
+            Assertions.assertTrue(copy instanceof HeapResource);
+            Assertions.assertArrayEquals(content, ((Resource) copy).get());
+        }
+    }
+
+}
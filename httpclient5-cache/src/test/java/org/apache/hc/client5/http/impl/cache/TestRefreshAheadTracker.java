@@ -0,0 +1,83 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestRefreshAheadTracker {
+
+    @Test
+    void testDisabledByDefault() {
+        Assertions.assertNull(RefreshAheadTracker.create(CacheConfig.DEFAULT));
+    }
+
+    @Test
+    void testHitsOutsideWindowNotCounted() {
+        final RefreshAheadTracker tracker = new RefreshAheadTracker(TimeValue.ofSeconds(10), 1, 1, 100);
+        Assertions.assertFalse(tracker.acquire("foo", 20_000));
+        Assertions.assertEquals(0, tracker.getTrackedCount());
+        Assertions.assertTrue(tracker.acquire("foo", 5_000));
+    }
+
+    @Test
+    void testMinHitsWithinWindow() {
+        final RefreshAheadTracker tracker = new RefreshAheadTracker(TimeValue.ofSeconds(10), 3, 1, 100);
+        Assertions.assertFalse(tracker.acquire("foo", 5_000));
+        Assertions.assertFalse(tracker.acquire("foo", 4_000));
+        Assertions.assertTrue(tracker.acquire("foo", 3_000));
+        Assertions.assertEquals(0, tracker.getTrackedCount());
+        Assertions.assertEquals(1, tracker.getInFlight());
+    }
+
+    @Test
+    void testConcurrentRefreshBudget() {
+        final RefreshAheadTracker tracker = new RefreshAheadTracker(TimeValue.ofSeconds(10), 1, 2, 100);
+        Assertions.assertTrue(tracker.acquire("foo", 5_000));
+        Assertions.assertTrue(tracker.acquire("bar", 5_000));
+        Assertions.assertFalse(tracker.acquire("baz", 5_000));
+        tracker.release("foo");
+        Assertions.assertTrue(tracker.acquire("baz", 5_000));
+        Assertions.assertEquals(2, tracker.getInFlight());
+    }
+
+    @Test
+    void testTrackedKeysBounded() {
+        final RefreshAheadTracker tracker = new RefreshAheadTracker(TimeValue.ofSeconds(10), 2, 1, 2);
+        Assertions.assertFalse(tracker.acquire("foo", 5_000));
+        Assertions.assertFalse(tracker.acquire("bar", 5_000));
+        Assertions.assertFalse(tracker.acquire("baz", 5_000));
+        Assertions.assertEquals(2, tracker.getTrackedCount());
+        // expired hit counts make room for new keys
+        final RefreshAheadTracker expiring = new RefreshAheadTracker(TimeValue.ofSeconds(10), 2, 1, 1);
+        Assertions.assertFalse(expiring.acquire("foo", -1));
+        Assertions.assertFalse(expiring.acquire("bar", 5_000));
+        Assertions.assertTrue(expiring.acquire("bar", 5_000));
+    }
+
+}
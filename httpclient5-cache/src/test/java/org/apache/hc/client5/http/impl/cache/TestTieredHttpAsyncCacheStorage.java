@@ -0,0 +1,234 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.impl.Operations;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+class TestTieredHttpAsyncCacheStorage {
+
+    private ConcurrentHttpCacheStorage near;
+    private SimpleHttpAsyncCacheStorage remote;
+    private TieredHttpAsyncCacheStorage impl;
+
+    @BeforeEach
+    void setUp() {
+        near = new ConcurrentHttpCacheStorage(100, 0);
+        remote = Mockito.spy(new SimpleHttpAsyncCacheStorage());
+        impl = new TieredHttpAsyncCacheStorage(near, remote, TimeValue.ofMinutes(1));
+    }
+
+    private static <T> FutureCallback<T> callback(final Consumer<T> consumer) {
+        return new FutureCallback<T>() {
+
+            @Override
+            public void completed(final T result) {
+                consumer.accept(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                Assertions.fail(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                Assertions.fail("Unexpected cancellation");
+            }
+
+        };
+    }
+
+    private HttpCacheEntry get(final String key) {
+        final AtomicReference<HttpCacheEntry> ref = new AtomicReference<>();
+        impl.getEntry(key, callback(ref::set));
+        return ref.get();
+    }
+
+    @Test
+    void testGetServedFromNearTier() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+
+        Assertions.assertSame(entry, get("foo"));
+        Assertions.assertSame(entry, get("foo"));
+        Assertions.assertSame(entry, get("foo"));
+
+        Mockito.verify(remote, Mockito.times(1)).getEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+        Assertions.assertSame(entry, near.getEntry("foo"));
+        Assertions.assertEquals(2, impl.getNearHitCount());
+        Assertions.assertEquals(1, impl.getNearMissCount());
+    }
+
+    @Test
+    void testPutWritesThrough() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        impl.putEntry("foo", entry, callback(result -> { }));
+
+        Assertions.assertSame(entry, remote.getEntry("foo"));
+        Assertions.assertSame(entry, near.getEntry("foo"));
+        Assertions.assertSame(entry, get("foo"));
+        Mockito.verify(remote, Mockito.never()).getEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testNearTtlExpiry() throws Exception {
+        impl = new TieredHttpAsyncCacheStorage(near, remote, TimeValue.ofMilliseconds(1));
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+
+        Assertions.assertSame(entry, get("foo"));
+        Thread.sleep(20);
+        Assertions.assertSame(entry, get("foo"));
+
+        Mockito.verify(remote, Mockito.times(2)).getEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testUpdateReplacesNearCopyWithRemoteOutcome() throws Exception {
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry entry2 = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry1);
+        Assertions.assertSame(entry1, get("foo"));
+
+        final AtomicReference<Boolean> result = new AtomicReference<>();
+        impl.updateEntry("foo", existing -> {
+            Assertions.assertSame(entry1, existing);
+            return entry2;
+        }, callback(result::set));
+
+        Assertions.assertEquals(Boolean.TRUE, result.get());
+        Assertions.assertSame(entry2, remote.getEntry("foo"));
+        Assertions.assertSame(entry2, near.getEntry("foo"));
+        Assertions.assertSame(entry2, get("foo"));
+    }
+
+    @Test
+    void testFailedUpdateInvalidatesNearCopy() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        Assertions.assertSame(entry, get("foo"));
+
+        Mockito.doAnswer((Answer<Cancellable>) invocation -> {
+            final FutureCallback<Boolean> callback = invocation.getArgument(2);
+            callback.completed(Boolean.FALSE);
+            return Operations.nonCancellable();
+        }).when(remote).updateEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        impl.updateEntry("foo", existing -> HttpTestUtils.makeCacheEntry(), callback(r -> { }));
+
+        Assertions.assertNull(near.getEntry("foo"));
+    }
+
+    @Test
+    void testRemoveInvalidatesNearCopy() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        remote.putEntry("bar", entry);
+        get("foo");
+        get("bar");
+
+        impl.removeEntries(Arrays.asList("foo", "bar"), callback(r -> { }));
+
+        Assertions.assertNull(near.getEntry("foo"));
+        Assertions.assertNull(near.getEntry("bar"));
+        Assertions.assertNull(get("foo"));
+        Assertions.assertNull(get("bar"));
+    }
+
+    @Test
+    void testConcurrentRemovalNotResurrected() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        final AtomicReference<FutureCallback<HttpCacheEntry>> pending = new AtomicReference<>();
+        Mockito.doAnswer((Answer<Cancellable>) invocation -> {
+            pending.set(invocation.getArgument(1));
+            return Operations.nonCancellable();
+        }).when(remote).getEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+
+        final AtomicReference<HttpCacheEntry> ref = new AtomicReference<>();
+        impl.getEntry("foo", callback(ref::set));
+        impl.removeEntry("foo", callback(r -> { }));
+        pending.get().completed(entry);
+
+        Assertions.assertSame(entry, ref.get());
+        Assertions.assertNull(near.getEntry("foo"));
+    }
+
+    @Test
+    void testUnrelatedWriteDoesNotSuppressNearFill() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        final AtomicReference<FutureCallback<HttpCacheEntry>> pending = new AtomicReference<>();
+        Mockito.doAnswer((Answer<Cancellable>) invocation -> {
+            pending.set(invocation.getArgument(1));
+            return Operations.nonCancellable();
+        }).when(remote).getEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+
+        final AtomicReference<HttpCacheEntry> ref = new AtomicReference<>();
+        impl.getEntry("foo", callback(ref::set));
+        impl.putEntry("bar", HttpTestUtils.makeCacheEntry(), callback(r -> { }));
+        impl.removeEntry("baz", callback(r -> { }));
+        pending.get().completed(entry);
+
+        Assertions.assertSame(entry, ref.get());
+        Assertions.assertSame(entry, near.getEntry("foo"));
+    }
+
+    @Test
+    void testGetEntriesCombinesTiers() throws Exception {
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry entry2 = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry1);
+        remote.putEntry("bar", entry2);
+        get("foo");
+
+        final AtomicReference<Map<String, HttpCacheEntry>> ref = new AtomicReference<>();
+        impl.getEntries(Arrays.asList("foo", "bar", "baz"), callback(ref::set));
+
+        Assertions.assertEquals(2, ref.get().size());
+        Assertions.assertSame(entry1, ref.get().get("foo"));
+        Assertions.assertSame(entry2, ref.get().get("bar"));
+        Mockito.verify(remote).getEntries(ArgumentMatchers.eq(Arrays.asList("bar", "baz")), ArgumentMatchers.any());
+        Assertions.assertSame(entry2, near.getEntry("bar"));
+    }
+
+}
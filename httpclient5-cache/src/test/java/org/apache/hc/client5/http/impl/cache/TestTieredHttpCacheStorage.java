@@ -0,0 +1,177 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheUpdateException;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+class TestTieredHttpCacheStorage {
+
+    private ConcurrentHttpCacheStorage near;
+    private SimpleHttpCacheStorage remote;
+    private TieredHttpCacheStorage impl;
+
+    @BeforeEach
+    void setUp() {
+        near = new ConcurrentHttpCacheStorage(100, 0);
+        remote = Mockito.spy(new SimpleHttpCacheStorage());
+        impl = new TieredHttpCacheStorage(near, remote, TimeValue.ofMinutes(1));
+    }
+
+    @Test
+    void testGetServedFromNearTier() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+
+        Mockito.verify(remote, Mockito.times(1)).getEntry("foo");
+        Assertions.assertSame(entry, near.getEntry("foo"));
+        Assertions.assertEquals(2, impl.getNearHitCount());
+        Assertions.assertEquals(1, impl.getNearMissCount());
+    }
+
+    @Test
+    void testPutWritesThrough() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        impl.putEntry("foo", entry);
+
+        Assertions.assertSame(entry, remote.getEntry("foo"));
+        Assertions.assertSame(entry, near.getEntry("foo"));
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+        Mockito.verify(remote, Mockito.times(1)).getEntry("foo");
+    }
+
+    @Test
+    void testUpdateReplacesNearCopyWithRemoteOutcome() throws Exception {
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry entry2 = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry1);
+        Assertions.assertSame(entry1, impl.getEntry("foo"));
+
+        impl.updateEntry("foo", existing -> {
+            Assertions.assertSame(entry1, existing);
+            return entry2;
+        });
+
+        Assertions.assertSame(entry2, remote.getEntry("foo"));
+        Assertions.assertSame(entry2, near.getEntry("foo"));
+        Assertions.assertSame(entry2, impl.getEntry("foo"));
+    }
+
+    @Test
+    void testFailedUpdateInvalidatesNearCopy() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+
+        Mockito.doThrow(new HttpCacheUpdateException("Conflict"))
+                .when(remote).updateEntry(ArgumentMatchers.eq("foo"), ArgumentMatchers.any());
+
+        Assertions.assertThrows(HttpCacheUpdateException.class,
+                () -> impl.updateEntry("foo", existing -> HttpTestUtils.makeCacheEntry()));
+        Assertions.assertNull(near.getEntry("foo"));
+    }
+
+    @Test
+    void testRemoveInvalidatesNearCopy() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        impl.getEntry("foo");
+
+        impl.removeEntry("foo");
+
+        Assertions.assertNull(near.getEntry("foo"));
+        Assertions.assertNull(impl.getEntry("foo"));
+    }
+
+    @Test
+    void testConcurrentRemovalNotResurrected() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        Mockito.doAnswer(invocation -> {
+            // Removed by another thread while the remote read is in progress
+            impl.removeEntry("foo");
+            return entry;
+        }).when(remote).getEntry("foo");
+
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+        Assertions.assertNull(near.getEntry("foo"));
+    }
+
+    @Test
+    void testUnrelatedWriteDoesNotSuppressNearFill() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry);
+        Mockito.doAnswer(invocation -> {
+            impl.putEntry("bar", HttpTestUtils.makeCacheEntry());
+            impl.removeEntry("baz");
+            return entry;
+        }).when(remote).getEntry("foo");
+
+        Assertions.assertSame(entry, impl.getEntry("foo"));
+        Assertions.assertSame(entry, near.getEntry("foo"));
+    }
+
+    @Test
+    void testRemoteFailureNotCached() throws Exception {
+        Mockito.doThrow(new ResourceIOException("Boom")).when(remote).getEntry("foo");
+
+        Assertions.assertThrows(ResourceIOException.class, () -> impl.getEntry("foo"));
+        Assertions.assertNull(near.getEntry("foo"));
+    }
+
+    @Test
+    void testGetEntriesCombinesTiers() throws Exception {
+        final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry();
+        final HttpCacheEntry entry2 = HttpTestUtils.makeCacheEntry();
+        remote.putEntry("foo", entry1);
+        remote.putEntry("bar", entry2);
+        impl.getEntry("foo");
+
+        final Map<String, HttpCacheEntry> result = impl.getEntries(Arrays.asList("foo", "bar", "baz"));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertSame(entry1, result.get("foo"));
+        Assertions.assertSame(entry2, result.get("bar"));
+        Mockito.verify(remote).getEntries(Arrays.asList("bar", "baz"));
+        Assertions.assertSame(entry2, near.getEntry("bar"));
+    }
+
+}
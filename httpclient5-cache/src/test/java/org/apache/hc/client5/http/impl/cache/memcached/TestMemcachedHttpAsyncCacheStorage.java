@@ -0,0 +1,349 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache.memcached;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.cache.HttpByteArrayCacheEntrySerializer;
+import org.apache.hc.client5.http.impl.cache.HttpTestUtils;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.spy.memcached.MemcachedClient;
+
+/**
+ * Exercises {@link MemcachedHttpAsyncCacheStorage} against an in-process server
+ * speaking the subset of the memcached text protocol used by the storage.
+ */
+class TestMemcachedHttpAsyncCacheStorage {
+
+    static final class FakeMemcached implements AutoCloseable {
+
+        static final class Value {
+
+            final int flags;
+            final long cas;
+            final byte[] data;
+
+            Value(final int flags, final long cas, final byte[] data) {
+                this.flags = flags;
+                this.cas = cas;
+                this.data = data;
+            }
+
+        }
+
+        final ServerSocket serverSocket;
+        final ExecutorService executorService;
+        final Map<String, Value> map;
+        final List<String> commands;
+        final AtomicLong casCounter;
+
+        FakeMemcached() throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.executorService = Executors.newCachedThreadPool();
+            this.map = new ConcurrentHashMap<>();
+            this.commands = new CopyOnWriteArrayList<>();
+            this.casCounter = new AtomicLong();
+            this.executorService.execute(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        final Socket socket = serverSocket.accept();
+                        executorService.execute(() -> serve(socket));
+                    } catch (final IOException ignore) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        InetSocketAddress getAddress() {
+            return new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        }
+
+        private static String readLine(final InputStream in) throws IOException {
+            final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    final byte[] line = buf.toByteArray();
+                    return new String(line, 0, line.length > 0 && line[line.length - 1] == '\r' ? line.length - 1 : line.length,
+                            StandardCharsets.US_ASCII);
+                }
+                buf.write(b);
+            }
+            return null;
+        }
+
+        private static byte[] readData(final InputStream in, final int len) throws IOException {
+            final byte[] data = new byte[len];
+            int off = 0;
+            while (off < len) {
+                final int n = in.read(data, off, len - off);
+                if (n == -1) {
+                    throw new IOException("Unexpected end of stream");
+                }
+                off += n;
+            }
+            readLine(in);
+            return data;
+        }
+
+        private void serve(final Socket socket) {
+            try (Socket s = socket) {
+                final InputStream in = new BufferedInputStream(s.getInputStream());
+                final OutputStream out = s.getOutputStream();
+                String line;
+                while ((line = readLine(in)) != null) {
+                    commands.add(line);
+                    final String[] tokens = line.split(" ");
+                    final ByteArrayOutputStream response = new ByteArrayOutputStream();
+                    switch (tokens[0]) {
+                        case "get":
+                        case "gets":
+                            for (int i = 1; i < tokens.length; i++) {
+                                final Value value = map.get(tokens[i]);
+                                if (value != null) {
+                                    final String header = "VALUE " + tokens[i] + " " + value.flags + " " + value.data.length
+                                            + ("gets".equals(tokens[0]) ? " " + value.cas : "") + "\r\n";
+                                    response.write(header.getBytes(StandardCharsets.US_ASCII));
+                                    response.write(value.data);
+                                    response.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                                }
+                            }
+                            response.write("END\r\n".getBytes(StandardCharsets.US_ASCII));
+                            break;
+                        case "set": {
+                            final byte[] data = readData(in, Integer.parseInt(tokens[4]));
+                            map.put(tokens[1], new Value(Integer.parseInt(tokens[2]), casCounter.incrementAndGet(), data));
+                            response.write("STORED\r\n".getBytes(StandardCharsets.US_ASCII));
+                            break;
+                        }
+                        case "cas": {
+                            final byte[] data = readData(in, Integer.parseInt(tokens[4]));
+                            final long cas = Long.parseLong(tokens[5]);
+                            final String result;
+                            synchronized (map) {
+                                final Value current = map.get(tokens[1]);
+                                if (current == null) {
+                                    result = "NOT_FOUND";
+                                } else if (current.cas != cas) {
+                                    result = "EXISTS";
+                                } else {
+                                    map.put(tokens[1], new Value(Integer.parseInt(tokens[2]), casCounter.incrementAndGet(), data));
+                                    result = "STORED";
+                                }
+                            }
+                            response.write((result + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                            break;
+                        }
+                        case "delete":
+                            response.write((map.remove(tokens[1]) != null ? "DELETED\r\n" : "NOT_FOUND\r\n")
+                                    .getBytes(StandardCharsets.US_ASCII));
+                            break;
+                        case "version":
+                            response.write("VERSION 1.6.0\r\n".getBytes(StandardCharsets.US_ASCII));
+                            break;
+                        default:
+                            response.write("ERROR\r\n".getBytes(StandardCharsets.US_ASCII));
+                    }
+                    out.write(response.toByteArray());
+                    out.flush();
+                }
+            } catch (final IOException ignore) {
+            }
+        }
+
+        List<String> commands(final String name) {
+            final List<String> result = new ArrayList<>();
+            for (final String command : commands) {
+                if (command.startsWith(name + " ")) {
+                    result.add(command);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executorService.shutdownNow();
+        }
+
+    }
+
+    private FakeMemcached server;
+    private MemcachedClient client;
+    private MemcachedHttpAsyncCacheStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeMemcached();
+        client = new MemcachedClient(server.getAddress());
+        storage = new MemcachedHttpAsyncCacheStorage(
+                client,
+                CacheConfig.DEFAULT,
+                HttpByteArrayCacheEntrySerializer.INSTANCE,
+                key -> key,
+                1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.shutdown(1, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private static <T> FutureCallback<T> callback(final CompletableFuture<T> future) {
+        return new FutureCallback<T>() {
+
+            @Override
+            public void completed(final T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+
+        };
+    }
+
+    private void put(final String key, final HttpCacheEntry entry) throws Exception {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        storage.putEntry(key, entry, callback(future));
+        Assertions.assertTrue(future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPutGetUpdateRemove() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        put("foo", entry);
+
+        final CompletableFuture<HttpCacheEntry> getFuture = new CompletableFuture<>();
+        storage.getEntry("foo", callback(getFuture));
+        Assertions.assertNotNull(getFuture.get(5, TimeUnit.SECONDS));
+
+        final HttpCacheEntry updated = HttpTestUtils.makeCacheEntry();
+        final CompletableFuture<Boolean> updateFuture = new CompletableFuture<>();
+        storage.updateEntry("foo", existing -> {
+            Assertions.assertNotNull(existing);
+            return updated;
+        }, callback(updateFuture));
+        Assertions.assertTrue(updateFuture.get(5, TimeUnit.SECONDS));
+
+        final CompletableFuture<Boolean> removeFuture = new CompletableFuture<>();
+        storage.removeEntry("foo", callback(removeFuture));
+        removeFuture.get(5, TimeUnit.SECONDS);
+
+        final CompletableFuture<HttpCacheEntry> missFuture = new CompletableFuture<>();
+        storage.getEntry("foo", callback(missFuture));
+        Assertions.assertNull(missFuture.get(5, TimeUnit.SECONDS));
+
+        final MemcachedOperationMetrics metrics = storage.getMetrics();
+        Assertions.assertEquals(1, metrics.get(MemcachedOperationMetrics.Operation.SET).getCount());
+        Assertions.assertEquals(1, metrics.get(MemcachedOperationMetrics.Operation.GETS).getCount());
+        Assertions.assertEquals(1, metrics.get(MemcachedOperationMetrics.Operation.CAS).getCount());
+        Assertions.assertEquals(1, metrics.get(MemcachedOperationMetrics.Operation.DELETE).getCount());
+        Assertions.assertEquals(2, metrics.get(MemcachedOperationMetrics.Operation.GET_BULK).getCount());
+        Assertions.assertEquals(0, metrics.get(MemcachedOperationMetrics.Operation.GET).getCount());
+    }
+
+    @Test
+    void testConcurrentGetsCoalesced() throws Exception {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final String key = "key" + i;
+            keys.add(key);
+            put(key, HttpTestUtils.makeCacheEntry());
+        }
+        final List<CompletableFuture<HttpCacheEntry>> futures = new ArrayList<>();
+        for (final String key : keys) {
+            final CompletableFuture<HttpCacheEntry> future = new CompletableFuture<>();
+            storage.getEntry(key, callback(future));
+            futures.add(future);
+        }
+        for (final CompletableFuture<HttpCacheEntry> future : futures) {
+            Assertions.assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        final MemcachedOperationMetrics.Stats stats = storage.getMetrics().get(MemcachedOperationMetrics.Operation.GET_BULK);
+        Assertions.assertEquals(50, stats.getKeys());
+        Assertions.assertTrue(stats.getCount() < 50, "Expected lookups to be coalesced: " + stats);
+        Assertions.assertTrue(server.commands("get").size() < 50);
+    }
+
+    @Test
+    void testRemoveEntriesPipelined() throws Exception {
+        put("foo", HttpTestUtils.makeCacheEntry());
+        put("bar", HttpTestUtils.makeCacheEntry());
+
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        storage.removeEntries(Arrays.asList("foo", "bar", "baz"), callback(future));
+        Assertions.assertTrue(future.get(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(Collections.emptySet(), server.map.keySet());
+        Assertions.assertEquals(3, server.commands("delete").size());
+        Assertions.assertEquals(3, storage.getMetrics().get(MemcachedOperationMetrics.Operation.DELETE).getCount());
+    }
+
+}
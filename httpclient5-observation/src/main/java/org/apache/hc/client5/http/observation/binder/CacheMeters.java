@@ -0,0 +1,174 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.observation.binder;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.impl.cache.CacheStatistics;
+import org.apache.hc.client5.http.observation.MetricConfig;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Registers HTTP cache meters backed by a {@link CacheStatistics} instance.
+ * <p>
+ * Exposes:
+ * <ul>
+ *   <li>{@code &lt;prefix&gt;.cache.requests} – cache lookups tagged with {@code result=hit|miss}</li>
+ *   <li>{@code &lt;prefix&gt;.cache.hit.ratio} – ratio of hits to all cache lookups</li>
+ *   <li>{@code &lt;prefix&gt;.cache.validations} – conditional requests sent to the origin</li>
+ *   <li>{@code &lt;prefix&gt;.cache.validation.outcomes} – validation outcomes tagged with
+ *   {@code outcome=not_modified|modified|failed}</li>
+ *   <li>{@code &lt;prefix&gt;.cache.stores} – entries written to the cache storage</li>
+ *   <li>{@code &lt;prefix&gt;.cache.stored} – bytes of response content written to the cache storage</li>
+ *   <li>{@code &lt;prefix&gt;.cache.invalidations} – entries removed from the cache storage by invalidation</li>
+ *   <li>{@code &lt;prefix&gt;.cache.evictions} – entries evicted by the cache storage to stay within its bounds</li>
+ *   <li>{@code &lt;prefix&gt;.cache.storage} – storage operation latency tagged with {@code operation=read|write}</li>
+ *   <li>{@code &lt;prefix&gt;.cache.storage.errors} – failed storage operations</li>
+ * </ul>
+ * The {@code prefix} and any common tags come from {@link MetricConfig}. Hot keys
+ * are deliberately not exported as they would produce unbounded tag cardinality.
+ *
+ * <p><strong>Usage</strong></p>
+ * <pre>{@code
+ * CacheStatistics stats = new CacheStatistics();
+ * CloseableHttpClient client = CachingHttpClients.custom()
+ *     .setCacheStatistics(stats)
+ *     .build();
+ *
+ * CacheMeters.bindTo(stats, meters, mc);
+ * }</pre>
+ *
+ * @since 5.7
+ */
+public final class CacheMeters implements MeterBinder {
+
+    private final CacheStatistics stats;
+    private final MetricConfig mc;
+
+    public CacheMeters(final CacheStatistics stats, final MetricConfig mc) {
+        this.stats = Args.notNull(stats, "cacheStatistics");
+        this.mc = mc != null ? mc : MetricConfig.DEFAULT;
+    }
+
+    public CacheMeters(final CacheStatistics stats) {
+        this(stats, MetricConfig.DEFAULT);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Args.notNull(registry, "registry");
+        final String prefix = mc.prefix + ".cache";
+        FunctionCounter.builder(prefix + ".requests", stats, CacheStatistics::getHitCount)
+                .tags(mc.commonTags)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".requests", stats, CacheStatistics::getMissCount)
+                .tags(mc.commonTags)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder(prefix + ".hit.ratio", stats, CacheStatistics::getHitRatio)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".validations", stats, CacheStatistics::getValidationCount)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".validation.outcomes", stats, CacheStatistics::getValidationNotModifiedCount)
+                .tags(mc.commonTags)
+                .tag("outcome", "not_modified")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".validation.outcomes", stats, CacheStatistics::getValidationModifiedCount)
+                .tags(mc.commonTags)
+                .tag("outcome", "modified")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".validation.outcomes", stats, CacheStatistics::getValidationFailureCount)
+                .tags(mc.commonTags)
+                .tag("outcome", "failed")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".stores", stats, CacheStatistics::getStoreCount)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".stored", stats, CacheStatistics::getStoredBytes)
+                .tags(mc.commonTags)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".invalidations", stats, CacheStatistics::getInvalidationCount)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".evictions", stats, CacheStatistics::getEvictionCount)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionTimer.builder(prefix + ".storage", stats,
+                        CacheStatistics::getStorageReadCount,
+                        s -> s.getStorageReadTime(TimeUnit.NANOSECONDS),
+                        TimeUnit.NANOSECONDS)
+                .tags(mc.commonTags)
+                .tag("operation", "read")
+                .register(registry);
+        FunctionTimer.builder(prefix + ".storage", stats,
+                        CacheStatistics::getStorageWriteCount,
+                        s -> s.getStorageWriteTime(TimeUnit.NANOSECONDS),
+                        TimeUnit.NANOSECONDS)
+                .tags(mc.commonTags)
+                .tag("operation", "write")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".storage.errors", stats, CacheStatistics::getStorageErrorCount)
+                .tags(mc.commonTags)
+                .register(registry);
+    }
+
+    /**
+     * Binds cache meters for the given statistics.
+     *
+     * @param stats    cache statistics
+     * @param registry meter registry
+     * @param mc       metric configuration (prefix, common tags)
+     * @since 5.7
+     */
+    public static void bindTo(final CacheStatistics stats,
+                              final MeterRegistry registry,
+                              final MetricConfig mc) {
+        new CacheMeters(stats, mc).bindTo(registry);
+    }
+
+    /**
+     * Binds cache meters using {@link MetricConfig#DEFAULT}.
+     *
+     * @param stats    cache statistics
+     * @param registry meter registry
+     * @since 5.7
+     */
+    public static void bindTo(final CacheStatistics stats,
+                              final MeterRegistry registry) {
+        bindTo(stats, registry, MetricConfig.DEFAULT);
+    }
+
+}
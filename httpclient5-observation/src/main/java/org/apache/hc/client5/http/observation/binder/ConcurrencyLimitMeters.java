@@ -0,0 +1,121 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.observation.binder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.impl.async.AdaptiveConcurrencyLimiter;
+import org.apache.hc.client5.http.observation.MetricConfig;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Registers meters of an {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Exposes:
+ * <ul>
+ *   <li>{@code &lt;prefix&gt;.concurrency.limit} – sum of the current per-route concurrency limits</li>
+ *   <li>{@code &lt;prefix&gt;.concurrency.inflight} – number of requests executing within the limits</li>
+ *   <li>{@code &lt;prefix&gt;.concurrency.queued} – number of requests waiting for a permit</li>
+ *   <li>{@code &lt;prefix&gt;.concurrency.rejected} – requests rejected because the queue of their route was full</li>
+ * </ul>
+ * The {@code prefix} and any common tags come from {@link MetricConfig}. Values are
+ * aggregated over all routes as per-route tags would produce unbounded tag cardinality;
+ * per-route values can be obtained from the limiter directly.
+ *
+ * <p><strong>Usage</strong></p>
+ * <pre>{@code
+ * AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(VegasConcurrencyLimit::new);
+ * CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+ *     .setConcurrencyLimiter(limiter)
+ *     .build();
+ *
+ * ConcurrencyLimitMeters.bindTo(limiter, meters, mc);
+ * }</pre>
+ *
+ * @since 5.7
+ */
+public final class ConcurrencyLimitMeters implements MeterBinder {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MetricConfig mc;
+
+    public ConcurrencyLimitMeters(final AdaptiveConcurrencyLimiter limiter, final MetricConfig mc) {
+        this.limiter = Args.notNull(limiter, "concurrencyLimiter");
+        this.mc = mc != null ? mc : MetricConfig.DEFAULT;
+    }
+
+    public ConcurrencyLimitMeters(final AdaptiveConcurrencyLimiter limiter) {
+        this(limiter, MetricConfig.DEFAULT);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Args.notNull(registry, "registry");
+        final String prefix = mc.prefix + ".concurrency";
+        Gauge.builder(prefix + ".limit", limiter, AdaptiveConcurrencyLimiter::getTotalLimit)
+                .tags(mc.commonTags)
+                .register(registry);
+        Gauge.builder(prefix + ".inflight", limiter, AdaptiveConcurrencyLimiter::getTotalInFlight)
+                .tags(mc.commonTags)
+                .register(registry);
+        Gauge.builder(prefix + ".queued", limiter, AdaptiveConcurrencyLimiter::getTotalQueued)
+                .tags(mc.commonTags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tags(mc.commonTags)
+                .register(registry);
+    }
+
+    /**
+     * Binds concurrency limit meters for the given limiter.
+     *
+     * @param limiter  concurrency limiter
+     * @param registry meter registry
+     * @param mc       metric configuration (prefix, common tags)
+     * @since 5.7
+     */
+    public static void bindTo(final AdaptiveConcurrencyLimiter limiter,
+                              final MeterRegistry registry,
+                              final MetricConfig mc) {
+        new ConcurrencyLimitMeters(limiter, mc).bindTo(registry);
+    }
+
+    /**
+     * Binds concurrency limit meters using {@link MetricConfig#DEFAULT}.
+     *
+     * @param limiter  concurrency limiter
+     * @param registry meter registry
+     * @since 5.7
+     */
+    public static void bindTo(final AdaptiveConcurrencyLimiter limiter,
+                              final MeterRegistry registry) {
+        bindTo(limiter, registry, MetricConfig.DEFAULT);
+    }
+
+}
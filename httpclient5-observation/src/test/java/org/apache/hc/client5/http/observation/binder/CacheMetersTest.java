@@ -0,0 +1,102 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.observation.binder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.cache.CacheStatistics;
+import org.apache.hc.client5.http.impl.cache.CachingHttpClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.junit.jupiter.api.Test;
+
+class CacheMetersTest {
+
+    @Test
+    void registersMeters() {
+        final MeterRegistry reg = new SimpleMeterRegistry();
+        CacheMeters.bindTo(new CacheStatistics(), reg);
+
+        assertNotNull(reg.find("http.client.cache.requests").tag("result", "hit").functionCounter());
+        assertNotNull(reg.find("http.client.cache.requests").tag("result", "miss").functionCounter());
+        assertNotNull(reg.find("http.client.cache.hit.ratio").gauge());
+        assertNotNull(reg.find("http.client.cache.validation.outcomes").tag("outcome", "not_modified").functionCounter());
+        assertNotNull(reg.find("http.client.cache.stored").functionCounter());
+        assertNotNull(reg.find("http.client.cache.invalidations").functionCounter());
+        assertNotNull(reg.find("http.client.cache.evictions").functionCounter());
+        assertNotNull(reg.find("http.client.cache.storage").tag("operation", "read").functionTimer());
+        assertNotNull(reg.find("http.client.cache.storage").tag("operation", "write").functionTimer());
+    }
+
+    @Test
+    void reflectsCacheActivity() throws Exception {
+        final HttpServer server = ServerBootstrap.bootstrap()
+                .setListenerPort(0)
+                .register("*", (request, response, context) -> {
+                    response.setHeader("Cache-Control", "max-age=3600");
+                    response.setEntity(new StringEntity("cached"));
+                })
+                .create();
+        server.start();
+        try {
+            final CacheStatistics stats = new CacheStatistics();
+            final MeterRegistry reg = new SimpleMeterRegistry();
+            CacheMeters.bindTo(stats, reg);
+
+            final HttpHost target = new HttpHost("http", "localhost", server.getLocalPort());
+            try (CloseableHttpClient client = CachingHttpClients.custom()
+                    .setCacheStatistics(stats)
+                    .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create().build())
+                    .build()) {
+                for (int i = 0; i < 3; i++) {
+                    client.execute(target, new HttpGet("/resource"), (ClassicHttpResponse response) -> {
+                        EntityUtils.consume(response.getEntity());
+                        return null;
+                    });
+                }
+            }
+
+            assertEquals(2.0, reg.find("http.client.cache.requests").tag("result", "hit").functionCounter().count());
+            assertEquals(1.0, reg.find("http.client.cache.requests").tag("result", "miss").functionCounter().count());
+            assertEquals(1.0, reg.find("http.client.cache.stores").functionCounter().count());
+            assertEquals(6.0, reg.find("http.client.cache.stored").functionCounter().count());
+        } finally {
+            server.close();
+        }
+    }
+
+}
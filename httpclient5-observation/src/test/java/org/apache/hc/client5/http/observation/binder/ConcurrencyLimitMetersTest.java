@@ -0,0 +1,96 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.observation.binder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.AdaptiveConcurrencyLimiter;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimitMetersTest {
+
+    @Test
+    void registersMeters() {
+        final MeterRegistry reg = new SimpleMeterRegistry();
+        ConcurrencyLimitMeters.bindTo(new AdaptiveConcurrencyLimiter(), reg);
+
+        assertNotNull(reg.find("http.client.concurrency.limit").gauge());
+        assertNotNull(reg.find("http.client.concurrency.inflight").gauge());
+        assertNotNull(reg.find("http.client.concurrency.queued").gauge());
+        assertNotNull(reg.find("http.client.concurrency.rejected").functionCounter());
+    }
+
+    @Test
+    void reflectsLimiterState() throws Exception {
+        final HttpServer server = ServerBootstrap.bootstrap()
+                .setListenerPort(0)
+                .register("*", (request, response, context) -> response.setEntity(new StringEntity("ok")))
+                .create();
+        server.start();
+        try {
+            final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+            final MeterRegistry reg = new SimpleMeterRegistry();
+            ConcurrencyLimitMeters.bindTo(limiter, reg);
+
+            final HttpHost target = new HttpHost("http", "localhost", server.getLocalPort());
+            try (CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setConcurrencyLimiter(limiter)
+                    .build()) {
+                client.start();
+                for (int i = 0; i < 3; i++) {
+                    final SimpleHttpRequest request = SimpleRequestBuilder.get()
+                            .setHttpHost(target)
+                            .setPath("/resource")
+                            .build();
+                    assertEquals(200, client.execute(request, null).get(30, TimeUnit.SECONDS).getCode());
+                }
+            }
+
+            assertEquals(1, limiter.getRoutes().size());
+            assertTrue(reg.find("http.client.concurrency.limit").gauge().value() > 0);
+            assertEquals(0.0, reg.find("http.client.concurrency.inflight").gauge().value());
+            assertEquals(0.0, reg.find("http.client.concurrency.rejected").functionCounter().count());
+        } finally {
+            server.close();
+        }
+    }
+
+}
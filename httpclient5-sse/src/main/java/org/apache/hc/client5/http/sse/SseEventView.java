@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.sse;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of a single Server-Sent Event.
+ *
+ * <p>Views handed to {@link SseEventViewListener#onEvent(SseEventView)} may be reused
+ * for subsequent events. The buffers and character sequences returned by a view are
+ * only valid for the duration of the callback; copy them if they need to outlive it.
+ * The {@link #id()} and {@link #type()} strings are immutable and may be retained.</p>
+ *
+ * @since 5.7
+ */
+public interface SseEventView {
+
+    /**
+     * Returns the last event id, or {@code null} if none has been received.
+     */
+    String id();
+
+    /**
+     * Returns the event type; {@code "message"} if the event did not specify one.
+     */
+    String type();
+
+    /**
+     * Returns the UTF-8 encoded event data as a read-only buffer positioned at the
+     * first byte of the data.
+     */
+    ByteBuffer data();
+
+    /**
+     * Returns the event data as text.
+     */
+    CharSequence text();
+
+    /**
+     * Creates an immutable view of the given event.
+     *
+     * @param id   the event id, or {@code null}
+     * @param type the event type, or {@code null} for {@code "message"}
+     * @param data the event data
+     * @return the event view
+     */
+    static SseEventView of(final String id, final String type, final String data) {
+        final String t = type != null ? type : "message";
+        final String d = data != null ? data : "";
+        return new SseEventView() {
+
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public String type() {
+                return t;
+            }
+
+            @Override
+            public ByteBuffer data() {
+                return ByteBuffer.wrap(d.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            }
+
+            @Override
+            public CharSequence text() {
+                return CharBuffer.wrap(d);
+            }
+
+            @Override
+            public String toString() {
+                return d;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.sse;
+
+/**
+ * {@link EventSourceListener} that receives events as reusable {@link SseEventView}s
+ * instead of freshly allocated strings.
+ *
+ * <p>With the {@link org.apache.hc.client5.http.sse.impl.SseParser#BYTE byte parser}
+ * and inline callback execution, events are handed over without copying the event
+ * data or allocating per-event strings. Otherwise events are adapted from their
+ * string form via {@link SseEventView#of(String, String, String)}.</p>
+ *
+ * @since 5.7
+ */
+public interface SseEventViewListener extends EventSourceListener {
+
+    /**
+     * Called for each SSE event received.
+     *
+     * @param event view of the event; only valid for the duration of the callback
+     */
+    void onEvent(SseEventView event);
+
+    /**
+     * Adapts a string-based event to {@link #onEvent(SseEventView)}.
+     */
+    @Override
+    default void onEvent(final String id, final String type, final String data) {
+        onEvent(SseEventView.of(id, type, data));
+    }
+
+}
@@ -28,8 +28,13 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+import org.apache.hc.client5.http.sse.SseEventView;
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpException;
@@ -43,6 +48,14 @@
  * ASCII field matching in-place, accumulates lines until a blank line is reached,
  * then emits one logical SSE event via the supplied {@link SseCallbacks}.</p>
  *
+ * <p>Line terminators are located by scanning each input buffer in bulk. Lines that
+ * lie entirely within one input buffer are parsed in place; only lines spanning
+ * buffers are copied. Data payload bytes accumulate in a reusable buffer, and
+ * repeated event types and ids are served from a small cache instead of being
+ * decoded again. If the callbacks {@linkplain SseCallbacks#isEventViewSupported()
+ * support event views}, events are delivered as a reusable {@link SseEventView}
+ * without any per-event allocation.</p>
+ *
  * <h3>Behavior</h3>
  * <ul>
  *   <li>Validates {@code Content-Type} equals {@code text/event-stream}
@@ -71,16 +84,22 @@ public final class ByteSseEntityConsumer extends AbstractBinAsyncEntityConsumer<
     private static final byte COLON = (byte) ':';
     private static final byte SPACE = (byte) ' ';
 
+    private static final String DEFAULT_TYPE = "message";
+
     private final SseCallbacks cb;
 
-    // line accumulator
+    // line accumulator, only used for lines spanning input buffers
     private byte[] lineBuf = new byte[256];
     private int lineLen = 0;
 
     // event accumulator
-    private final StringBuilder data = new StringBuilder(256);
+    private byte[] dataBuf = new byte[256];
+    private int dataLen = 0;
     private String id;
     private String type; // defaults to "message"
+    private final StringCache types = new StringCache(32);
+    private final StringCache ids = new StringCache(4);
+    private final EventView view = new EventView();
 
     // Robust BOM skipper (works across multiple chunks)
     // Matches 0xEF 0xBB 0xBF at the very beginning of the stream
@@ -115,12 +134,17 @@ protected void data(final ByteBuffer src, final boolean endOfStream) {
                     continue;
                 }
                 if (bomMatched > 0) {
-                    appendByte((byte) 0xEF);
+                    appendLine((byte) 0xEF);
                     if (bomMatched >= 2) {
-                        appendByte((byte) 0xBB);
+                        appendLine((byte) 0xBB);
                     }
                 }
-                appendByte((byte) b);
+                if ((byte) b == LF) {
+                    endLine(lineBuf, 0, lineLen);
+                    lineLen = 0;
+                } else {
+                    appendLine((byte) b);
+                }
                 bomMatched = 0;
                 bomDone = true;
                 break; // drop into normal loop below for the rest of 'src'
@@ -133,18 +157,10 @@ protected void data(final ByteBuffer src, final boolean endOfStream) {
             }
         }
 
-        while (src.hasRemaining()) {
-            final byte b = src.get();
-            if (b == LF) {
-                int len = lineLen;
-                if (len > 0 && lineBuf[len - 1] == CR) {
-                    len--;
-                }
-                handleLine(lineBuf, len);
-                lineLen = 0;
-            } else {
-                appendByte(b);
-            }
+        if (src.hasArray()) {
+            scanArray(src);
+        } else {
+            scanBuffer(src);
         }
 
         if (endOfStream) {
@@ -152,23 +168,76 @@ protected void data(final ByteBuffer src, final boolean endOfStream) {
         }
     }
 
+    private void scanArray(final ByteBuffer src) {
+        final byte[] arr = src.array();
+        final int end = src.arrayOffset() + src.limit();
+        int pos = src.arrayOffset() + src.position();
+        while (pos < end) {
+            int lf = pos;
+            while (lf < end && arr[lf] != LF) {
+                lf++;
+            }
+            if (lf == end) {
+                appendLine(arr, pos, end - pos);
+                break;
+            }
+            if (lineLen == 0) {
+                // the whole line is in the input buffer: parse it in place
+                endLine(arr, pos, lf - pos);
+            } else {
+                appendLine(arr, pos, lf - pos);
+                endLine(lineBuf, 0, lineLen);
+                lineLen = 0;
+            }
+            pos = lf + 1;
+        }
+        src.position(src.limit());
+    }
+
+    private void scanBuffer(final ByteBuffer src) {
+        while (src.hasRemaining()) {
+            final int pos = src.position();
+            final int end = src.limit();
+            int lf = pos;
+            while (lf < end && src.get(lf) != LF) {
+                lf++;
+            }
+            final int n = lf - pos;
+            ensureLineCapacity(lineLen + n);
+            src.get(lineBuf, lineLen, n);
+            lineLen += n;
+            if (lf == end) {
+                break;
+            }
+            src.get(); // LF
+            endLine(lineBuf, 0, lineLen);
+            lineLen = 0;
+        }
+    }
+
     private void flushEndOfStream() {
         if (lineLen > 0) {
-            int len = lineLen;
-            if (lineBuf[len - 1] == CR) {
-                len--;
-            }
-            handleLine(lineBuf, len);
+            endLine(lineBuf, 0, lineLen);
             lineLen = 0;
         }
-        handleLine(lineBuf, 0);
+        handleLine(lineBuf, 0, 0);
     }
 
-    private void appendByte(final byte b) {
-        ensureCapacity(lineLen + 1);
+    private void endLine(final byte[] buf, final int off, final int len) {
+        handleLine(buf, off, len > 0 && buf[off + len - 1] == CR ? len - 1 : len);
+    }
+
+    private void appendLine(final byte b) {
+        ensureLineCapacity(lineLen + 1);
         lineBuf[lineLen++] = b;
     }
 
+    private void appendLine(final byte[] buf, final int off, final int len) {
+        ensureLineCapacity(lineLen + len);
+        System.arraycopy(buf, off, lineBuf, lineLen, len);
+        lineLen += len;
+    }
+
     @Override
     protected int capacityIncrement() {
         return 8192;
@@ -182,57 +251,62 @@ protected Void generateContent() {
     @Override
     public void releaseResources() {
         lineBuf = new byte[0];
-        data.setLength(0);
+        lineLen = 0;
+        dataLen = 0;
         id = null;
         type = null;
         bomMatched = 0;
         bomDone = false;
     }
 
-    private void handleLine(final byte[] buf, final int len) {
+    private void handleLine(final byte[] buf, final int off, final int len) {
         if (len == 0) {
             dispatch();
             return;
         }
-        if (buf[0] == (byte) ':') {
+        if (buf[off] == COLON) {
             // comment -> ignore
             return;
         }
+        final int end = off + len;
         int colon = -1;
-        for (int i = 0; i < len; i++) {
+        for (int i = off; i < end; i++) {
             if (buf[i] == COLON) {
                 colon = i;
                 break;
             }
         }
-        final int fEnd = colon >= 0 ? colon : len;
-        int vStart = colon >= 0 ? colon + 1 : len;
-        if (vStart < len && buf[vStart] == SPACE) {
+        final int fLen = (colon >= 0 ? colon : end) - off;
+        int vStart = colon >= 0 ? colon + 1 : end;
+        if (vStart < end && buf[vStart] == SPACE) {
             vStart++;
         }
-
-        final int fLen = fEnd; // since field starts at 0
+        final int vLen = end - vStart;
 
         // Compare ASCII field name without allocations
-        if (fLen == 4 && buf[0] == 'd' && buf[1] == 'a' && buf[2] == 't' && buf[3] == 'a') {
-            final String v = new String(buf, vStart, len - vStart, StandardCharsets.UTF_8);
-            data.append(v).append('\n');
-        } else if (fLen == 5 && buf[0] == 'e' && buf[1] == 'v' && buf[2] == 'e' && buf[3] == 'n' && buf[4] == 't') {
-            type = new String(buf, vStart, len - vStart, StandardCharsets.UTF_8);
-        } else if (fLen == 2 && buf[0] == 'i' && buf[1] == 'd') {
+        if (fLen == 4 && buf[off] == 'd' && buf[off + 1] == 'a' && buf[off + 2] == 't' && buf[off + 3] == 'a') {
+            ensureDataCapacity(dataLen + vLen + 1);
+            System.arraycopy(buf, vStart, dataBuf, dataLen, vLen);
+            dataLen += vLen;
+            dataBuf[dataLen++] = LF;
+        } else if (fLen == 5 && buf[off] == 'e' && buf[off + 1] == 'v' && buf[off + 2] == 'e'
+                && buf[off + 3] == 'n' && buf[off + 4] == 't') {
+            type = types.get(buf, vStart, vLen);
+        } else if (fLen == 2 && buf[off] == 'i' && buf[off + 1] == 'd') {
             // ignore if contains NUL per spec
             boolean hasNul = false;
-            for (int i = vStart; i < len; i++) {
+            for (int i = vStart; i < end; i++) {
                 if (buf[i] == 0) {
                     hasNul = true;
                     break;
                 }
             }
             if (!hasNul) {
-                id = new String(buf, vStart, len - vStart, StandardCharsets.UTF_8);
+                id = ids.get(buf, vStart, vLen);
             }
-        } else if (fLen == 5 && buf[0] == 'r' && buf[1] == 'e' && buf[2] == 't' && buf[3] == 'r' && buf[4] == 'y') {
-            final long retry = parseLongAscii(buf, vStart, len - vStart);
+        } else if (fLen == 5 && buf[off] == 'r' && buf[off + 1] == 'e' && buf[off + 2] == 't'
+                && buf[off + 3] == 'r' && buf[off + 4] == 'y') {
+            final long retry = parseLongAscii(buf, vStart, vLen);
             if (retry >= 0) {
                 cb.onRetry(retry);
             }
@@ -240,30 +314,33 @@ private void handleLine(final byte[] buf, final int len) {
     }
 
     private void dispatch() {
-        if (data.length() == 0) {
+        if (dataLen == 0) {
             type = null;
             return;
         }
-        final int n = data.length();
-        if (n > 0 && data.charAt(n - 1) == '\n') {
-            data.setLength(n - 1);
+        // strip the trailing LF of the last data line
+        final int len = dataLen - 1;
+        final String t = type != null ? type : DEFAULT_TYPE;
+        if (cb.isEventViewSupported()) {
+            view.reset(id, t, len);
+            cb.onEvent(view);
+        } else {
+            cb.onEvent(id, t, new String(dataBuf, 0, len, StandardCharsets.UTF_8));
         }
-        cb.onEvent(id, type != null ? type : "message", data.toString());
-        data.setLength(0);
+        dataLen = 0;
         type = null; // id persists
     }
 
-    private void ensureCapacity(final int cap) {
-        if (cap <= lineBuf.length) {
-            return;
+    private void ensureLineCapacity(final int cap) {
+        if (cap > lineBuf.length) {
+            lineBuf = Arrays.copyOf(lineBuf, Math.max(lineBuf.length << 1, cap));
         }
-        int n = lineBuf.length << 1;
-        if (n < cap) {
-            n = cap;
+    }
+
+    private void ensureDataCapacity(final int cap) {
+        if (cap > dataBuf.length) {
+            dataBuf = Arrays.copyOf(dataBuf, Math.max(dataBuf.length << 1, cap));
         }
-        final byte[] nb = new byte[n];
-        System.arraycopy(lineBuf, 0, nb, 0, lineLen);
-        lineBuf = nb;
     }
 
     private static long parseLongAscii(final byte[] arr, final int off, final int len) {
@@ -283,4 +360,117 @@ private static long parseLongAscii(final byte[] arr, final int off, final int le
         }
         return v;
     }
+
+    /**
+     * Reusable view over the event currently being dispatched.
+     */
+    private final class EventView implements SseEventView {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer bytes;
+        private CharBuffer chars = CharBuffer.allocate(256);
+        private String eventId;
+        private String eventType;
+        private int len;
+        private boolean decoded;
+
+        void reset(final String eventId, final String eventType, final int len) {
+            this.eventId = eventId;
+            this.eventType = eventType;
+            this.len = len;
+            this.decoded = false;
+        }
+
+        @Override
+        public String id() {
+            return eventId;
+        }
+
+        @Override
+        public String type() {
+            return eventType;
+        }
+
+        @Override
+        public ByteBuffer data() {
+            if (bytes == null || bytes.capacity() != dataBuf.length) {
+                bytes = ByteBuffer.wrap(dataBuf).asReadOnlyBuffer();
+            }
+            bytes.clear();
+            bytes.limit(len);
+            return bytes;
+        }
+
+        @Override
+        public CharSequence text() {
+            if (!decoded) {
+                final ByteBuffer in = ByteBuffer.wrap(dataBuf, 0, len);
+                final int max = (int) Math.ceil(len * (double) decoder.maxCharsPerByte());
+                if (chars.capacity() < max) {
+                    chars = CharBuffer.allocate(max);
+                }
+                chars.clear();
+                decoder.reset();
+                decoder.decode(in, chars, true);
+                decoder.flush(chars);
+                chars.flip();
+                decoded = true;
+            }
+            return chars;
+        }
+
+        @Override
+        public String toString() {
+            return text().toString();
+        }
+
+    }
+
+    /**
+     * Small direct-mapped cache of strings keyed by their UTF-8 bytes, used to avoid
+     * decoding the same event types and ids over and over again.
+     */
+    private static final class StringCache {
+
+        private static final int MAX_KEY_LENGTH = 64;
+
+        private final byte[][] keys;
+        private final String[] values;
+
+        StringCache(final int size) {
+            this.keys = new byte[size][];
+            this.values = new String[size];
+        }
+
+        String get(final byte[] buf, final int off, final int len) {
+            if (len > MAX_KEY_LENGTH) {
+                return new String(buf, off, len, StandardCharsets.UTF_8);
+            }
+            int h = 1;
+            for (int i = off; i < off + len; i++) {
+                h = 31 * h + buf[i];
+            }
+            final int slot = (h & 0x7fffffff) % keys.length;
+            final byte[] key = keys[slot];
+            if (key != null && key.length == len && regionEquals(key, buf, off)) {
+                return values[slot];
+            }
+            final String value = new String(buf, off, len, StandardCharsets.UTF_8);
+            keys[slot] = Arrays.copyOfRange(buf, off, off + len);
+            values[slot] = value;
+            return value;
+        }
+
+        private static boolean regionEquals(final byte[] key, final byte[] buf, final int off) {
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buf[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
 }
@@ -51,6 +51,8 @@
 import org.apache.hc.client5.http.sse.EventSource;
 import org.apache.hc.client5.http.sse.EventSourceConfig;
 import org.apache.hc.client5.http.sse.EventSourceListener;
+import org.apache.hc.client5.http.sse.SseEventView;
+import org.apache.hc.client5.http.sse.SseEventViewListener;
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
@@ -116,6 +118,7 @@ public final class DefaultEventSource implements EventSource {
     private final ScheduledExecutorService scheduler;
     private final boolean ownScheduler;
     private final Executor callbackExecutor;
+    private final boolean inlineCallbacks;
     private final BackoffStrategy backoff;
     private final int maxReconnects;
     private final SseParser parser;
@@ -189,6 +192,7 @@ public DefaultEventSource(final CloseableHttpAsyncClient client,
         this.ownScheduler = false;
 
         this.callbackExecutor = callbackExecutor != null ? callbackExecutor : Runnable::run;
+        this.inlineCallbacks = callbackExecutor == null;
 
         final EventSourceConfig cfg = (config != null) ? config : EventSourceConfig.DEFAULT;
         this.backoff = cfg.backoff;
@@ -401,6 +405,25 @@ public void onEvent(final String id, final String type, final String data) {
                 dispatch(() -> listener.onEvent(id, type, data));
             }
 
+            @Override
+            public boolean isEventViewSupported() {
+                // views are only valid during the callback, so they cannot be handed off
+                return inlineCallbacks && listener instanceof SseEventViewListener;
+            }
+
+            @Override
+            public void onEvent(final SseEventView event) {
+                final String id = event.id();
+                if (id != null) {
+                    lastEventId = id;
+                }
+                try {
+                    ((SseEventViewListener) listener).onEvent(event);
+                } catch (final RuntimeException ex) {
+                    LOG.error("EventSource listener failed: {}", ex, ex);
+                }
+            }
+
             @Override
             public void onRetry(final long retryMs) {
                 stickyRetryMs = Math.max(0L, retryMs);
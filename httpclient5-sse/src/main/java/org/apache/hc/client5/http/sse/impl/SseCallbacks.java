@@ -26,6 +26,7 @@
  */
 package org.apache.hc.client5.http.sse.impl;
 
+import org.apache.hc.client5.http.sse.SseEventView;
 import org.apache.hc.core5.annotation.Internal;
 
 /**
@@ -57,6 +58,27 @@ public interface SseCallbacks {
      */
     void onEvent(String id, String type, String data);
 
+    /**
+     * Returns {@code true} if parsed events may be delivered as reusable views
+     * through {@link #onEvent(SseEventView)}.
+     *
+     * @since 5.7
+     */
+    default boolean isEventViewSupported() {
+        return false;
+    }
+
+    /**
+     * Delivers a parsed SSE event as a view that is only valid for the duration
+     * of the call.
+     *
+     * @param event the event view
+     * @since 5.7
+     */
+    default void onEvent(final SseEventView event) {
+        onEvent(event.id(), event.type(), event.text().toString());
+    }
+
     /**
      * Notifies of a change to the client-side reconnect delay as
      * advertised by the server via the {@code retry:} field.
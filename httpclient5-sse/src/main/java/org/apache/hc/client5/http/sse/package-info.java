@@ -46,6 +46,8 @@
  *       start, cancel, inspect connection state, manipulate headers, and manage {@code Last-Event-ID}.</li>
  *   <li>{@link org.apache.hc.client5.http.sse.EventSourceListener} — callback interface for
  *       open/close, events, and failures (with a flag indicating whether a reconnect is scheduled).</li>
+ *   <li>{@link org.apache.hc.client5.http.sse.SseEventViewListener} — listener variant that receives
+ *       reusable {@link org.apache.hc.client5.http.sse.SseEventView}s instead of per-event strings.</li>
  *   <li>{@link org.apache.hc.client5.http.sse.EventSourceConfig} — policy and limits
  *       (e.g., {@link org.apache.hc.client5.http.sse.BackoffStrategy}, max reconnects).</li>
  *   <li>{@link org.apache.hc.client5.http.sse.BackoffStrategy} — reconnection policy SPI
@@ -93,7 +95,8 @@
  *       or per-connection using {@link org.apache.hc.client5.http.sse.EventSource#setHeader(String, String)}.</li>
  *   <li><b>Parser:</b> {@link org.apache.hc.client5.http.sse.impl.SseParser#CHAR} (default) is spec-compliant;
  *       {@link org.apache.hc.client5.http.sse.impl.SseParser#BYTE} reduces intermediate allocations for
- *       very high event rates.</li>
+ *       very high event rates. Combined with an {@link org.apache.hc.client5.http.sse.SseEventViewListener}
+ *       and inline callbacks, events are delivered without per-event allocation.</li>
  *   <li><b>Executors:</b> You can supply a {@code ScheduledExecutorService} for reconnect delays and an
  *       {@code Executor} for listener callbacks. If not provided, a shared scheduler is used
  *       and callbacks execute inline; keep your listener lightweight.</li>
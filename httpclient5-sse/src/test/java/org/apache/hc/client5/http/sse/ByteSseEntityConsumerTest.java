@@ -27,10 +27,14 @@
 package org.apache.hc.client5.http.sse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hc.client5.http.sse.impl.ByteSseEntityConsumer;
 import org.apache.hc.client5.http.sse.impl.SseCallbacks;
@@ -96,4 +100,122 @@ void emitsRetry() throws Exception {
 
         assertEquals(Long.valueOf(2500L), cb.retry);
     }
+
+    static final class Recorder implements SseCallbacks {
+        final boolean views;
+        final List<String> events = new ArrayList<>();
+        final List<String> types = new ArrayList<>();
+        final List<SseEventView> seenViews = new ArrayList<>();
+
+        Recorder(final boolean views) {
+            this.views = views;
+        }
+
+        @Override
+        public void onOpen() {
+        }
+
+        @Override
+        public void onEvent(final String id, final String type, final String data) {
+            events.add(id + "|" + type + "|" + data);
+            types.add(type);
+        }
+
+        @Override
+        public boolean isEventViewSupported() {
+            return views;
+        }
+
+        @Override
+        public void onEvent(final SseEventView event) {
+            final ByteBuffer raw = event.data();
+            final byte[] bytes = new byte[raw.remaining()];
+            raw.get(bytes);
+            assertEquals(event.text().toString(), new String(bytes, StandardCharsets.UTF_8));
+            events.add(event.id() + "|" + event.type() + "|" + event.text());
+            types.add(event.type());
+            seenViews.add(event);
+        }
+
+        @Override
+        public void onRetry(final long retryMs) {
+        }
+    }
+
+    private static final String STREAM =
+            ": comment\r\n"
+            + "event: tick\n"
+            + "id: 7\n"
+            + "data: first line\n"
+            + "data:second \u00e9\u20ac\n"
+            + "\n"
+            + "data: no type\r\n"
+            + "\r\n"
+            + "event: tick\n"
+            + "data\n"
+            + "\n";
+
+    private static final List<String> EXPECTED = new ArrayList<>();
+
+    static {
+        EXPECTED.add("7|tick|first line\nsecond \u00e9\u20ac");
+        EXPECTED.add("7|message|no type");
+        EXPECTED.add("7|tick|");
+    }
+
+    private static List<String> feed(final Recorder cb, final byte[] bytes, final int split,
+                                     final boolean direct) throws Exception {
+        final ByteSseEntityConsumer c = new ByteSseEntityConsumer(cb);
+        c.streamStart(ContentType.parse("text/event-stream"));
+        c.consume(wrap(bytes, 0, split, direct));
+        c.consume(wrap(bytes, split, bytes.length - split, direct));
+        c.streamEnd(null);
+        return cb.events;
+    }
+
+    private static ByteBuffer wrap(final byte[] bytes, final int off, final int len, final boolean direct) {
+        if (!direct) {
+            return ByteBuffer.wrap(bytes, off, len);
+        }
+        final ByteBuffer b = ByteBuffer.allocateDirect(len);
+        b.put(bytes, off, len).flip();
+        return b;
+    }
+
+    @Test
+    void parsesEventsAtEverySplitPoint() throws Exception {
+        final byte[] bytes = STREAM.getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            assertEquals(EXPECTED, feed(new Recorder(false), bytes, split, false), "heap split at " + split);
+            assertEquals(EXPECTED, feed(new Recorder(false), bytes, split, true), "direct split at " + split);
+            assertEquals(EXPECTED, feed(new Recorder(true), bytes, split, false), "view split at " + split);
+        }
+    }
+
+    @Test
+    void deliversReusableViewAndCachesTypes() throws Exception {
+        final Recorder cb = new Recorder(true);
+        final byte[] bytes = STREAM.getBytes(StandardCharsets.UTF_8);
+        feed(cb, bytes, bytes.length / 2, false);
+
+        assertEquals(3, cb.seenViews.size());
+        assertSame(cb.seenViews.get(0), cb.seenViews.get(2));
+        assertSame(cb.types.get(0), cb.types.get(2));
+    }
+
+    @Test
+    void eventWithoutDataIsNotDispatched() throws Exception {
+        final Recorder cb = new Recorder(true);
+        final byte[] bytes = "event: x\nid: 1\n\n".getBytes(StandardCharsets.UTF_8);
+        assertTrue(feed(cb, bytes, 3, false).isEmpty());
+    }
+
+    @Test
+    void stringViewAdaptsEvent() {
+        final SseEventView view = SseEventView.of(null, null, "h\u00e9");
+        assertNull(view.id());
+        assertEquals("message", view.type());
+        assertEquals("h\u00e9", view.text().toString());
+        assertEquals(3, view.data().remaining());
+    }
 }
@@ -32,6 +32,8 @@
 
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Timeout;
+import org.apache.hc.core5.websocket.frame.MaskKeyProvider;
+import org.apache.hc.core5.websocket.frame.ThreadLocalMaskKeyProvider;
 
 /**
  * Immutable configuration for {@link WebSocket} clients.
@@ -74,6 +76,9 @@ public final class WebSocketClientConfig {
     // Outbound queue limits
     private final int maxOutboundControlQueue;
     private final long maxOutboundDataBytes;
+    private final int outboundBufferPoolSize;
+    private final MaskKeyProvider maskKeyProvider;
+    private final boolean messageStreaming;
 
     private WebSocketClientConfig(
             final Timeout connectTimeout,
@@ -91,6 +96,9 @@ private WebSocketClientConfig(
             final long maxMessageSize,
             final int maxOutboundControlQueue,
             final long maxOutboundDataBytes,
+            final int outboundBufferPoolSize,
+            final MaskKeyProvider maskKeyProvider,
+            final boolean messageStreaming,
             final boolean http2Enabled) {
 
         this.connectTimeout = connectTimeout;
@@ -110,6 +118,9 @@ private WebSocketClientConfig(
         this.maxMessageSize = maxMessageSize;
         this.maxOutboundControlQueue = maxOutboundControlQueue;
         this.maxOutboundDataBytes = maxOutboundDataBytes;
+        this.outboundBufferPoolSize = outboundBufferPoolSize;
+        this.maskKeyProvider = maskKeyProvider;
+        this.messageStreaming = messageStreaming;
         this.http2Enabled = http2Enabled;
     }
 
@@ -282,6 +293,47 @@ public long getMaxOutboundDataBytes() {
         return maxOutboundDataBytes;
     }
 
+    /**
+     * Maximum number of idle outbound frame buffers retained per size class.
+     *
+     * <p>Outbound frames are encoded into buffers leased from a per-session pool and
+     * returned once the frame has been fully written. A value of {@code 0} disables
+     * pooling and allocates a new buffer per frame.</p>
+     *
+     * @return max idle buffers per size class
+     * @since 5.7
+     */
+    public int getOutboundBufferPoolSize() {
+        return outboundBufferPoolSize;
+    }
+
+    /**
+     * Source of the masking keys applied to outbound frames.
+     *
+     * @return mask key provider, or {@code null} to use {@link ThreadLocalMaskKeyProvider#INSTANCE}
+     * @since 5.7
+     */
+    public MaskKeyProvider getMaskKeyProvider() {
+        return maskKeyProvider;
+    }
+
+    /**
+     * Whether fragments of inbound messages are delivered to the listener as they arrive.
+     *
+     * <p>When enabled, each fragment of a fragmented binary message is passed to
+     * {@link WebSocketListener#onBinary(java.nio.ByteBuffer, boolean)} with {@code last}
+     * set on the final fragment, instead of being assembled into one buffer first.
+     * Fragments of a text message are decoded as they arrive and the text decoded so
+     * far is passed to {@link WebSocketListener#onText(java.nio.CharBuffer, boolean)}
+     * in the same manner.</p>
+     *
+     * @return {@code true} if message streaming is enabled
+     * @since 5.7
+     */
+    public boolean isMessageStreamingEnabled() {
+        return messageStreaming;
+    }
+
     /**
      * Returns {@code true} if HTTP/2 Extended CONNECT (RFC 8441) is enabled.
      *
@@ -330,6 +382,9 @@ public static final class Builder {
 
         private int maxOutboundControlQueue = 256;
         private long maxOutboundDataBytes = 16L * 1024 * 1024;
+        private int outboundBufferPoolSize = 8;
+        private MaskKeyProvider maskKeyProvider;
+        private boolean messageStreaming;
         private boolean http2Enabled;
 
         /**
@@ -518,6 +573,46 @@ public Builder setMaxOutboundDataBytes(final long v) {
             return this;
         }
 
+        /**
+         * Sets the maximum number of idle outbound frame buffers retained per size class.
+         *
+         * <p>A value of {@code 0} disables pooling of outbound frame buffers.</p>
+         *
+         * @param v max idle buffers per size class (must be &gt;= 0)
+         * @return this builder
+         * @since 5.7
+         */
+        public Builder setOutboundBufferPoolSize(final int v) {
+            this.outboundBufferPoolSize = v;
+            return this;
+        }
+
+        /**
+         * Sets the source of the masking keys applied to outbound frames.
+         *
+         * <p>Keys must be unpredictable as required by RFC 6455 section 5.3.</p>
+         *
+         * @param v mask key provider, or {@code null} to use {@link ThreadLocalMaskKeyProvider#INSTANCE}
+         * @return this builder
+         * @since 5.7
+         */
+        public Builder setMaskKeyProvider(final MaskKeyProvider v) {
+            this.maskKeyProvider = v;
+            return this;
+        }
+
+        /**
+         * Enables delivery of inbound message fragments to the listener as they arrive.
+         *
+         * @param v {@code true} to stream message fragments, {@code false} to deliver complete messages only
+         * @return this builder
+         * @since 5.7
+         */
+        public Builder enableMessageStreaming(final boolean v) {
+            this.messageStreaming = v;
+            return this;
+        }
+
         /**
          * Enables HTTP/2 Extended CONNECT (RFC 8441) for supported endpoints.
          *
@@ -562,6 +657,9 @@ public WebSocketClientConfig build() {
             if (maxOutboundDataBytes < 0) {
                 throw new IllegalArgumentException("maxOutboundDataBytes >= 0");
             }
+            if (outboundBufferPoolSize < 0) {
+                throw new IllegalArgumentException("outboundBufferPoolSize >= 0");
+            }
             return new WebSocketClientConfig(
                     connectTimeout, subprotocols,
                     perMessageDeflateEnabled, offerServerNoContextTakeover, offerClientNoContextTakeover,
@@ -571,6 +669,9 @@ public WebSocketClientConfig build() {
                     autoPong, closeWaitTimeout, maxMessageSize,
                     maxOutboundControlQueue,
                     maxOutboundDataBytes,
+                    outboundBufferPoolSize,
+                    maskKeyProvider,
+                    messageStreaming,
                     http2Enabled
             );
         }
@@ -50,27 +50,62 @@ default void onOpen(WebSocket webSocket) {
     }
 
     /**
-     * Invoked when a complete text message has been received.
+     * Invoked when a complete text message, or with message streaming enabled
+     * a part of a text message, has been received.
      *
      * @param data characters of the message; the buffer is only valid
      *             for the duration of the callback.
-     * @param last always {@code true} for now; reserved for future
-     *             streaming support.
+     * @param last {@code true} if this is the final part of the message; always
+     *             {@code true} unless message streaming is enabled.
+     * @see WebSocketClientConfig#isMessageStreamingEnabled()
      */
     default void onText(CharBuffer data, boolean last) {
     }
 
     /**
-     * Invoked when a complete binary message has been received.
+     * Invoked when a complete binary message, or with message streaming enabled
+     * a fragment of a binary message, has been received.
      *
      * @param data binary payload; the buffer is only valid for the
      *             duration of the callback.
-     * @param last always {@code true} for now; reserved for future
-     *             streaming support.
+     * @param last {@code true} if this is the final part of the message; always
+     *             {@code true} unless message streaming is enabled.
+     * @see WebSocketClientConfig#isMessageStreamingEnabled()
      */
     default void onBinary(ByteBuffer data, boolean last) {
     }
 
+    /**
+     * Invoked when a complete binary message has been received and message
+     * streaming is disabled. A message received in several frames is passed
+     * as the sequence of buffers it was reassembled into, without joining them.
+     *
+     * <p>The default implementation joins the segments into one buffer, copying
+     * only if there is more than one, and passes it to
+     * {@link #onBinary(ByteBuffer, boolean)}. Override this method to consume
+     * large messages without the extra copy.</p>
+     *
+     * @param segments read-only views of the message content, in order; the buffers
+     *                 are only valid for the duration of the callback.
+     * @since 5.7
+     */
+    default void onBinaryMessage(final ByteBuffer[] segments) {
+        if (segments.length == 1) {
+            onBinary(segments[0], true);
+            return;
+        }
+        int size = 0;
+        for (final ByteBuffer segment : segments) {
+            size += segment.remaining();
+        }
+        final ByteBuffer data = ByteBuffer.allocate(size);
+        for (final ByteBuffer segment : segments) {
+            data.put(segment.duplicate());
+        }
+        data.flip();
+        onBinary(data.asReadOnlyBuffer(), true);
+    }
+
     /**
      * Invoked when a PING control frame is received.
      */
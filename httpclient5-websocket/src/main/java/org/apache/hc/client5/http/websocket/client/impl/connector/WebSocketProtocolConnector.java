@@ -88,6 +88,11 @@ public void onBinary(final ByteBuffer data, final boolean last) {
                     listener.onBinary(data, last);
                 }
 
+                @Override
+                public void onBinaryMessage(final ByteBuffer[] segments) {
+                    listener.onBinaryMessage(segments);
+                }
+
                 @Override
                 public void onPing(final ByteBuffer data) {
                     listener.onPing(data);
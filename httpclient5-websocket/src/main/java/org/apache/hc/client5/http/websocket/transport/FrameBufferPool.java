@@ -0,0 +1,141 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Bounded, size-classed pool of outbound frame buffers.
+ *
+ * <p>Buffers are grouped in power-of-two size classes between {@link #MIN_CLASS_SIZE}
+ * and the smallest power of two that fits {@code maxBufferSize} (capped at
+ * {@link #MAX_CLASS_SIZE}). Each class retains at
+ * most {@code maxPerClass} idle buffers; requests larger than the biggest class are
+ * served with unpooled buffers that are simply dropped on release.</p>
+ *
+ * <p>Buffers may be leased from any thread and released from another (typically
+ * leased by the application thread building a frame and released by the I/O thread
+ * once the frame has been fully written).</p>
+ */
+@Internal
+final class FrameBufferPool {
+
+    static final int MIN_CLASS_SIZE = 256;
+
+    static final int MAX_CLASS_SIZE = 1 << 20;
+
+    private final boolean direct;
+    private final int maxPerClass;
+    private final int maxClassSize;
+    private final Queue<ByteBuffer>[] classes;
+    private final AtomicInteger[] idle;
+
+    @SuppressWarnings("unchecked")
+    FrameBufferPool(final boolean direct, final int maxBufferSize, final int maxPerClass) {
+        this.direct = direct;
+        this.maxPerClass = Math.max(0, maxPerClass);
+        this.maxClassSize = classSize(Math.min(MAX_CLASS_SIZE, maxBufferSize));
+        final int n = classIndex(this.maxClassSize) + 1;
+        this.classes = new Queue[n];
+        this.idle = new AtomicInteger[n];
+        for (int i = 0; i < n; i++) {
+            this.classes[i] = new ConcurrentLinkedQueue<>();
+            this.idle[i] = new AtomicInteger();
+        }
+    }
+
+    static int classSize(final int size) {
+        if (size <= MIN_CLASS_SIZE) {
+            return MIN_CLASS_SIZE;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int classIndex(final int classSize) {
+        return Integer.numberOfTrailingZeros(classSize) - Integer.numberOfTrailingZeros(MIN_CLASS_SIZE);
+    }
+
+    boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Leases a cleared buffer with at least {@code size} bytes of capacity.
+     */
+    ByteBuffer acquire(final int size) {
+        if (maxPerClass > 0 && size > 0 && size <= maxClassSize) {
+            final int classSize = classSize(size);
+            final int index = classIndex(classSize);
+            final ByteBuffer buf = classes[index].poll();
+            if (buf != null) {
+                idle[index].decrementAndGet();
+                buf.clear();
+                return buf;
+            }
+            return allocate(classSize);
+        }
+        return allocate(size);
+    }
+
+    /**
+     * Returns a buffer previously obtained from {@link #acquire(int)} to the pool.
+     * Buffers that do not belong to a size class or exceed the per-class limit are dropped.
+     */
+    void release(final ByteBuffer buf) {
+        if (buf == null || maxPerClass == 0 || buf.isDirect() != direct || buf.isReadOnly()) {
+            return;
+        }
+        final int capacity = buf.capacity();
+        if (capacity > maxClassSize || classSize(capacity) != capacity) {
+            return;
+        }
+        final int index = classIndex(capacity);
+        if (idle[index].incrementAndGet() > maxPerClass) {
+            idle[index].decrementAndGet();
+            return;
+        }
+        classes[index].offer(buf);
+    }
+
+    int idleCount() {
+        int total = 0;
+        for (final AtomicInteger count : idle) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Accumulates the fragments of an inbound message in a chain of fixed-size segments
+ * leased from a {@link FrameBufferPool}.
+ *
+ * <p>Appending never reallocates or copies previously received data. The complete
+ * message is handed out as read-only views of its segments by {@link #segments()},
+ * leaving it to the listener to join them if it needs a contiguous buffer.
+ * {@link #release()} returns all segments to the pool.</p>
+ *
+ * <p>Instances are confined to the I/O thread.</p>
+ */
+@Internal
+final class SegmentedMessageBuffer {
+
+    static final int SEGMENT_SIZE = 16 * 1024;
+
+    private final FrameBufferPool pool;
+    private final List<ByteBuffer> segments;
+    private long size;
+
+    SegmentedMessageBuffer(final FrameBufferPool pool) {
+        this.pool = pool;
+        this.segments = new ArrayList<>();
+    }
+
+    long size() {
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Copies the remaining content of {@code src} into the segment chain.
+     * The position of {@code src} is left unchanged.
+     */
+    void append(final ByteBuffer src) {
+        final ByteBuffer in = src.duplicate();
+        size += in.remaining();
+        while (in.hasRemaining()) {
+            ByteBuffer tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (tail == null || !tail.hasRemaining()) {
+                tail = pool.acquire(SEGMENT_SIZE);
+                segments.add(tail);
+            }
+            final int n = Math.min(tail.remaining(), in.remaining());
+            final int limit = in.limit();
+            in.limit(in.position() + n);
+            tail.put(in);
+            in.limit(limit);
+        }
+    }
+
+    /**
+     * Returns read-only views of the accumulated content, one per segment, ready for
+     * reading. The views share the pooled segments and are only valid until
+     * {@link #release()}. An empty buffer yields a single empty view.
+     */
+    ByteBuffer[] segments() {
+        if (segments.isEmpty()) {
+            return new ByteBuffer[] {ByteBuffer.allocate(0).asReadOnlyBuffer()};
+        }
+        final ByteBuffer[] views = new ByteBuffer[segments.size()];
+        for (int i = 0; i < views.length; i++) {
+            final ByteBuffer view = segments.get(i).asReadOnlyBuffer();
+            view.flip();
+            views[i] = view;
+        }
+        return views;
+    }
+
+    /**
+     * Returns all segments to the pool and resets this buffer.
+     */
+    void release() {
+        for (final ByteBuffer segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        size = 0L;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Incremental UTF-8 decoder for text messages that arrive in several fragments.
+ *
+ * <p>Fragments are decoded as they are received into a character buffer that is
+ * reused from message to message. A code point split across fragment boundaries is
+ * carried over to the next fragment, so malformed input is detected as early as
+ * possible and independently of how the message was fragmented.</p>
+ *
+ * <p>Instances are confined to the I/O thread.</p>
+ */
+@Internal
+final class Utf8StreamDecoder {
+
+    static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Character buffers grown beyond this capacity by a large message are not retained.
+     */
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final CharsetDecoder decoder;
+    private final ByteBuffer carry;
+    private CharBuffer chars;
+
+    Utf8StreamDecoder() {
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.carry = ByteBuffer.allocate(4);
+        this.chars = CharBuffer.allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Prepares this decoder for a new message, discarding any pending state.
+     */
+    void reset() {
+        decoder.reset();
+        carry.clear();
+        if (chars.capacity() > MAX_RETAINED_CAPACITY) {
+            chars = CharBuffer.allocate(INITIAL_CAPACITY);
+        } else {
+            chars.clear();
+        }
+    }
+
+    /**
+     * Decodes the remaining content of {@code src} and appends the characters to the
+     * pending text. Trailing bytes of an incomplete code point are retained until the
+     * next fragment unless {@code endOfInput} is set.
+     *
+     * @throws CharacterCodingException if the input is not valid UTF-8
+     */
+    void decode(final ByteBuffer src, final boolean endOfInput) throws CharacterCodingException {
+        // Complete a code point split by the previous fragment one byte at a time
+        while (carry.position() > 0 && src.hasRemaining()) {
+            carry.put(src.get());
+            carry.flip();
+            decodeInto(carry, false);
+            carry.compact();
+        }
+        decodeInto(src, endOfInput);
+        if (src.hasRemaining()) {
+            carry.put(src);
+        }
+        if (endOfInput) {
+            if (carry.position() > 0) {
+                throw new MalformedInputException(carry.position());
+            }
+            for (;;) {
+                final CoderResult result = decoder.flush(chars);
+                if (!result.isOverflow()) {
+                    break;
+                }
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Returns the characters decoded since the last call to this method or to
+     * {@link #reset()}. The returned buffer shares its content with this decoder and
+     * is only valid until the next operation on it.
+     */
+    CharBuffer drain() {
+        chars.flip();
+        final CharBuffer text = chars.duplicate();
+        chars.clear();
+        return text;
+    }
+
+    /**
+     * Returns the number of characters decoded but not yet drained.
+     */
+    int pending() {
+        return chars.position();
+    }
+
+    private void decodeInto(final ByteBuffer src, final boolean endOfInput) throws CharacterCodingException {
+        for (;;) {
+            final CoderResult result = decoder.decode(src, chars, endOfInput);
+            if (result.isOverflow()) {
+                grow();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        final CharBuffer bigger = CharBuffer.allocate(Math.max(INITIAL_CAPACITY, chars.capacity() * 2));
+        chars.flip();
+        bigger.put(chars);
+        chars = bigger;
+    }
+
+}
@@ -90,11 +90,14 @@ public final class WebSocketSessionEngine {
     private ByteBuffer inbuf = ByteBuffer.allocate(4096);
     private int assemblingOpcode = -1;
     private boolean assemblingCompressed;
-    private ByteBuffer assemblingBuf;
+    private boolean assemblingStreamed;
     private long assemblingSize;
+    private final SegmentedMessageBuffer assembly;
+    private final Utf8StreamDecoder textDecoder = new Utf8StreamDecoder();
 
     // ---- write-side state ----
-    private final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+    private final WebSocketFrameWriter writer;
+    private final FrameBufferPool bufferPool;
     private final ExtensionChain.EncodeChain encChain;
     private final int rsvMask;
     final ConcurrentLinkedQueue<OutFrame> ctrlOutbound = new ConcurrentLinkedQueue<>();
@@ -141,6 +144,11 @@ public WebSocketSessionEngine(final WebSocketTransport transport,
         this.decChain = noExtensions ? null : chain.newDecodeChain();
         this.encChain = noExtensions ? null : chain.newEncodeChain();
         this.rsvMask = noExtensions ? 0 : chain.rsvMask();
+        this.assembly = new SegmentedMessageBuffer(
+                new FrameBufferPool(false, SegmentedMessageBuffer.SEGMENT_SIZE, 4));
+        this.writer = new WebSocketFrameWriter(cfg.getMaskKeyProvider());
+        this.bufferPool = new FrameBufferPool(cfg.isDirectBuffers(),
+                maskedHeaderSize(outChunk) + outChunk, cfg.getOutboundBufferPoolSize());
 
         this.facade = new Facade();
     }
@@ -246,6 +254,7 @@ public boolean onOutputReady() {
                         if (activeWrite.dataFrame) {
                             dataQueuedBytes.addAndGet(-activeWrite.size);
                         }
+                        recycle(activeWrite);
                         activeWrite = null;
                         framesThisTick++;
                     } else {
@@ -386,7 +395,7 @@ private void handleFrame() {
                     inbuf.clear();
                     return;
                 }
-                if (appendToMessage(payload) && fin) {
+                if (appendToMessage(payload, fin) && fin) {
                     deliverAssembledMessage();
                 }
                 break;
@@ -407,10 +416,9 @@ private void handleFrame() {
                     break;
                 }
                 if (r1) {
-                    final byte[] comp = WebSocketBufferOps.toBytes(payload);
-                    final byte[] plain;
+                    final ByteBuffer plain;
                     try {
-                        plain = decChain.decode(comp, cfg.getMaxMessageSize());
+                        plain = decChain.decode(payload, true, cfg.getMaxMessageSize());
                     } catch (final WebSocketProtocolException wspe) {
                         initiateClose(wspe.closeCode, wspe.getMessage());
                         inbuf.clear();
@@ -420,7 +428,7 @@ private void handleFrame() {
                         inbuf.clear();
                         return;
                     }
-                    deliverSingle(op, ByteBuffer.wrap(plain));
+                    deliverSingle(op, plain.asReadOnlyBuffer());
                 } else {
                     deliverSingle(op, payload.asReadOnlyBuffer());
                 }
@@ -484,43 +492,23 @@ private void handleCloseFrame(final ByteBuffer payload) {
     private void startMessage(final int opcode, final ByteBuffer payload, final boolean rsv1) {
         assemblingOpcode = opcode;
         assemblingCompressed = rsv1 && decChain != null;
-        final int initial = Math.max(1024, payload.remaining());
-        assemblingBuf = ByteBuffer.allocate(initial);
+        assemblingStreamed = cfg.isMessageStreamingEnabled();
         assemblingSize = 0L;
-        appendToMessage(payload);
-    }
-
-    private boolean appendToMessage(final ByteBuffer payload) {
-        final int n = payload.remaining();
-        assemblingSize += n;
-        if (cfg.getMaxMessageSize() > 0 && assemblingSize > cfg.getMaxMessageSize()) {
-            initiateClose(1009, "Message too big");
-            return false;
+        if (opcode == FrameOpcode.TEXT) {
+            textDecoder.reset();
         }
-        assemblingBuf = WebSocketBufferOps.ensureCapacity(assemblingBuf, n);
-        assemblingBuf.put(payload.asReadOnlyBuffer());
-        return true;
+        appendToMessage(payload, false);
     }
 
-    private void deliverAssembledMessage() {
-        assemblingBuf.flip();
-        final byte[] body = new byte[assemblingBuf.remaining()];
-        assemblingBuf.get(body);
-        final int op = assemblingOpcode;
-        final boolean compressed = assemblingCompressed;
-
-        assemblingOpcode = -1;
-        assemblingCompressed = false;
-        assemblingBuf = null;
-        assemblingSize = 0L;
-
-        byte[] data = body;
-        if (compressed && decChain != null) {
+    private boolean appendToMessage(final ByteBuffer payload, final boolean fin) {
+        ByteBuffer data = payload;
+        if (assemblingCompressed) {
+            // Inflate fragment by fragment instead of reassembling the compressed message
             try {
-                data = decChain.decode(body, cfg.getMaxMessageSize());
+                data = decChain.decode(payload, fin, cfg.getMaxMessageSize());
             } catch (final WebSocketProtocolException wspe) {
                 initiateClose(wspe.closeCode, wspe.getMessage());
-                return;
+                return false;
             } catch (final Exception e) {
                 try {
                     listener.onError(e);
@@ -528,53 +516,101 @@ private void deliverAssembledMessage() {
                     LOG.warn("WebSocket listener onError threw", ex);
                 }
                 initiateClose(1007, "Extension decode failed");
-                return;
+                return false;
             }
         }
-
-        if (op == FrameOpcode.TEXT) {
-            utf8Decoder.reset();
+        final int n = data.remaining();
+        assemblingSize += n;
+        if (cfg.getMaxMessageSize() > 0 && assemblingSize > cfg.getMaxMessageSize()) {
+            initiateClose(1009, "Message too big");
+            return false;
+        }
+        if (assemblingOpcode == FrameOpcode.TEXT) {
+            // Decode and validate text as it arrives; code points may span fragments
             try {
-                final CharBuffer cb = utf8Decoder.decode(ByteBuffer.wrap(data));
-                try {
-                    listener.onText(cb, true);
-                } catch (final Throwable ex) {
-                    LOG.warn("WebSocket listener onText threw", ex);
-                }
+                textDecoder.decode(data, fin);
             } catch (final CharacterCodingException cce) {
                 initiateClose(1007, "Invalid UTF-8 in text message");
+                return false;
             }
-        } else if (op == FrameOpcode.BINARY) {
-            try {
-                listener.onBinary(ByteBuffer.wrap(data).asReadOnlyBuffer(), true);
-            } catch (final Throwable ex) {
-                LOG.warn("WebSocket listener onBinary threw", ex);
+            if (assemblingStreamed && (fin || textDecoder.pending() > 0)) {
+                deliverText(textDecoder.drain(), fin);
             }
+        } else if (assemblingStreamed) {
+            // Hand each fragment to the listener as it arrives; nothing is retained
+            deliverBinary(data.asReadOnlyBuffer(), fin);
+        } else {
+            assembly.append(data);
+        }
+        return true;
+    }
+
+    private void deliverAssembledMessage() {
+        final int op = assemblingOpcode;
+        final boolean streamed = assemblingStreamed;
+
+        assemblingOpcode = -1;
+        assemblingCompressed = false;
+        assemblingStreamed = false;
+        assemblingSize = 0L;
+
+        if (streamed) {
+            return;
+        }
+        if (op == FrameOpcode.TEXT) {
+            deliverText(textDecoder.drain(), true);
+            return;
+        }
+        try {
+            deliverBinaryMessage(assembly.segments());
+        } finally {
+            assembly.release();
         }
     }
 
     private void deliverSingle(final int op, final ByteBuffer payloadRO) {
         if (op == FrameOpcode.TEXT) {
-            utf8Decoder.reset();
+            textDecoder.reset();
             try {
-                final CharBuffer cb = utf8Decoder.decode(payloadRO);
-                try {
-                    listener.onText(cb, true);
-                } catch (final Throwable ex) {
-                    LOG.warn("WebSocket listener onText threw", ex);
-                }
+                textDecoder.decode(payloadRO, true);
             } catch (final CharacterCodingException cce) {
                 initiateClose(1007, "Invalid UTF-8 in text message");
+                return;
             }
+            deliverText(textDecoder.drain(), true);
         } else if (op == FrameOpcode.BINARY) {
-            try {
-                listener.onBinary(payloadRO, true);
-            } catch (final Throwable ex) {
-                LOG.warn("WebSocket listener onBinary threw", ex);
+            if (cfg.isMessageStreamingEnabled()) {
+                deliverBinary(payloadRO, true);
+            } else {
+                deliverBinaryMessage(new ByteBuffer[] {payloadRO});
             }
         }
     }
 
+    private void deliverText(final CharBuffer text, final boolean last) {
+        try {
+            listener.onText(text, last);
+        } catch (final Throwable ex) {
+            LOG.warn("WebSocket listener onText threw", ex);
+        }
+    }
+
+    private void deliverBinary(final ByteBuffer data, final boolean last) {
+        try {
+            listener.onBinary(data, last);
+        } catch (final Throwable ex) {
+            LOG.warn("WebSocket listener onBinary threw", ex);
+        }
+    }
+
+    private void deliverBinaryMessage(final ByteBuffer[] segments) {
+        try {
+            listener.onBinaryMessage(segments);
+        } catch (final Throwable ex) {
+            LOG.warn("WebSocket listener onBinary threw", ex);
+        }
+    }
+
     // ---- inbound helpers ----
 
     private void appendToInbuf(final ByteBuffer src) {
@@ -639,11 +675,13 @@ boolean enqueueCtrl(final OutFrame frame) {
         final boolean closeFrame = isCloseFrame(frame.buf);
 
         if (!closeFrame && (!open.get() || closeSent.get())) {
+            recycle(frame);
             return false;
         }
 
         if (closeFrame) {
             if (!closeSent.compareAndSet(false, true)) {
+                recycle(frame);
                 return false;
             }
             // RFC 6455 §5.5.1: no data frames may be sent after Close
@@ -652,10 +690,12 @@ boolean enqueueCtrl(final OutFrame frame) {
                 if (queued.dataFrame) {
                     dataQueuedBytes.addAndGet(-queued.size);
                 }
+                recycle(queued);
             }
         } else {
             final int max = cfg.getMaxOutboundControlQueue();
             if (max > 0 && ctrlOutbound.size() >= max) {
+                recycle(frame);
                 return false;
             }
         }
@@ -666,12 +706,14 @@ boolean enqueueCtrl(final OutFrame frame) {
 
     boolean enqueueData(final OutFrame frame) {
         if (!open.get() || closeSent.get()) {
+            recycle(frame);
             return false;
         }
         final long limit = cfg.getMaxOutboundDataBytes();
         final long newSize = dataQueuedBytes.addAndGet(frame.size);
         if (OutboundFlowSupport.exceedsOutboundByteLimit(limit, newSize - frame.size, frame.size)) {
             dataQueuedBytes.addAndGet(-frame.size);
+            recycle(frame);
             return false;
         }
         dataOutbound.offer(frame);
@@ -683,10 +725,12 @@ private void drainAndRelease() {
         if (!released.compareAndSet(false, true)) {
             return;
         }
+        assembly.release();
         if (activeWrite != null) {
             if (activeWrite.dataFrame) {
                 dataQueuedBytes.addAndGet(-activeWrite.size);
             }
+            recycle(activeWrite);
             activeWrite = null;
         }
         OutFrame f;
@@ -694,11 +738,13 @@ private void drainAndRelease() {
             if (f.dataFrame) {
                 dataQueuedBytes.addAndGet(-f.size);
             }
+            recycle(f);
         }
         while ((f = dataOutbound.poll()) != null) {
             if (f.dataFrame) {
                 dataQueuedBytes.addAndGet(-f.size);
             }
+            recycle(f);
         }
         // Close the encoder and decoder chains coordinated with try/finally so a failure closing
         // one still closes the other, then cancel the close timeout unconditionally. Each chain's
@@ -733,32 +779,15 @@ private static int maskedHeaderSize(final int payloadLen) {
     }
 
     OutFrame buildFrame(final int opcode, final ByteBuffer payload, final boolean fin, final boolean dataFrame) {
-        final ByteBuffer ro = payload == null ? ByteBuffer.allocate(0) : payload.asReadOnlyBuffer();
-        final int len = ro.remaining();
-        final int totalSize = maskedHeaderSize(len) + len;
-
-        final ByteBuffer buf = cfg.isDirectBuffers()
-                ? ByteBuffer.allocateDirect(totalSize)
-                : ByteBuffer.allocate(totalSize);
-
-        buf.clear();
-        writer.frameInto(opcode, ro, fin, true, buf);
-        buf.flip();
-
-        return new OutFrame(buf, dataFrame);
+        return buildFrameWithRsv(opcode, payload, fin, 0, dataFrame);
     }
 
     OutFrame buildFrameWithRsv(final int opcode, final ByteBuffer payload, final boolean fin,
                                final int rsvBits, final boolean dataFrame) {
         final ByteBuffer ro = payload == null ? ByteBuffer.allocate(0) : payload.asReadOnlyBuffer();
         final int len = ro.remaining();
-        final int totalSize = maskedHeaderSize(len) + len;
-
-        final ByteBuffer buf = cfg.isDirectBuffers()
-                ? ByteBuffer.allocateDirect(totalSize)
-                : ByteBuffer.allocate(totalSize);
 
-        buf.clear();
+        final ByteBuffer buf = bufferPool.acquire(maskedHeaderSize(len) + len);
         writer.frameIntoWithRSV(opcode, ro, fin, true, rsvBits, buf);
         buf.flip();
 
@@ -766,19 +795,18 @@ OutFrame buildFrameWithRsv(final int opcode, final ByteBuffer payload, final boo
     }
 
     private OutFrame buildCloseEcho(final ByteBuffer payload) {
-        final ByteBuffer ro = payload == null ? ByteBuffer.allocate(0) : payload.asReadOnlyBuffer();
-        final int len = ro.remaining();
-        final int totalSize = maskedHeaderSize(len) + len;
-
-        final ByteBuffer buf = cfg.isDirectBuffers()
-                ? ByteBuffer.allocateDirect(totalSize)
-                : ByteBuffer.allocate(totalSize);
+        return buildFrame(FrameOpcode.CLOSE, payload, true, false);
+    }
 
-        buf.clear();
-        writer.frameInto(FrameOpcode.CLOSE, ro, true, true, buf);
-        buf.flip();
+    /**
+     * Returns the buffer of a frame that has been written or discarded to the pool.
+     */
+    private void recycle(final OutFrame frame) {
+        bufferPool.release(frame.buf);
+    }
 
-        return new OutFrame(buf, false);
+    int idleFrameBuffers() {
+        return bufferPool.idleCount();
     }
 
     private OutFrame buildDataFrame(final int opcode, final ByteBuffer payload,
@@ -786,11 +814,10 @@ private OutFrame buildDataFrame(final int opcode, final ByteBuffer payload,
         if (encChain == null) {
             return buildFrame(opcode, payload, fin, true);
         }
-        final byte[] plain = WebSocketBufferOps.toBytes(payload);
-        final WebSocketExtensionChain.Encoded enc =
-                encChain.encode(plain, firstFragment, fin);
+        final WebSocketExtensionChain.EncodedBuffer enc =
+                encChain.encode(payload, firstFragment, fin);
         final int rsv = enc.setRsvOnFirst && firstFragment ? rsvMask : 0;
-        return buildFrameWithRsv(opcode, ByteBuffer.wrap(enc.payload), fin, rsv, true);
+        return buildFrameWithRsv(opcode, enc.payload, fin, rsv, true);
     }
 
     // ---- close timeout (H2) ----
@@ -905,13 +932,13 @@ private boolean sendDataMessage(final int opcode, final ByteBuffer data, final b
             try {
                 if (encChain != null && outOpcode == -1 && fin) {
                     // Compress whole message, then fragment the compressed payload
-                    final byte[] plain = WebSocketBufferOps.toBytes(data);
-                    final WebSocketExtensionChain.Encoded enc =
-                            encChain.encode(plain, true, true);
+                    // The encoder output buffer is reused; it is fully framed before the lock is released
+                    final WebSocketExtensionChain.EncodedBuffer enc =
+                            encChain.encode(data.duplicate(), true, true);
                     final OutboundFlowSupport.SendResult sendResult = OutboundFlowSupport.sendFragmented(
                             opcode,
                             outOpcode,
-                            ByteBuffer.wrap(enc.payload),
+                            enc.payload,
                             true,
                             outChunk,
                             true,
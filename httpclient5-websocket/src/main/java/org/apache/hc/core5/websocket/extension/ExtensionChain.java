@@ -26,10 +26,13 @@
  */
 package org.apache.hc.core5.websocket.extension;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.websocket.WebSocketBufferOps;
 
 /**
  * Simple single-step chain; if multiple extensions are added they are applied in order.
@@ -113,6 +116,31 @@ public WebSocketExtensionChain.Encoded encode(final byte[] data, final boolean f
             return new WebSocketExtensionChain.Encoded(out, setRsv1);
         }
 
+        /**
+         * Encode one fragment through the chain without converting it to a byte array.
+         * The returned payload may be backed by a buffer owned by the last encoder and is only
+         * valid until the next call.
+         *
+         * @since 5.7
+         */
+        public WebSocketExtensionChain.EncodedBuffer encode(final ByteBuffer data, final boolean first, final boolean fin) {
+            if (encs.isEmpty()) {
+                return new WebSocketExtensionChain.EncodedBuffer(data, false);
+            }
+            ByteBuffer out = data;
+            boolean setRsv1 = false;
+            boolean firstExt = true;
+            for (final WebSocketExtensionChain.Encoder e : encs) {
+                final WebSocketExtensionChain.EncodedBuffer res = e.encode(out, first, fin);
+                out = res.payload;
+                if (first && firstExt && res.setRsvOnFirst) {
+                    setRsv1 = true;
+                }
+                firstExt = false;
+            }
+            return new WebSocketExtensionChain.EncodedBuffer(out, setRsv1);
+        }
+
         /**
          * Releases native resources held by the encoders in this chain. Every encoder is closed even
          * if a previous one fails; the first failure is rethrown with the rest attached as suppressed.
@@ -140,9 +168,12 @@ public void close() {
 
     public static final class DecodeChain {
         private final List<WebSocketExtensionChain.Decoder> decs;
+        // fragments buffered for non-streaming decoders, by decoder index
+        private final ByteBuffer[] pending;
 
         public DecodeChain(final List<WebSocketExtensionChain.Decoder> decs) {
             this.decs = decs;
+            this.pending = new ByteBuffer[decs.size()];
         }
 
         /**
@@ -168,6 +199,52 @@ public byte[] decode(final byte[] data, final long maxDecodedSize) throws Except
             return out;
         }
 
+        /**
+         * Decode the next fragment of a message (reverse order if stacking), returning the
+         * output produced so far. Streaming decoders process the fragment immediately; input of
+         * the others is buffered by the chain until {@code fin} and decoded as a whole message.
+         * The returned buffer may be owned by a decoder and is only valid until the next call.
+         *
+         * @since 5.7
+         */
+        public ByteBuffer decode(final ByteBuffer fragment, final boolean fin, final long maxDecodedSize) throws Exception {
+            ByteBuffer out = fragment;
+            for (int i = decs.size() - 1; i >= 0; i--) {
+                final WebSocketExtensionChain.Decoder d = decs.get(i);
+                if (d instanceof WebSocketExtensionChain.StreamingDecoder) {
+                    out = ((WebSocketExtensionChain.StreamingDecoder) d).decode(out, fin, maxDecodedSize);
+                } else {
+                    out = bufferOrDecode(i, d, out, fin, maxDecodedSize);
+                }
+            }
+            return out;
+        }
+
+        private ByteBuffer bufferOrDecode(final int index, final WebSocketExtensionChain.Decoder d,
+                                          final ByteBuffer input, final boolean fin,
+                                          final long maxDecodedSize) throws Exception {
+            ByteBuffer buf = pending[index];
+            if (!fin) {
+                buf = WebSocketBufferOps.ensureCapacity(
+                        buf != null ? buf : ByteBuffer.allocate(Math.max(1024, input.remaining())),
+                        input.remaining());
+                buf.put(input.duplicate());
+                pending[index] = buf;
+                return ByteBuffer.allocate(0);
+            }
+            final byte[] message;
+            if (buf != null) {
+                buf = WebSocketBufferOps.ensureCapacity(buf, input.remaining());
+                buf.put(input.duplicate());
+                buf.flip();
+                message = WebSocketBufferOps.toBytes(buf);
+                pending[index] = null;
+            } else {
+                message = WebSocketBufferOps.toBytes(input);
+            }
+            return ByteBuffer.wrap(d.decode(message, maxDecodedSize));
+        }
+
         /**
          * Releases native resources held by the decoders in this chain. Every decoder is closed even
          * if a previous one fails; the first failure is rethrown with the rest attached as suppressed.
@@ -175,6 +252,7 @@ public byte[] decode(final byte[] data, final long maxDecodedSize) throws Except
          * @since 5.7
          */
         public void close() {
+            Arrays.fill(pending, null);
             RuntimeException failure = null;
             for (final WebSocketExtensionChain.Decoder d : decs) {
                 try {
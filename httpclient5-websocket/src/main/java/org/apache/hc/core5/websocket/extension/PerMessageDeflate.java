@@ -26,11 +26,13 @@
  */
 package org.apache.hc.core5.websocket.extension;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.websocket.WebSocketBufferOps;
 import org.apache.hc.core5.websocket.exceptions.WebSocketProtocolException;
 import org.apache.hc.core5.websocket.frame.FrameHeaderBits;
 
@@ -42,11 +44,21 @@
  * while {@code server_max_window_bits} limits the server's compression window (server-&gt;client).
  * The decoder can accept any server window size (8..15). The encoder currently requires
  * {@code client_max_window_bits} to be 15, due to JDK Deflater limitations.</p>
+ *
+ * <p>The encoder and decoder reuse their {@code Deflater}/{@code Inflater} output buffers
+ * across calls and decode a message fragment by fragment without reassembling the
+ * compressed message first.</p>
  */
 @Internal
 public final class PerMessageDeflate implements WebSocketExtensionChain {
     private static final byte[] TAIL = new byte[]{0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
 
+    /**
+     * Scratch buffers above this size are released once a message completes rather than
+     * kept for the next message.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
     private final boolean enabled;
     private final boolean serverNoContextTakeover;
     private final boolean clientNoContextTakeover;
@@ -77,14 +89,27 @@ public Encoder newEncoder() {
         }
         return new Encoder() {
             private final Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true); // raw DEFLATE
+            private byte[] in = new byte[0];
+            private byte[] out = new byte[1024];
 
             @Override
             public Encoded encode(final byte[] data, final boolean first, final boolean fin) {
-                final byte[] out = first && fin
-                        ? compressMessage(data)
-                        : compressFragment(data, fin);
+                final ByteBuffer encoded = encode(ByteBuffer.wrap(data != null ? data : new byte[0]), first, fin).payload;
+                return new Encoded(WebSocketBufferOps.toBytes(encoded), first);
+            }
+
+            @Override
+            public EncodedBuffer encode(final ByteBuffer data, final boolean first, final boolean fin) {
+                // A whole message (first && fin) and the final fragment strip the 00 00 FF FF
+                // flush trailer. Non-final fragments must keep it so each intermediate empty
+                // stored block stays valid and the reassembled DEFLATE stream decodes
+                // (RFC 7692 section 7.2.1).
+                final int len = deflate(data, fin);
+                if (fin && clientNoContextTakeover) {
+                    def.reset();
+                }
                 // RSV1 on first compressed data frame only
-                return new Encoded(out, first);
+                return new EncodedBuffer(ByteBuffer.wrap(out, 0, len), first);
             }
 
             @Override
@@ -92,58 +117,62 @@ public void close() {
                 def.end();
             }
 
-            private byte[] compressMessage(final byte[] data) {
-                return doDeflate(data, true, true, clientNoContextTakeover);
-            }
-
-            private byte[] compressFragment(final byte[] data, final boolean fin) {
-                // Strip the 00 00 FF FF flush trailer only on the final fragment; non-final
-                // fragments must keep it so each intermediate empty stored block stays valid
-                // and the reassembled DEFLATE stream decodes (RFC 7692 section 7.2.1).
-                return doDeflate(data, fin, fin, fin && clientNoContextTakeover);
-            }
-
-            private byte[] doDeflate(final byte[] data,
-                                     final boolean fin,
-                                     final boolean stripTail,
-                                     final boolean maybeReset) {
+            private int deflate(final ByteBuffer data, final boolean stripTail) {
                 // Empty input is deflated through SYNC_FLUSH as well: an empty message or empty
                 // final fragment must compress to the single octet 0x00 once the 00 00 FF FF flush
                 // trailer is stripped (RFC 7692 section 7.2.3.6), not to an empty payload.
-                final byte[] input = data != null ? data : new byte[0];
-                def.setInput(input);
-                final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(128, input.length / 2));
-                final byte[] buf = new byte[Math.min(16384, Math.max(1024, input.length))];
+                final int inLen = data != null ? data.remaining() : 0;
+                if (inLen > 0 && data.hasArray()) {
+                    def.setInput(data.array(), data.arrayOffset() + data.position(), inLen);
+                    data.position(data.limit());
+                } else {
+                    if (in.length < inLen) {
+                        in = new byte[inLen];
+                    }
+                    if (inLen > 0) {
+                        data.get(in, 0, inLen);
+                    }
+                    def.setInput(in, 0, inLen);
+                }
+                if (out.length > MAX_RETAINED_BUFFER) {
+                    out = new byte[1024];
+                }
+                if (out.length < inLen / 2) {
+                    out = new byte[Math.min(MAX_RETAINED_BUFFER, inLen / 2)];
+                }
                 // Drain until a SYNC_FLUSH leaves the output buffer partly filled. Testing
                 // needsInput() would stop as soon as the input is consumed, which can drop the
                 // trailing 00 00 FF FF flush bytes when the buffer fills exactly and then have
                 // stripTail cut into real data.
-                int n;
-                do {
-                    n = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
-                    if (n > 0) {
-                        out.write(buf, 0, n);
+                int pos = 0;
+                for (;;) {
+                    if (pos == out.length) {
+                        out = Arrays.copyOf(out, out.length << 1);
                     }
-                } while (n == buf.length);
-                byte[] all = out.toByteArray();
+                    final int space = out.length - pos;
+                    final int n = def.deflate(out, pos, space, Deflater.SYNC_FLUSH);
+                    pos += n;
+                    if (n < space) {
+                        break;
+                    }
+                }
                 if (stripTail) {
                     // Strip the trailing 00 00 FF FF SYNC_FLUSH marker. When nothing remains the
                     // message (or final fragment) is empty; RFC 7692 section 7.2.3.6 represents an
                     // empty payload as the single octet 0x00, not as an empty payload. A fresh
                     // Deflater already yields 0x00 here, but one holding context (context takeover)
                     // emits only the 4-octet marker, so the 0x00 must be supplied explicitly.
-                    if (all.length > 4) {
-                        final byte[] trimmed = new byte[all.length - 4];
-                        System.arraycopy(all, 0, trimmed, 0, trimmed.length);
-                        all = trimmed;
+                    if (pos > 4) {
+                        pos -= 4;
                     } else {
-                        all = new byte[]{0x00};
+                        out[0] = 0x00;
+                        pos = 1;
                     }
                 }
-                if (fin && maybeReset) {
-                    def.reset();
+                if (in.length > MAX_RETAINED_BUFFER) {
+                    in = new byte[0];
                 }
-                return all;
+                return pos;
             }
         };
     }
@@ -153,8 +182,11 @@ public Decoder newDecoder() {
         if (!enabled) {
             return payload -> payload;
         }
-        return new Decoder() {
+        return new StreamingDecoder() {
             private final Inflater inf = new Inflater(true);
+            private byte[] in = new byte[0];
+            private byte[] out = new byte[1024];
+            private long produced;
 
             @Override
             public byte[] decode(final byte[] compressedMessage) throws Exception {
@@ -163,37 +195,64 @@ public byte[] decode(final byte[] compressedMessage) throws Exception {
 
             @Override
             public byte[] decode(final byte[] compressedMessage, final long maxDecodedSize) throws Exception {
-                final byte[] withTail;
-                if (compressedMessage == null || compressedMessage.length == 0) {
-                    withTail = TAIL.clone();
-                } else {
-                    withTail = new byte[compressedMessage.length + 4];
-                    System.arraycopy(compressedMessage, 0, withTail, 0, compressedMessage.length);
-                    System.arraycopy(TAIL, 0, withTail, compressedMessage.length, 4);
+                final ByteBuffer src = ByteBuffer.wrap(compressedMessage != null ? compressedMessage : new byte[0]);
+                return WebSocketBufferOps.toBytes(decode(src, true, maxDecodedSize));
+            }
+
+            @Override
+            public ByteBuffer decode(final ByteBuffer fragment, final boolean fin, final long maxDecodedSize) throws Exception {
+                if (out.length > MAX_RETAINED_BUFFER) {
+                    out = new byte[1024];
                 }
+                int pos = inflate(fragment, 0, maxDecodedSize);
+                if (fin) {
+                    // The sender strips the 00 00 FF FF flush trailer from the final fragment
+                    inf.setInput(TAIL);
+                    pos = inflate(null, pos, maxDecodedSize);
+                    produced = 0L;
+                    if (serverNoContextTakeover) {
+                        inf.reset();
+                    }
+                }
+                return ByteBuffer.wrap(out, 0, pos);
+            }
 
-                inf.setInput(withTail);
-                final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(128, withTail.length * 2));
-                final byte[] buf = new byte[Math.min(16384, Math.max(1024, withTail.length * 2))];
-                long produced = 0L;
-                while (!inf.needsInput()) {
-                    final int n = inf.inflate(buf);
-                    if (n > 0) {
-                        // Enforce the decoded size cap during inflation, not after, so a small
-                        // compressed payload cannot expand into a huge buffer before we react.
-                        if (maxDecodedSize > 0L && produced + n > maxDecodedSize) {
-                            throw new WebSocketProtocolException(1009, "Message too big");
-                        }
-                        out.write(buf, 0, n);
-                        produced += n;
+            private int inflate(final ByteBuffer src, final int start, final long maxDecodedSize) throws Exception {
+                if (src != null) {
+                    final int inLen = src.remaining();
+                    if (src.hasArray()) {
+                        inf.setInput(src.array(), src.arrayOffset() + src.position(), inLen);
+                        src.position(src.limit());
                     } else {
+                        if (in.length < inLen) {
+                            in = new byte[inLen];
+                        }
+                        src.get(in, 0, inLen);
+                        inf.setInput(in, 0, inLen);
+                    }
+                }
+                int pos = start;
+                for (;;) {
+                    if (pos == out.length) {
+                        out = Arrays.copyOf(out, out.length << 1);
+                    }
+                    final int n = inf.inflate(out, pos, out.length - pos);
+                    if (n == 0) {
                         break;
                     }
+                    // Enforce the decoded size cap during inflation, not after, so a small
+                    // compressed payload cannot expand into a huge buffer before we react.
+                    produced += n;
+                    if (maxDecodedSize > 0L && produced > maxDecodedSize) {
+                        produced = 0L;
+                        throw new WebSocketProtocolException(1009, "Message too big");
+                    }
+                    pos += n;
                 }
-                if (serverNoContextTakeover) {
-                    inf.reset();
+                if (in.length > MAX_RETAINED_BUFFER) {
+                    in = new byte[0];
                 }
-                return out.toByteArray();
+                return pos;
             }
 
             @Override
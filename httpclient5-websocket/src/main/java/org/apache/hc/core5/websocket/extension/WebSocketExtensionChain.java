@@ -26,7 +26,10 @@
  */
 package org.apache.hc.core5.websocket.extension;
 
+import java.nio.ByteBuffer;
+
 import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.websocket.WebSocketBufferOps;
 
 /**
  * Generic extension hook for payload transform (e.g., permessage-deflate).
@@ -64,12 +67,39 @@ public Encoded(final byte[] payload, final boolean setRsvOnFirst) {
         }
     }
 
+    /**
+     * Encoded fragment result backed by a buffer.
+     *
+     * @since 5.7
+     */
+    final class EncodedBuffer {
+        public final ByteBuffer payload;
+        public final boolean setRsvOnFirst;
+
+        public EncodedBuffer(final ByteBuffer payload, final boolean setRsvOnFirst) {
+            this.payload = payload;
+            this.setRsvOnFirst = setRsvOnFirst;
+        }
+    }
+
     interface Encoder {
         /**
          * Encode one fragment; return transformed payload and whether to set RSV on FIRST frame.
          */
         Encoded encode(byte[] data, boolean first, boolean fin);
 
+        /**
+         * Encode one fragment read from the remaining content of {@code data}. The returned
+         * payload may be backed by a buffer owned and reused by this encoder; it is only valid
+         * until the next call to this encoder.
+         *
+         * @since 5.7
+         */
+        default EncodedBuffer encode(final ByteBuffer data, final boolean first, final boolean fin) {
+            final Encoded encoded = encode(WebSocketBufferOps.toBytes(data), first, fin);
+            return new EncodedBuffer(ByteBuffer.wrap(encoded.payload), encoded.setRsvOnFirst);
+        }
+
         /**
          * Releases any native resources held by this encoder (e.g. a {@code Deflater}).
          *
@@ -105,4 +135,21 @@ default byte[] decode(final byte[] payload, final long maxDecodedSize) throws Ex
         default void close() {
         }
     }
+
+    /**
+     * Decoder that can decode a message fragment by fragment. Fragments for other
+     * decoders are buffered by {@link ExtensionChain.DecodeChain} until the end of
+     * the message.
+     *
+     * @since 5.7
+     */
+    interface StreamingDecoder extends Decoder {
+        /**
+         * Decode the next fragment of a message read from the remaining content of
+         * {@code fragment}, returning the output produced so far. The returned buffer may be
+         * owned and reused by this decoder; it is only valid until the next call to this decoder.
+         * The {@code maxDecodedSize} cap applies to the output of the whole message.
+         */
+        ByteBuffer decode(ByteBuffer fragment, boolean fin, long maxDecodedSize) throws Exception;
+    }
 }
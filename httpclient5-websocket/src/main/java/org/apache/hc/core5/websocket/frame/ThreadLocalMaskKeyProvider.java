@@ -0,0 +1,80 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.websocket.frame;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Default {@link MaskKeyProvider} that keeps a {@link SecureRandom} per thread and
+ * draws entropy for a batch of keys at a time.
+ *
+ * <p>A single shared {@code SecureRandom} serializes all threads building frames.
+ * With a generator per thread there is no contention, and refilling a batch of
+ * {@value #BATCH_SIZE} keys with one {@code nextBytes} call amortizes the cost of
+ * the underlying entropy source. Keys are never reused.</p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class ThreadLocalMaskKeyProvider implements MaskKeyProvider {
+
+    public static final ThreadLocalMaskKeyProvider INSTANCE = new ThreadLocalMaskKeyProvider();
+
+    static final int BATCH_SIZE = 64;
+
+    private final ThreadLocal<KeyBatch> batches = ThreadLocal.withInitial(KeyBatch::new);
+
+    @Override
+    public int nextMaskKey() {
+        return batches.get().next();
+    }
+
+    private static final class KeyBatch {
+
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] bytes = new byte[BATCH_SIZE * 4];
+        private final ByteBuffer keys = ByteBuffer.wrap(bytes);
+
+        KeyBatch() {
+            keys.position(keys.limit());
+        }
+
+        int next() {
+            if (!keys.hasRemaining()) {
+                random.nextBytes(bytes);
+                keys.clear();
+            }
+            return keys.getInt();
+        }
+
+    }
+
+}
@@ -35,7 +35,6 @@
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
-import java.security.SecureRandom;
 
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.websocket.message.CloseCodec;
@@ -48,8 +47,21 @@
 @Internal
 public final class WebSocketFrameWriter {
 
-    // RFC 6455 section 5.3 requires the masking key to be derived from a strong source of entropy.
-    private static final SecureRandom MASK_RNG = new SecureRandom();
+    private final MaskKeyProvider maskKeyProvider;
+
+    /**
+     * Creates a frame writer that draws masking keys from the given provider.
+     *
+     * @param maskKeyProvider the masking key source; {@code null} selects
+     *                        {@link ThreadLocalMaskKeyProvider#INSTANCE}.
+     */
+    public WebSocketFrameWriter(final MaskKeyProvider maskKeyProvider) {
+        this.maskKeyProvider = maskKeyProvider != null ? maskKeyProvider : ThreadLocalMaskKeyProvider.INSTANCE;
+    }
+
+    public WebSocketFrameWriter() {
+        this(null);
+    }
 
     // -- Text/Binary -----------------------------------------------------------
 
@@ -139,12 +151,29 @@ public ByteBuffer frameInto(final int opcode, final ByteBuffer payload, final bo
     public ByteBuffer frameIntoWithRSV(final int opcode, final ByteBuffer payload, final boolean fin,
                                        final boolean mask, final int rsvBits, final ByteBuffer out) {
         final int len = payload == null ? 0 : payload.remaining();
+        final int maskKey = headerInto(opcode, len, fin, mask, rsvBits, out);
+        if (len > 0) {
+            if (mask) {
+                maskInto(payload.asReadOnlyBuffer(), maskKey, out);
+            } else {
+                out.put(payload.asReadOnlyBuffer());
+            }
+        }
+        return out;
+    }
 
+    /**
+     * Writes the frame header, including the masking key if {@code mask} is set.
+     *
+     * @return the masking key, or {@code 0} if the frame is not masked.
+     */
+    private int headerInto(final int opcode, final int payloadLen, final boolean fin,
+                           final boolean mask, final int rsvBits, final ByteBuffer out) {
         if (FrameOpcode.isControl(opcode)) {
             if (!fin) {
                 throw new IllegalArgumentException("Control frames must not be fragmented (FIN=false)");
             }
-            if (len > 125) {
+            if (payloadLen > 125) {
                 throw new IllegalArgumentException("Control frame payload > 125 bytes");
             }
             if ((rsvBits & (RSV1 | RSV2 | RSV3)) != 0) {
@@ -155,40 +184,57 @@ public ByteBuffer frameIntoWithRSV(final int opcode, final ByteBuffer payload, f
         final int finBit = fin ? FIN : 0;
         out.put((byte) (finBit | rsvBits & (RSV1 | RSV2 | RSV3) | opcode & 0x0F));
 
-        if (len <= 125) {
-            out.put((byte) ((mask ? MASK_BIT : 0) | len));
-        } else if (len <= 0xFFFF) {
+        if (payloadLen <= 125) {
+            out.put((byte) ((mask ? MASK_BIT : 0) | payloadLen));
+        } else if (payloadLen <= 0xFFFF) {
             out.put((byte) ((mask ? MASK_BIT : 0) | 126));
-            out.putShort((short) len);
+            out.putShort((short) payloadLen);
         } else {
             out.put((byte) ((mask ? MASK_BIT : 0) | 127));
-            out.putLong(len & 0x7FFF_FFFF_FFFF_FFFFL);
+            out.putLong(payloadLen & 0x7FFF_FFFF_FFFF_FFFFL);
         }
 
         int maskInt = 0;
         if (mask) {
-            maskInt = MASK_RNG.nextInt();
+            maskInt = maskKeyProvider.nextMaskKey();
             out.put((byte) (maskInt >>> 24)).put((byte) (maskInt >>> 16))
                .put((byte) (maskInt >>> 8)).put((byte) maskInt);
         }
+        return maskInt;
+    }
 
-        if (len > 0) {
-            final ByteBuffer src = payload.asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
-            if (mask) {
-                int remaining = len;
-                while (remaining >= 4) {
-                    out.putInt(src.getInt() ^ maskInt);
-                    remaining -= 4;
-                }
-                final byte[] maskBytes = {(byte) (maskInt >>> 24), (byte) (maskInt >>> 16),
-                        (byte) (maskInt >>> 8), (byte) maskInt};
-                for (int i = len - remaining; remaining > 0; remaining--, i++) {
-                    out.put((byte) (src.get() ^ maskBytes[i & 3]));
-                }
-            } else {
-                out.put(src);
-            }
+    /**
+     * Copies the remaining content of {@code src} into {@code out}, masked with the given key.
+     * The source buffer is consumed; its content is left unchanged.
+     * <p>
+     * The payload is processed eight bytes at a time against the key replicated into a
+     * {@code long}, then four, then byte by byte for the tail. This works on heap and direct
+     * buffers alike and is independent of the byte order of either buffer.
+     * </p>
+     */
+    static void maskInto(final ByteBuffer src, final int maskKey, final ByteBuffer out) {
+        final ByteBuffer in = src.order() == ByteOrder.BIG_ENDIAN ? src : src.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final ByteBuffer dst = out.order() == ByteOrder.BIG_ENDIAN ? out : out.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final int len = in.remaining();
+        final long maskLong = (maskKey & 0xFFFF_FFFFL) << 32 | maskKey & 0xFFFF_FFFFL;
+        int remaining = len;
+        while (remaining >= 8) {
+            dst.putLong(in.getLong() ^ maskLong);
+            remaining -= 8;
+        }
+        if (remaining >= 4) {
+            dst.putInt(in.getInt() ^ maskKey);
+            remaining -= 4;
+        }
+        // len - remaining is a multiple of four here, so the tail starts at key byte 0
+        for (int shift = 24; remaining > 0; remaining--, shift -= 8) {
+            dst.put((byte) (in.get() ^ maskKey >>> shift));
+        }
+        if (in != src) {
+            src.position(src.limit());
+        }
+        if (dst != out) {
+            out.position(out.position() + len);
         }
-        return out;
     }
 }
@@ -28,6 +28,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.hc.core5.util.Timeout;
@@ -54,4 +55,25 @@ void builderDefaultsAndCustom() {
         assertEquals(2048, cfg.getMaxMessageSize());
         assertEquals(Timeout.ofSeconds(3), cfg.getConnectTimeout());
     }
+
+    @Test
+    void outboundBufferPoolSize() {
+        assertTrue(WebSocketClientConfig.custom().build().getOutboundBufferPoolSize() > 0);
+        assertEquals(0, WebSocketClientConfig.custom()
+                .setOutboundBufferPoolSize(0)
+                .build()
+                .getOutboundBufferPoolSize());
+        assertThrows(IllegalArgumentException.class, () -> WebSocketClientConfig.custom()
+                .setOutboundBufferPoolSize(-1)
+                .build());
+    }
+
+    @Test
+    void messageStreaming() {
+        assertFalse(WebSocketClientConfig.custom().build().isMessageStreamingEnabled());
+        assertTrue(WebSocketClientConfig.custom()
+                .enableMessageStreaming(true)
+                .build()
+                .isMessageStreamingEnabled());
+    }
 }
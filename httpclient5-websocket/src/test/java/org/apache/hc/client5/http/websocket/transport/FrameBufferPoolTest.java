@@ -0,0 +1,94 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FrameBufferPoolTest {
+
+    @Test
+    void sizeClasses() {
+        Assertions.assertEquals(256, FrameBufferPool.classSize(1));
+        Assertions.assertEquals(256, FrameBufferPool.classSize(256));
+        Assertions.assertEquals(512, FrameBufferPool.classSize(257));
+        Assertions.assertEquals(16384, FrameBufferPool.classSize(8206));
+    }
+
+    @Test
+    void releasedBufferIsReused() {
+        final FrameBufferPool pool = new FrameBufferPool(false, 8192, 2);
+        final ByteBuffer b1 = pool.acquire(100);
+        Assertions.assertEquals(256, b1.capacity());
+        b1.put((byte) 1).flip();
+        pool.release(b1);
+        Assertions.assertEquals(1, pool.idleCount());
+
+        final ByteBuffer b2 = pool.acquire(200);
+        Assertions.assertSame(b1, b2);
+        Assertions.assertEquals(0, b2.position());
+        Assertions.assertEquals(b2.capacity(), b2.limit());
+        Assertions.assertEquals(0, pool.idleCount());
+    }
+
+    @Test
+    void idleBuffersBoundedPerClass() {
+        final FrameBufferPool pool = new FrameBufferPool(true, 8192, 2);
+        final ByteBuffer b1 = pool.acquire(1000);
+        final ByteBuffer b2 = pool.acquire(1000);
+        final ByteBuffer b3 = pool.acquire(1000);
+        Assertions.assertTrue(b1.isDirect());
+        pool.release(b1);
+        pool.release(b2);
+        pool.release(b3);
+        Assertions.assertEquals(2, pool.idleCount());
+    }
+
+    @Test
+    void oversizedAndForeignBuffersNotPooled() {
+        final FrameBufferPool pool = new FrameBufferPool(false, 1024, 4);
+        final ByteBuffer big = pool.acquire(5000);
+        Assertions.assertEquals(5000, big.capacity());
+        pool.release(big);
+        pool.release(ByteBuffer.allocate(300));
+        pool.release(ByteBuffer.allocateDirect(256));
+        Assertions.assertEquals(0, pool.idleCount());
+    }
+
+    @Test
+    void poolingDisabled() {
+        final FrameBufferPool pool = new FrameBufferPool(false, 1024, 0);
+        final ByteBuffer b1 = pool.acquire(10);
+        Assertions.assertEquals(10, b1.capacity());
+        pool.release(b1);
+        Assertions.assertEquals(0, pool.idleCount());
+        Assertions.assertNotSame(b1, pool.acquire(10));
+    }
+
+}
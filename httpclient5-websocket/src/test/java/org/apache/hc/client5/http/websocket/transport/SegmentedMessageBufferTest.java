@@ -0,0 +1,141 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SegmentedMessageBufferTest {
+
+    private static ByteBuffer pattern(final int len, final int seed) {
+        final ByteBuffer b = ByteBuffer.allocate(len);
+        for (int i = 0; i < len; i++) {
+            b.put((byte) (seed + i));
+        }
+        b.flip();
+        return b;
+    }
+
+    private static void assertContent(final ByteBuffer expected, final ByteBuffer[] segments) {
+        final ByteBuffer remaining = expected.duplicate();
+        for (final ByteBuffer segment : segments) {
+            final ByteBuffer chunk = remaining.duplicate();
+            chunk.limit(chunk.position() + segment.remaining());
+            Assertions.assertEquals(chunk, segment);
+            remaining.position(chunk.limit());
+        }
+        Assertions.assertFalse(remaining.hasRemaining());
+    }
+
+    @Test
+    void smallMessageHeldInSingleSegment() {
+        final FrameBufferPool pool = new FrameBufferPool(false, SegmentedMessageBuffer.SEGMENT_SIZE, 4);
+        final SegmentedMessageBuffer buf = new SegmentedMessageBuffer(pool);
+        final ByteBuffer src = pattern(100, 0);
+        buf.append(src);
+        buf.append(pattern(50, 100));
+
+        Assertions.assertEquals(0, src.position());
+        Assertions.assertEquals(150, buf.size());
+        Assertions.assertEquals(1, buf.segmentCount());
+
+        final ByteBuffer[] segments = buf.segments();
+        Assertions.assertEquals(1, segments.length);
+        Assertions.assertEquals(pattern(150, 0), segments[0]);
+        Assertions.assertEquals(SegmentedMessageBuffer.SEGMENT_SIZE, segments[0].capacity());
+    }
+
+    @Test
+    void largeMessageSpansSegments() {
+        final FrameBufferPool pool = new FrameBufferPool(false, SegmentedMessageBuffer.SEGMENT_SIZE, 4);
+        final SegmentedMessageBuffer buf = new SegmentedMessageBuffer(pool);
+        final int len = SegmentedMessageBuffer.SEGMENT_SIZE * 2 + 17;
+        final ByteBuffer all = pattern(len, 7);
+        final ByteBuffer first = all.duplicate();
+        first.limit(1000);
+        final ByteBuffer rest = all.duplicate();
+        rest.position(1000);
+        buf.append(first);
+        buf.append(rest);
+
+        Assertions.assertEquals(len, buf.size());
+        Assertions.assertEquals(3, buf.segmentCount());
+        assertContent(all, buf.segments());
+    }
+
+    @Test
+    void segmentsExposeContentWithoutCopy() {
+        final FrameBufferPool pool = new FrameBufferPool(false, SegmentedMessageBuffer.SEGMENT_SIZE, 4);
+        final SegmentedMessageBuffer buf = new SegmentedMessageBuffer(pool);
+        final int len = SegmentedMessageBuffer.SEGMENT_SIZE + 17;
+        final ByteBuffer all = pattern(len, 3);
+        buf.append(all);
+
+        final ByteBuffer[] segments = buf.segments();
+        Assertions.assertEquals(2, segments.length);
+        Assertions.assertTrue(segments[0].isReadOnly());
+        Assertions.assertEquals(SegmentedMessageBuffer.SEGMENT_SIZE, segments[0].remaining());
+        Assertions.assertEquals(17, segments[1].remaining());
+        final ByteBuffer head = all.duplicate();
+        head.limit(SegmentedMessageBuffer.SEGMENT_SIZE);
+        Assertions.assertEquals(head, segments[0]);
+        final ByteBuffer tail = all.duplicate();
+        tail.position(SegmentedMessageBuffer.SEGMENT_SIZE);
+        Assertions.assertEquals(tail, segments[1]);
+
+        // views do not disturb the segments still owned by the buffer
+        segments[0].position(segments[0].limit());
+        assertContent(all, buf.segments());
+    }
+
+    @Test
+    void releaseReturnsSegmentsToPool() {
+        final FrameBufferPool pool = new FrameBufferPool(false, SegmentedMessageBuffer.SEGMENT_SIZE, 4);
+        final SegmentedMessageBuffer buf = new SegmentedMessageBuffer(pool);
+        buf.append(pattern(SegmentedMessageBuffer.SEGMENT_SIZE + 1, 0));
+        buf.release();
+
+        Assertions.assertEquals(0, buf.size());
+        Assertions.assertEquals(0, buf.segmentCount());
+        Assertions.assertEquals(2, pool.idleCount());
+
+        buf.append(pattern(10, 3));
+        Assertions.assertEquals(1, pool.idleCount());
+        assertContent(pattern(10, 3), buf.segments());
+    }
+
+    @Test
+    void emptyMessage() {
+        final SegmentedMessageBuffer buf = new SegmentedMessageBuffer(new FrameBufferPool(false, 1024, 1));
+        buf.append(ByteBuffer.allocate(0));
+        Assertions.assertEquals(1, buf.segments().length);
+        Assertions.assertEquals(0, buf.segments()[0].remaining());
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.websocket.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class Utf8StreamDecoderTest {
+
+    private static final String TEXT = "héllo € 😀 wörld";
+
+    @Test
+    void decodesAcrossEverySplitPoint() throws CharacterCodingException {
+        final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+        for (int split = 0; split <= bytes.length; split++) {
+            decoder.reset();
+            decoder.decode(ByteBuffer.wrap(bytes, 0, split), false);
+            final String head = decoder.drain().toString();
+            decoder.decode(ByteBuffer.wrap(bytes, split, bytes.length - split), true);
+            Assertions.assertEquals(TEXT, head + decoder.drain(), "split at " + split);
+        }
+    }
+
+    @Test
+    void decodesByteByByte() throws CharacterCodingException {
+        final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+        decoder.reset();
+        for (int i = 0; i < bytes.length; i++) {
+            decoder.decode(ByteBuffer.wrap(bytes, i, 1), i == bytes.length - 1);
+        }
+        Assertions.assertEquals(TEXT, decoder.drain().toString());
+    }
+
+    @Test
+    void malformedInputRejectedBeforeEndOfMessage() {
+        final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+        decoder.reset();
+        // 0xE2 0x28 can never be part of a valid sequence
+        Assertions.assertThrows(CharacterCodingException.class, () -> {
+            decoder.decode(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xE2 }), false);
+            decoder.decode(ByteBuffer.wrap(new byte[] { 0x28 }), false);
+        });
+    }
+
+    @Test
+    void truncatedSequenceRejectedAtEndOfMessage() throws CharacterCodingException {
+        final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xE2, (byte) 0x82 }), false);
+        Assertions.assertEquals(1, decoder.pending());
+        Assertions.assertThrows(CharacterCodingException.class, () ->
+                decoder.decode(ByteBuffer.allocate(0), true));
+    }
+
+    @Test
+    void growsForLargeTextAndShrinksOnReset() throws CharacterCodingException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Utf8StreamDecoder.MAX_RETAINED_CAPACITY * 2; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII)), true);
+        final CharBuffer text = decoder.drain();
+        Assertions.assertEquals(sb.toString(), text.toString());
+
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(new byte[] { 'x' }), true);
+        final CharBuffer small = decoder.drain();
+        Assertions.assertEquals("x", small.toString());
+        Assertions.assertEquals(Utf8StreamDecoder.INITIAL_CAPACITY, small.capacity());
+    }
+
+}
@@ -28,6 +28,10 @@
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -175,7 +179,185 @@ public Decoder newDecoder() {
         Assertions.assertTrue(engine.closeSent.get());
     }
 
+    @Test
+    void fragmentedBinaryDeliveredAsOneMessage() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom().build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(new byte[] { 1, 2 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(new byte[] { 3 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(new byte[] { 4, 5 }), true, false));
+
+        Assertions.assertEquals(1, listener.binary.size());
+        Assertions.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 }), listener.binary.get(0));
+        Assertions.assertEquals(Boolean.TRUE, listener.binaryLast.get(0));
+    }
+
+    @Test
+    void largeFragmentedBinaryHandedOutAsSegments() {
+        final List<ByteBuffer[]> messages = new ArrayList<>();
+        final WebSocketListener listener = new WebSocketListener() {
+
+            @Override
+            public void onBinaryMessage(final ByteBuffer[] segments) {
+                final ByteBuffer[] copies = new ByteBuffer[segments.length];
+                for (int i = 0; i < segments.length; i++) {
+                    Assertions.assertTrue(segments[i].isReadOnly());
+                    copies[i] = ByteBuffer.allocate(segments[i].remaining());
+                    copies[i].put(segments[i]).flip();
+                }
+                messages.add(copies);
+            }
+
+        };
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, WebSocketClientConfig.custom().build(), null, null);
+
+        final byte[] payload = new byte[SegmentedMessageBuffer.SEGMENT_SIZE * 2 + 100];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        final int half = payload.length / 2;
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(payload, 0, half), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(payload, half, payload.length - half), true, false));
+
+        Assertions.assertEquals(1, messages.size());
+        final ByteBuffer[] segments = messages.get(0);
+        Assertions.assertEquals(3, segments.length);
+        final ByteBuffer joined = ByteBuffer.allocate(payload.length);
+        for (final ByteBuffer segment : segments) {
+            joined.put(segment);
+        }
+        joined.flip();
+        Assertions.assertEquals(ByteBuffer.wrap(payload), joined);
+    }
+
+    @Test
+    void largeFragmentedBinaryJoinedForPlainListener() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, WebSocketClientConfig.custom().build(), null, null);
+
+        final byte[] payload = new byte[SegmentedMessageBuffer.SEGMENT_SIZE * 2 + 100];
+        Arrays.fill(payload, (byte) 7);
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(payload, 0, 10), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(payload, 10, payload.length - 10), true, false));
+
+        Assertions.assertEquals(1, listener.binary.size());
+        Assertions.assertEquals(ByteBuffer.wrap(payload), listener.binary.get(0));
+        Assertions.assertEquals(Boolean.TRUE, listener.binaryLast.get(0));
+    }
+
+    @Test
+    void fragmentedBinaryStreamedWhenEnabled() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .enableMessageStreaming(true)
+                .build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(new byte[] { 1, 2 }), false, false));
+        Assertions.assertEquals(1, listener.binary.size());
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(new byte[] { 3 }), true, false));
+
+        Assertions.assertEquals(2, listener.binary.size());
+        Assertions.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2 }), listener.binary.get(0));
+        Assertions.assertEquals(ByteBuffer.wrap(new byte[] { 3 }), listener.binary.get(1));
+        Assertions.assertEquals(Boolean.FALSE, listener.binaryLast.get(0));
+        Assertions.assertEquals(Boolean.TRUE, listener.binaryLast.get(1));
+
+        // a following unfragmented message is still delivered whole
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(new byte[] { 9 }), true, false));
+        Assertions.assertEquals(3, listener.binary.size());
+        Assertions.assertEquals(Boolean.TRUE, listener.binaryLast.get(2));
+    }
+
+    @Test
+    void streamedBinaryStillEnforcesMaxMessageSize() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .enableMessageStreaming(true)
+                .setMaxMessageSize(3)
+                .build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(new byte[] { 1, 2 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT, ByteBuffer.wrap(new byte[] { 3, 4 }), true, false));
+
+        Assertions.assertEquals(1, listener.binary.size());
+        Assertions.assertEquals(1009, listener.closeCode.get());
+    }
+
+    @Test
+    void fragmentedTextSplitInsideCodePoint() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom().build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        // "a\u20ac" with the euro sign split between the two fragments
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.TEXT,
+                ByteBuffer.wrap(new byte[] { 'a', (byte) 0xE2 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT,
+                ByteBuffer.wrap(new byte[] { (byte) 0x82, (byte) 0xAC }), true, false));
+
+        Assertions.assertEquals(Collections.singletonList("a\u20ac"), listener.texts);
+        Assertions.assertEquals(Collections.singletonList(Boolean.TRUE), listener.textLast);
+    }
+
+    @Test
+    void fragmentedTextStreamedWhenEnabled() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .enableMessageStreaming(true)
+                .build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.TEXT,
+                ByteBuffer.wrap(new byte[] { 'a', (byte) 0xE2 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT,
+                ByteBuffer.wrap(new byte[] { (byte) 0x82 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT,
+                ByteBuffer.wrap(new byte[] { (byte) 0xAC, 'b' }), true, false));
+
+        Assertions.assertEquals(Arrays.asList("a", "\u20acb"), listener.texts);
+        Assertions.assertEquals(Arrays.asList(Boolean.FALSE, Boolean.TRUE), listener.textLast);
+    }
+
+    @Test
+    void invalidUtf8RejectedBeforeFinalFragment() {
+        final CapturingListener listener = new CapturingListener();
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom().build();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), listener, cfg, null, null);
+
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter();
+        engine.onData(writer.frame(FrameOpcode.TEXT,
+                ByteBuffer.wrap(new byte[] { 'a', (byte) 0xE2 }), false, false));
+        engine.onData(writer.frame(FrameOpcode.CONT,
+                ByteBuffer.wrap(new byte[] { 0x28 }), false, false));
+
+        Assertions.assertEquals(1007, listener.closeCode.get());
+        Assertions.assertTrue(listener.texts.isEmpty());
+    }
+
     private static final class CapturingListener implements WebSocketListener {
+        private final List<String> texts = new ArrayList<>();
+        private final List<Boolean> textLast = new ArrayList<>();
+        private final List<ByteBuffer> binary = new ArrayList<>();
+        private final List<Boolean> binaryLast = new ArrayList<>();
         private final AtomicInteger pingCount = new AtomicInteger();
         private final AtomicInteger closeCode = new AtomicInteger(-1);
         private final AtomicReference<CharBuffer> text = new AtomicReference<>();
@@ -188,6 +370,16 @@ public void onPing(final ByteBuffer data) {
         @Override
         public void onText(final CharBuffer data, final boolean last) {
             text.set(data);
+            texts.add(data.toString());
+            textLast.add(last);
+        }
+
+        @Override
+        public void onBinary(final ByteBuffer data, final boolean last) {
+            final ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+            copy.put(data).flip();
+            binary.add(copy);
+            binaryLast.add(last);
         }
 
         @Override
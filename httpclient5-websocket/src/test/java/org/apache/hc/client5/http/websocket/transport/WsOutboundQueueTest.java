@@ -26,11 +26,13 @@
  */
 package org.apache.hc.client5.http.websocket.transport;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 
 import org.apache.hc.client5.http.websocket.api.WebSocket;
 import org.apache.hc.client5.http.websocket.api.WebSocketClientConfig;
 import org.apache.hc.client5.http.websocket.api.WebSocketListener;
+import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -80,4 +82,119 @@ void drainAfterOutputReadyMovesData() {
         engine.onOutputReady();
         Assertions.assertEquals(0, ws.queueSize());
     }
+
+    @Test
+    void flushedFrameBuffersAreRecycled() {
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .setDirectBuffers(false)
+                .build();
+        final StubTransport transport = new StubTransport();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(transport, new WebSocketListener() { }, cfg, null, null);
+        final WebSocket ws = engine.facade();
+
+        Assertions.assertTrue(ws.sendBinary(ByteBuffer.wrap(new byte[] {1, 2, 3}), true));
+        Assertions.assertEquals(0, engine.idleFrameBuffers());
+        engine.onOutputReady();
+        Assertions.assertEquals(1, engine.idleFrameBuffers());
+
+        // The next frame of the same size class reuses the idle buffer
+        Assertions.assertTrue(ws.sendBinary(ByteBuffer.wrap(new byte[] {4, 5}), true));
+        Assertions.assertEquals(0, engine.idleFrameBuffers());
+        engine.onOutputReady();
+        Assertions.assertEquals(1, engine.idleFrameBuffers());
+    }
+
+    @Test
+    void fullSizeFragmentsWrittenAsSingleFrameBuffers() {
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .setDirectBuffers(false)
+                .setMaxOutboundDataBytes(0)
+                .build();
+        final int chunk = cfg.getOutgoingChunkSize();
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(new StubTransport(), new WebSocketListener() { }, cfg, null, null);
+
+        Assertions.assertTrue(engine.facade().sendBinary(ByteBuffer.wrap(new byte[chunk * 2 + 100]), true));
+        final WebSocketSessionEngine.OutFrame[] frames =
+                engine.dataOutbound.toArray(new WebSocketSessionEngine.OutFrame[0]);
+        Assertions.assertEquals(3, frames.length);
+        for (int i = 0; i < 2; i++) {
+            // header and masked payload share one buffer so each frame goes out in one write
+            Assertions.assertEquals(8 + chunk, frames[i].buf.remaining());
+            Assertions.assertEquals(8 + chunk, frames[i].size);
+        }
+        Assertions.assertEquals(6 + 100, frames[2].size);
+    }
+
+    @Test
+    void largeFrameWrittenAsSingleFrameBuffer() {
+        final WebSocketClientConfig cfg = WebSocketClientConfig.custom()
+                .setOutgoingChunkSize(256 * 1024)
+                .setMaxOutboundDataBytes(0)
+                .build();
+        final ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        final WebSocketTransport transport = new WebSocketTransport() {
+
+            @Override
+            public int write(final ByteBuffer src) {
+                // accept at most 1000 bytes per call to exercise partial writes
+                final int n = Math.min(src.remaining(), 1000);
+                for (int i = 0; i < n; i++) {
+                    wire.write(src.get());
+                }
+                return n;
+            }
+
+            @Override
+            public void requestOutput() {
+            }
+
+            @Override
+            public void setTimeout(final Timeout timeout) {
+            }
+
+            @Override
+            public void closeGracefully() {
+            }
+
+            @Override
+            public void abort() {
+            }
+
+            @Override
+            public void endStream() {
+            }
+
+        };
+        final WebSocketSessionEngine engine =
+                new WebSocketSessionEngine(transport, new WebSocketListener() { }, cfg, null, null);
+        final byte[] payload = new byte[64 * 1024 + 5];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        Assertions.assertTrue(engine.facade().sendBinary(ByteBuffer.wrap(payload), true));
+        final WebSocketSessionEngine.OutFrame frame = engine.dataOutbound.peek();
+        Assertions.assertNotNull(frame);
+        Assertions.assertEquals(14 + payload.length, frame.buf.remaining());
+        Assertions.assertEquals(14 + payload.length, frame.size);
+
+        while (engine.onOutputReady()) {
+            // keep draining
+        }
+        Assertions.assertEquals(0, engine.facade().queueSize());
+
+        final ByteBuffer out = ByteBuffer.wrap(wire.toByteArray());
+        Assertions.assertEquals(0x82, out.get() & 0xFF);
+        Assertions.assertEquals(0x80 | 127, out.get() & 0xFF);
+        Assertions.assertEquals(payload.length, out.getLong());
+        final byte[] mask = new byte[4];
+        out.get(mask);
+        final byte[] unmasked = new byte[out.remaining()];
+        for (int i = 0; i < unmasked.length; i++) {
+            unmasked[i] = (byte) (out.get() ^ mask[i & 3]);
+        }
+        Assertions.assertArrayEquals(payload, unmasked);
+    }
 }
@@ -27,12 +27,23 @@
 package org.apache.hc.core5.websocket.extension;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.apache.hc.core5.websocket.WebSocketBufferOps;
+import org.apache.hc.core5.websocket.exceptions.WebSocketProtocolException;
 
 import org.apache.hc.core5.websocket.extension.WebSocketExtensionChain.Decoder;
 import org.apache.hc.core5.websocket.extension.WebSocketExtensionChain.Encoder;
+import org.apache.hc.core5.websocket.extension.WebSocketExtensionChain.StreamingDecoder;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -119,4 +130,123 @@ void fragmentedMessageMatchesSingleFrameEncoding() throws Exception {
         assertArrayEquals(plain, fromSingle, "single-frame control must round-trip");
         assertArrayEquals(plain, fromFragmented, "fragmented message must round-trip to the same plaintext");
     }
+
+    @Test
+    void fragmentsInflateIncrementallyFromBuffers() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append(TEXT);
+        }
+        final byte[] plain = sb.toString().getBytes(StandardCharsets.UTF_8);
+        final PerMessageDeflate pmce = new PerMessageDeflate(true, false, false, null, null);
+        final Encoder enc = pmce.newEncoder();
+        final StreamingDecoder dec = (StreamingDecoder) pmce.newDecoder();
+
+        for (int round = 0; round < 2; round++) {
+            final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            final int fragments = 5;
+            final int chunk = (plain.length + fragments - 1) / fragments;
+            for (int i = 0; i < fragments; i++) {
+                final int off = i * chunk;
+                final int len = Math.min(chunk, plain.length - off);
+                final ByteBuffer src = ByteBuffer.allocateDirect(len);
+                src.put(plain, off, len).flip();
+                final boolean fin = i == fragments - 1;
+                final ByteBuffer compressed = enc.encode(src, i == 0, fin).payload;
+                assertEquals(0, src.remaining());
+
+                // feed each compressed fragment through a direct buffer as it would arrive
+                final ByteBuffer wire = ByteBuffer.allocateDirect(compressed.remaining());
+                wire.put(compressed).flip();
+                final ByteBuffer out = dec.decode(wire, fin, 0L);
+                // every fragment is inflated as it arrives rather than buffered until fin
+                assertEquals(len, out.remaining());
+                final byte[] bytes = new byte[out.remaining()];
+                out.get(bytes);
+                decoded.write(bytes, 0, bytes.length);
+            }
+            // second round exercises context takeover across messages
+            assertArrayEquals(plain, decoded.toByteArray());
+        }
+    }
+
+    @Test
+    void streamingDecodeEnforcesLimitAcrossFragments() {
+        final byte[] zeros = new byte[64 * 1024];
+        final PerMessageDeflate pmce = new PerMessageDeflate(true, false, false, null, null);
+        final Encoder enc = pmce.newEncoder();
+        final StreamingDecoder dec = (StreamingDecoder) pmce.newDecoder();
+        final ByteBuffer first = ByteBuffer.wrap(WebSocketBufferOps.toBytes(enc.encode(ByteBuffer.wrap(zeros), true, false).payload));
+        final ByteBuffer second = ByteBuffer.wrap(WebSocketBufferOps.toBytes(enc.encode(ByteBuffer.wrap(zeros), false, true).payload));
+
+        assertDoesNotThrow(() -> dec.decode(first, false, 100 * 1024));
+        final WebSocketProtocolException ex = assertThrows(WebSocketProtocolException.class,
+                () -> dec.decode(second, true, 100 * 1024));
+        assertEquals(1009, ex.closeCode);
+    }
+
+    @Test
+    void decodeChainBuffersFragmentsForNonStreamingDecoder() throws Exception {
+        final WebSocketExtensionChain.Decoder upperCase = payload ->
+                new String(payload, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        final ExtensionChain.DecodeChain chain = new ExtensionChain.DecodeChain(Collections.singletonList(upperCase));
+
+        assertEquals(0, chain.decode(ByteBuffer.wrap("abc".getBytes(StandardCharsets.US_ASCII)), false, 0L).remaining());
+        final ByteBuffer out = chain.decode(ByteBuffer.wrap("def".getBytes(StandardCharsets.US_ASCII)), true, 0L);
+        assertArrayEquals("ABCDEF".getBytes(StandardCharsets.US_ASCII), WebSocketBufferOps.toBytes(out));
+    }
+
+    @Test
+    void decodeChainStartsEachMessageFromScratch() throws Exception {
+        final WebSocketExtensionChain.Decoder upperCase = payload ->
+                new String(payload, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        final ExtensionChain.DecodeChain chain = new ExtensionChain.DecodeChain(Collections.singletonList(upperCase));
+
+        final ByteBuffer first = ByteBuffer.wrap("abc".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0, chain.decode(first, false, 0L).remaining());
+        assertEquals(0, chain.decode(ByteBuffer.allocateDirect(0), false, 0L).remaining());
+        final ByteBuffer out = chain.decode(ByteBuffer.wrap("def".getBytes(StandardCharsets.US_ASCII)), true, 0L);
+        assertArrayEquals("ABCDEF".getBytes(StandardCharsets.US_ASCII), WebSocketBufferOps.toBytes(out));
+
+        final ByteBuffer single = chain.decode(ByteBuffer.wrap("xyz".getBytes(StandardCharsets.US_ASCII)), true, 0L);
+        assertArrayEquals("XYZ".getBytes(StandardCharsets.US_ASCII), WebSocketBufferOps.toBytes(single));
+    }
+
+    @Test
+    void decodeChainCloseDiscardsBufferedFragments() throws Exception {
+        final WebSocketExtensionChain.Decoder identity = payload -> payload;
+        final ExtensionChain.DecodeChain chain = new ExtensionChain.DecodeChain(Collections.singletonList(identity));
+
+        chain.decode(ByteBuffer.wrap("stale".getBytes(StandardCharsets.US_ASCII)), false, 0L);
+        chain.close();
+        final ByteBuffer out = chain.decode(ByteBuffer.wrap("fresh".getBytes(StandardCharsets.US_ASCII)), true, 0L);
+        assertArrayEquals("fresh".getBytes(StandardCharsets.US_ASCII), WebSocketBufferOps.toBytes(out));
+    }
+
+    @Test
+    void decodeChainStacksBufferingAndStreamingDecoders() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append(TEXT);
+        }
+        final byte[] plain = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        final PerMessageDeflate pmce = new PerMessageDeflate(true, false, false, null, null);
+        final Encoder enc = pmce.newEncoder();
+        final WebSocketExtensionChain.Decoder upperCase = payload ->
+                new String(payload, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        // decoders run in reverse order: inflate first, then the buffering transform
+        final ExtensionChain.DecodeChain chain = new ExtensionChain.DecodeChain(
+                Arrays.asList(upperCase, pmce.newDecoder()));
+
+        final int half = plain.length / 2;
+        final ByteBuffer first = ByteBuffer.wrap(WebSocketBufferOps.toBytes(
+                enc.encode(ByteBuffer.wrap(plain, 0, half), true, false).payload));
+        final ByteBuffer second = ByteBuffer.wrap(WebSocketBufferOps.toBytes(
+                enc.encode(ByteBuffer.wrap(plain, half, plain.length - half), false, true).payload));
+
+        assertEquals(0, chain.decode(first, false, 0L).remaining());
+        final ByteBuffer out = chain.decode(second, true, 0L);
+        assertArrayEquals(sb.toString().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII),
+                WebSocketBufferOps.toBytes(out));
+    }
 }
@@ -205,4 +205,24 @@ void littleEndian_payload_maskedCorrectly() {
         assertEquals(plain.length, p.len);
         assertArrayEquals(plain, unmask(p));
     }
+
+    @Test
+    void large_masked_frame_into_buffer_roundtrip() {
+        final byte[] payload = new byte[70003];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+        final ByteBuffer src = ByteBuffer.wrap(payload);
+
+        final WebSocketFrameWriter w = new WebSocketFrameWriter();
+        final ByteBuffer frame = ByteBuffer.allocate(14 + payload.length);
+        w.frameInto(FrameOpcode.BINARY, src, true, true, frame);
+        frame.flip();
+        assertEquals(payload.length, src.remaining());
+
+        final Parsed p = parse(frame);
+        assertTrue(p.mask);
+        assertEquals(payload.length, p.len);
+        assertArrayEquals(payload, unmask(p));
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.websocket.frame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class MaskKeyProviderTest {
+
+    @Test
+    void threadLocalProviderRefillsBatches() {
+        final Set<Integer> keys = new HashSet<>();
+        for (int i = 0; i < ThreadLocalMaskKeyProvider.BATCH_SIZE * 4; i++) {
+            keys.add(ThreadLocalMaskKeyProvider.INSTANCE.nextMaskKey());
+        }
+        // 256 random 32-bit keys; a collision is astronomically unlikely
+        assertTrue(keys.size() > ThreadLocalMaskKeyProvider.BATCH_SIZE * 4 - 2);
+    }
+
+    @Test
+    void writerUsesConfiguredProvider() {
+        final WebSocketFrameWriter writer = new WebSocketFrameWriter(() -> 0x01020304);
+        final ByteBuffer frame = writer.frame(FrameOpcode.BINARY, ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0}), true, true);
+        final byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+        assertArrayEquals(new byte[] {(byte) 0x82, (byte) 0x85, 1, 2, 3, 4, 1, 2, 3, 4, 1}, bytes);
+    }
+
+    @Test
+    void maskIntoMatchesBytewiseMasking() {
+        final int maskKey = 0xA1B2C3D4;
+        final byte[] key = {(byte) 0xA1, (byte) 0xB2, (byte) 0xC3, (byte) 0xD4};
+        for (int len = 0; len <= 37; len++) {
+            final byte[] plain = new byte[len];
+            final byte[] expected = new byte[len];
+            for (int i = 0; i < len; i++) {
+                plain[i] = (byte) (i * 7 + 1);
+                expected[i] = (byte) (plain[i] ^ key[i & 3]);
+            }
+            for (final boolean direct : new boolean[] {false, true}) {
+                final ByteBuffer src = (direct ? ByteBuffer.allocateDirect(len + 3) : ByteBuffer.allocate(len + 3))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                src.position(3);
+                src.put(plain);
+                src.flip().position(3);
+                final ByteBuffer dst = direct ? ByteBuffer.allocateDirect(len + 1) : ByteBuffer.allocate(len + 1);
+                dst.put((byte) 0x55);
+
+                WebSocketFrameWriter.maskInto(src, maskKey, dst);
+
+                assertEquals(0, src.remaining());
+                assertEquals(len + 1, dst.position());
+                dst.flip().position(1);
+                final byte[] actual = new byte[len];
+                dst.get(actual);
+                assertArrayEquals(expected, actual, "len=" + len + ", direct=" + direct);
+                assertEquals(plain.length > 0 ? plain[0] : 0, len > 0 ? src.get(3) : 0);
+            }
+        }
+    }
+
+}
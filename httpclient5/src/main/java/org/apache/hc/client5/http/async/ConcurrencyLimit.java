@@ -0,0 +1,57 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.async;
+
+/**
+ * Dynamic limit of concurrently executing requests to a single route. The limit
+ * is adjusted from latency samples and overload signals observed for the requests
+ * that have been allowed to execute.
+ * <p>
+ * Implementations of this interface are expected to be threading-safe.
+ * </p>
+ *
+ * @since 5.7
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * Returns the current limit. The value is always positive.
+     */
+    int getLimit();
+
+    /**
+     * Updates the limit with the outcome of a request execution.
+     *
+     * @param rttNanos round trip time of the request in nanoseconds or {@code -1}
+     *                 if no response was received.
+     * @param inFlight number of requests in flight when the request was executed.
+     * @param dropped {@code true} if the request failed or has been rejected by
+     *                the opposite endpoint in a way that signals overload.
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+
+}
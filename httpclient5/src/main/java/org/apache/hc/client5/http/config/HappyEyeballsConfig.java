@@ -0,0 +1,156 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Immutable class encapsulating settings of staggered parallel connection attempts to
+ * multihomed hosts as described in RFC 8305 (Happy Eyeballs Version 2).
+ * <p>
+ * When configured, connection operators no longer try resolved addresses strictly one
+ * after another. Instead, they start a connection attempt to the next address whenever
+ * the previous attempt has not completed within the {@link #getAttemptDelay() attempt delay}
+ * or failed, keep the first connection that gets established and cancel all the others.
+ * The address of the winning connection is reported as the remote address of the connection
+ * endpoint.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public class HappyEyeballsConfig {
+
+    /**
+     * Default delay between the start of two consecutive connection attempts
+     * recommended by RFC 8305.
+     */
+    public static final TimeValue DEFAULT_ATTEMPT_DELAY = TimeValue.ofMilliseconds(250);
+
+    public static final HappyEyeballsConfig DEFAULT = new Builder().build();
+
+    private final TimeValue attemptDelay;
+    private final boolean interleaveAddressFamilies;
+
+    HappyEyeballsConfig(final TimeValue attemptDelay, final boolean interleaveAddressFamilies) {
+        super();
+        this.attemptDelay = attemptDelay;
+        this.interleaveAddressFamilies = interleaveAddressFamilies;
+    }
+
+    /**
+     * @see Builder#setAttemptDelay(TimeValue)
+     */
+    public TimeValue getAttemptDelay() {
+        return attemptDelay;
+    }
+
+    /**
+     * @see Builder#setInterleaveAddressFamilies(boolean)
+     */
+    public boolean isInterleaveAddressFamilies() {
+        return interleaveAddressFamilies;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("[");
+        builder.append("attemptDelay=").append(attemptDelay);
+        builder.append(", interleaveAddressFamilies=").append(interleaveAddressFamilies);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    public static HappyEyeballsConfig.Builder custom() {
+        return new Builder();
+    }
+
+    public static HappyEyeballsConfig.Builder copy(final HappyEyeballsConfig config) {
+        return new Builder()
+                .setAttemptDelay(config.getAttemptDelay())
+                .setInterleaveAddressFamilies(config.isInterleaveAddressFamilies());
+    }
+
+    public static class Builder {
+
+        private TimeValue attemptDelay;
+        private boolean interleaveAddressFamilies;
+
+        Builder() {
+            this.attemptDelay = DEFAULT_ATTEMPT_DELAY;
+            this.interleaveAddressFamilies = true;
+        }
+
+        /**
+         * Determines the delay after which a connection attempt to the next address is started
+         * if the previous attempt has neither succeeded nor failed yet.
+         * <p>
+         * Default: {@code 250 milliseconds}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setAttemptDelay(final TimeValue attemptDelay) {
+            this.attemptDelay = Args.notNull(attemptDelay, "Attempt delay");
+            return this;
+        }
+
+        /**
+         * @return this instance.
+         * @see #setAttemptDelay(TimeValue)
+         */
+        public Builder setAttemptDelay(final long attemptDelay, final TimeUnit timeUnit) {
+            return setAttemptDelay(TimeValue.of(attemptDelay, timeUnit));
+        }
+
+        /**
+         * Determines whether resolved addresses are re-ordered so that IPv6 and IPv4 addresses
+         * alternate, starting with the address family of the first address returned by the resolver.
+         * <p>
+         * Default: {@code true}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setInterleaveAddressFamilies(final boolean interleaveAddressFamilies) {
+            this.interleaveAddressFamilies = interleaveAddressFamilies;
+            return this;
+        }
+
+        public HappyEyeballsConfig build() {
+            return new HappyEyeballsConfig(attemptDelay, interleaveAddressFamilies);
+        }
+
+    }
+
+}
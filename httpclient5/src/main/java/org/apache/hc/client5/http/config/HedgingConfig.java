@@ -0,0 +1,245 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Immutable class encapsulating settings of request hedging.
+ * <p>
+ * When configured, asynchronous clients send a second copy of an idempotent request
+ * without an enclosed entity if the first attempt has not received a response head
+ * within the {@link #getDelay() hedging delay}. The response that arrives first is used
+ * and the other attempt is cancelled. The hedging delay can optionally be derived from
+ * a percentile of the recently observed response times.
+ * </p>
+ * <p>
+ * The extra load caused by hedging is bounded by a budget. Every request that is
+ * eligible for hedging deposits {@link #getBudgetRatio() budget ratio} of a token
+ * into the budget up to {@link #getMaxBudget() max budget} tokens, and every hedged
+ * attempt withdraws one token. Requests are not hedged while the budget is exhausted.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public class HedgingConfig {
+
+    public static final TimeValue DEFAULT_DELAY = TimeValue.ofMilliseconds(100);
+
+    public static final HedgingConfig DEFAULT = new Builder().build();
+
+    private final TimeValue delay;
+    private final double percentile;
+    private final TimeValue minDelay;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    HedgingConfig(
+            final TimeValue delay,
+            final double percentile,
+            final TimeValue minDelay,
+            final double budgetRatio,
+            final int maxBudget) {
+        super();
+        this.delay = delay;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+    }
+
+    /**
+     * @see Builder#setDelay(TimeValue)
+     */
+    public TimeValue getDelay() {
+        return delay;
+    }
+
+    /**
+     * @see Builder#setPercentile(double)
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @see Builder#setMinDelay(TimeValue)
+     */
+    public TimeValue getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * @see Builder#setBudgetRatio(double)
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @see Builder#setMaxBudget(int)
+     */
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("[");
+        builder.append("delay=").append(delay);
+        builder.append(", percentile=").append(percentile);
+        builder.append(", minDelay=").append(minDelay);
+        builder.append(", budgetRatio=").append(budgetRatio);
+        builder.append(", maxBudget=").append(maxBudget);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    public static HedgingConfig.Builder custom() {
+        return new Builder();
+    }
+
+    public static HedgingConfig.Builder copy(final HedgingConfig config) {
+        return new Builder()
+                .setDelay(config.getDelay())
+                .setPercentile(config.getPercentile())
+                .setMinDelay(config.getMinDelay())
+                .setBudgetRatio(config.getBudgetRatio())
+                .setMaxBudget(config.getMaxBudget());
+    }
+
+    public static class Builder {
+
+        private TimeValue delay;
+        private double percentile;
+        private TimeValue minDelay;
+        private double budgetRatio;
+        private int maxBudget;
+
+        Builder() {
+            this.delay = DEFAULT_DELAY;
+            this.percentile = 0;
+            this.minDelay = TimeValue.ofMilliseconds(10);
+            this.budgetRatio = 0.1;
+            this.maxBudget = 10;
+        }
+
+        /**
+         * Determines the delay after which a hedged attempt is started if the first attempt
+         * has not received a response head yet. If a {@link #setPercentile(double) percentile}
+         * is set, this delay is used until enough response times have been observed.
+         * <p>
+         * Default: {@code 100 milliseconds}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setDelay(final TimeValue delay) {
+            this.delay = Args.notNull(delay, "Delay");
+            return this;
+        }
+
+        /**
+         * @return this instance.
+         * @see #setDelay(TimeValue)
+         */
+        public Builder setDelay(final long delay, final TimeUnit timeUnit) {
+            return setDelay(TimeValue.of(delay, timeUnit));
+        }
+
+        /**
+         * Determines the percentile of recently observed response times used as the hedging
+         * delay, for instance {@code 0.95}. A value of {@code 0} disables adaptive delays
+         * and the fixed {@link #setDelay(TimeValue) delay} is always used.
+         * <p>
+         * Default: {@code 0}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setPercentile(final double percentile) {
+            Args.check(percentile >= 0 && percentile < 1, "Percentile must be 0.0 <= p < 1.0");
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Determines the lower bound of adaptive hedging delays.
+         * <p>
+         * Default: {@code 10 milliseconds}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setMinDelay(final TimeValue minDelay) {
+            this.minDelay = Args.notNull(minDelay, "Min delay");
+            return this;
+        }
+
+        /**
+         * Determines the fraction of a token each eligible request deposits into the hedging
+         * budget, that is the sustained ratio of hedged attempts to requests.
+         * <p>
+         * Default: {@code 0.1}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setBudgetRatio(final double budgetRatio) {
+            Args.check(budgetRatio >= 0 && budgetRatio <= 1, "Budget ratio must be 0.0 <= r <= 1.0");
+            this.budgetRatio = budgetRatio;
+            return this;
+        }
+
+        /**
+         * Determines the maximum number of tokens the hedging budget can accumulate, that is
+         * the number of attempts that may be hedged in a burst. The budget starts full.
+         * <p>
+         * Default: {@code 10}
+         * </p>
+         *
+         * @return this instance.
+         */
+        public Builder setMaxBudget(final int maxBudget) {
+            this.maxBudget = Args.notNegative(maxBudget, "Max budget");
+            return this;
+        }
+
+        public HedgingConfig build() {
+            return new HedgingConfig(delay, percentile, minDelay, budgetRatio, maxBudget);
+        }
+
+    }
+
+}
@@ -0,0 +1,506 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.AbstractMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DnsResolver} decorator that caches the results of another resolver.
+ * <p>
+ * Successful lookups are retained for the configured time-to-live; failed
+ * lookups are retained for the (usually shorter) negative time-to-live so that
+ * an unknown host does not cause a resolver round-trip on every connect.
+ * The cache holds at most {@code maxEntries} host names; the entries stored
+ * earliest are evicted first once the limit is exceeded.
+ * </p>
+ * <p>
+ * When refresh-ahead is enabled, a cache hit on an entry older than
+ * {@code refreshAheadFactor * ttl} triggers a lookup on a background executor
+ * while the current addresses continue to be served, so frequently used hosts
+ * never block a connect on a lookup. When lookup collapsing is enabled,
+ * concurrent cache misses for the same host share a single delegate lookup.
+ * </p>
+ * <p>
+ * Canonical host name resolution is not cached and is passed through to
+ * the delegate.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class CachingDnsResolver implements DnsResolver, Closeable {
+
+    /** Logger associated to this class. */
+    private static final Logger LOG = LoggerFactory.getLogger(CachingDnsResolver.class);
+
+    public static final TimeValue DEFAULT_TTL = TimeValue.ofSeconds(60);
+
+    public static final TimeValue DEFAULT_NEGATIVE_TTL = TimeValue.ofSeconds(10);
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final DnsResolver delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+    private final double refreshAheadFactor;
+    private final Executor refreshExecutor;
+    private final ExecutorService ownedExecutor;
+    private final boolean collapseLookups;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Entry> cache;
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inflight;
+    // Stored entries in insertion order; may include entries since replaced or removed
+    private final Queue<Map.Entry<String, Entry>> insertionOrder;
+    private final AtomicInteger queued;
+    private final ReentrantLock evictionLock;
+
+    CachingDnsResolver(
+            final DnsResolver delegate,
+            final TimeValue ttl,
+            final TimeValue negativeTtl,
+            final int maxEntries,
+            final double refreshAheadFactor,
+            final Executor refreshExecutor,
+            final boolean collapseLookups,
+            final LongSupplier clock) {
+        this.delegate = delegate != null ? delegate : SystemDefaultDnsResolver.INSTANCE;
+        this.ttlNanos = toNanos(ttl, DEFAULT_TTL);
+        this.negativeTtlNanos = toNanos(negativeTtl, DEFAULT_NEGATIVE_TTL);
+        this.maxEntries = maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES;
+        this.refreshAheadFactor = refreshAheadFactor;
+        if (refreshAheadFactor > 0 && refreshExecutor == null) {
+            this.ownedExecutor = Executors.newSingleThreadExecutor(
+                    new DefaultThreadFactory("httpclient-dns-refresh", true));
+            this.refreshExecutor = this.ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.refreshExecutor = refreshExecutor;
+        }
+        this.collapseLookups = collapseLookups;
+        this.clock = clock != null ? clock : System::nanoTime;
+        this.cache = new ConcurrentHashMap<>();
+        this.inflight = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.queued = new AtomicInteger();
+        this.evictionLock = new ReentrantLock();
+    }
+
+    /**
+     * Creates a caching resolver decorating the given resolver with default settings:
+     * no refresh-ahead and lookup collapsing enabled.
+     *
+     * @param delegate the resolver to decorate.
+     */
+    public CachingDnsResolver(final DnsResolver delegate) {
+        this(Args.notNull(delegate, "DNS resolver"), DEFAULT_TTL, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_ENTRIES,
+                0, null, true, null);
+    }
+
+    private static long toNanos(final TimeValue timeValue, final TimeValue defaultValue) {
+        final TimeValue value = timeValue != null ? timeValue : defaultValue;
+        return value.getTimeUnit().toNanos(value.getDuration());
+    }
+
+    @Override
+    public InetAddress[] resolve(final String host) throws UnknownHostException {
+        Args.notNull(host, "Host name");
+        final String key = host.toLowerCase(Locale.ROOT);
+        final Entry entry = cache.get(key);
+        if (entry != null) {
+            final long now = clock.getAsLong();
+            if (now - entry.expiresAt < 0) {
+                if (entry.refreshAhead && now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                    scheduleRefresh(host, key, entry);
+                }
+                return entry.get();
+            }
+            cache.remove(key, entry);
+        }
+        final Entry fresh = collapseLookups ? lookupShared(host, key) : lookup(host, key);
+        return fresh.get();
+    }
+
+    @Override
+    public String resolveCanonicalHostname(final String host) throws UnknownHostException {
+        return delegate.resolveCanonicalHostname(host);
+    }
+
+    /**
+     * Removes the cached result for the given host, if any.
+     *
+     * @param host the host name.
+     */
+    public void evict(final String host) {
+        Args.notNull(host, "Host name");
+        cache.remove(host.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        cache.clear();
+        evictionLock.lock();
+        try {
+            insertionOrder.clear();
+            queued.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached host names including negative entries.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Shuts down the refresh executor if it was created by this resolver.
+     * Executors supplied by the caller are left untouched.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private Entry lookupShared(final String host, final String key) throws UnknownHostException {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final CompletableFuture<Entry> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Awaiting in-flight lookup of {}", host);
+            }
+            try {
+                return existing.get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                final UnknownHostException uhe = new UnknownHostException(host);
+                uhe.initCause(ex);
+                throw uhe;
+            } catch (final ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                final UnknownHostException uhe = new UnknownHostException(host);
+                uhe.initCause(cause);
+                throw uhe;
+            }
+        }
+        try {
+            final Entry entry = lookup(host, key);
+            future.complete(entry);
+            return entry;
+        } catch (final RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    private Entry lookup(final String host, final String key) {
+        final long now = clock.getAsLong();
+        try {
+            final InetAddress[] addresses = delegate.resolve(host);
+            if (addresses == null) {
+                // Not recognized by the delegate; let the caller fall back to an unresolved address
+                return Entry.UNRESOLVED;
+            }
+            final Entry entry = positive(addresses, now);
+            if (ttlNanos > 0) {
+                store(key, entry);
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Resolved {} to {} address(es)", host, addresses.length);
+            }
+            return entry;
+        } catch (final UnknownHostException ex) {
+            final Entry entry = new Entry(null, ex.getMessage() != null ? ex.getMessage() : host,
+                    now + negativeTtlNanos, false, 0);
+            if (negativeTtlNanos > 0) {
+                store(key, entry);
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unable to resolve {}: {}", host, ex.getMessage());
+            }
+            return entry;
+        }
+    }
+
+    private Entry positive(final InetAddress[] addresses, final long now) {
+        final boolean refreshAhead = refreshAheadFactor > 0 && refreshExecutor != null;
+        final long refreshAt = now + (long) (ttlNanos * refreshAheadFactor);
+        return new Entry(addresses.clone(), null, now + ttlNanos, refreshAhead, refreshAt);
+    }
+
+    private void scheduleRefresh(final String host, final String key, final Entry current) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Refreshing {} ahead of expiry", host);
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    final InetAddress[] addresses = delegate.resolve(host);
+                    if (addresses != null) {
+                        final Entry refreshed = positive(addresses, clock.getAsLong());
+                        if (cache.replace(key, current, refreshed) || cache.putIfAbsent(key, refreshed) == null) {
+                            stored(key, refreshed);
+                        }
+                    }
+                } catch (final UnknownHostException | RuntimeException ex) {
+                    // Keep serving the current addresses until they expire
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Background refresh of {} failed: {}", host, ex.getMessage());
+                    }
+                } finally {
+                    // Let a later hit retry the refresh if the entry has not been replaced
+                    current.refreshing.set(false);
+                }
+            });
+        } catch (final RejectedExecutionException ex) {
+            current.refreshing.set(false);
+        }
+    }
+
+    private void store(final String key, final Entry entry) {
+        cache.put(key, entry);
+        stored(key, entry);
+    }
+
+    private void stored(final String key, final Entry entry) {
+        insertionOrder.add(new AbstractMap.SimpleImmutableEntry<>(key, entry));
+        final int n = queued.incrementAndGet();
+        if ((cache.size() > maxEntries || n > 2 * maxEntries) && evictionLock.tryLock()) {
+            try {
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the earliest stored entries until the cache is within bounds. Queued
+     * entries that have since been replaced or removed are skipped, and purged once
+     * they make up half of the queue, so that each insert costs amortized constant time.
+     */
+    private void evict() {
+        while (cache.size() > maxEntries) {
+            final Map.Entry<String, Entry> eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            cache.remove(eldest.getKey(), eldest.getValue());
+        }
+        if (queued.get() > 2 * maxEntries) {
+            insertionOrder.removeIf(queuedEntry -> {
+                if (cache.get(queuedEntry.getKey()) != queuedEntry.getValue()) {
+                    queued.decrementAndGet();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private static final class Entry {
+
+        static final Entry UNRESOLVED = new Entry(null, null, 0, false, 0);
+
+        final InetAddress[] addresses;
+        final String failure;
+        final long expiresAt;
+        final boolean refreshAhead;
+        final long refreshAt;
+        final AtomicBoolean refreshing;
+
+        Entry(final InetAddress[] addresses, final String failure, final long expiresAt,
+              final boolean refreshAhead, final long refreshAt) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+            this.refreshAhead = refreshAhead;
+            this.refreshAt = refreshAt;
+            this.refreshing = new AtomicBoolean();
+        }
+
+        InetAddress[] get() throws UnknownHostException {
+            if (addresses != null) {
+                return addresses.clone();
+            }
+            if (failure != null) {
+                throw new UnknownHostException(failure);
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Creates a new builder.
+     */
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link CachingDnsResolver}.
+     *
+     * @since 5.7
+     */
+    public static final class Builder {
+
+        private DnsResolver dnsResolver;
+        private TimeValue ttl;
+        private TimeValue negativeTtl;
+        private int maxEntries;
+        private double refreshAheadFactor;
+        private Executor refreshExecutor;
+        private boolean collapseLookups;
+
+        Builder() {
+            this.ttl = DEFAULT_TTL;
+            this.negativeTtl = DEFAULT_NEGATIVE_TTL;
+            this.maxEntries = DEFAULT_MAX_ENTRIES;
+            this.collapseLookups = true;
+        }
+
+        /**
+         * Sets the resolver to decorate. Defaults to {@link SystemDefaultDnsResolver#INSTANCE}.
+         */
+        public Builder setDnsResolver(final DnsResolver dnsResolver) {
+            this.dnsResolver = dnsResolver;
+            return this;
+        }
+
+        /**
+         * Sets how long successfully resolved addresses are cached.
+         * A zero value disables caching of successful lookups.
+         */
+        public Builder setTtl(final TimeValue ttl) {
+            this.ttl = Args.notNull(ttl, "TTL");
+            Args.notNegative(ttl.getDuration(), "TTL");
+            return this;
+        }
+
+        /**
+         * Sets how long failed lookups are cached.
+         * A zero value disables negative caching.
+         */
+        public Builder setNegativeTtl(final TimeValue negativeTtl) {
+            this.negativeTtl = Args.notNull(negativeTtl, "Negative TTL");
+            Args.notNegative(negativeTtl.getDuration(), "Negative TTL");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of host names held in the cache.
+         */
+        public Builder setMaxEntries(final int maxEntries) {
+            this.maxEntries = Args.positive(maxEntries, "Max entries");
+            return this;
+        }
+
+        /**
+         * Enables refresh-ahead. A cache hit on an entry older than the given
+         * fraction of its TTL triggers a background lookup. A value of zero
+         * (the default) disables refresh-ahead.
+         *
+         * @param refreshAheadFactor a fraction of the TTL in the range {@code [0, 1)}.
+         */
+        public Builder setRefreshAheadFactor(final double refreshAheadFactor) {
+            Args.check(refreshAheadFactor >= 0 && refreshAheadFactor < 1,
+                    "Refresh-ahead factor must be in the range [0, 1)");
+            this.refreshAheadFactor = refreshAheadFactor;
+            return this;
+        }
+
+        /**
+         * Sets the executor used for refresh-ahead lookups. If not set, a single
+         * daemon thread is created on demand and released by {@link CachingDnsResolver#close()}.
+         */
+        public Builder setRefreshExecutor(final Executor refreshExecutor) {
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        /**
+         * Determines whether concurrent lookups of the same host share a single
+         * delegate lookup. Enabled by default.
+         */
+        public Builder setCollapseLookups(final boolean collapseLookups) {
+            this.collapseLookups = collapseLookups;
+            return this;
+        }
+
+        public CachingDnsResolver build() {
+            return new CachingDnsResolver(dnsResolver, ttl, negativeTtl, maxEntries,
+                    refreshAheadFactor, refreshExecutor, collapseLookups, null);
+        }
+
+    }
+
+}
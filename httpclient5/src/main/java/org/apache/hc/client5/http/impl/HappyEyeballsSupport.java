@@ -0,0 +1,146 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+
+/**
+ * Support methods for staggered parallel connection attempts (RFC 8305).
+ *
+ * @since 5.7
+ */
+@Internal
+public final class HappyEyeballsSupport {
+
+    /**
+     * Maximum number of blocking connection attempts run concurrently by the shared executor.
+     */
+    static final int MAX_CONNECT_THREADS = 64;
+
+    private HappyEyeballsSupport() {
+    }
+
+    /**
+     * Returns the order in which connection attempts to the given addresses are to be made.
+     * If address family interleaving is enabled addresses of different families alternate,
+     * starting with the family of the first address; the relative order of addresses of the
+     * same family is preserved.
+     */
+    public static List<InetSocketAddress> sortAddresses(
+            final List<InetSocketAddress> addresses,
+            final HappyEyeballsConfig config) {
+        if (addresses.size() < 2 || !config.isInterleaveAddressFamilies()) {
+            return addresses;
+        }
+        final boolean firstIpv6 = isIpv6(addresses.get(0));
+        final List<InetSocketAddress> first = new ArrayList<>(addresses.size());
+        final List<InetSocketAddress> second = new ArrayList<>(addresses.size());
+        for (final InetSocketAddress address : addresses) {
+            if (isIpv6(address) == firstIpv6) {
+                first.add(address);
+            } else {
+                second.add(address);
+            }
+        }
+        if (second.isEmpty()) {
+            return addresses;
+        }
+        final List<InetSocketAddress> result = new ArrayList<>(addresses.size());
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) {
+                result.add(first.get(i));
+            }
+            if (i < second.size()) {
+                result.add(second.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIpv6(final InetSocketAddress address) {
+        return address.getAddress() instanceof Inet6Address;
+    }
+
+    /**
+     * Returns the shared scheduler used to trigger delayed connection attempts.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    /**
+     * Returns the shared executor used to run blocking connection attempts. The executor
+     * runs at most {@link #MAX_CONNECT_THREADS} attempts at a time; once all its threads
+     * are busy, further attempts run on the submitting thread, so that a race degrades to
+     * sequential attempts instead of spawning more threads.
+     */
+    public static ExecutorService getExecutor() {
+        return ExecutorHolder.EXECUTOR;
+    }
+
+    private static final class SchedulerHolder {
+
+        static final ScheduledExecutorService SCHEDULER;
+
+        static {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                    new DefaultThreadFactory("httpclient-connect-scheduler", true));
+            scheduler.setRemoveOnCancelPolicy(true);
+            SCHEDULER = scheduler;
+        }
+
+    }
+
+    private static final class ExecutorHolder {
+
+        static final ExecutorService EXECUTOR = createExecutor(MAX_CONNECT_THREADS);
+
+    }
+
+    static ThreadPoolExecutor createExecutor(final int maxThreads) {
+        return new ThreadPoolExecutor(
+                0, maxThreads,
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new DefaultThreadFactory("httpclient-connect", true),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Utility to detect availability of virtual threads in the Java runtime and to
+ * create executors backed by them.
+ * <p>
+ * Virtual threads are a Java 21 feature. This class looks up the relevant
+ * factory methods reflectively so that it can be compiled for and loaded by
+ * older Java runtimes.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Internal
+@Contract(threading = ThreadingBehavior.STATELESS)
+public final class VirtualThreadRuntime {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Virtual threads are a preview feature of Java 19 and 20 that fails unless enabled
+            ofVirtual.invoke(null);
+        } catch (final ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                       | InvocationTargetException | LinkageError ex) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreadRuntime() {
+    }
+
+    /**
+     * @return {@code true} if the Java runtime supports virtual threads;
+     * {@code false} otherwise
+     */
+    public static boolean available() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a {@link ThreadFactory} of virtual threads named with the given prefix
+     * followed by a sequence number.
+     *
+     * @throws UnsupportedOperationException if the Java runtime does not support virtual threads.
+     */
+    public static ThreadFactory newThreadFactory(final String namePrefix) {
+        Args.notNull(namePrefix, "Name prefix");
+        if (!available()) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime");
+        }
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (final IllegalAccessException | InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads could not be created", ex);
+        }
+    }
+
+    /**
+     * Creates an {@link ExecutorService} that starts a new virtual thread for each task.
+     *
+     * @throws UnsupportedOperationException if the Java runtime does not support virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        final ThreadFactory threadFactory = newThreadFactory(namePrefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (final IllegalAccessException | InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual thread executor could not be created", ex);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.async.ConcurrencyLimit;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ConcurrencyLimit} that applies an additive increase, multiplicative
+ * decrease (AIMD) to the limit. The limit grows by one with every successful
+ * request executed while the limit was at least half utilized and is
+ * multiplied by the backoff factor with every request that signals overload.
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class AIMDConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffFactor;
+    private final ReentrantLock lock;
+
+    private volatile int limit;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the lower bound of the limit.
+     * @param maxLimit the upper bound of the limit.
+     * @param backoffFactor the factor applied to the limit on overload, must be
+     *                      between 0.0 and 1.0, exclusive.
+     */
+    public AIMDConcurrencyLimit(
+            final int initialLimit,
+            final int minLimit,
+            final int maxLimit,
+            final double backoffFactor) {
+        Args.positive(minLimit, "Min limit");
+        Args.check(maxLimit >= minLimit, "Max limit must not be less than min limit");
+        Args.check(initialLimit >= minLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min limit and max limit");
+        Args.check(backoffFactor > 0.0 && backoffFactor < 1.0, "Backoff factor must be 0.0 < f < 1.0");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffFactor = backoffFactor;
+        this.limit = initialLimit;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Creates a limit starting at 20 and ranging from 1 to 1000 with
+     * a backoff factor of 0.9.
+     */
+    public AIMDConcurrencyLimit() {
+        this(20, 1, 1000, 0.9);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        lock.lock();
+        try {
+            final int current = limit;
+            if (dropped) {
+                limit = Math.max(minLimit, (int) Math.floor(current * backoffFactor));
+            } else if (inFlight * 2 >= current) {
+                limit = Math.min(maxLimit, current + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AIMD[limit=" + limit + "]";
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.util.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Request execution handler in the asynchronous request execution chain
+ * that enforces the per-route concurrency limits of an {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Every request execution to a route holds a permit of the route until the
+ * response has been fully consumed or the execution has failed. The time until
+ * the response head has been received is reported to the limit of the route along
+ * with whether the response or the exception signals overload.
+ * </p>
+ * <p>
+ * Requests are subject to the limit individually on each execution attempt
+ * including retries and redirects.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class AdaptiveConcurrencyLimitExec implements AsyncExecChainHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyLimitExec.class);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyLimitExec(final AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = Args.notNull(limiter, "Concurrency limiter");
+    }
+
+    @Override
+    public void execute(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+        Args.notNull(request, "HTTP request");
+        Args.notNull(scope, "Scope");
+        final String exchangeId = scope.exchangeId;
+        final HttpRoute route = scope.route;
+        final AdaptiveConcurrencyLimiter.RouteLimit routeLimit = limiter.getRouteLimit(route);
+
+        if (routeLimit.tryAcquire()) {
+            proceed(request, entityProducer, scope, chain, asyncExecCallback, routeLimit);
+            return;
+        }
+        final Cancellable pending = routeLimit.enqueue(
+                () -> dispatch(request, entityProducer, scope, chain, asyncExecCallback, routeLimit),
+                () -> asyncExecCallback.failed(new CancellationException("Request execution cancelled")));
+        if (pending == null) {
+            limiter.recordRejected();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} concurrency limit of route {} exceeded; request rejected", exchangeId, route);
+            }
+            asyncExecCallback.failed(new RejectedExecutionException(
+                    "Concurrency limit of route " + route + " exceeded"));
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} concurrency limit of route {} reached; request queued", exchangeId, route);
+        }
+        scope.cancellableDependency.setDependency(pending);
+    }
+
+    /**
+     * Dispatches a queued request that has been granted a permit. Queued requests get
+     * dispatched when another request to the same route releases its permit, usually
+     * on an I/O dispatch thread, so their execution is handed over to the scheduler
+     * of the client if available.
+     */
+    private void dispatch(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback,
+            final AdaptiveConcurrencyLimiter.RouteLimit routeLimit) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} dispatching queued request to route {}", scope.exchangeId, scope.route);
+        }
+        if (scope.scheduler == null) {
+            try {
+                proceed(request, entityProducer, scope, chain, asyncExecCallback, routeLimit);
+            } catch (final HttpException | IOException | RuntimeException ex) {
+                asyncExecCallback.failed(ex);
+            }
+            return;
+        }
+        final AtomicBoolean started = new AtomicBoolean();
+        try {
+            scope.scheduler.scheduleExecution(
+                    request,
+                    entityProducer,
+                    scope,
+                    (r, e, s, c) -> {
+                        started.set(true);
+                        proceed(r, e, s, chain, asyncExecCallback, routeLimit);
+                    },
+                    new AsyncExecCallback() {
+
+                        @Override
+                        public AsyncDataConsumer handleResponse(
+                                final HttpResponse response,
+                                final EntityDetails entityDetails) {
+                            return null;
+                        }
+
+                        @Override
+                        public void handleInformationResponse(final HttpResponse response) {
+                        }
+
+                        @Override
+                        public void completed() {
+                        }
+
+                        @Override
+                        public void failed(final Exception cause) {
+                            // Release the permit unless the execution has taken it over
+                            if (started.compareAndSet(false, true)) {
+                                routeLimit.release(-1, 0, false);
+                            }
+                            asyncExecCallback.failed(cause);
+                        }
+
+                    },
+                    null);
+        } catch (final RuntimeException ex) {
+            if (started.compareAndSet(false, true)) {
+                routeLimit.release(-1, 0, false);
+            }
+            asyncExecCallback.failed(ex);
+        }
+    }
+
+    private void proceed(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback,
+            final AdaptiveConcurrencyLimiter.RouteLimit routeLimit) throws HttpException, IOException {
+        final int inFlight = routeLimit.getInFlight();
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+
+        final AsyncExecCallback callback = new AsyncExecCallback() {
+
+            private volatile long rttNanos = -1;
+            private volatile boolean dropped;
+
+            private void release(final boolean overload) {
+                if (released.compareAndSet(false, true)) {
+                    routeLimit.release(rttNanos, inFlight, overload);
+                }
+            }
+
+            @Override
+            public AsyncDataConsumer handleResponse(
+                    final HttpResponse response,
+                    final EntityDetails entityDetails) throws HttpException, IOException {
+                rttNanos = System.nanoTime() - startNanos;
+                dropped = limiter.shouldBackoff(response);
+                if (dropped && LOG.isDebugEnabled()) {
+                    LOG.debug("{} response status {} signals overload of route {}",
+                            scope.exchangeId, response.getCode(), scope.route);
+                }
+                return asyncExecCallback.handleResponse(response, entityDetails);
+            }
+
+            @Override
+            public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+                asyncExecCallback.handleInformationResponse(response);
+            }
+
+            @Override
+            public void completed() {
+                // Complete the exchange before the permit gets passed on to a queued request
+                try {
+                    asyncExecCallback.completed();
+                } finally {
+                    release(dropped);
+                }
+            }
+
+            @Override
+            public void failed(final Exception cause) {
+                try {
+                    asyncExecCallback.failed(cause);
+                } finally {
+                    release(dropped || limiter.shouldBackoff(cause));
+                }
+            }
+
+        };
+        try {
+            chain.proceed(request, entityProducer, scope, callback);
+        } catch (final HttpException | IOException | RuntimeException ex) {
+            if (released.compareAndSet(false, true)) {
+                routeLimit.release(-1, inFlight, limiter.shouldBackoff(ex));
+            }
+            throw ex;
+        }
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.ConcurrencyLimit;
+import org.apache.hc.client5.http.classic.ConnectionBackoffStrategy;
+import org.apache.hc.client5.http.impl.classic.DefaultBackoffStrategy;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Maintains a dynamic per-route limit of concurrently executing requests for
+ * asynchronous clients. Each route gets its own {@link ConcurrencyLimit} that is
+ * adjusted from the round trip times of the requests executed to the route and
+ * from the responses and exceptions that the {@link ConnectionBackoffStrategy}
+ * treats as overload signals, such as {@code 429} and {@code 503} responses.
+ * <p>
+ * Requests in excess of the limit are queued up to the configured number per
+ * route and dispatched in FIFO order as executing requests complete. Requests
+ * that do not fit into the queue fail immediately with
+ * a {@link java.util.concurrent.RejectedExecutionException}.
+ * </p>
+ * <p>
+ * Unlike the back-off managers of the classic client this class does not alter
+ * the connection pool and therefore also applies to HTTP/2 where many requests
+ * are multiplexed over a single connection. The current limits can be obtained
+ * from this class for monitoring purposes.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Default maximum number of requests queued per route.
+     */
+    public static final int DEFAULT_MAX_QUEUED_PER_ROUTE = 1000;
+
+    private final Supplier<ConcurrencyLimit> limitFactory;
+    private final ConnectionBackoffStrategy backoffStrategy;
+    private final int maxQueuedPerRoute;
+    private final ConcurrentMap<HttpRoute, RouteLimit> routeLimits;
+    private final LongAdder rejected;
+
+    /**
+     * @param limitFactory the factory of limits created for each route.
+     * @param backoffStrategy the strategy that decides whether a response or
+     *                        an exception signals overload of the opposite endpoint.
+     *                        If {@code null} {@link DefaultBackoffStrategy} is used.
+     * @param maxQueuedPerRoute the maximum number of requests queued per route;
+     *                          {@code 0} to fail requests in excess of the limit immediately.
+     */
+    public AdaptiveConcurrencyLimiter(
+            final Supplier<ConcurrencyLimit> limitFactory,
+            final ConnectionBackoffStrategy backoffStrategy,
+            final int maxQueuedPerRoute) {
+        this.limitFactory = Args.notNull(limitFactory, "Limit factory");
+        this.backoffStrategy = backoffStrategy != null ? backoffStrategy : new DefaultBackoffStrategy();
+        this.maxQueuedPerRoute = Args.notNegative(maxQueuedPerRoute, "Max queued requests per route");
+        this.routeLimits = new ConcurrentHashMap<>();
+        this.rejected = new LongAdder();
+    }
+
+    /**
+     * Creates a limiter with the given limit factory, the default back-off strategy
+     * and the default per-route queue size.
+     */
+    public AdaptiveConcurrencyLimiter(final Supplier<ConcurrencyLimit> limitFactory) {
+        this(limitFactory, null, DEFAULT_MAX_QUEUED_PER_ROUTE);
+    }
+
+    /**
+     * Creates a limiter using {@link AIMDConcurrencyLimit} with its default settings.
+     */
+    public AdaptiveConcurrencyLimiter() {
+        this(AIMDConcurrencyLimit::new);
+    }
+
+    RouteLimit getRouteLimit(final HttpRoute route) {
+        return routeLimits.computeIfAbsent(route, r -> new RouteLimit(limitFactory.get()));
+    }
+
+    boolean shouldBackoff(final HttpResponse response) {
+        return backoffStrategy.shouldBackoff(response);
+    }
+
+    boolean shouldBackoff(final Throwable cause) {
+        return backoffStrategy.shouldBackoff(cause);
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    public int getMaxQueuedPerRoute() {
+        return maxQueuedPerRoute;
+    }
+
+    /**
+     * Returns the routes requests have been executed to.
+     */
+    public Set<HttpRoute> getRoutes() {
+        return Collections.unmodifiableSet(routeLimits.keySet());
+    }
+
+    /**
+     * Returns the current limit for the given route or {@code 0} if no request
+     * has been executed to the route yet.
+     */
+    public int getLimit(final HttpRoute route) {
+        final RouteLimit routeLimit = routeLimits.get(route);
+        return routeLimit != null ? routeLimit.limit.getLimit() : 0;
+    }
+
+    public int getInFlight(final HttpRoute route) {
+        final RouteLimit routeLimit = routeLimits.get(route);
+        return routeLimit != null ? routeLimit.inFlight.get() : 0;
+    }
+
+    public int getQueued(final HttpRoute route) {
+        final RouteLimit routeLimit = routeLimits.get(route);
+        return routeLimit != null ? routeLimit.queued.get() : 0;
+    }
+
+    /**
+     * Returns the sum of the current limits of all routes.
+     */
+    public int getTotalLimit() {
+        int total = 0;
+        for (final RouteLimit routeLimit : routeLimits.values()) {
+            total += routeLimit.limit.getLimit();
+        }
+        return total;
+    }
+
+    public int getTotalInFlight() {
+        int total = 0;
+        for (final RouteLimit routeLimit : routeLimits.values()) {
+            total += routeLimit.inFlight.get();
+        }
+        return total;
+    }
+
+    public int getTotalQueued() {
+        int total = 0;
+        for (final RouteLimit routeLimit : routeLimits.values()) {
+            total += routeLimit.queued.get();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of requests failed because the queue of their route was full.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter[routes=" + routeLimits.size() +
+                ", inFlight=" + getTotalInFlight() +
+                ", queued=" + getTotalQueued() +
+                ", rejected=" + getRejectedCount() + "]";
+    }
+
+    private enum State {
+
+        QUEUED,
+        STARTED,
+        CANCELLED
+
+    }
+
+    final class RouteLimit {
+
+        private final ConcurrencyLimit limit;
+        private final AtomicInteger inFlight;
+        private final AtomicInteger queued;
+        private final ConcurrentLinkedQueue<Pending> queue;
+
+        RouteLimit(final ConcurrencyLimit limit) {
+            this.limit = Args.notNull(limit, "Concurrency limit");
+            this.inFlight = new AtomicInteger();
+            this.queued = new AtomicInteger();
+            this.queue = new ConcurrentLinkedQueue<>();
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        boolean tryAcquire() {
+            for (;;) {
+                final int current = inFlight.get();
+                if (current >= limit.getLimit()) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Queues the task to be run once a permit becomes available. Returns
+         * {@code null} if the queue is full.
+         */
+        Cancellable enqueue(final Runnable task, final Runnable onCancel) {
+            if (queued.incrementAndGet() > maxQueuedPerRoute) {
+                queued.decrementAndGet();
+                return null;
+            }
+            final Pending pending = new Pending(task, onCancel);
+            queue.add(pending);
+            drain();
+            return pending;
+        }
+
+        void release(final long rttNanos, final int inFlightAtStart, final boolean dropped) {
+            if (rttNanos >= 0 || dropped) {
+                limit.onSample(rttNanos, inFlightAtStart, dropped);
+            }
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            while (!queue.isEmpty() && tryAcquire()) {
+                final Pending pending = queue.poll();
+                if (pending == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                queued.decrementAndGet();
+                if (pending.tryStart()) {
+                    pending.task.run();
+                } else {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+
+        private final class Pending implements Cancellable {
+
+            private final Runnable task;
+            private final Runnable onCancel;
+            private final AtomicReference<State> state;
+
+            Pending(final Runnable task, final Runnable onCancel) {
+                this.task = task;
+                this.onCancel = onCancel;
+                this.state = new AtomicReference<>(State.QUEUED);
+            }
+
+            boolean tryStart() {
+                return state.compareAndSet(State.QUEUED, State.STARTED);
+            }
+
+            @Override
+            public boolean cancel() {
+                if (state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+                    if (queue.remove(this)) {
+                        queued.decrementAndGet();
+                    }
+                    onCancel.run();
+                    return true;
+                }
+                return false;
+            }
+
+        }
+
+    }
+
+}
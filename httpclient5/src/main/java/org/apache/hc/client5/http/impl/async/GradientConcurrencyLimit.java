@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.async.ConcurrencyLimit;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ConcurrencyLimit} driven by the gradient between a long-term average
+ * of round trip times and the most recent round trip time. The limit is scaled
+ * down as the recent round trip time rises above the long-term average and is
+ * allowed to grow by the square root of the limit while latency stays flat.
+ * Requests that signal overload halve the target limit.
+ * <p>
+ * Changes to the limit are smoothed to dampen the effect of outliers.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class GradientConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final double LONG_RTT_WEIGHT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final ReentrantLock lock;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the lower bound of the limit.
+     * @param maxLimit the upper bound of the limit.
+     * @param smoothing weight of the new target in the adjusted limit, must be
+     *                  greater than 0.0 and not greater than 1.0.
+     */
+    public GradientConcurrencyLimit(
+            final int initialLimit,
+            final int minLimit,
+            final int maxLimit,
+            final double smoothing) {
+        Args.positive(minLimit, "Min limit");
+        Args.check(maxLimit >= minLimit, "Max limit must not be less than min limit");
+        Args.check(initialLimit >= minLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min limit and max limit");
+        Args.check(smoothing > 0.0 && smoothing <= 1.0, "Smoothing must be 0.0 < s <= 1.0");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Creates a limit starting at 20 and ranging from 1 to 1000 with
+     * a smoothing of 0.2.
+     */
+    public GradientConcurrencyLimit() {
+        this(20, 1, 1000, 0.2);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        lock.lock();
+        try {
+            final double target;
+            if (dropped) {
+                target = estimatedLimit * 0.5;
+            } else {
+                if (rttNanos <= 0) {
+                    return;
+                }
+                if (longRtt == 0) {
+                    longRtt = rttNanos;
+                } else {
+                    longRtt = longRtt * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+                    // Let the long-term average recover quickly once latency drops
+                    if (longRtt / rttNanos > 2) {
+                        longRtt = longRtt * 0.95;
+                    }
+                }
+                // Do not grow the limit while it is not utilized
+                if (inFlight * 2 < estimatedLimit) {
+                    return;
+                }
+                final double gradient = Math.max(0.5, Math.min(1.0, longRtt / rttNanos));
+                target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            }
+            final double newLimit = estimatedLimit * (1 - smoothing) + target * smoothing;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Gradient[limit=" + limit + "]";
+    }
+
+}
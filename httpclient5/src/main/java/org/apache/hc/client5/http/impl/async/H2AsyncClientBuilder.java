@@ -44,6 +44,7 @@
 import org.apache.hc.client5.http.auth.CredentialsProvider;
 import org.apache.hc.client5.http.auth.StandardAuthScheme;
 import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.HedgingConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.cookie.BasicCookieStore;
 import org.apache.hc.client5.http.cookie.CookieSpecFactory;
@@ -221,6 +222,14 @@ private ExecInterceptorEntry(
 
     private int maxQueuedRequests = -1;
 
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private HedgingConfig hedgingConfig;
+
+    private int maxSessionsPerRoute = 1;
+
+    private H2SessionSelectionPolicy sessionSelectionPolicy;
+
     public static H2AsyncClientBuilder create() {
         return new H2AsyncClientBuilder();
     }
@@ -343,6 +352,63 @@ public final H2AsyncClientBuilder setMaxQueuedRequests(final int max) {
         return this;
     }
 
+    /**
+     * Assigns {@link AdaptiveConcurrencyLimiter} that dynamically limits the number
+     * of requests executing concurrently to each route based on observed latency
+     * and overload signals. Requests in excess of the limit are queued or rejected.
+     * The same limiter instance can be used to monitor the current limits.
+     *
+     * @param concurrencyLimiter the concurrency limiter or {@code null} to disable limiting (default).
+     * @return this builder
+     * @since 5.7
+     */
+    public final H2AsyncClientBuilder setConcurrencyLimiter(final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * Enables hedging of idempotent requests without an enclosed entity. A second attempt
+     * is sent over another connection if the first one has not received a response head
+     * within the hedging delay; the first response wins and the other attempt is cancelled.
+     *
+     * @param hedgingConfig the hedging configuration or {@code null} to disable hedging (default).
+     * @return this builder
+     * @since 5.7
+     */
+    public final H2AsyncClientBuilder setHedgingConfig(final HedgingConfig hedgingConfig) {
+        this.hedgingConfig = hedgingConfig;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of HTTP/2 sessions kept open per route. A single
+     * session is bound to one TCP connection and one I/O dispatch thread; opening
+     * several sessions per route spreads message exchanges over several connections
+     * and dispatch threads. Sessions that get closed are replaced on demand.
+     * Defaults to {@code 1}.
+     *
+     * @param max maximum number of sessions per route
+     * @return this builder
+     * @since 5.7
+     */
+    public final H2AsyncClientBuilder setMaxSessionsPerRoute(final int max) {
+        this.maxSessionsPerRoute = Args.positive(max, "Max sessions per route");
+        return this;
+    }
+
+    /**
+     * Sets the policy used to pick one of several sessions of a route for
+     * a new message exchange. Defaults to {@link H2SessionSelectionPolicy#ROUND_ROBIN}.
+     *
+     * @return this builder
+     * @since 5.7
+     */
+    public final H2AsyncClientBuilder setSessionSelectionPolicy(final H2SessionSelectionPolicy sessionSelectionPolicy) {
+        this.sessionSelectionPolicy = sessionSelectionPolicy;
+        return this;
+    }
+
     /**
      * Adds this protocol interceptor to the head of the protocol processing list.
      *
@@ -856,6 +922,18 @@ public CloseableHttpAsyncClient build() {
                         authCachingDisabled),
                 ChainElement.PROTOCOL.name());
 
+        if (concurrencyLimiter != null) {
+            execChainDefinition.addFirst(
+                    new AdaptiveConcurrencyLimitExec(concurrencyLimiter),
+                    ChainElement.BACK_OFF.name());
+        }
+
+        if (hedgingConfig != null) {
+            execChainDefinition.addFirst(
+                    new HedgingAsyncExec(hedgingConfig),
+                    ChainElement.HEDGE.name());
+        }
+
         // Add request retry executor, if not disabled
         if (!automaticRetriesDisabled) {
             HttpRequestRetryStrategy retryStrategyCopy = this.retryStrategy;
@@ -973,6 +1051,8 @@ public CloseableHttpAsyncClient build() {
         final MultihomeConnectionInitiator connectionInitiator = new MultihomeConnectionInitiator(ioReactor, dnsResolver);
         final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, host -> null, tlsStrategyCopy);
         connPool.setConnectionConfigResolver(connectionConfigResolver);
+        connPool.setMaxSessionsPerRoute(maxSessionsPerRoute);
+        connPool.setSessionSelectionPolicy(sessionSelectionPolicy);
 
         List<Closeable> closeablesCopy = closeables != null ? new ArrayList<>(closeables) : null;
         if (closeablesCopy == null) {
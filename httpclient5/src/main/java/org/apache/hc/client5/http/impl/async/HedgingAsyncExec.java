@@ -0,0 +1,592 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.auth.AuthExchange;
+import org.apache.hc.client5.http.config.HedgingConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.ComplexCancellable;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.support.BasicRequestBuilder;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Request execution handler in the asynchronous request execution chain that
+ * hedges idempotent requests without an enclosed entity in accordance with
+ * {@link HedgingConfig}.
+ * <p>
+ * If the first attempt has not received a response head within the hedging delay
+ * a second attempt is started over a forked execution runtime, that is, over
+ * a different connection. The attempt that receives a response head first wins;
+ * the other attempt is cancelled.
+ * </p>
+ * <p>
+ * Each attempt executes with its own copy of the client context. The state of
+ * the winning attempt is copied back to the original context.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+@Internal
+final class HedgingAsyncExec implements AsyncExecChainHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingAsyncExec.class);
+
+    private static final int TOKEN = 1000;
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECALCULATE_INTERVAL = 16;
+
+    private final HedgingConfig config;
+    private final int deposit;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+    private final long[] samples;
+    private final ReentrantLock samplesLock;
+    private final LongAdder hedgeCount;
+    private final LongAdder hedgeWinCount;
+
+    private int sampleCount;
+    private volatile long percentileNanos;
+
+    HedgingAsyncExec(final HedgingConfig config) {
+        this.config = Args.notNull(config, "Hedging config");
+        this.deposit = (int) Math.round(config.getBudgetRatio() * TOKEN);
+        this.maxTokens = (long) config.getMaxBudget() * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+        this.samples = new long[WINDOW_SIZE];
+        this.samplesLock = new ReentrantLock();
+        this.hedgeCount = new LongAdder();
+        this.hedgeWinCount = new LongAdder();
+        this.percentileNanos = -1;
+    }
+
+    @Override
+    public void execute(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+        Args.notNull(request, "HTTP request");
+        Args.notNull(scope, "Scope");
+        if (entityProducer != null || scope.scheduler == null || !Method.isIdempotent(request.getMethod())) {
+            chain.proceed(request, entityProducer, scope, asyncExecCallback);
+            return;
+        }
+        depositToken();
+
+        final Exchange exchange = new Exchange(scope, chain, asyncExecCallback);
+        scope.cancellableDependency.setDependency(exchange::cancel);
+
+        final Attempt primary = exchange.primary;
+        final AsyncExecChain.Scope primaryScope = new AsyncExecChain.Scope(
+                scope.exchangeId,
+                scope.route,
+                scope.originalRequest,
+                primary.cancellable,
+                primary.clientContext,
+                scope.execRuntime,
+                scope.scheduler,
+                scope.execCount);
+        // The scheduler holds on to the scope until the delay elapses; the scope it gets
+        // must not reach the exchange through the cancellable dependency
+        final AsyncExecChain.Scope hedgeTaskScope = new AsyncExecChain.Scope(
+                scope.exchangeId,
+                scope.route,
+                scope.originalRequest,
+                new ComplexCancellable(),
+                scope.clientContext,
+                scope.execRuntime,
+                scope.scheduler,
+                scope.execCount);
+        final TimeValue delay = getDelay();
+        scope.scheduler.scheduleExecution(
+                request,
+                null,
+                hedgeTaskScope,
+                exchange.task,
+                exchange.task,
+                delay);
+        try {
+            chain.proceed(request, null, primaryScope, primary);
+        } catch (final HttpException | IOException | RuntimeException ex) {
+            primary.failed(ex);
+        }
+    }
+
+    private void startHedge(
+            final HttpRequest request,
+            final AsyncExecChain.Scope scope,
+            final Exchange exchange) {
+        if (!exchange.isPending()) {
+            return;
+        }
+        if (!withdrawToken()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} hedging budget exhausted", scope.exchangeId);
+            }
+            return;
+        }
+        final AsyncExecRuntime execRuntime = scope.execRuntime.fork();
+        final Attempt hedge = exchange.startHedge(execRuntime);
+        if (hedge == null) {
+            depositRefund();
+            return;
+        }
+        hedgeCount.increment();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} no response from {} within hedging delay; sending hedged request",
+                    scope.exchangeId, scope.route);
+        }
+        final HttpRequest hedgedRequest = BasicRequestBuilder.copy(request).build();
+        final AsyncExecChain.Scope hedgeScope = new AsyncExecChain.Scope(
+                scope.exchangeId,
+                scope.route,
+                scope.originalRequest,
+                hedge.cancellable,
+                hedge.clientContext,
+                execRuntime,
+                scope.scheduler,
+                scope.execCount);
+        try {
+            exchange.chain.proceed(hedgedRequest, null, hedgeScope, hedge);
+        } catch (final HttpException | IOException | RuntimeException ex) {
+            hedge.failed(ex);
+        }
+    }
+
+    TimeValue getDelay() {
+        if (config.getPercentile() > 0) {
+            final long nanos = percentileNanos;
+            if (nanos >= 0) {
+                return TimeValue.of(
+                        Math.max(nanos, config.getMinDelay().toNanoseconds()),
+                        TimeUnit.NANOSECONDS);
+            }
+        }
+        return config.getDelay();
+    }
+
+    private void recordResponseTime(final long nanos) {
+        if (config.getPercentile() <= 0) {
+            return;
+        }
+        samplesLock.lock();
+        try {
+            samples[sampleCount % WINDOW_SIZE] = nanos;
+            sampleCount++;
+            if (sampleCount >= MIN_SAMPLES && sampleCount % RECALCULATE_INTERVAL == 0) {
+                final long[] sorted = Arrays.copyOf(samples, Math.min(sampleCount, WINDOW_SIZE));
+                Arrays.sort(sorted);
+                percentileNanos = sorted[(int) Math.floor(config.getPercentile() * (sorted.length - 1))];
+            }
+        } finally {
+            samplesLock.unlock();
+        }
+    }
+
+    private void depositToken() {
+        tokens.updateAndGet(n -> Math.min(maxTokens, n + deposit));
+    }
+
+    private void depositRefund() {
+        tokens.updateAndGet(n -> Math.min(maxTokens, n + TOKEN));
+    }
+
+    private boolean withdrawToken() {
+        for (;;) {
+            final long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given context for a single attempt. Attributes are looked up
+     * in the original context but set locally. Authentication exchanges are copied as
+     * they get updated in the course of request execution.
+     */
+    static HttpClientContext copyContext(final HttpClientContext context) {
+        final HttpClientContext copy = new HttpClientContext(context);
+        if (context.getHttpRoute() instanceof HttpRoute) {
+            copy.setRoute((HttpRoute) context.getHttpRoute());
+        }
+        copy.setRedirectLocations(context.getRedirectLocations());
+        copy.setCookieSpecRegistry(context.getCookieSpecRegistry());
+        copy.setAuthSchemeRegistry(context.getAuthSchemeRegistry());
+        copy.setCookieStore(context.getCookieStore());
+        copy.setCredentialsProvider(context.getCredentialsProvider());
+        copy.setAuthCache(context.getAuthCache());
+        copy.setRequestConfig(context.getRequestConfig());
+        copy.setExchangeId(context.getExchangeId());
+        copy.setUserToken(context.getUserToken());
+        copy.setNextNonce(context.getNextNonce());
+        copy.setRequest(context.getRequest());
+        for (final Map.Entry<HttpHost, AuthExchange> entry : context.getAuthExchanges().entrySet()) {
+            final AuthExchange src = entry.getValue();
+            final AuthExchange dst = new AuthExchange();
+            if (src.getAuthScheme() != null) {
+                dst.select(src.getAuthScheme());
+            }
+            if (src.getAuthOptions() != null && !src.getAuthOptions().isEmpty()) {
+                dst.setOptions(new LinkedList<>(src.getAuthOptions()));
+            }
+            dst.setState(src.getState());
+            dst.setPathPrefix(src.getPathPrefix());
+            copy.setAuthExchange(entry.getKey(), dst);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the state produced by the execution of an attempt back to the original context.
+     */
+    static void mergeContext(final HttpClientContext src, final HttpClientContext dst) {
+        dst.setRequest(src.getRequest());
+        dst.setResponse(src.getResponse());
+        dst.setEndpointDetails(src.getEndpointDetails());
+        dst.setSSLSession(src.getSSLSession());
+        dst.setProtocolVersion(src.getProtocolVersion());
+        dst.setCookieSpec(src.getCookieSpec());
+        dst.setCookieOrigin(src.getCookieOrigin());
+        dst.setUserToken(src.getUserToken());
+        dst.setNextNonce(src.getNextNonce());
+        for (final Map.Entry<HttpHost, AuthExchange> entry : src.getAuthExchanges().entrySet()) {
+            dst.setAuthExchange(entry.getKey(), entry.getValue());
+        }
+    }
+
+    long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    final class Exchange {
+
+        private final AsyncExecChain.Scope scope;
+        private final AsyncExecChain chain;
+        private final AsyncExecCallback asyncExecCallback;
+        private final long startNanos;
+        private final Attempt primary;
+        private final HedgeTask task;
+        private final ReentrantLock lock;
+
+        private Attempt hedge;
+        private Attempt winner;
+        private int active;
+        private boolean done;
+
+        Exchange(
+                final AsyncExecChain.Scope scope,
+                final AsyncExecChain chain,
+                final AsyncExecCallback asyncExecCallback) {
+            this.scope = scope;
+            this.chain = chain;
+            this.asyncExecCallback = asyncExecCallback;
+            this.startNanos = System.nanoTime();
+            this.lock = new ReentrantLock();
+            this.primary = new Attempt(this, null, copyContext(scope.clientContext));
+            this.task = new HedgeTask(this);
+            this.active = 1;
+        }
+
+        boolean isPending() {
+            lock.lock();
+            try {
+                return !done && winner == null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isWinner(final Attempt attempt) {
+            lock.lock();
+            try {
+                return winner == attempt;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isPendingOrWon(final Attempt attempt) {
+            lock.lock();
+            try {
+                return !done && (winner == null || winner == attempt);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Attempt startHedge(final AsyncExecRuntime execRuntime) {
+            lock.lock();
+            try {
+                if (done || winner != null || hedge != null) {
+                    return null;
+                }
+                hedge = new Attempt(this, execRuntime, copyContext(scope.clientContext));
+                active++;
+                return hedge;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean cancel() {
+            final Attempt hedgeAttempt;
+            lock.lock();
+            try {
+                hedgeAttempt = hedge;
+            } finally {
+                lock.unlock();
+            }
+            final boolean cancelled = primary.cancellable.cancel();
+            return hedgeAttempt != null ? hedgeAttempt.cancellable.cancel() || cancelled : cancelled;
+        }
+
+        boolean tryWin(final Attempt attempt) {
+            final Attempt other;
+            lock.lock();
+            try {
+                if (done || winner != null) {
+                    return winner == attempt;
+                }
+                winner = attempt;
+                other = attempt == primary ? hedge : primary;
+            } finally {
+                lock.unlock();
+            }
+            task.drop();
+            recordResponseTime(System.nanoTime() - startNanos);
+            if (attempt.hedged) {
+                hedgeWinCount.increment();
+            }
+            if (other != null) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} {} attempt responded first; cancelling the other attempt",
+                            scope.exchangeId, attempt.hedged ? "hedged" : "original");
+                }
+                other.cancellable.cancel();
+            }
+            return true;
+        }
+
+        void completed(final Attempt attempt) {
+            lock.lock();
+            try {
+                if (done || winner != attempt) {
+                    return;
+                }
+                done = true;
+            } finally {
+                lock.unlock();
+            }
+            mergeContext(attempt.clientContext, scope.clientContext);
+            asyncExecCallback.completed();
+        }
+
+        void failed(final Attempt attempt, final Exception cause) {
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+                active--;
+                if (winner != attempt && (winner != null || active > 0)) {
+                    return;
+                }
+                done = true;
+            } finally {
+                lock.unlock();
+            }
+            task.drop();
+            mergeContext(attempt.clientContext, scope.clientContext);
+            asyncExecCallback.failed(cause);
+        }
+
+    }
+
+    /**
+     * Hedging task handed to the scheduler. The scheduler offers no means to cancel
+     * the task, so it lets go of the exchange once the exchange no longer needs
+     * a hedged attempt. Only the request and a scope detached from the exchange
+     * remain queued until the hedging delay elapses.
+     */
+    final class HedgeTask implements AsyncExecChain, AsyncExecCallback {
+
+        private volatile Exchange exchange;
+
+        HedgeTask(final Exchange exchange) {
+            this.exchange = exchange;
+        }
+
+        void drop() {
+            exchange = null;
+        }
+
+        boolean isDropped() {
+            return exchange == null;
+        }
+
+        @Override
+        public void proceed(
+                final HttpRequest request,
+                final AsyncEntityProducer entityProducer,
+                final AsyncExecChain.Scope scope,
+                final AsyncExecCallback asyncExecCallback) {
+            final Exchange current = exchange;
+            if (current != null) {
+                startHedge(request, scope, current);
+            }
+        }
+
+        @Override
+        public AsyncDataConsumer handleResponse(
+                final HttpResponse response,
+                final EntityDetails entityDetails) {
+            return null;
+        }
+
+        @Override
+        public void handleInformationResponse(final HttpResponse response) {
+        }
+
+        @Override
+        public void completed() {
+        }
+
+        /**
+         * Receives the outcome of the task only if the scheduler fails to run it,
+         * for instance because the client is being shut down.
+         */
+        @Override
+        public void failed(final Exception cause) {
+            final Exchange current = exchange;
+            if (current != null && current.isPending()) {
+                current.cancel();
+            }
+        }
+
+    }
+
+    final class Attempt implements AsyncExecCallback {
+
+        private final Exchange exchange;
+        private final AsyncExecRuntime execRuntime;
+        private final boolean hedged;
+        private final ComplexCancellable cancellable;
+        private final HttpClientContext clientContext;
+
+        /**
+         * @param execRuntime the forked runtime of a hedged attempt or {@code null}
+         *                    for the original attempt whose endpoint is managed by the caller.
+         * @param clientContext the private context of the attempt.
+         */
+        Attempt(final Exchange exchange, final AsyncExecRuntime execRuntime, final HttpClientContext clientContext) {
+            this.exchange = exchange;
+            this.execRuntime = execRuntime;
+            this.hedged = execRuntime != null;
+            this.cancellable = new ComplexCancellable();
+            this.clientContext = clientContext;
+        }
+
+        @Override
+        public AsyncDataConsumer handleResponse(
+                final HttpResponse response,
+                final EntityDetails entityDetails) throws HttpException, IOException {
+            if (!exchange.tryWin(this)) {
+                return null;
+            }
+            mergeContext(clientContext, exchange.scope.clientContext);
+            return exchange.asyncExecCallback.handleResponse(response, entityDetails);
+        }
+
+        @Override
+        public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+            if (exchange.isPendingOrWon(this)) {
+                exchange.asyncExecCallback.handleInformationResponse(response);
+            }
+        }
+
+        @Override
+        public void completed() {
+            if (execRuntime != null) {
+                if (exchange.isWinner(this)) {
+                    execRuntime.releaseEndpoint();
+                } else {
+                    execRuntime.discardEndpoint();
+                }
+            }
+            exchange.completed(this);
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            if (execRuntime != null) {
+                execRuntime.discardEndpoint();
+            }
+            exchange.failed(this, cause);
+        }
+
+    }
+
+}
@@ -48,6 +48,7 @@
 import org.apache.hc.client5.http.auth.AuthSchemeFactory;
 import org.apache.hc.client5.http.auth.CredentialsProvider;
 import org.apache.hc.client5.http.auth.StandardAuthScheme;
+import org.apache.hc.client5.http.config.HedgingConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.cookie.BasicCookieStore;
@@ -250,6 +251,10 @@ private ExecInterceptorEntry(
 
     private int maxQueuedRequests = -1;
 
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private HedgingConfig hedgingConfig;
+
     private EarlyHintsListener earlyHintsListener;
 
     private boolean priorityHeaderDisabled;
@@ -925,6 +930,35 @@ public HttpAsyncClientBuilder setMaxQueuedRequests(final int max) {
         return this;
     }
 
+    /**
+     * Assigns {@link AdaptiveConcurrencyLimiter} that dynamically limits the number
+     * of requests executing concurrently to each route based on observed latency
+     * and overload signals. Requests in excess of the limit are queued or rejected.
+     * The same limiter instance can be used to monitor the current limits.
+     *
+     * @param concurrencyLimiter the concurrency limiter or {@code null} to disable limiting (default).
+     * @return this builder
+     * @since 5.7
+     */
+    public HttpAsyncClientBuilder setConcurrencyLimiter(final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * Enables hedging of idempotent requests without an enclosed entity. A second attempt
+     * is sent over another connection if the first one has not received a response head
+     * within the hedging delay; the first response wins and the other attempt is cancelled.
+     *
+     * @param hedgingConfig the hedging configuration or {@code null} to disable hedging (default).
+     * @return this builder
+     * @since 5.7
+     */
+    public HttpAsyncClientBuilder setHedgingConfig(final HedgingConfig hedgingConfig) {
+        this.hedgingConfig = hedgingConfig;
+        return this;
+    }
+
 
     /**
      * Disable installing the HTTP/2 Priority header interceptor by default.
@@ -1102,6 +1136,18 @@ public CloseableHttpAsyncClient build() {
                         authCachingDisabled),
                 ChainElement.PROTOCOL.name());
 
+        if (concurrencyLimiter != null) {
+            execChainDefinition.addFirst(
+                    new AdaptiveConcurrencyLimitExec(concurrencyLimiter),
+                    ChainElement.BACK_OFF.name());
+        }
+
+        if (hedgingConfig != null) {
+            execChainDefinition.addFirst(
+                    new HedgingAsyncExec(hedgingConfig),
+                    ChainElement.HEDGE.name());
+        }
+
 
         // Add request retry executor, if not disabled
         if (!automaticRetriesDisabled) {
@@ -103,12 +103,13 @@ public Cancellable acquireEndpoint(
             if (log.isDebugEnabled()) {
                 log.debug("{} acquiring endpoint ({})", id, connectTimeout);
             }
-            return Operations.cancellable(connPool.getSession(route, connectTimeout,
+            final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(route);
+            return Operations.cancellable(connPool.getSession(route, slot, connectTimeout,
                     new FutureCallback<IOSession>() {
 
                         @Override
                         public void completed(final IOSession ioSession) {
-                            sessionRef.set(new Endpoint(route, ioSession));
+                            sessionRef.set(new Endpoint(route, ioSession, slot));
                             reusable = true;
                             if (log.isDebugEnabled()) {
                                 log.debug("{} acquired endpoint", id);
@@ -142,8 +143,11 @@ private void closeEndpoint(final Endpoint endpoint) {
     @Override
     public void releaseEndpoint() {
         final Endpoint endpoint = sessionRef.getAndSet(null);
-        if (endpoint != null && !reusable) {
-            closeEndpoint(endpoint);
+        if (endpoint != null) {
+            endpoint.slot.release();
+            if (!reusable) {
+                closeEndpoint(endpoint);
+            }
         }
     }
 
@@ -151,6 +155,7 @@ public void releaseEndpoint() {
     public void discardEndpoint() {
         final Endpoint endpoint = sessionRef.getAndSet(null);
         if (endpoint != null) {
+            endpoint.slot.release();
             closeEndpoint(endpoint);
         }
     }
@@ -163,6 +168,7 @@ public boolean validateConnection() {
         }
         final Endpoint endpoint = sessionRef.getAndSet(null);
         if (endpoint != null) {
+            endpoint.slot.release();
             closeEndpoint(endpoint);
         }
         return false;
@@ -198,12 +204,14 @@ public Cancellable connectEndpoint(
         if (log.isDebugEnabled()) {
             log.debug("{} connecting endpoint ({})", ConnPoolSupport.getId(endpoint), connectTimeout);
         }
-        return Operations.cancellable(connPool.getSession(route, connectTimeout,
+        final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(route);
+        return Operations.cancellable(connPool.getSession(route, slot, connectTimeout,
             new FutureCallback<IOSession>() {
 
             @Override
             public void completed(final IOSession ioSession) {
-                sessionRef.set(new Endpoint(route, ioSession));
+                endpoint.slot.release();
+                sessionRef.set(new Endpoint(route, ioSession, slot));
                 reusable = true;
                 if (log.isDebugEnabled()) {
                     log.debug("{} endpoint connected", ConnPoolSupport.getId(endpoint));
@@ -314,11 +322,13 @@ private void startExecution(
             final HttpRoute route = endpoint.route;
             @SuppressWarnings("deprecation")
             final Timeout connectTimeout = requestConfig.getConnectTimeout();
-            connPool.getSession(route, connectTimeout, new FutureCallback<IOSession>() {
+            final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(route);
+            connPool.getSession(route, slot, connectTimeout, new FutureCallback<IOSession>() {
 
                 @Override
                 public void completed(final IOSession ioSession) {
-                    sessionRef.set(new Endpoint(route, ioSession));
+                    endpoint.slot.release();
+                    sessionRef.set(new Endpoint(route, ioSession, slot));
                     reusable = true;
                     if (log.isDebugEnabled()) {
                         log.debug("{} start execution {}", ConnPoolSupport.getId(endpoint), id);
@@ -364,10 +374,12 @@ static class Endpoint implements Identifiable {
 
         final HttpRoute route;
         final IOSession session;
+        final InternalH2ConnPool.SessionSlot slot;
 
-        Endpoint(final HttpRoute route, final IOSession session) {
+        Endpoint(final HttpRoute route, final IOSession session, final InternalH2ConnPool.SessionSlot slot) {
             this.route = route;
             this.session = session;
+            this.slot = slot;
         }
 
         @Override
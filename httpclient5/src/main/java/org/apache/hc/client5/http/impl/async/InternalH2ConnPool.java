@@ -27,7 +27,13 @@
 package org.apache.hc.client5.http.impl.async;
 
 import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.config.ConnectionConfig;
@@ -49,19 +55,32 @@
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
+/**
+ * Pool of HTTP/2 sessions used by HTTP/2 only clients. Up to the configured
+ * number of sessions are kept open to each route; message exchanges are
+ * distributed across them according to {@link H2SessionSelectionPolicy}.
+ * Sessions that have been closed are replaced on demand.
+ */
 class InternalH2ConnPool implements ModalCloseable {
 
     private final SessionPool sessionPool;
+    private final ConcurrentMap<HttpRoute, RouteSessions> routeSessions;
 
     private volatile Resolver<HttpHost, ConnectionConfig> connectionConfigResolver;
+    private volatile int maxSessionsPerRoute;
+    private volatile H2SessionSelectionPolicy sessionSelectionPolicy;
 
     InternalH2ConnPool(final ConnectionInitiator connectionInitiator,
                        final Resolver<HttpHost, InetSocketAddress> addressResolver,
                        final TlsStrategy tlsStrategy) {
         this.sessionPool = new SessionPool(connectionInitiator, addressResolver, tlsStrategy);
+        this.routeSessions = new ConcurrentHashMap<>();
+        this.maxSessionsPerRoute = 1;
+        this.sessionSelectionPolicy = H2SessionSelectionPolicy.ROUND_ROBIN;
     }
 
     @Override
@@ -80,15 +99,33 @@ private ConnectionConfig resolveConnectionConfig(final HttpHost httpHost) {
         return connectionConfig != null ? connectionConfig : ConnectionConfig.DEFAULT;
     }
 
+    /**
+     * Selects the session slot of the given route a new message exchange is to use and
+     * counts the exchange against it. The slot must be passed to
+     * {@link #getSession(HttpRoute, SessionSlot, Timeout, FutureCallback)} and released
+     * with {@link SessionSlot#release()} once the exchange no longer uses the session.
+     */
+    SessionSlot leaseSlot(final HttpRoute route) {
+        final SessionSlot slot = routeSessions.computeIfAbsent(route, r -> new RouteSessions())
+                .select(maxSessionsPerRoute, sessionSelectionPolicy);
+        slot.inFlight.incrementAndGet();
+        return slot;
+    }
+
+    /**
+     * Obtains the session of the given slot, connecting a new one if necessary. The slot
+     * is released if no session can be obtained.
+     */
     public Future<IOSession> getSession(
             final HttpRoute route,
+            final SessionSlot slot,
             final Timeout connectTimeout,
             final FutureCallback<IOSession> callback) {
         final ConnectionConfig connectionConfig = resolveConnectionConfig(route.getTargetHost());
         return sessionPool.getSession(
-                route,
+                new SessionKey(route, slot.index),
                 connectTimeout != null ? connectTimeout : connectionConfig.getConnectTimeout(),
-                new CallbackContribution<IOSession>(callback) {
+                new FutureCallback<IOSession>() {
 
                     @Override
                     public void completed(final IOSession ioSession) {
@@ -96,7 +133,25 @@ public void completed(final IOSession ioSession) {
                         if (socketTimeout != null) {
                             ioSession.setSocketTimeout(socketTimeout);
                         }
-                        callback.completed(ioSession);
+                        if (callback != null) {
+                            callback.completed(ioSession);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        slot.release();
+                        if (callback != null) {
+                            callback.failed(ex);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        slot.release();
+                        if (callback != null) {
+                            callback.cancelled();
+                        }
                     }
 
                 });
@@ -118,8 +173,131 @@ public void setValidateAfterInactivity(final TimeValue timeValue) {
         sessionPool.validateAfterInactivity = timeValue;
     }
 
+    public int getMaxSessionsPerRoute() {
+        return maxSessionsPerRoute;
+    }
+
+    public void setMaxSessionsPerRoute(final int max) {
+        this.maxSessionsPerRoute = Args.positive(max, "Max sessions per route");
+    }
+
+    public H2SessionSelectionPolicy getSessionSelectionPolicy() {
+        return sessionSelectionPolicy;
+    }
+
+    public void setSessionSelectionPolicy(final H2SessionSelectionPolicy policy) {
+        this.sessionSelectionPolicy = policy != null ? policy : H2SessionSelectionPolicy.ROUND_ROBIN;
+    }
+
+    int getInFlight(final HttpRoute route, final int index) {
+        final RouteSessions sessions = routeSessions.get(route);
+        final SessionSlot[] slots = sessions != null ? sessions.slots : null;
+        return slots != null && index < slots.length ? slots[index].inFlight.get() : 0;
+    }
+
+    static final class SessionKey {
+
+        final HttpRoute route;
+        final int index;
+
+        SessionKey(final HttpRoute route, final int index) {
+            this.route = route;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof SessionKey) {
+                final SessionKey that = (SessionKey) obj;
+                return index == that.index && route.equals(that.route);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(route, index);
+        }
+
+        @Override
+        public String toString() {
+            return index == 0 ? route.toString() : route + " #" + index;
+        }
+
+    }
+
+    static final class SessionSlot {
+
+        final int index;
+        final AtomicInteger inFlight;
+
+        SessionSlot(final int index) {
+            this.index = index;
+            this.inFlight = new AtomicInteger();
+        }
+
+        void release() {
+            inFlight.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+
+    }
+
+    static final class RouteSessions {
+
+        private final AtomicInteger counter;
+        private final ReentrantLock lock;
+        private volatile SessionSlot[] slots;
+
+        RouteSessions() {
+            this.counter = new AtomicInteger();
+            this.lock = new ReentrantLock();
+            this.slots = new SessionSlot[0];
+        }
+
+        private SessionSlot[] getSlots(final int max) {
+            SessionSlot[] current = slots;
+            if (current.length != max) {
+                lock.lock();
+                try {
+                    current = slots;
+                    if (current.length != max) {
+                        final SessionSlot[] resized = Arrays.copyOf(current, max);
+                        for (int i = current.length; i < max; i++) {
+                            resized[i] = new SessionSlot(i);
+                        }
+                        slots = resized;
+                        current = resized;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return current;
+        }
+
+        SessionSlot select(final int max, final H2SessionSelectionPolicy policy) {
+            final SessionSlot[] current = getSlots(max);
+            final int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % current.length;
+            if (policy != H2SessionSelectionPolicy.LEAST_STREAMS) {
+                return current[start];
+            }
+            SessionSlot best = null;
+            for (int i = 0; i < current.length; i++) {
+                final SessionSlot slot = current[(start + i) % current.length];
+                if (best == null || slot.inFlight.get() < best.inFlight.get()) {
+                    best = slot;
+                }
+            }
+            return best;
+        }
+
+    }
+
 
-    static class SessionPool extends AbstractIOSessionPool<HttpRoute> {
+    static class SessionPool extends AbstractIOSessionPool<SessionKey> {
 
         private final ConnectionInitiator connectionInitiator;
         private final Resolver<HttpHost, InetSocketAddress> addressResolver;
@@ -136,9 +314,10 @@ static class SessionPool extends AbstractIOSessionPool<HttpRoute> {
         }
 
         @Override
-        protected Future<IOSession> connectSession(final HttpRoute route,
+        protected Future<IOSession> connectSession(final SessionKey sessionKey,
                                                    final Timeout connectTimeout,
                                                    final FutureCallback<IOSession> callback) {
+            final HttpRoute route = sessionKey.route;
             final HttpHost target = route.getTargetHost();
             final InetSocketAddress localAddress = route.getLocalSocketAddress();
             final InetSocketAddress remoteAddress = addressResolver.resolve(target);
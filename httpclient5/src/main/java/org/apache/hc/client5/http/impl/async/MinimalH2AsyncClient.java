@@ -145,7 +145,9 @@ public Cancellable execute(
                 final Timeout responseTimeout = requestConfig.getResponseTimeout();
                 final HttpHost target = new HttpHost(request.getScheme(), request.getAuthority());
 
-                final Future<IOSession> sessionFuture = connPool.getSession(new HttpRoute(target), connectTimeout,
+                final HttpRoute route = new HttpRoute(target);
+                final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(route);
+                final Future<IOSession> sessionFuture = connPool.getSession(route, slot, connectTimeout,
                     new FutureCallback<IOSession>() {
 
                     @Override
@@ -154,6 +156,7 @@ public void completed(final IOSession session) {
 
                             @Override
                             public void releaseResources() {
+                                slot.release();
                                 exchangeHandler.releaseResources();
                             }
 
@@ -273,4 +276,24 @@ public void setConnectionConfigResolver(final Resolver<HttpHost, ConnectionConfi
         connPool.setConnectionConfigResolver(connectionConfigResolver);
     }
 
+    /**
+     * Sets the maximum number of HTTP/2 sessions kept open per route. Message exchanges are
+     * distributed across the sessions according to the session selection policy. The sessions
+     * are spread over the I/O dispatch threads of the client.
+     *
+     * @since 5.7
+     */
+    public void setMaxSessionsPerRoute(final int max) {
+        connPool.setMaxSessionsPerRoute(max);
+    }
+
+    /**
+     * Sets the policy used to pick a session when multiple sessions per route are permitted.
+     *
+     * @since 5.7
+     */
+    public void setSessionSelectionPolicy(final H2SessionSelectionPolicy policy) {
+        connPool.setSessionSelectionPolicy(policy);
+    }
+
 }
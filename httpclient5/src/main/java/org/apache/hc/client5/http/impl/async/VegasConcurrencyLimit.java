@@ -0,0 +1,131 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.async.ConcurrencyLimit;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ConcurrencyLimit} modelled after TCP Vegas congestion control. The
+ * lowest round trip time observed is taken as the latency of the opposite
+ * endpoint without load. The number of requests queued by the opposite endpoint
+ * is estimated from the difference between that and the current round trip time;
+ * the limit grows while the estimate is small and shrinks once it becomes large.
+ * <p>
+ * Both thresholds as well as the step size are proportional to the logarithm
+ * of the current limit.
+ * </p>
+ *
+ * @since 5.7
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class VegasConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock;
+
+    private volatile int limit;
+    private long rttNoLoad;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the lower bound of the limit.
+     * @param maxLimit the upper bound of the limit.
+     */
+    public VegasConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit) {
+        Args.positive(minLimit, "Min limit");
+        Args.check(maxLimit >= minLimit, "Max limit must not be less than min limit");
+        Args.check(initialLimit >= minLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min limit and max limit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Creates a limit starting at 20 and ranging from 1 to 1000.
+     */
+    public VegasConcurrencyLimit() {
+        this(20, 1, 1000);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        lock.lock();
+        try {
+            final int current = limit;
+            final double log = Math.max(1.0, Math.log10(current));
+            final double newLimit;
+            if (dropped) {
+                newLimit = current - log;
+            } else {
+                if (rttNanos <= 0) {
+                    return;
+                }
+                if (rttNoLoad == 0 || rttNanos < rttNoLoad) {
+                    rttNoLoad = rttNanos;
+                    return;
+                }
+                if (inFlight * 2 < current) {
+                    return;
+                }
+                final double queueSize = Math.ceil(current * (1.0 - (double) rttNoLoad / rttNanos));
+                final double alpha = 3 * log;
+                final double beta = 6 * log;
+                if (queueSize <= log) {
+                    newLimit = current + beta;
+                } else if (queueSize < alpha) {
+                    newLimit = current + log;
+                } else if (queueSize > beta) {
+                    newLimit = current - log;
+                } else {
+                    return;
+                }
+            }
+            limit = (int) Math.max(minLimit, Math.min(maxLimit, Math.round(newLimit)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Vegas[limit=" + limit + "]";
+    }
+
+}
@@ -27,6 +27,9 @@
 
 package org.apache.hc.client5.http.impl.classic;
 
+import java.util.concurrent.ExecutorService;
+
+import org.apache.hc.client5.http.impl.VirtualThreadRuntime;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 
@@ -78,4 +81,21 @@ public static MinimalHttpClient createMinimal(final HttpClientConnectionManager
         return new MinimalHttpClient(connManager);
     }
 
+    /**
+     * Creates an {@link ExecutorService} that executes each task on a new virtual thread.
+     * Such an executor can be used to run a large number of concurrent blocking requests
+     * with the classic client, for instance by means of {@link FutureRequestExecutionService}.
+     * The connection pool should then be sized according to the desired concurrency as
+     * virtual threads in excess of the pool capacity wait for a connection to be released.
+     * <p>
+     * Requires a Java 21 or newer runtime.
+     * </p>
+     *
+     * @throws UnsupportedOperationException if the Java runtime does not support virtual threads.
+     * @since 5.7
+     */
+    public static ExecutorService createVirtualThreadExecutor() {
+        return VirtualThreadRuntime.newThreadPerTaskExecutor("httpclient-");
+    }
+
 }
@@ -27,6 +27,7 @@
 package org.apache.hc.client5.http.impl.io;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.Socket;
@@ -35,6 +36,14 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLSocket;
 
@@ -43,9 +52,11 @@
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.SystemDefaultDnsResolver;
 import org.apache.hc.client5.http.UnsupportedSchemeException;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.impl.ConnPoolSupport;
 import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.HappyEyeballsSupport;
 import org.apache.hc.client5.http.io.DetachedSocketFactory;
 import org.apache.hc.client5.http.io.HttpClientConnectionOperator;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
@@ -94,6 +105,7 @@ public class DefaultHttpClientConnectionOperator implements HttpClientConnection
     private final Lookup<TlsSocketStrategy> tlsSocketStrategyLookup;
     private final SchemePortResolver schemePortResolver;
     private final DnsResolver dnsResolver;
+    private final HappyEyeballsConfig happyEyeballsConfig;
 
     /**
      * @deprecated Provided for backward compatibility
@@ -115,6 +127,22 @@ public DefaultHttpClientConnectionOperator(
             final SchemePortResolver schemePortResolver,
             final DnsResolver dnsResolver,
             final Lookup<TlsSocketStrategy> tlsSocketStrategyLookup) {
+        this(detachedSocketFactory, schemePortResolver, dnsResolver, tlsSocketStrategyLookup, null);
+    }
+
+    /**
+     * Creates a connection operator that races connection attempts to hosts resolving to multiple
+     * addresses if {@code happyEyeballsConfig} is not {@code null}. Otherwise, resolved addresses
+     * are tried one after another.
+     *
+     * @since 5.7
+     */
+    public DefaultHttpClientConnectionOperator(
+            final DetachedSocketFactory detachedSocketFactory,
+            final SchemePortResolver schemePortResolver,
+            final DnsResolver dnsResolver,
+            final Lookup<TlsSocketStrategy> tlsSocketStrategyLookup,
+            final HappyEyeballsConfig happyEyeballsConfig) {
         super();
         this.detachedSocketFactory = Args.notNull(detachedSocketFactory, "Plain socket factory");
         this.tlsSocketStrategyLookup = Args.notNull(tlsSocketStrategyLookup, "Socket factory registry");
@@ -122,6 +150,7 @@ public DefaultHttpClientConnectionOperator(
                 DefaultSchemePortResolver.INSTANCE;
         this.dnsResolver = dnsResolver != null ? dnsResolver :
                 SystemDefaultDnsResolver.INSTANCE;
+        this.happyEyeballsConfig = happyEyeballsConfig;
     }
 
     /**
@@ -200,6 +229,36 @@ public void connect(
             final int port = this.schemePortResolver.resolve(endpointHost.getSchemeName(), endpointHost);
             remoteAddresses = this.dnsResolver.resolve(endpointHost.getHostName(), port);
         }
+        if (happyEyeballsConfig != null && remoteAddresses.size() > 1) {
+            onBeforeSocketConnect(context, endpointHost);
+            // Bind a placeholder so that closing or shutting down the connection
+            // aborts the connection attempts as it does with a sequential connect
+            final ConnectRace race = new ConnectRace();
+            conn.bind(new RaceSocket(race));
+            final Socket socket = raceConnect(
+                    race,
+                    endpointHost,
+                    HappyEyeballsSupport.sortAddresses(remoteAddresses, happyEyeballsConfig),
+                    localAddress,
+                    connectTimeout,
+                    socketConfig,
+                    socksProxy);
+            try {
+                conn.bind(socket);
+                onAfterSocketConnect(context, endpointHost);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} {} connected {}->{}", ConnPoolSupport.getId(conn), endpointHost, conn.getLocalAddress(), conn.getRemoteAddress());
+                }
+                final TlsSocketStrategy tlsSocketStrategy = tlsSocketStrategyLookup != null ? tlsSocketStrategyLookup.lookup(endpointHost.getSchemeName()) : null;
+                if (tlsSocketStrategy != null) {
+                    upgradeToTls(conn, endpointHost, endpointName, connectTimeout, attachment, context, tlsSocketStrategy, socket);
+                }
+            } catch (final RuntimeException | IOException ex) {
+                Closer.closeQuietly(socket);
+                throw ex;
+            }
+            return;
+        }
         for (int i = 0; i < remoteAddresses.size(); i++) {
             final InetSocketAddress remoteAddress = remoteAddresses.get(i);
             final boolean last = i == remoteAddresses.size() - 1;
@@ -244,6 +303,195 @@ public void connect(
         }
     }
 
+    /**
+     * Races connection attempts to the given addresses. A new attempt is started whenever
+     * the attempt delay elapses or an earlier attempt fails. The first connected socket is
+     * returned and all other attempts are aborted.
+     */
+    private Socket raceConnect(
+            final ConnectRace race,
+            final HttpHost endpointHost,
+            final List<InetSocketAddress> remoteAddresses,
+            final InetSocketAddress localAddress,
+            final Timeout connectTimeout,
+            final SocketConfig socketConfig,
+            final Proxy socksProxy) throws IOException {
+        final long attemptDelayMillis = happyEyeballsConfig.getAttemptDelay().toMilliseconds();
+        final CompletionService<Socket> completionService = new ExecutorCompletionService<>(HappyEyeballsSupport.getExecutor());
+        final List<ConnectAttempt> attempts = race.attempts;
+        IOException lastException = null;
+        int finished = 0;
+        try {
+            while (true) {
+                if (race.aborted) {
+                    throw new InterruptedIOException("Connect operation aborted");
+                }
+                if (attempts.size() < remoteAddresses.size()) {
+                    final InetSocketAddress remoteAddress = remoteAddresses.get(attempts.size());
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} connecting {}->{} ({}); staggered attempt {} of {}", endpointHost, localAddress,
+                                remoteAddress, connectTimeout, attempts.size() + 1, remoteAddresses.size());
+                    }
+                    final ConnectAttempt attempt = new ConnectAttempt(
+                            endpointHost, remoteAddress, localAddress, connectTimeout, socketConfig, socksProxy);
+                    attempt.future = completionService.submit(attempt);
+                    race.add(attempt);
+                }
+                final Future<Socket> completed = attempts.size() < remoteAddresses.size()
+                        ? completionService.poll(attemptDelayMillis, TimeUnit.MILLISECONDS)
+                        : completionService.take();
+                if (completed == null) {
+                    continue;
+                }
+                finished++;
+                try {
+                    final Socket socket = completed.get();
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} connected to {}; aborting other attempts", endpointHost, socket.getRemoteSocketAddress());
+                    }
+                    abort(attempts, completed);
+                    return socket;
+                } catch (final CancellationException ex) {
+                    abort(attempts, null);
+                    throw new InterruptedIOException("Connect operation aborted");
+                } catch (final ExecutionException ex) {
+                    final Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        abort(attempts, null);
+                        throw (RuntimeException) cause;
+                    }
+                    lastException = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                    if (finished >= remoteAddresses.size()) {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("{} connection failed ({}); terminating operation", endpointHost, lastException.getClass());
+                        }
+                        throw ConnectExceptionSupport.enhance(lastException, endpointHost);
+                    }
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} connection failed ({}); starting connection to the next address", endpointHost, lastException.getClass());
+                    }
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abort(attempts, null);
+            throw new InterruptedIOException("Connect operation interrupted");
+        }
+    }
+
+    private static void abort(final List<ConnectAttempt> attempts, final Future<Socket> winner) {
+        for (final ConnectAttempt attempt : attempts) {
+            if (attempt.future != winner) {
+                attempt.abort();
+            }
+        }
+    }
+
+    /**
+     * Connection attempts of a single race. The race can be aborted from another thread
+     * by closing the {@link RaceSocket} bound to the connection.
+     */
+    static final class ConnectRace {
+
+        final List<ConnectAttempt> attempts = new CopyOnWriteArrayList<>();
+        volatile boolean aborted;
+
+        void add(final ConnectAttempt attempt) {
+            attempts.add(attempt);
+            if (aborted) {
+                attempt.abort();
+            }
+        }
+
+        void abort() {
+            aborted = true;
+            DefaultHttpClientConnectionOperator.abort(attempts, null);
+        }
+
+    }
+
+    /**
+     * Unconnected placeholder socket bound to the connection while connection attempts
+     * are raced. Closing it aborts all attempts of the race.
+     */
+    static final class RaceSocket extends Socket {
+
+        private final ConnectRace race;
+
+        RaceSocket(final ConnectRace race) {
+            this.race = race;
+        }
+
+        @Override
+        public void close() throws IOException {
+            race.abort();
+            super.close();
+        }
+
+    }
+
+    final class ConnectAttempt implements Callable<Socket> {
+
+        private final HttpHost endpointHost;
+        private final InetSocketAddress remoteAddress;
+        private final InetSocketAddress localAddress;
+        private final Timeout connectTimeout;
+        private final SocketConfig socketConfig;
+        private final Proxy socksProxy;
+
+        private volatile Socket socket;
+        private volatile boolean aborted;
+        volatile Future<Socket> future;
+
+        ConnectAttempt(
+                final HttpHost endpointHost,
+                final InetSocketAddress remoteAddress,
+                final InetSocketAddress localAddress,
+                final Timeout connectTimeout,
+                final SocketConfig socketConfig,
+                final Proxy socksProxy) {
+            this.endpointHost = endpointHost;
+            this.remoteAddress = remoteAddress;
+            this.localAddress = localAddress;
+            this.connectTimeout = connectTimeout;
+            this.socketConfig = socketConfig;
+            this.socksProxy = socksProxy;
+        }
+
+        @Override
+        public Socket call() throws IOException {
+            final Socket newSocket = detachedSocketFactory.create(endpointHost.getSchemeName(), socksProxy);
+            socket = newSocket;
+            try {
+                if (aborted) {
+                    throw new InterruptedIOException("Connect attempt aborted");
+                }
+                if (localAddress != null) {
+                    newSocket.bind(localAddress);
+                }
+                configureSocket(newSocket, socketConfig, true);
+                newSocket.connect(remoteAddress, TimeValue.isPositive(connectTimeout) ? connectTimeout.toMillisecondsIntBound() : 0);
+                if (aborted) {
+                    throw new InterruptedIOException("Connect attempt aborted");
+                }
+                return newSocket;
+            } catch (final RuntimeException | IOException ex) {
+                Closer.closeQuietly(newSocket);
+                throw ex;
+            }
+        }
+
+        void abort() {
+            aborted = true;
+            final Future<Socket> currentFuture = future;
+            if (currentFuture != null) {
+                currentFuture.cancel(false);
+            }
+            Closer.closeQuietly(socket);
+        }
+
+    }
+
     private void upgradeToTls(final ManagedHttpClientConnection conn, final HttpHost endpointHost,
                               final NamedEndpoint endpointName, final Timeout connectTimeout, final Object attachment,
                               final HttpContext context, final TlsSocketStrategy tlsSocketStrategy, final Socket socket)
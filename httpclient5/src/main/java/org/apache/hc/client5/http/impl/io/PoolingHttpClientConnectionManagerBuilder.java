@@ -33,6 +33,7 @@
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.io.HttpClientConnectionOperator;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
@@ -75,6 +76,7 @@ public class PoolingHttpClientConnectionManagerBuilder {
     private ConnPoolListener<HttpRoute> connPoolListener;
 
     private boolean offLockDisposalEnabled;
+    private HappyEyeballsConfig happyEyeballsConfig;
 
     public static PoolingHttpClientConnectionManagerBuilder create() {
         return new PoolingHttpClientConnectionManagerBuilder();
@@ -319,16 +321,31 @@ public final PoolingHttpClientConnectionManagerBuilder setOffLockDisposalEnabled
         return this;
     }
 
+    /**
+     * Enables staggered parallel connection attempts to hosts resolving to multiple addresses
+     * (RFC 8305 Happy Eyeballs). By default, addresses are tried strictly one after another.
+     *
+     * @since 5.7
+     * @return this instance.
+     */
+    public final PoolingHttpClientConnectionManagerBuilder setHappyEyeballsConfig(final HappyEyeballsConfig happyEyeballsConfig) {
+        this.happyEyeballsConfig = happyEyeballsConfig;
+        return this;
+    }
 
     @Internal
     protected HttpClientConnectionOperator createConnectionOperator(
             final SchemePortResolver schemePortResolver,
             final DnsResolver dnsResolver,
             final TlsSocketStrategy tlsSocketStrategy) {
-        return new DefaultHttpClientConnectionOperator(schemePortResolver, dnsResolver,
+        return new DefaultHttpClientConnectionOperator(
+                DefaultHttpClientConnectionOperator.PLAIN_SOCKET_FACTORY,
+                schemePortResolver,
+                dnsResolver,
                 RegistryBuilder.<TlsSocketStrategy>create()
                         .register(URIScheme.HTTPS.id, tlsSocketStrategy)
-                        .build());
+                        .build(),
+                happyEyeballsConfig);
     }
 
     public PoolingHttpClientConnectionManager build() {
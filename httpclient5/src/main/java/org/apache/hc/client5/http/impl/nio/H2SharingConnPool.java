@@ -27,17 +27,14 @@
 package org.apache.hc.client5.http.impl.nio;
 
 import java.io.IOException;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.client5.http.impl.ConnPoolSupport;
 import org.apache.hc.core5.annotation.Contract;
@@ -63,6 +60,14 @@
  * Experimental connections pool implementation that acts as a caching facade in front of
  * a standard {@link ManagedConnPool} and shares already leased connections to multiplex
  * message exchanges over active HTTP/2 connections.
+ * <p>
+ * Each shared connection carries at most the given number of concurrent message exchanges.
+ * Once all shared connections of a route are saturated, an additional connection is leased
+ * from the underlying pool as long as the route has capacity left; otherwise exchanges are
+ * spread over the least loaded connections. Connections that are no longer open, for
+ * instance after having received GOAWAY, are not shared any more and are drained as their
+ * exchanges complete.
+ * </p>
  * @param <T> route
  * @param <C> connection object
  *
@@ -73,16 +78,34 @@
 
     private static final Logger LOG = LoggerFactory.getLogger(H2SharingConnPool.class);
 
+    /**
+     * Default maximum number of concurrent message exchanges per shared connection.
+     * This is the minimum value of {@code SETTINGS_MAX_CONCURRENT_STREAMS} recommended
+     * by RFC 9113 and the value most commonly advertised by HTTP/2 servers.
+     *
+     * @since 5.7
+     */
+    public static final int DEFAULT_MAX_STREAMS_PER_CONNECTION = 100;
+
     private final ManagedConnPool<T, C> pool;
+    private final int maxStreamsPerConnection;
     private final ConcurrentMap<T, PerRoutePool<T, C>> perRouteCache;
     private final AtomicBoolean closed;
 
-    public H2SharingConnPool(final ManagedConnPool<T, C> pool) {
+    /**
+     * @since 5.7
+     */
+    public H2SharingConnPool(final ManagedConnPool<T, C> pool, final int maxStreamsPerConnection) {
         this.pool = Args.notNull(pool, "Connection pool");
+        this.maxStreamsPerConnection = Args.positive(maxStreamsPerConnection, "Max streams per connection");
         this.perRouteCache = new ConcurrentHashMap<>();
         this.closed = new AtomicBoolean();
     }
 
+    public H2SharingConnPool(final ManagedConnPool<T, C> pool) {
+        this(pool, DEFAULT_MAX_STREAMS_PER_CONNECTION);
+    }
+
     @Override
     public void close(final CloseMode closeMode) {
         if (closed.compareAndSet(false, true)) {
@@ -100,7 +123,16 @@ public void close() throws IOException {
     }
 
     PerRoutePool<T, C> getPerRoutePool(final T route) {
-        return perRouteCache.computeIfAbsent(route, r -> new PerRoutePool<>());
+        return perRouteCache.computeIfAbsent(route, r -> new PerRoutePool<>(maxStreamsPerConnection));
+    }
+
+    /**
+     * Determines whether the underlying pool can supply another connection for the route
+     * without the request having to wait for a leased connection to be released.
+     */
+    boolean canLeaseConnection(final T route) {
+        final PoolStats stats = pool.getStats(route);
+        return stats.getAvailable() > 0 || stats.getLeased() + stats.getPending() < pool.getMaxPerRoute(route);
     }
 
     @Override
@@ -112,7 +144,13 @@ public Future<PoolEntry<T, C>> lease(final T route,
         if (state == null) {
             final PerRoutePool<T, C> perRoutePool = perRouteCache.get(route);
             if (perRoutePool != null) {
-                final PoolEntry<T, C> entry = perRoutePool.lease();
+                PoolEntry<T, C> entry = perRoutePool.lease(false);
+                if (entry == null && perRoutePool.hasOpenConnections() && !canLeaseConnection(route)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("All shared connections saturated and no connection capacity left for route {}", route);
+                    }
+                    entry = perRoutePool.lease(true);
+                }
                 if (entry != null) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Sharing connection {} for message exchange multiplexing (lease count = {})",
@@ -243,74 +281,145 @@ public String toString() {
 
     static class PerRoutePool<T, C extends HttpConnection> {
 
-        private final Map<PoolEntry<T, C>, AtomicLong> entryMap;
-        private final Lock lock;
+        private final int maxStreams;
+        private final List<Slot<T, C>> slots;
+
+        PerRoutePool(final int maxStreams) {
+            this.maxStreams = maxStreams;
+            this.slots = new CopyOnWriteArrayList<>();
+        }
 
         PerRoutePool() {
-            this.entryMap = new HashMap<>();
-            this.lock = new ReentrantLock();
+            this(DEFAULT_MAX_STREAMS_PER_CONNECTION);
         }
 
-        AtomicLong getCounter(final PoolEntry<T, C> entry) {
-            return entryMap.computeIfAbsent(entry, e -> new AtomicLong());
+        private Slot<T, C> getSlot(final PoolEntry<T, C> entry) {
+            for (final Slot<T, C> slot : slots) {
+                if (slot.entry == entry) {
+                    return slot;
+                }
+            }
+            return null;
         }
 
         long track(final PoolEntry<T, C> entry) {
-            lock.lock();
-            try {
-                final AtomicLong counter = getCounter(entry);
-                return counter.incrementAndGet();
-            } finally {
-                lock.unlock();
+            final Slot<T, C> slot = getSlot(entry);
+            if (slot != null) {
+                final int count = slot.acquire(Integer.MAX_VALUE);
+                if (count > 0) {
+                    return count;
+                }
+            }
+            slots.add(new Slot<>(entry));
+            return 1;
+        }
+
+        /**
+         * Leases the least loaded open connection. Unless {@code allowSaturated} is
+         * {@code true} only connections with fewer than the maximum number of active
+         * exchanges are considered.
+         */
+        PoolEntry<T, C> lease(final boolean allowSaturated) {
+            final int limit = allowSaturated ? Integer.MAX_VALUE : maxStreams;
+            for (;;) {
+                Slot<T, C> best = null;
+                int bestCount = Integer.MAX_VALUE;
+                for (final Slot<T, C> slot : slots) {
+                    final int count = slot.active.get();
+                    if (count >= 0 && count < limit && count < bestCount && slot.isOpen()) {
+                        best = slot;
+                        bestCount = count;
+                    }
+                }
+                if (best == null) {
+                    return null;
+                }
+                if (best.active.compareAndSet(bestCount, bestCount + 1)) {
+                    return best.entry;
+                }
             }
         }
 
         PoolEntry<T, C> lease() {
-            lock.lock();
-            try {
-                return entryMap.entrySet().stream()
-                        .filter(e -> {
-                            final C conn = e.getKey().getConnection();
-                            return conn != null && conn.isOpen();
-                        })
-                        .min(Comparator.comparingLong(e -> e.getValue().get()))
-                        .map(e -> {
-                            e.getValue().incrementAndGet();
-                            return e.getKey();
-                        })
-                        .orElse(null);
-            } finally {
-                lock.unlock();
+            return lease(false);
+        }
+
+        boolean hasOpenConnections() {
+            for (final Slot<T, C> slot : slots) {
+                if (slot.active.get() >= 0 && slot.isOpen()) {
+                    return true;
+                }
             }
+            return false;
         }
 
+        /**
+         * Releases one exchange of the given connection and returns the number of exchanges
+         * still active. A return value of zero means the connection is no longer shared
+         * and must be released back to the underlying pool.
+         */
         long release(final PoolEntry<T, C> entry, final boolean reusable) {
-            lock.lock();
-            try {
-                if (!reusable) {
-                    entry.discardConnection(CloseMode.GRACEFUL);
+            if (!reusable) {
+                entry.discardConnection(CloseMode.GRACEFUL);
+            }
+            final Slot<T, C> slot = getSlot(entry);
+            if (slot == null) {
+                return 0L;
+            }
+            for (;;) {
+                final int count = slot.active.get();
+                if (count <= 0) {
+                    return 0L;
                 }
-
-                final AtomicLong counter = entryMap.compute(entry, (e, c) -> {
-                    if (c == null) {
-                        return null;
+                if (slot.active.compareAndSet(count, count - 1)) {
+                    if (count > 1) {
+                        return count - 1;
                     }
-                    final long count = c.decrementAndGet();
-                    return count > 0 ? c : null;
-                });
-                return counter != null ? counter.get() : 0L;
-            } finally {
-                lock.unlock();
+                    if (slot.active.compareAndSet(0, -1)) {
+                        slots.remove(slot);
+                        return 0L;
+                    }
+                    // Concurrently leased again; the connection remains shared
+                    return Math.max(slot.active.get(), 1);
+                }
             }
         }
 
         long getCount(final PoolEntry<T, C> entry) {
-            lock.lock();
-            try {
-                final AtomicLong counter = entryMap.get(entry);
-                return counter == null ? 0L : counter.get();
-            } finally {
-                lock.unlock();
+            final Slot<T, C> slot = getSlot(entry);
+            return slot != null ? Math.max(slot.active.get(), 0) : 0L;
+        }
+
+    }
+
+    /**
+     * Shared connection with the number of active exchanges. A negative count
+     * marks a connection that has been returned to the underlying pool.
+     */
+    static final class Slot<T, C extends HttpConnection> {
+
+        final PoolEntry<T, C> entry;
+        final AtomicInteger active;
+
+        Slot(final PoolEntry<T, C> entry) {
+            this.entry = entry;
+            this.active = new AtomicInteger(1);
+        }
+
+        boolean isOpen() {
+            final C conn = entry.getConnection();
+            return conn != null && conn.isOpen();
+        }
+
+        int acquire(final int limit) {
+            for (;;) {
+                final int count = active.get();
+                if (count < 0 || count >= limit) {
+                    return -1;
+                }
+                if (active.compareAndSet(count, count + 1)) {
+                    return count + 1;
+                }
             }
         }
 
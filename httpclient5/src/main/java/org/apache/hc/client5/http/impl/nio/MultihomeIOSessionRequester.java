@@ -32,18 +32,26 @@
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hc.client5.http.ConnectExceptionSupport;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
+import org.apache.hc.client5.http.impl.HappyEyeballsSupport;
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.ComplexFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,9 +60,15 @@ final class MultihomeIOSessionRequester {
 
     private static final Logger LOG = LoggerFactory.getLogger(MultihomeIOSessionRequester.class);
     private final DnsResolver dnsResolver;
+    private final HappyEyeballsConfig happyEyeballsConfig;
 
-    MultihomeIOSessionRequester(final DnsResolver dnsResolver) {
+    MultihomeIOSessionRequester(final DnsResolver dnsResolver, final HappyEyeballsConfig happyEyeballsConfig) {
         this.dnsResolver = dnsResolver != null ? dnsResolver : SystemDefaultDnsResolver.INSTANCE;
+        this.happyEyeballsConfig = happyEyeballsConfig;
+    }
+
+    MultihomeIOSessionRequester(final DnsResolver dnsResolver) {
+        this(dnsResolver, null);
     }
 
     public Future<IOSession> connect(
@@ -123,6 +137,21 @@ public void cancelled() {
             LOG.debug("{} resolved to {}", remoteEndpoint.getHostName(), remoteAddresses);
         }
 
+        if (happyEyeballsConfig != null && remoteAddresses.size() > 1) {
+            final StaggeredConnect staggeredConnect = new StaggeredConnect(
+                    future,
+                    connectionInitiator,
+                    remoteEndpoint,
+                    HappyEyeballsSupport.sortAddresses(remoteAddresses, happyEyeballsConfig),
+                    localAddress,
+                    connectTimeout,
+                    attachment,
+                    happyEyeballsConfig.getAttemptDelay());
+            future.setDependency(staggeredConnect);
+            staggeredConnect.start();
+            return future;
+        }
+
         final Runnable runnable = new Runnable() {
 
             private final AtomicInteger attempt = new AtomicInteger(0);
@@ -207,4 +236,196 @@ public Future<IOSession> connect(
         return connect(connectionInitiator, remoteEndpoint, null, localAddress, connectTimeout, attachment, callback);
     }
 
+    /**
+     * Races connection attempts to multiple addresses. A new attempt is started whenever
+     * the attempt delay elapses or the previous attempt fails; the first established
+     * session wins and all other attempts get cancelled.
+     */
+    static final class StaggeredConnect implements Cancellable {
+
+        private final ComplexFuture<IOSession> future;
+        private final ConnectionInitiator connectionInitiator;
+        private final NamedEndpoint remoteEndpoint;
+        private final List<InetSocketAddress> remoteAddresses;
+        private final SocketAddress localAddress;
+        private final Timeout connectTimeout;
+        private final Object attachment;
+        private final TimeValue attemptDelay;
+        private final ReentrantLock lock;
+        private final List<Future<IOSession>> attempts;
+        private final AtomicInteger failures;
+
+        private int nextIndex;
+        private boolean done;
+        private ScheduledFuture<?> timer;
+
+        StaggeredConnect(
+                final ComplexFuture<IOSession> future,
+                final ConnectionInitiator connectionInitiator,
+                final NamedEndpoint remoteEndpoint,
+                final List<InetSocketAddress> remoteAddresses,
+                final SocketAddress localAddress,
+                final Timeout connectTimeout,
+                final Object attachment,
+                final TimeValue attemptDelay) {
+            this.future = future;
+            this.connectionInitiator = connectionInitiator;
+            this.remoteEndpoint = remoteEndpoint;
+            this.remoteAddresses = remoteAddresses;
+            this.localAddress = localAddress;
+            this.connectTimeout = connectTimeout;
+            this.attachment = attachment;
+            this.attemptDelay = attemptDelay;
+            this.lock = new ReentrantLock();
+            this.attempts = new ArrayList<>(remoteAddresses.size());
+            this.failures = new AtomicInteger(0);
+        }
+
+        void start() {
+            startNext();
+        }
+
+        private void startNext() {
+            lock.lock();
+            try {
+                if (done || nextIndex >= remoteAddresses.size()) {
+                    return;
+                }
+                if (timer != null) {
+                    timer.cancel(false);
+                    timer = null;
+                }
+                final InetSocketAddress remoteAddress = remoteAddresses.get(nextIndex++);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{}:{} connecting {}->{} ({}); staggered attempt {} of {}",
+                            remoteEndpoint.getHostName(), remoteEndpoint.getPort(), localAddress, remoteAddress,
+                            connectTimeout, nextIndex, remoteAddresses.size());
+                }
+                final Future<IOSession> sessionFuture = connectionInitiator.connect(
+                        remoteEndpoint,
+                        remoteAddress,
+                        localAddress,
+                        connectTimeout,
+                        attachment,
+                        new FutureCallback<IOSession>() {
+
+                            @Override
+                            public void completed(final IOSession session) {
+                                onCompleted(remoteAddress, session);
+                            }
+
+                            @Override
+                            public void failed(final Exception cause) {
+                                onFailed(remoteAddress, cause);
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                cancel();
+                            }
+
+                        });
+                if (done) {
+                    if (!sessionFuture.isDone()) {
+                        sessionFuture.cancel(true);
+                    }
+                    return;
+                }
+                attempts.add(sessionFuture);
+                if (timer == null && nextIndex < remoteAddresses.size()) {
+                    timer = HappyEyeballsSupport.getScheduler().schedule(
+                            this::startNext, attemptDelay.getDuration(), attemptDelay.getTimeUnit());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean markDone() {
+            lock.lock();
+            try {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                if (timer != null) {
+                    timer.cancel(false);
+                    timer = null;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void cancelAttempts() {
+            final List<Future<IOSession>> pending;
+            lock.lock();
+            try {
+                pending = new ArrayList<>(attempts);
+                attempts.clear();
+            } finally {
+                lock.unlock();
+            }
+            for (final Future<IOSession> attempt : pending) {
+                if (!attempt.isDone()) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        private void onCompleted(final InetSocketAddress remoteAddress, final IOSession session) {
+            if (markDone()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{}:{} connected {}->{} as {}; cancelling other attempts",
+                            remoteEndpoint.getHostName(), remoteEndpoint.getPort(), localAddress, remoteAddress, session.getId());
+                }
+                cancelAttempts();
+                future.completed(session);
+            } else {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{}:{} connection to {} completed after another attempt won; closing {}",
+                            remoteEndpoint.getHostName(), remoteEndpoint.getPort(), remoteAddress, session.getId());
+                }
+                session.close(CloseMode.IMMEDIATE);
+            }
+        }
+
+        private void onFailed(final InetSocketAddress remoteAddress, final Exception cause) {
+            if (failures.incrementAndGet() >= remoteAddresses.size()) {
+                if (markDone()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{}:{} connection to {} failed ({}); terminating operation",
+                                remoteEndpoint.getHostName(), remoteEndpoint.getPort(), remoteAddress, cause.getClass());
+                    }
+                    if (cause instanceof IOException) {
+                        final InetAddress[] addresses = remoteAddresses.stream()
+                                .map(InetSocketAddress::getAddress)
+                                .toArray(InetAddress[]::new);
+                        future.failed(ConnectExceptionSupport.enhance((IOException) cause, remoteEndpoint, addresses));
+                    } else {
+                        future.failed(cause);
+                    }
+                }
+            } else {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{}:{} connection to {} failed ({}); starting connection to the next address",
+                            remoteEndpoint.getHostName(), remoteEndpoint.getPort(), remoteAddress, cause.getClass());
+                }
+                startNext();
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (markDone()) {
+                cancelAttempts();
+                future.cancel();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
 }
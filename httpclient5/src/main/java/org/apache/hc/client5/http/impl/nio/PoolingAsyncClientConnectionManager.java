@@ -181,6 +181,22 @@ public PoolingAsyncClientConnectionManager(
             final TimeValue timeToLive,
             final ConnPoolListener<HttpRoute> connPoolListener,
             final boolean messageMultiplexing) {
+        this(connectionOperator, poolConcurrencyPolicy, poolReusePolicy, timeToLive, connPoolListener,
+                messageMultiplexing, H2SharingConnPool.DEFAULT_MAX_STREAMS_PER_CONNECTION);
+    }
+
+    /**
+     * @since 5.7
+     */
+    @Internal
+    public PoolingAsyncClientConnectionManager(
+            final AsyncClientConnectionOperator connectionOperator,
+            final PoolConcurrencyPolicy poolConcurrencyPolicy,
+            final PoolReusePolicy poolReusePolicy,
+            final TimeValue timeToLive,
+            final ConnPoolListener<HttpRoute> connPoolListener,
+            final boolean messageMultiplexing,
+            final int maxStreamsPerConnection) {
         this.connectionOperator = Args.notNull(connectionOperator, "Connection operator");
         final ManagedConnPool<HttpRoute, ManagedAsyncClientConnection> managedConnPool;
         switch (poolConcurrencyPolicy != null ? poolConcurrencyPolicy : PoolConcurrencyPolicy.STRICT) {
@@ -226,7 +242,7 @@ public void closeExpired() {
             default:
                 throw new IllegalArgumentException("Unexpected PoolConcurrencyPolicy value: " + poolConcurrencyPolicy);
         }
-        this.pool = messageMultiplexing ? new H2SharingConnPool<>(managedConnPool) : managedConnPool;
+        this.pool = messageMultiplexing ? new H2SharingConnPool<>(managedConnPool, maxStreamsPerConnection) : managedConnPool;
         this.closed = new AtomicBoolean(false);
     }
 
@@ -31,6 +31,7 @@
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
 import org.apache.hc.client5.http.ssl.ConscryptClientTlsStrategy;
@@ -68,6 +69,8 @@ public class PoolingAsyncClientConnectionManagerBuilder {
     private Resolver<HttpRoute, ConnectionConfig> connectionConfigResolver;
     private Resolver<HttpHost, TlsConfig> tlsConfigResolver;
     private boolean messageMultiplexing = true;
+    private int maxStreamsPerConnection = H2SharingConnPool.DEFAULT_MAX_STREAMS_PER_CONNECTION;
+    private HappyEyeballsConfig happyEyeballsConfig;
 
     public static PoolingAsyncClientConnectionManagerBuilder create() {
         return new PoolingAsyncClientConnectionManagerBuilder();
@@ -262,6 +265,34 @@ public final PoolingAsyncClientConnectionManagerBuilder setMessageMultiplexing(f
         return this;
     }
 
+    /**
+     * Sets the maximum number of message exchanges multiplexed over a single shared
+     * HTTP/2 connection. Once all connections of a route reach this limit, additional
+     * connections are opened up to the max per route limit. This value should not exceed
+     * the {@code SETTINGS_MAX_CONCURRENT_STREAMS} advertised by the servers.
+     * <p>
+     * Please note this value has no effect unless message multiplexing is enabled.
+     *
+     * @since 5.7
+     * @return this instance.
+     */
+    public final PoolingAsyncClientConnectionManagerBuilder setMaxStreamsPerConnection(final int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        return this;
+    }
+
+    /**
+     * Enables staggered parallel connection attempts to hosts resolving to multiple addresses
+     * (RFC 8305 Happy Eyeballs). By default, addresses are tried strictly one after another.
+     *
+     * @since 5.7
+     * @return this instance.
+     */
+    public final PoolingAsyncClientConnectionManagerBuilder setHappyEyeballsConfig(final HappyEyeballsConfig happyEyeballsConfig) {
+        this.happyEyeballsConfig = happyEyeballsConfig;
+        return this;
+    }
+
     @Internal
     protected AsyncClientConnectionOperator createConnectionOperator(
             final TlsStrategy tlsStrategy,
@@ -272,7 +303,8 @@ protected AsyncClientConnectionOperator createConnectionOperator(
                         .register(URIScheme.HTTPS.getId(), tlsStrategy)
                         .build(),
                 schemePortResolver,
-                dnsResolver);
+                dnsResolver,
+                happyEyeballsConfig);
     }
 
     public PoolingAsyncClientConnectionManager build() {
@@ -292,7 +324,8 @@ public PoolingAsyncClientConnectionManager build() {
                 poolReusePolicy,
                 null,
                 connPoolListener,
-                messageMultiplexing);
+                messageMultiplexing,
+                maxStreamsPerConnection);
         poolingmgr.setConnectionConfigResolver(connectionConfigResolver);
         poolingmgr.setTlsConfigResolver(tlsConfigResolver);
         if (maxConnTotal > 0) {
@@ -0,0 +1,236 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+class TestCachingDnsResolver {
+
+    static class CountingResolver implements DnsResolver {
+
+        final AtomicInteger lookups = new AtomicInteger();
+        volatile InetAddress[] result;
+        volatile CountDownLatch gate;
+
+        @Override
+        public InetAddress[] resolve(final String host) throws UnknownHostException {
+            lookups.incrementAndGet();
+            final CountDownLatch latch = gate;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (result == null) {
+                throw new UnknownHostException(host);
+            }
+            return result;
+        }
+
+        @Override
+        public String resolveCanonicalHostname(final String host) {
+            return host;
+        }
+
+    }
+
+    static InetAddress address(final int last) throws UnknownHostException {
+        return InetAddress.getByAddress("somehost", new byte[] { 10, 0, 0, (byte) last });
+    }
+
+    @Test
+    void testPositiveEntryCachedUntilExpiry() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        final AtomicLong clock = new AtomicLong();
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(30),
+                TimeValue.ofSeconds(5), 16, 0, null, true, clock::get);
+
+        assertArrayEquals(delegate.result, resolver.resolve("somehost"));
+        assertArrayEquals(delegate.result, resolver.resolve("SomeHost"));
+        assertEquals(1, delegate.lookups.get());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        delegate.result = new InetAddress[] { address(2) };
+        assertArrayEquals(delegate.result, resolver.resolve("somehost"));
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    @Test
+    void testNegativeEntryCachedUntilExpiry() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        final AtomicLong clock = new AtomicLong();
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(30),
+                TimeValue.ofSeconds(5), 16, 0, null, true, clock::get);
+
+        assertThrows(UnknownHostException.class, () -> resolver.resolve("somehost"));
+        assertThrows(UnknownHostException.class, () -> resolver.resolve("somehost"));
+        assertEquals(1, delegate.lookups.get());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        delegate.result = new InetAddress[] { address(1) };
+        assertArrayEquals(delegate.result, resolver.resolve("somehost"));
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    @Test
+    void testRefreshAheadServesCurrentAddresses() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        final AtomicLong clock = new AtomicLong();
+        final List<Runnable> tasks = new ArrayList<>();
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(10),
+                TimeValue.ofSeconds(5), 16, 0.5, tasks::add, true, clock::get);
+
+        resolver.resolve("somehost");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        final InetAddress[] stale = delegate.result;
+        delegate.result = new InetAddress[] { address(2) };
+
+        assertArrayEquals(stale, resolver.resolve("somehost"));
+        assertArrayEquals(stale, resolver.resolve("somehost"));
+        assertEquals(1, tasks.size());
+        assertEquals(1, delegate.lookups.get());
+
+        tasks.get(0).run();
+        assertEquals(2, delegate.lookups.get());
+        assertArrayEquals(delegate.result, resolver.resolve("somehost"));
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    @Test
+    void testFailedRefreshRetriedOnNextHit() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        final AtomicLong clock = new AtomicLong();
+        final List<Runnable> tasks = new ArrayList<>();
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(10),
+                TimeValue.ofSeconds(5), 16, 0.5, tasks::add, true, clock::get);
+
+        final InetAddress[] current = resolver.resolve("somehost");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        delegate.result = null;
+
+        assertArrayEquals(current, resolver.resolve("somehost"));
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(2, delegate.lookups.get());
+
+        delegate.result = new InetAddress[] { address(2) };
+        assertArrayEquals(current, resolver.resolve("somehost"));
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        assertArrayEquals(delegate.result, resolver.resolve("somehost"));
+    }
+
+    @Test
+    void testConcurrentLookupsCollapsed() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        delegate.gate = new CountDownLatch(1);
+        final CachingDnsResolver resolver = CachingDnsResolver.custom()
+                .setDnsResolver(delegate)
+                .build();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<InetAddress[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> resolver.resolve("somehost")));
+            }
+            Thread.sleep(100);
+            delegate.gate.countDown();
+            for (final Future<InetAddress[]> future : futures) {
+                assertArrayEquals(delegate.result, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, delegate.lookups.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCacheSizeBounded() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        final AtomicLong clock = new AtomicLong();
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(30),
+                TimeValue.ofSeconds(5), 2, 0, null, false, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            clock.incrementAndGet();
+            resolver.resolve("host" + i);
+        }
+        assertEquals(2, resolver.size());
+        resolver.resolve("host4");
+        assertEquals(5, delegate.lookups.get());
+    }
+
+    @Test
+    void testEarliestStoredEntryEvictedPastRemovedEntries() throws Exception {
+        final CountingResolver delegate = new CountingResolver();
+        delegate.result = new InetAddress[] { address(1) };
+        final CachingDnsResolver resolver = new CachingDnsResolver(delegate, TimeValue.ofSeconds(30),
+                TimeValue.ofSeconds(5), 2, 0, null, false, () -> 0L);
+
+        resolver.resolve("host0");
+        resolver.resolve("host1");
+        for (int i = 0; i < 10; i++) {
+            resolver.evict("host0");
+            resolver.resolve("host0");
+        }
+        resolver.resolve("host2");
+        assertEquals(2, resolver.size());
+        final int lookups = delegate.lookups.get();
+
+        resolver.resolve("host0");
+        resolver.resolve("host2");
+        assertEquals(lookups, delegate.lookups.get());
+        resolver.resolve("host1");
+        assertEquals(lookups + 1, delegate.lookups.get());
+    }
+
+}
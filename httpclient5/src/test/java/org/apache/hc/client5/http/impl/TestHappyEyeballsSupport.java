@@ -0,0 +1,102 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestHappyEyeballsSupport {
+
+    private static InetSocketAddress address(final String ip) throws Exception {
+        return new InetSocketAddress(InetAddress.getByName(ip), 80);
+    }
+
+    @Test
+    void testSaturatedExecutorRunsAttemptOnCaller() throws Exception {
+        final ThreadPoolExecutor executor = HappyEyeballsSupport.createExecutor(1);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            final AtomicReference<Thread> runner = new AtomicReference<>();
+            executor.execute(() -> runner.set(Thread.currentThread()));
+            release.countDown();
+
+            Assertions.assertSame(Thread.currentThread(), runner.get());
+            Assertions.assertEquals(1, executor.getLargestPoolSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInterleaveAddressFamilies() throws Exception {
+        final List<InetSocketAddress> addresses = Arrays.asList(
+                address("2001:db8::1"), address("2001:db8::2"), address("2001:db8::3"),
+                address("192.0.2.1"), address("192.0.2.2"));
+        Assertions.assertEquals(Arrays.asList(
+                address("2001:db8::1"), address("192.0.2.1"), address("2001:db8::2"),
+                address("192.0.2.2"), address("2001:db8::3")),
+                HappyEyeballsSupport.sortAddresses(addresses, HappyEyeballsConfig.DEFAULT));
+    }
+
+    @Test
+    void testInterleaveStartsWithFirstFamily() throws Exception {
+        final List<InetSocketAddress> addresses = Arrays.asList(
+                address("192.0.2.1"), address("192.0.2.2"), address("2001:db8::1"));
+        Assertions.assertEquals(Arrays.asList(
+                address("192.0.2.1"), address("2001:db8::1"), address("192.0.2.2")),
+                HappyEyeballsSupport.sortAddresses(addresses, HappyEyeballsConfig.DEFAULT));
+    }
+
+    @Test
+    void testSingleFamilyOrInterleavingDisabled() throws Exception {
+        final List<InetSocketAddress> ipv4 = Arrays.asList(address("192.0.2.1"), address("192.0.2.2"));
+        Assertions.assertEquals(ipv4, HappyEyeballsSupport.sortAddresses(ipv4, HappyEyeballsConfig.DEFAULT));
+        final List<InetSocketAddress> mixed = Arrays.asList(
+                address("2001:db8::1"), address("2001:db8::2"), address("192.0.2.1"));
+        Assertions.assertEquals(mixed, HappyEyeballsSupport.sortAddresses(mixed, HappyEyeballsConfig.custom()
+                .setInterleaveAddressFamilies(false)
+                .build()));
+    }
+
+}
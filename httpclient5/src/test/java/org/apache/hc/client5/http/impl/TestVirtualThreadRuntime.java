@@ -0,0 +1,65 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.Test;
+
+class TestVirtualThreadRuntime {
+
+    @Test
+    void testExecutorRunsTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadRuntime.available(), "Virtual threads not supported");
+        final ExecutorService executorService = HttpClients.createVirtualThreadExecutor();
+        try {
+            final Future<Thread> future = executorService.submit(Thread::currentThread);
+            final Thread thread = future.get(5, TimeUnit.SECONDS);
+            assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+            assertTrue(thread.getName().startsWith("httpclient-"));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void testUnsupportedRuntime() {
+        assumeFalse(VirtualThreadRuntime.available(), "Virtual threads supported");
+        assertThrows(UnsupportedOperationException.class, HttpClients::createVirtualThreadExecutor);
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreadRuntime.newThreadFactory("test-"));
+    }
+
+}
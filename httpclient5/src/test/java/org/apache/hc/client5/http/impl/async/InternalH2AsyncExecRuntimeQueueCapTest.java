@@ -165,6 +165,7 @@ private static final class FakeH2ConnPool extends InternalH2ConnPool {
         @Override
         public Future<IOSession> getSession(
                 final HttpRoute route,
+                final SessionSlot slot,
                 final Timeout timeout,
                 final FutureCallback<IOSession> callback) {
             final CompletableFuture<IOSession> cf = CompletableFuture.completedFuture(session);
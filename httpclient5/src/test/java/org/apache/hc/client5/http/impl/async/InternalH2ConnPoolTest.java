@@ -0,0 +1,198 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InternalH2ConnPoolTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("http", "somehost", 80));
+
+    private ConnectionInitiator connectionInitiator;
+    private InternalH2ConnPool connPool;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        connectionInitiator = mock(ConnectionInitiator.class);
+        when(connectionInitiator.connect(
+                any(NamedEndpoint.class),
+                any(),
+                any(),
+                any(Timeout.class),
+                any(),
+                any(FutureCallback.class))).thenAnswer(invocation -> {
+                    final IOSession ioSession = mock(IOSession.class);
+                    when(ioSession.isOpen()).thenReturn(true);
+                    final FutureCallback<IOSession> callback = invocation.getArgument(5);
+                    callback.completed(ioSession);
+                    return CompletableFuture.completedFuture(ioSession);
+                });
+        connPool = new InternalH2ConnPool(connectionInitiator, host -> null, null);
+    }
+
+    private IOSession getSession(final InternalH2ConnPool.SessionSlot slot) throws Exception {
+        return connPool.getSession(ROUTE, slot, Timeout.ofSeconds(1), null).get();
+    }
+
+    private IOSession getSession() throws Exception {
+        return getSession(connPool.leaseSlot(ROUTE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyConnects(final int count) {
+        verify(connectionInitiator, times(count)).connect(
+                any(NamedEndpoint.class),
+                any(),
+                any(),
+                any(Timeout.class),
+                any(),
+                any(FutureCallback.class));
+    }
+
+    @Test
+    void testSingleSessionPerRouteByDefault() throws Exception {
+        final InternalH2ConnPool.SessionSlot slot1 = connPool.leaseSlot(ROUTE);
+        final InternalH2ConnPool.SessionSlot slot2 = connPool.leaseSlot(ROUTE);
+        assertSame(getSession(slot1), getSession(slot2));
+        verifyConnects(1);
+        assertEquals(2, connPool.getInFlight(ROUTE, 0));
+
+        slot1.release();
+        slot2.release();
+        assertEquals(0, connPool.getInFlight(ROUTE, 0));
+    }
+
+    @Test
+    void testRoundRobinAcrossSessions() throws Exception {
+        connPool.setMaxSessionsPerRoute(3);
+        final Set<IOSession> sessions = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            sessions.add(getSession());
+        }
+        assertEquals(3, sessions.size());
+        verifyConnects(3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2, connPool.getInFlight(ROUTE, i));
+        }
+    }
+
+    @Test
+    void testLeastStreamsPrefersIdleSession() throws Exception {
+        connPool.setMaxSessionsPerRoute(2);
+        connPool.setSessionSelectionPolicy(H2SessionSelectionPolicy.LEAST_STREAMS);
+
+        final IOSession session1 = getSession();
+        final IOSession session2 = getSession();
+        assertNotSame(session1, session2);
+        assertSame(session1, getSession());
+        assertEquals(2, connPool.getInFlight(ROUTE, 0));
+        assertEquals(1, connPool.getInFlight(ROUTE, 1));
+
+        // Round robin would pick the first session here
+        final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(ROUTE);
+        assertSame(session2, getSession(slot));
+        assertEquals(2, connPool.getInFlight(ROUTE, 1));
+        slot.release();
+        slot.release();
+        assertEquals(0, connPool.getInFlight(ROUTE, 1));
+        assertSame(session2, getSession());
+    }
+
+    @Test
+    void testClosedSessionIsReplaced() throws Exception {
+        final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(ROUTE);
+        final IOSession session1 = getSession(slot);
+        slot.release();
+        when(session1.isOpen()).thenReturn(false);
+
+        final IOSession session2 = getSession();
+        assertNotSame(session1, session2);
+        verifyConnects(2);
+        assertEquals(1, connPool.getInFlight(ROUTE, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSlotReleasedWhenConnectFails() throws Exception {
+        final ConnectionInitiator failing = mock(ConnectionInitiator.class);
+        when(failing.connect(
+                any(NamedEndpoint.class),
+                any(),
+                any(),
+                any(Timeout.class),
+                any(),
+                any(FutureCallback.class))).thenAnswer(invocation -> {
+                    final FutureCallback<IOSession> callback = invocation.getArgument(5);
+                    final IOException ex = new IOException("connect failed");
+                    callback.failed(ex);
+                    final CompletableFuture<IOSession> future = new CompletableFuture<>();
+                    future.completeExceptionally(ex);
+                    return future;
+                });
+        connPool = new InternalH2ConnPool(failing, host -> null, null);
+
+        final InternalH2ConnPool.SessionSlot slot = connPool.leaseSlot(ROUTE);
+        assertEquals(1, connPool.getInFlight(ROUTE, 0));
+        assertThrows(ExecutionException.class, () -> getSession(slot));
+        assertEquals(0, connPool.getInFlight(ROUTE, 0));
+    }
+
+    @Test
+    void testSessionKeyEquality() {
+        final InternalH2ConnPool.SessionKey key1 = new InternalH2ConnPool.SessionKey(ROUTE, 1);
+        assertEquals(key1, new InternalH2ConnPool.SessionKey(ROUTE, 1));
+        assertEquals(key1.hashCode(), new InternalH2ConnPool.SessionKey(ROUTE, 1).hashCode());
+        assertNotEquals(key1, new InternalH2ConnPool.SessionKey(ROUTE, 0));
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class TestAIMDConcurrencyLimit {
+
+    @Test
+    void testIncreasesWhenUtilized() {
+        final AIMDConcurrencyLimit limit = new AIMDConcurrencyLimit(10, 1, 100, 0.5);
+        limit.onSample(1000, 10, false);
+        assertEquals(11, limit.getLimit());
+        limit.onSample(1000, 6, false);
+        assertEquals(12, limit.getLimit());
+    }
+
+    @Test
+    void testDoesNotIncreaseWhenUnderutilized() {
+        final AIMDConcurrencyLimit limit = new AIMDConcurrencyLimit(10, 1, 100, 0.5);
+        limit.onSample(1000, 4, false);
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void testDecreasesOnOverload() {
+        final AIMDConcurrencyLimit limit = new AIMDConcurrencyLimit(10, 1, 100, 0.5);
+        limit.onSample(1000, 10, true);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(-1, 5, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void testStaysWithinBounds() {
+        final AIMDConcurrencyLimit limit = new AIMDConcurrencyLimit(2, 2, 3, 0.5);
+        limit.onSample(1000, 2, true);
+        assertEquals(2, limit.getLimit());
+        limit.onSample(1000, 2, false);
+        limit.onSample(1000, 3, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new AIMDConcurrencyLimit(10, 0, 100, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AIMDConcurrencyLimit(10, 20, 15, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AIMDConcurrencyLimit(200, 1, 100, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AIMDConcurrencyLimit(10, 1, 100, 1.0));
+    }
+
+}
@@ -0,0 +1,320 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.async.ConcurrencyLimit;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.CancellableDependency;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class TestAdaptiveConcurrencyLimitExec {
+
+    static class FixedLimit implements ConcurrencyLimit {
+
+        final int limit;
+        final List<Boolean> samples = new ArrayList<>();
+        long lastRtt;
+
+        FixedLimit(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public synchronized void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+            lastRtt = rttNanos;
+            samples.add(dropped);
+        }
+
+    }
+
+    private HttpRoute route;
+    private FixedLimit limit;
+    private AsyncExecChain chain;
+    private List<AsyncExecCallback> proceeded;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        route = new HttpRoute(new HttpHost("somehost", 80));
+        limit = new FixedLimit(2);
+        chain = mock(AsyncExecChain.class);
+        proceeded = new ArrayList<>();
+        doAnswer(invocation -> {
+            proceeded.add(invocation.getArgument(3));
+            return null;
+        }).when(chain).proceed(any(), any(), any(), any());
+    }
+
+    private AsyncExecChain.Scope newScope(final CancellableDependency dependency) {
+        return newScope(dependency, null);
+    }
+
+    private AsyncExecChain.Scope newScope(
+            final CancellableDependency dependency,
+            final AsyncExecChain.Scheduler scheduler) {
+        final HttpRequest request = new BasicHttpRequest(Method.GET, "/");
+        return new AsyncExecChain.Scope(
+                "test",
+                route,
+                request,
+                dependency,
+                HttpClientContext.create(),
+                mock(AsyncExecRuntime.class),
+                scheduler,
+                new AtomicInteger());
+    }
+
+    private void execute(
+            final AdaptiveConcurrencyLimitExec exec,
+            final CancellableDependency dependency,
+            final AsyncExecCallback callback) throws Exception {
+        final AsyncExecChain.Scope scope = newScope(dependency);
+        exec.execute(scope.originalRequest, null, scope, chain, callback);
+    }
+
+    @Test
+    void testRequestsInExcessOfLimitAreQueued() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+
+        for (int i = 0; i < 3; i++) {
+            execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        }
+        assertEquals(2, proceeded.size());
+        assertEquals(2, limiter.getInFlight(route));
+        assertEquals(1, limiter.getQueued(route));
+        assertEquals(2, limiter.getLimit(route));
+
+        final AsyncExecCallback first = proceeded.get(0);
+        first.handleResponse(new BasicHttpResponse(HttpStatus.SC_OK), null);
+        first.completed();
+
+        assertEquals(3, proceeded.size());
+        assertEquals(2, limiter.getInFlight(route));
+        assertEquals(0, limiter.getQueued(route));
+        assertEquals(1, limit.samples.size());
+        assertFalse(limit.samples.get(0));
+        assertTrue(limit.lastRtt >= 0);
+
+        proceeded.get(1).completed();
+        proceeded.get(2).completed();
+        assertEquals(0, limiter.getInFlight(route));
+    }
+
+    @Test
+    void testQueuedRequestDispatchedThroughScheduler() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+        final List<Runnable> scheduled = new ArrayList<>();
+        final AsyncExecChain.Scheduler scheduler = mock(AsyncExecChain.Scheduler.class);
+        doAnswer(invocation -> {
+            final HttpRequest request = invocation.getArgument(0);
+            final AsyncExecChain.Scope s = invocation.getArgument(2);
+            final AsyncExecChain c = invocation.getArgument(3);
+            final AsyncExecCallback cb = invocation.getArgument(4);
+            scheduled.add(() -> {
+                try {
+                    c.proceed(request, null, s, cb);
+                } catch (final Exception ex) {
+                    cb.failed(ex);
+                }
+            });
+            return null;
+        }).when(scheduler).scheduleExecution(any(), any(), any(), any(AsyncExecChain.class), any(), any());
+
+        final List<AsyncExecCallback> callbacks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+            callbacks.add(callback);
+            final AsyncExecChain.Scope scope = newScope(mock(CancellableDependency.class), scheduler);
+            exec.execute(scope.originalRequest, null, scope, chain, callback);
+        }
+        assertEquals(2, proceeded.size());
+
+        proceeded.get(0).completed();
+
+        final InOrder inOrder = inOrder(callbacks.get(0), scheduler);
+        inOrder.verify(callbacks.get(0)).completed();
+        inOrder.verify(scheduler).scheduleExecution(any(), any(), any(), any(AsyncExecChain.class), any(), any());
+        assertEquals(2, proceeded.size());
+        assertEquals(1, scheduled.size());
+        assertEquals(2, limiter.getInFlight(route));
+
+        scheduled.get(0).run();
+        assertEquals(3, proceeded.size());
+        proceeded.get(2).completed();
+        verify(callbacks.get(2)).completed();
+        proceeded.get(1).completed();
+        assertEquals(0, limiter.getInFlight(route));
+    }
+
+    @Test
+    void testQueuedRequestFailingToDispatch() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Boom");
+        }).when(chain).proceed(any(), any(), any(), any());
+        final AsyncExecCallback queued = mock(AsyncExecCallback.class);
+        execute(exec, mock(CancellableDependency.class), queued);
+
+        final AsyncExecCallback first = proceeded.get(0);
+        first.completed();
+
+        verify(queued).failed(any(IllegalStateException.class));
+        assertEquals(1, limiter.getInFlight(route));
+        assertEquals(0, limiter.getQueued(route));
+    }
+
+    @Test
+    void testRequestsRejectedWhenQueueFull() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 0);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        final AsyncExecCallback rejected = mock(AsyncExecCallback.class);
+        execute(exec, mock(CancellableDependency.class), rejected);
+
+        assertEquals(2, proceeded.size());
+        verify(rejected).failed(any(RejectedExecutionException.class));
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(0, limiter.getQueued(route));
+    }
+
+    @Test
+    void testOverloadSignalsReported() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+
+        execute(exec, mock(CancellableDependency.class), callback);
+        execute(exec, mock(CancellableDependency.class), callback);
+        proceeded.get(0).handleResponse(new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE), null);
+        proceeded.get(0).completed();
+        proceeded.get(1).failed(new ConnectException());
+        // Repeated completion must not release the permit twice
+        proceeded.get(1).failed(new ConnectException());
+
+        assertEquals(2, limit.samples.size());
+        assertTrue(limit.samples.get(0));
+        assertTrue(limit.samples.get(1));
+        assertEquals(0, limiter.getInFlight(route));
+        verify(callback, times(1)).completed();
+    }
+
+    @Test
+    void testFailureWithoutResponseNotSampled() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        proceeded.get(0).failed(new CancellationException());
+
+        assertTrue(limit.samples.isEmpty());
+        assertEquals(0, limiter.getInFlight(route));
+    }
+
+    @Test
+    void testQueuedRequestCancelled() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> limit, null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        final CancellableDependency dependency = mock(CancellableDependency.class);
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, dependency, callback);
+
+        final ArgumentCaptor<Cancellable> captor = ArgumentCaptor.forClass(Cancellable.class);
+        verify(dependency).setDependency(captor.capture());
+        assertTrue(captor.getValue().cancel());
+        verify(callback).failed(any(CancellationException.class));
+        assertEquals(0, limiter.getQueued(route));
+
+        proceeded.get(0).completed();
+        assertEquals(2, proceeded.size());
+        assertEquals(1, limiter.getInFlight(route));
+        verify(callback, never()).completed();
+    }
+
+    @Test
+    void testRoutesLimitedIndependently() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(() -> new FixedLimit(1), null, 10);
+        final AdaptiveConcurrencyLimitExec exec = new AdaptiveConcurrencyLimitExec(limiter);
+
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+        route = new HttpRoute(new HttpHost("otherhost", 80));
+        execute(exec, mock(CancellableDependency.class), mock(AsyncExecCallback.class));
+
+        assertEquals(2, proceeded.size());
+        assertEquals(2, limiter.getRoutes().size());
+        assertEquals(2, limiter.getTotalLimit());
+        assertEquals(2, limiter.getTotalInFlight());
+        verify(chain, times(2)).proceed(any(), eq(null), any(), any());
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TestGradientConcurrencyLimit {
+
+    @Test
+    void testIncreasesWhileLatencyIsFlat() {
+        final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 1.0);
+        limit.onSample(100, 10, false);
+        assertEquals(13, limit.getLimit());
+        limit.onSample(100, 13, false);
+        assertEquals(16, limit.getLimit());
+    }
+
+    @Test
+    void testDecreasesWhenLatencyRises() {
+        final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, 1.0);
+        limit.onSample(100, 20, false);
+        final int before = limit.getLimit();
+        limit.onSample(1000, before, false);
+        assertTrue(limit.getLimit() < before);
+    }
+
+    @Test
+    void testHalvesOnOverload() {
+        final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, 1.0);
+        limit.onSample(-1, 20, true);
+        assertEquals(10, limit.getLimit());
+        limit.onSample(-1, 10, true);
+        limit.onSample(-1, 10, true);
+        limit.onSample(-1, 10, true);
+        limit.onSample(-1, 10, true);
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    void testDoesNotGrowWhenUnderutilized() {
+        final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, 1.0);
+        limit.onSample(100, 5, false);
+        assertEquals(20, limit.getLimit());
+    }
+
+}
@@ -0,0 +1,426 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.HedgingConfig;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.CancellableDependency;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class TestHedgingAsyncExec {
+
+    static final class Execution {
+
+        final HttpRequest request;
+        final AsyncExecChain.Scope scope;
+        final AsyncExecCallback callback;
+        final Cancellable cancellable;
+
+        Execution(final HttpRequest request, final AsyncExecChain.Scope scope, final AsyncExecCallback callback) {
+            this.request = request;
+            this.scope = scope;
+            this.callback = callback;
+            this.cancellable = mock(Cancellable.class);
+            scope.cancellableDependency.setDependency(cancellable);
+        }
+
+    }
+
+    private AsyncExecChain chain;
+    private AsyncExecRuntime execRuntime;
+    private AsyncExecRuntime forkedRuntime;
+    private CancellableDependency dependency;
+    private List<Execution> executions;
+    private List<Runnable> scheduled;
+    private List<TimeValue> delays;
+    private AsyncExecChain.Scope scope;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        chain = mock(AsyncExecChain.class);
+        execRuntime = mock(AsyncExecRuntime.class);
+        forkedRuntime = mock(AsyncExecRuntime.class);
+        when(execRuntime.fork()).thenReturn(forkedRuntime);
+        dependency = mock(CancellableDependency.class);
+        executions = new ArrayList<>();
+        scheduled = new ArrayList<>();
+        delays = new ArrayList<>();
+        doAnswer(invocation -> {
+            executions.add(new Execution(invocation.getArgument(0), invocation.getArgument(2), invocation.getArgument(3)));
+            return null;
+        }).when(chain).proceed(any(), any(), any(), any());
+
+        final AsyncExecChain.Scheduler scheduler = mock(AsyncExecChain.Scheduler.class);
+        doAnswer(invocation -> {
+            final HttpRequest request = invocation.getArgument(0);
+            final AsyncExecChain.Scope s = invocation.getArgument(2);
+            final AsyncExecChain c = invocation.getArgument(3);
+            final AsyncExecCallback cb = invocation.getArgument(4);
+            delays.add(invocation.getArgument(5));
+            scheduled.add(() -> {
+                try {
+                    c.proceed(request, null, s, cb);
+                } catch (final Exception ex) {
+                    cb.failed(ex);
+                }
+            });
+            return null;
+        }).when(scheduler).scheduleExecution(any(), any(), any(), any(AsyncExecChain.class), any(), any());
+
+        scope = new AsyncExecChain.Scope(
+                "test",
+                new HttpRoute(new HttpHost("somehost", 80)),
+                new BasicHttpRequest(Method.GET, "/"),
+                dependency,
+                HttpClientContext.create(),
+                execRuntime,
+                scheduler,
+                new AtomicInteger(1));
+    }
+
+    private static HedgingConfig config(final int maxBudget) {
+        return HedgingConfig.custom()
+                .setDelay(50, TimeUnit.MILLISECONDS)
+                .setBudgetRatio(0)
+                .setMaxBudget(maxBudget)
+                .build();
+    }
+
+    private void execute(final HedgingAsyncExec exec, final String method, final AsyncExecCallback callback) throws Exception {
+        exec.execute(new BasicHttpRequest(method, "/"), null, scope, chain, callback);
+    }
+
+    @Test
+    void testNonIdempotentRequestNotHedged() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, Method.POST.name(), callback);
+
+        assertEquals(1, executions.size());
+        assertSame(scope, executions.get(0).scope);
+        assertSame(callback, executions.get(0).callback);
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void testResponseBeforeDelay() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, Method.GET.name(), callback);
+        assertEquals(1, scheduled.size());
+        assertEquals(TimeValue.ofMilliseconds(50), delays.get(0));
+
+        final Execution primary = executions.get(0);
+        final HttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+        primary.callback.handleResponse(response, null);
+        primary.callback.completed();
+        scheduled.get(0).run();
+
+        assertEquals(1, executions.size());
+        verify(callback).handleResponse(response, null);
+        verify(callback).completed();
+        verify(execRuntime, never()).fork();
+        assertEquals(0, exec.getHedgeCount());
+    }
+
+    @Test
+    void testScheduledHedgeDroppedOnResponse() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final HttpRequest request = new BasicHttpRequest(Method.GET, "/");
+        exec.execute(request, null, scope, chain, mock(AsyncExecCallback.class));
+
+        final ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        final ArgumentCaptor<AsyncExecChain.Scope> scopeCaptor = ArgumentCaptor.forClass(AsyncExecChain.Scope.class);
+        final ArgumentCaptor<AsyncExecChain> taskCaptor = ArgumentCaptor.forClass(AsyncExecChain.class);
+        verify(scope.scheduler).scheduleExecution(
+                requestCaptor.capture(), any(), scopeCaptor.capture(), taskCaptor.capture(), any(), any());
+        // The request is only copied once a hedged attempt is actually sent
+        assertSame(request, requestCaptor.getValue());
+        // The queued scope must not reach the exchange through its cancellable dependency
+        assertNotSame(dependency, scopeCaptor.getValue().cancellableDependency);
+        final HedgingAsyncExec.HedgeTask task = (HedgingAsyncExec.HedgeTask) taskCaptor.getValue();
+        assertFalse(task.isDropped());
+
+        final Execution primary = executions.get(0);
+        primary.callback.handleResponse(new BasicHttpResponse(HttpStatus.SC_OK), null);
+        assertTrue(task.isDropped());
+        primary.callback.completed();
+        scheduled.get(0).run();
+
+        assertEquals(1, executions.size());
+    }
+
+    @Test
+    void testHedgedAttemptWins() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        final AsyncDataConsumer consumer = mock(AsyncDataConsumer.class);
+        when(callback.handleResponse(any(), any())).thenReturn(consumer);
+        execute(exec, Method.GET.name(), callback);
+        scheduled.get(0).run();
+
+        assertEquals(2, executions.size());
+        final Execution primary = executions.get(0);
+        final Execution hedge = executions.get(1);
+        assertSame(execRuntime, primary.scope.execRuntime);
+        assertSame(forkedRuntime, hedge.scope.execRuntime);
+        assertTrue(primary.request != hedge.request);
+
+        final HttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+        assertSame(consumer, hedge.callback.handleResponse(response, null));
+        verify(primary.cancellable).cancel();
+        verify(hedge.cancellable, never()).cancel();
+
+        // The cancelled attempt must not leak into the result
+        assertNull(primary.callback.handleResponse(new BasicHttpResponse(HttpStatus.SC_OK), null));
+        primary.callback.failed(new IOException("Cancelled"));
+        hedge.callback.completed();
+
+        verify(callback).handleResponse(response, null);
+        verify(callback).completed();
+        verify(callback, never()).failed(any());
+        verify(forkedRuntime).releaseEndpoint();
+        assertEquals(1, exec.getHedgeCount());
+        assertEquals(1, exec.getHedgeWinCount());
+    }
+
+    @Test
+    void testAttemptsExecuteWithSeparateContexts() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        scope.clientContext.setAttribute("custom", "value");
+        execute(exec, Method.GET.name(), callback);
+        scheduled.get(0).run();
+
+        final Execution primary = executions.get(0);
+        final Execution hedge = executions.get(1);
+        assertNotSame(scope.clientContext, primary.scope.clientContext);
+        assertNotSame(scope.clientContext, hedge.scope.clientContext);
+        assertNotSame(primary.scope.clientContext, hedge.scope.clientContext);
+        assertEquals("value", hedge.scope.clientContext.getAttribute("custom"));
+
+        final HttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+        hedge.scope.clientContext.setResponse(response);
+        hedge.callback.handleResponse(response, null);
+        assertSame(response, scope.clientContext.getResponse());
+        hedge.scope.clientContext.setUserToken("hedge");
+
+        // The losing attempt updates its own context only
+        final HttpResponse lost = new BasicHttpResponse(HttpStatus.SC_OK);
+        primary.scope.clientContext.setResponse(lost);
+        primary.scope.clientContext.setUserToken("primary");
+        primary.callback.handleResponse(lost, null);
+        primary.callback.failed(new IOException("Cancelled"));
+        hedge.callback.completed();
+
+        assertSame(response, scope.clientContext.getResponse());
+        assertEquals("hedge", scope.clientContext.getUserToken());
+        verify(callback).completed();
+    }
+
+    @Test
+    void testFailedAttemptWaitsForOther() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, Method.GET.name(), callback);
+        scheduled.get(0).run();
+
+        final Execution primary = executions.get(0);
+        final Execution hedge = executions.get(1);
+        primary.callback.failed(new SocketTimeoutException());
+        verify(callback, never()).failed(any());
+
+        hedge.callback.handleResponse(new BasicHttpResponse(HttpStatus.SC_OK), null);
+        hedge.callback.completed();
+        verify(forkedRuntime).releaseEndpoint();
+        verify(callback).completed();
+        verify(callback, never()).failed(any());
+    }
+
+    @Test
+    void testAllAttemptsFailed() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, Method.GET.name(), callback);
+        scheduled.get(0).run();
+
+        executions.get(0).callback.failed(new SocketTimeoutException());
+        final IOException last = new IOException("Connection reset");
+        executions.get(1).callback.failed(last);
+        verify(forkedRuntime).discardEndpoint();
+        verify(callback).failed(last);
+    }
+
+    @Test
+    void testFailureBeforeDelaySuppressesHedge() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        final AsyncExecCallback callback = mock(AsyncExecCallback.class);
+        execute(exec, Method.GET.name(), callback);
+
+        final IOException cause = new IOException("Connection reset");
+        executions.get(0).callback.failed(cause);
+        scheduled.get(0).run();
+
+        assertEquals(1, executions.size());
+        verify(callback).failed(cause);
+    }
+
+    @Test
+    void testBudgetLimitsHedges() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(1));
+        execute(exec, Method.GET.name(), mock(AsyncExecCallback.class));
+        scheduled.get(0).run();
+        execute(exec, Method.GET.name(), mock(AsyncExecCallback.class));
+        scheduled.get(1).run();
+
+        assertEquals(3, executions.size());
+        assertEquals(1, exec.getHedgeCount());
+    }
+
+    @Test
+    void testCancellationPropagatesToAllAttempts() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(config(10));
+        execute(exec, Method.GET.name(), mock(AsyncExecCallback.class));
+        scheduled.get(0).run();
+
+        final ArgumentCaptor<Cancellable> captor = ArgumentCaptor.forClass(Cancellable.class);
+        verify(dependency).setDependency(captor.capture());
+        captor.getValue().cancel();
+        verify(executions.get(0).cancellable).cancel();
+        verify(executions.get(1).cancellable).cancel();
+    }
+
+    @Test
+    void testDelayDerivedFromPercentile() throws Exception {
+        final HedgingAsyncExec exec = new HedgingAsyncExec(HedgingConfig.custom()
+                .setDelay(5, TimeUnit.SECONDS)
+                .setPercentile(0.95)
+                .setMinDelay(TimeValue.ZERO_MILLISECONDS)
+                .build());
+        assertEquals(TimeValue.ofSeconds(5), exec.getDelay());
+        for (int i = 0; i < 32; i++) {
+            execute(exec, Method.GET.name(), mock(AsyncExecCallback.class));
+            final Execution primary = executions.get(executions.size() - 1);
+            primary.callback.handleResponse(new BasicHttpResponse(HttpStatus.SC_OK), null);
+            primary.callback.completed();
+        }
+        assertTrue(exec.getDelay().compareTo(TimeValue.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(30)
+    void testSlowResponseHedgedEndToEnd() throws Exception {
+        final AtomicInteger requestCount = new AtomicInteger();
+        final HttpServer server = ServerBootstrap.bootstrap()
+                .setListenerPort(0)
+                .register("*", (request, response, context) -> {
+                    if (requestCount.getAndIncrement() == 0) {
+                        try {
+                            Thread.sleep(5000);
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    response.setEntity(new StringEntity("ok"));
+                })
+                .create();
+        server.start();
+        try {
+            final PoolingAsyncClientConnectionManager connManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                    .build();
+            try (CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setConnectionManager(connManager)
+                    .setHedgingConfig(HedgingConfig.custom()
+                            .setDelay(100, TimeUnit.MILLISECONDS)
+                            .build())
+                    .build()) {
+                client.start();
+                final long start = System.nanoTime();
+                final SimpleHttpResponse response = client.execute(
+                        SimpleRequestBuilder.get("http://localhost:" + server.getLocalPort() + "/").build(),
+                        null).get(30, TimeUnit.SECONDS);
+                assertEquals(HttpStatus.SC_OK, response.getCode());
+                assertEquals("ok", response.getBodyText());
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+                assertEquals(2, requestCount.get());
+
+                // The connection of the cancelled attempt must not stay leased
+                for (int i = 0; i < 50 && connManager.getTotalStats().getLeased() > 0; i++) {
+                    Thread.sleep(100);
+                }
+                assertEquals(0, connManager.getTotalStats().getLeased());
+            }
+        } finally {
+            server.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+}
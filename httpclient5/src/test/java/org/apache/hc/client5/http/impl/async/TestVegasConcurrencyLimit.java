@@ -0,0 +1,69 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TestVegasConcurrencyLimit {
+
+    @Test
+    void testIncreasesWhileLatencyIsFlat() {
+        final VegasConcurrencyLimit limit = new VegasConcurrencyLimit(10, 1, 100);
+        // First sample establishes the latency without load
+        limit.onSample(100, 10, false);
+        assertEquals(10, limit.getLimit());
+        limit.onSample(100, 10, false);
+        assertEquals(16, limit.getLimit());
+    }
+
+    @Test
+    void testDecreasesWhenLatencyRises() {
+        final VegasConcurrencyLimit limit = new VegasConcurrencyLimit(16, 1, 100);
+        limit.onSample(100, 16, false);
+        limit.onSample(1000, 16, false);
+        assertEquals(15, limit.getLimit());
+    }
+
+    @Test
+    void testDecreasesOnOverload() {
+        final VegasConcurrencyLimit limit = new VegasConcurrencyLimit(16, 1, 100);
+        limit.onSample(-1, 16, true);
+        assertEquals(15, limit.getLimit());
+    }
+
+    @Test
+    void testIgnoresSamplesWhenUnderutilized() {
+        final VegasConcurrencyLimit limit = new VegasConcurrencyLimit(10, 1, 100);
+        limit.onSample(100, 10, false);
+        limit.onSample(1000, 2, false);
+        limit.onSample(-1, 10, false);
+        assertEquals(10, limit.getLimit());
+    }
+
+}
@@ -27,14 +27,22 @@
 
 package org.apache.hc.client5.http.impl.io;
 
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLSocket;
@@ -44,6 +52,7 @@
 import org.apache.hc.client5.http.HttpHostConnectException;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.UnsupportedSchemeException;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.io.DetachedSocketFactory;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
@@ -235,6 +244,132 @@ void testConnectFailover() throws Exception {
 
     }
 
+    @Test
+    void testConnectHappyEyeballsSlowFirstAddress() throws Exception {
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpHost host = new HttpHost("somehost");
+        final InetSocketAddress ipAddress1 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 80);
+        final InetSocketAddress ipAddress2 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 2}), 80);
+        final Socket socket1 = Mockito.mock(Socket.class);
+        final Socket socket2 = Mockito.mock(Socket.class);
+        final CountDownLatch socket1Closed = new CountDownLatch(1);
+
+        Mockito.when(dnsResolver.resolve("somehost", 80)).thenReturn(Arrays.asList(ipAddress1, ipAddress2));
+        Mockito.when(schemePortResolver.resolve(host.getSchemeName(), host)).thenReturn(80);
+        Mockito.when(detachedSocketFactory.create(Mockito.any(), Mockito.any())).thenReturn(socket1, socket2);
+        Mockito.doAnswer(invocation -> {
+            socket1Closed.await(5, TimeUnit.SECONDS);
+            throw new SocketException("Socket closed");
+        }).when(socket1).connect(Mockito.eq(ipAddress1), Mockito.anyInt());
+        Mockito.doAnswer(invocation -> {
+            socket1Closed.countDown();
+            return null;
+        }).when(socket1).close();
+
+        final DefaultHttpClientConnectionOperator racingOperator = new DefaultHttpClientConnectionOperator(
+                detachedSocketFactory, schemePortResolver, dnsResolver, tlsSocketStrategyLookup,
+                HappyEyeballsConfig.custom()
+                        .setAttemptDelay(TimeValue.ofMilliseconds(50))
+                        .build());
+        racingOperator.connect(conn, host, null, null,
+                Timeout.ofSeconds(5), SocketConfig.DEFAULT, null, context);
+
+        Mockito.verify(socket2).connect(ipAddress2, 5000);
+        Mockito.verify(conn).bind(socket2);
+        Mockito.verify(conn, Mockito.never()).bind(socket1);
+        Assertions.assertTrue(socket1Closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testConnectHappyEyeballsFailure() throws Exception {
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpHost host = new HttpHost("somehost");
+        final InetSocketAddress ipAddress1 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 80);
+        final InetSocketAddress ipAddress2 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 2}), 80);
+
+        Mockito.when(dnsResolver.resolve("somehost", 80)).thenReturn(Arrays.asList(ipAddress1, ipAddress2));
+        Mockito.when(schemePortResolver.resolve(host.getSchemeName(), host)).thenReturn(80);
+        Mockito.when(detachedSocketFactory.create(Mockito.any(), Mockito.any())).thenReturn(socket);
+        Mockito.doThrow(new ConnectException()).when(socket).connect(Mockito.any(), Mockito.anyInt());
+
+        final DefaultHttpClientConnectionOperator racingOperator = new DefaultHttpClientConnectionOperator(
+                detachedSocketFactory, schemePortResolver, dnsResolver, tlsSocketStrategyLookup,
+                HappyEyeballsConfig.DEFAULT);
+        Assertions.assertThrows(HttpHostConnectException.class, () ->
+                racingOperator.connect(conn, host, null, null,
+                        Timeout.ofSeconds(5), SocketConfig.DEFAULT, null, context));
+        Mockito.verify(socket).connect(ipAddress1, 5000);
+        Mockito.verify(socket).connect(ipAddress2, 5000);
+        Mockito.verify(conn, Mockito.never()).bind(socket);
+    }
+
+    @Test
+    void testConnectHappyEyeballsAbortedByConnectionClose() throws Exception {
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpHost host = new HttpHost("somehost");
+        final InetSocketAddress ipAddress1 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 80);
+        final InetSocketAddress ipAddress2 = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 2}), 80);
+        final Socket socket1 = Mockito.mock(Socket.class);
+        final Socket socket2 = Mockito.mock(Socket.class);
+        final CountDownLatch socket1Closed = new CountDownLatch(1);
+        final CountDownLatch socket2Closed = new CountDownLatch(1);
+        final CountDownLatch connecting = new CountDownLatch(2);
+
+        Mockito.when(dnsResolver.resolve("somehost", 80)).thenReturn(Arrays.asList(ipAddress1, ipAddress2));
+        Mockito.when(schemePortResolver.resolve(host.getSchemeName(), host)).thenReturn(80);
+        Mockito.when(detachedSocketFactory.create(Mockito.any(), Mockito.any())).thenReturn(socket1, socket2);
+        Mockito.doAnswer(invocation -> {
+            connecting.countDown();
+            socket1Closed.await(30, TimeUnit.SECONDS);
+            throw new SocketException("Socket closed");
+        }).when(socket1).connect(Mockito.eq(ipAddress1), Mockito.anyInt());
+        Mockito.doAnswer(invocation -> {
+            connecting.countDown();
+            socket2Closed.await(30, TimeUnit.SECONDS);
+            throw new SocketException("Socket closed");
+        }).when(socket2).connect(Mockito.eq(ipAddress2), Mockito.anyInt());
+        Mockito.doAnswer(invocation -> {
+            socket1Closed.countDown();
+            return null;
+        }).when(socket1).close();
+        Mockito.doAnswer(invocation -> {
+            socket2Closed.countDown();
+            return null;
+        }).when(socket2).close();
+
+        // Closing the connection closes the socket bound to it
+        final List<Socket> bound = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            bound.add(invocation.getArgument(0));
+            return null;
+        }).when(conn).bind(Mockito.any(Socket.class));
+
+        final DefaultHttpClientConnectionOperator racingOperator = new DefaultHttpClientConnectionOperator(
+                detachedSocketFactory, schemePortResolver, dnsResolver, tlsSocketStrategyLookup,
+                HappyEyeballsConfig.custom()
+                        .setAttemptDelay(TimeValue.ofMilliseconds(10))
+                        .build());
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = executorService.submit(() -> {
+                racingOperator.connect(conn, host, null, null,
+                        Timeout.ofSeconds(30), SocketConfig.DEFAULT, null, context);
+                return null;
+            });
+            Assertions.assertTrue(connecting.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, bound.size());
+            bound.get(0).close();
+
+            final ExecutionException ex = Assertions.assertThrows(ExecutionException.class,
+                    () -> future.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(InterruptedIOException.class, ex.getCause());
+            Assertions.assertTrue(socket1Closed.await(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(socket2Closed.await(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     void testConnectExplicitAddress() throws Exception {
         final HttpClientContext context = HttpClientContext.create();
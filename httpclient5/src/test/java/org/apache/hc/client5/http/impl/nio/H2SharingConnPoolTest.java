@@ -36,6 +36,7 @@
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.pool.ManagedConnPool;
 import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -349,6 +350,86 @@ void testReleaseNonReusableNotInCacheReturnedToPool() throws Exception {
         Assertions.assertThrows(IllegalStateException.class, () -> h2SharingPool.release(poolEntry, false));
     }
 
+    @Test
+    void testLeaseNewConnectionWhenSharedConnectionSaturated() throws Exception {
+        h2SharingPool = new H2SharingConnPool<>(connPool, 2);
+        final PoolEntry<String, HttpConnection> poolEntry = new PoolEntry<>(DEFAULT_ROUTE);
+        final HttpConnection conn = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn.isOpen()).thenReturn(true);
+        poolEntry.assignConnection(conn);
+        final H2SharingConnPool.PerRoutePool<String, HttpConnection> routePool = h2SharingPool.getPerRoutePool(DEFAULT_ROUTE);
+        routePool.track(poolEntry);
+
+        Mockito.when(connPool.getStats(DEFAULT_ROUTE)).thenReturn(new PoolStats(1, 0, 0, 5));
+        Mockito.when(connPool.getMaxPerRoute(DEFAULT_ROUTE)).thenReturn(5);
+        Mockito.when(connPool.lease(
+                Mockito.eq(DEFAULT_ROUTE),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any())).thenReturn(new BasicFuture<>(null));
+
+        Assertions.assertSame(poolEntry, h2SharingPool.lease(DEFAULT_ROUTE, null, Timeout.ONE_MILLISECOND, null).get());
+        Assertions.assertEquals(2, routePool.getCount(poolEntry));
+
+        final Future<PoolEntry<String, HttpConnection>> result = h2SharingPool.lease(DEFAULT_ROUTE, null, Timeout.ONE_MILLISECOND, callback);
+        Assertions.assertFalse(result.isDone());
+        Assertions.assertEquals(2, routePool.getCount(poolEntry));
+        Mockito.verify(connPool).lease(
+                Mockito.eq(DEFAULT_ROUTE),
+                Mockito.eq(null),
+                Mockito.eq(Timeout.ONE_MILLISECOND),
+                Mockito.any());
+    }
+
+    @Test
+    void testLeaseSaturatedConnectionWhenRouteAtCapacity() throws Exception {
+        h2SharingPool = new H2SharingConnPool<>(connPool, 1);
+        final H2SharingConnPool.PerRoutePool<String, HttpConnection> routePool = h2SharingPool.getPerRoutePool(DEFAULT_ROUTE);
+        final PoolEntry<String, HttpConnection> poolEntry1 = new PoolEntry<>(DEFAULT_ROUTE);
+        final PoolEntry<String, HttpConnection> poolEntry2 = new PoolEntry<>(DEFAULT_ROUTE);
+        final HttpConnection conn = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn.isOpen()).thenReturn(true);
+        poolEntry1.assignConnection(conn);
+        poolEntry2.assignConnection(conn);
+        routePool.track(poolEntry1);
+        routePool.track(poolEntry2);
+        routePool.track(poolEntry2);
+
+        Mockito.when(connPool.getStats(DEFAULT_ROUTE)).thenReturn(new PoolStats(2, 0, 0, 2));
+        Mockito.when(connPool.getMaxPerRoute(DEFAULT_ROUTE)).thenReturn(2);
+
+        final Future<PoolEntry<String, HttpConnection>> future =
+                h2SharingPool.lease(DEFAULT_ROUTE, null, Timeout.ONE_MILLISECOND, callback);
+        Assertions.assertSame(poolEntry1, future.get());
+        Assertions.assertEquals(2, routePool.getCount(poolEntry1));
+        Mockito.verify(connPool, Mockito.never()).lease(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any());
+    }
+
+    @Test
+    void testClosedConnectionDrained() throws Exception {
+        final PoolEntry<String, HttpConnection> poolEntry = new PoolEntry<>(DEFAULT_ROUTE);
+        poolEntry.assignConnection(connection);
+        Mockito.when(connection.isOpen()).thenReturn(true);
+        final H2SharingConnPool.PerRoutePool<String, HttpConnection> routePool = h2SharingPool.getPerRoutePool(DEFAULT_ROUTE);
+        routePool.track(poolEntry);
+        routePool.track(poolEntry);
+
+        // GOAWAY received: the connection is no longer open for new exchanges
+        Mockito.when(connection.isOpen()).thenReturn(false);
+        Assertions.assertNull(routePool.lease(false));
+        Assertions.assertNull(routePool.lease(true));
+
+        h2SharingPool.release(poolEntry, true);
+        Mockito.verify(connPool, Mockito.never()).release(Mockito.any(), Mockito.anyBoolean());
+        h2SharingPool.release(poolEntry, true);
+        Mockito.verify(connPool).release(Mockito.same(poolEntry), Mockito.eq(true));
+        Assertions.assertEquals(0, routePool.getCount(poolEntry));
+    }
+
     @Test
     void testClose() throws Exception {
         h2SharingPool.close();
@@ -26,6 +26,8 @@
  */
 package org.apache.hc.client5.http.impl.nio;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.pool.PoolEntry;
@@ -80,6 +82,44 @@ void testLeaseEmptyPool() {
         Assertions.assertNull(pool.lease());
     }
 
+    @Test
+    void testLeaseRespectsStreamLimit() {
+        pool = new H2SharingConnPool.PerRoutePool<>(2);
+        pool.track(poolEntry1);
+        pool.track(poolEntry2);
+        pool.track(poolEntry2);
+
+        Assertions.assertSame(poolEntry1, pool.lease());
+        Assertions.assertNull(pool.lease());
+        Assertions.assertTrue(pool.hasOpenConnections());
+        Assertions.assertNotNull(pool.lease(true));
+        Assertions.assertEquals(5, pool.getCount(poolEntry1) + pool.getCount(poolEntry2));
+    }
+
+    @Test
+    void testConcurrentLeasesRespectStreamLimit() throws Exception {
+        final H2SharingConnPool.PerRoutePool<String, HttpConnection> routePool = new H2SharingConnPool.PerRoutePool<>(50);
+        routePool.track(poolEntry1);
+
+        final AtomicInteger leased = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < 20; n++) {
+                    if (routePool.lease(false) != null) {
+                        leased.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(49, leased.get());
+        Assertions.assertEquals(50, routePool.getCount(poolEntry1));
+    }
+
     @Test
     void testReleaseReusable() {
         pool.track(poolEntry1);
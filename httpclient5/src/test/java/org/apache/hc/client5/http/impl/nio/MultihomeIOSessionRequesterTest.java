@@ -30,6 +30,8 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,12 +44,15 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.config.HappyEyeballsConfig;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -158,4 +163,88 @@ void testConnectSuccessfulAfterRetries() throws Exception {
             fail("Did not expect an ExecutionException", ex);
         }
     }
+
+    @Test
+    void testStaggeredConnectSlowFirstAddress() throws Exception {
+        final InetAddress address1 = InetAddress.getByAddress(new byte[]{10, 0, 0, 1});
+        final InetAddress address2 = InetAddress.getByAddress(new byte[]{10, 0, 0, 2});
+        final List<InetSocketAddress> remoteAddresses = Arrays.asList(
+                new InetSocketAddress(address1, 8080),
+                new InetSocketAddress(address2, 8080)
+        );
+
+        Mockito.when(namedEndpoint.getHostName()).thenReturn("somehost");
+        Mockito.when(namedEndpoint.getPort()).thenReturn(8080);
+        Mockito.when(dnsResolver.resolve("somehost", 8080)).thenReturn(remoteAddresses);
+
+        final CompletableFuture<IOSession> pendingAttempt = new CompletableFuture<>();
+        final IOSession mockSession = Mockito.mock(IOSession.class);
+        Mockito.when(connectionInitiator.connect(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    final FutureCallback<IOSession> callback = invocation.getArgument(5);
+                    final InetSocketAddress remoteAddress = invocation.getArgument(1);
+                    if (remoteAddress.getAddress().equals(address1)) {
+                        // Never completes
+                        return pendingAttempt;
+                    }
+                    callback.completed(mockSession);
+                    return CompletableFuture.completedFuture(mockSession);
+                });
+
+        final MultihomeIOSessionRequester racingRequester = new MultihomeIOSessionRequester(dnsResolver,
+                HappyEyeballsConfig.custom()
+                        .setAttemptDelay(TimeValue.ofMilliseconds(50))
+                        .build());
+        final Future<IOSession> future = racingRequester.connect(
+                connectionInitiator,
+                namedEndpoint,
+                null,
+                Timeout.ofSeconds(5),
+                null,
+                null
+        );
+
+        assertSame(mockSession, future.get(5, TimeUnit.SECONDS));
+        assertTrue(pendingAttempt.isCancelled());
+        Mockito.verify(connectionInitiator, Mockito.times(2)).connect(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testStaggeredConnectAllAddressesFail() throws Exception {
+        final InetAddress address1 = InetAddress.getByAddress(new byte[]{10, 0, 0, 1});
+        final InetAddress address2 = InetAddress.getByAddress(new byte[]{10, 0, 0, 2});
+        final List<InetSocketAddress> remoteAddresses = Arrays.asList(
+                new InetSocketAddress(address1, 8080),
+                new InetSocketAddress(address2, 8080)
+        );
+
+        Mockito.when(namedEndpoint.getHostName()).thenReturn("somehost");
+        Mockito.when(namedEndpoint.getPort()).thenReturn(8080);
+        Mockito.when(dnsResolver.resolve("somehost", 8080)).thenReturn(remoteAddresses);
+
+        Mockito.when(connectionInitiator.connect(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    final FutureCallback<IOSession> callback = invocation.getArgument(5);
+                    final CompletableFuture<IOSession> future = new CompletableFuture<>();
+                    callback.failed(new IOException("Simulated connection failure"));
+                    future.completeExceptionally(new IOException("Simulated connection failure"));
+                    return future;
+                });
+
+        final MultihomeIOSessionRequester racingRequester = new MultihomeIOSessionRequester(dnsResolver,
+                HappyEyeballsConfig.DEFAULT);
+        final Future<IOSession> future = racingRequester.connect(
+                connectionInitiator,
+                namedEndpoint,
+                null,
+                Timeout.ofSeconds(5),
+                null,
+                null
+        );
+
+        final ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, ex.getCause());
+        Mockito.verify(connectionInitiator, Mockito.times(2)).connect(any(), any(), any(), any(), any(), any());
+    }
+
 }